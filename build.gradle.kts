@@ -3,15 +3,19 @@ plugins {
 	id("org.springframework.boot") version "3.3.1"
 	id("io.spring.dependency-management") version "1.1.5"
 	id("io.freefair.lombok") version "6.3.0"
+	id("me.champeau.jmh") version "0.7.2"
 	jacoco
 }
 
 group = "com"
 version = "0.0.1-SNAPSHOT"
 
+// Java 17 by default; -PjavaVersion=21 builds and runs on 21, which the virtual-threads profile needs
+val javaVersion = providers.gradleProperty("javaVersion").map(String::toInt).getOrElse(17)
+
 java {
 	toolchain {
-		languageVersion = JavaLanguageVersion.of(17)
+		languageVersion = JavaLanguageVersion.of(javaVersion)
 	}
 }
 
@@ -19,6 +23,15 @@ repositories {
 	mavenCentral()
 }
 
+// HTTP load generator (src/loadtest), run with ./gradlew loadTest
+val loadtest: SourceSet by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output
+	runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadtest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadtest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
 	compileOnly("org.projectlombok:lombok")
 	annotationProcessor("org.projectlombok:lombok")
@@ -27,15 +40,23 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-web")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
 	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	implementation("com.fasterxml.jackson.datatype:jackson-datatype-hibernate6")
+	implementation("com.github.ben-manes.caffeine:caffeine")
 	implementation("org.flywaydb:flyway-core")
 	implementation("org.flywaydb:flyway-database-postgresql")
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.2.0")
 	implementation("org.mapstruct:mapstruct:1.5.5.Final")
 	annotationProcessor("org.mapstruct:mapstruct-processor:1.5.5.Final")
-	runtimeOnly("org.postgresql:postgresql")
+	// Compile-time for LISTEN/NOTIFY (ProductCacheNotifier)
+	implementation("org.postgresql:postgresql")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testImplementation("org.springframework.security:spring-security-test")
+	testRuntimeOnly("com.h2database:h2")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+	jmh("com.h2database:h2")
+	"loadtestImplementation"("org.hdrhistogram:HdrHistogram:2.2.2")
+	"loadtestRuntimeOnly"("com.h2database:h2")
 }
 
 tasks.withType<Test> {
@@ -52,6 +73,40 @@ tasks.jacocoTestReport {
 	}
 }
 
+jmh {
+	warmupIterations = 2
+	iterations = 5
+	fork = 1
+	// Machine-readable results, one file per version, so regressions can be diffed across releases
+	resultFormat = "JSON"
+	resultsFile = layout.buildDirectory.file("results/jmh/results-${project.version}.json")
+	providers.gradleProperty("jmhIncludes").orNull?.let { includes = listOf(it) }
+}
+
+// The load generator runs one virtual thread per request, so it is compiled for and run on Java 21
+val java21 = javaToolchains.launcherFor { languageVersion = JavaLanguageVersion.of(21) }
+
+tasks.named<JavaCompile>(loadtest.compileJavaTaskName) {
+	javaCompiler = javaToolchains.compilerFor { languageVersion = JavaLanguageVersion.of(21) }
+}
+
+tasks.register<JavaExec>("loadTest") {
+	group = "verification"
+	description = "Boots the app on H2 or a local PostgreSQL and drives an HTTP load mix (-PloadTest.* options)"
+	classpath = loadtest.runtimeClasspath
+	mainClass = "com.banco_financiera.loadtest.LoadTestRunner"
+	javaLauncher = java21
+	// Prints the stack of any virtual thread that blocks while pinned to its carrier (see the virtual-threads profile)
+	jvmArgs("-Djdk.tracePinnedThreads=short")
+	systemProperties(providers.gradlePropertiesPrefixedBy("loadTest.").get())
+}
+
+tasks.named<org.springframework.boot.gradle.tasks.run.BootRun>("bootRun") {
+	if (javaVersion >= 21) {
+		jvmArgs("-Djdk.tracePinnedThreads=short")
+	}
+}
+
 jacoco {
 	toolVersion = "0.8.8"
 }
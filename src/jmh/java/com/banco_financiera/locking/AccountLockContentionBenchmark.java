@@ -0,0 +1,92 @@
+package com.banco_financiera.locking;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Throughput of balance mutations guarded by account locks, with 64 concurrent callers
+ * spread over 1, 10 or 10,000 distinct accounts. The critical section burns a fixed
+ * amount of CPU to stand in for the read-modify-write done by the transaction service.
+ * The global lock variant is the "serialize everything upstream" baseline.
+ *
+ * Run with: ./gradlew jmh -PjmhIncludes=AccountLockContentionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+public class AccountLockContentionBenchmark {
+
+    private static final int CRITICAL_SECTION_TOKENS = 200;
+
+    @Param({"1", "10", "10000"})
+    public int accounts;
+
+    private StripedAccountLockManager lockManager;
+    private ReentrantLock globalLock;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lockManager = new StripedAccountLockManager(1024, 5_000);
+        globalLock = new ReentrantLock();
+    }
+
+    @Benchmark
+    public void depositStriped() {
+        long productId = ThreadLocalRandom.current().nextLong(accounts) + 1;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            lockManager.lockAccounts(productId);
+            Blackhole.consumeCPU(CRITICAL_SECTION_TOKENS);
+        } finally {
+            completeTransaction();
+        }
+    }
+
+    @Benchmark
+    public void transferStriped() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long from = random.nextLong(accounts) + 1;
+        long to = random.nextLong(accounts) + 1;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            lockManager.lockAccounts(from, to);
+            Blackhole.consumeCPU(CRITICAL_SECTION_TOKENS);
+        } finally {
+            completeTransaction();
+        }
+    }
+
+    @Benchmark
+    public void depositGlobalLock() {
+        globalLock.lock();
+        try {
+            Blackhole.consumeCPU(CRITICAL_SECTION_TOKENS);
+        } finally {
+            globalLock.unlock();
+        }
+    }
+
+    private static void completeTransaction() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+    }
+}
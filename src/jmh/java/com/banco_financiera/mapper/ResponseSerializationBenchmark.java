@@ -0,0 +1,101 @@
+package com.banco_financiera.mapper;
+
+import com.banco_financiera.dto.TransactionResponseDTO;
+import com.banco_financiera.enums.AccountStatus;
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.models.Product;
+import com.banco_financiera.models.Transaction;
+import com.banco_financiera.models.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing responses as entity graphs versus mapping them to response DTOs and serializing those:
+ * a deposit as the {@code Transaction} entity, which drags in its {@code Product} and that product's
+ * {@code User}, versus {@link TransactionResponseDTO} (ids, amount and new balance only); and a product
+ * with its user versus {@code ProductResponseDTO}. Payload sizes are printed at setup.
+ *
+ * Run with: ./gradlew jmh -PjmhIncludes=ResponseSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResponseSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final TransactionMapper transactionMapper = Mappers.getMapper(TransactionMapper.class);
+    private final ProductMapper productMapper = Mappers.getMapper(ProductMapper.class);
+
+    private Product product;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        User user = new User();
+        user.setId(1L);
+        user.setIdentificationType("CC");
+        user.setIdentificationNumber(1020304050L);
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmail("john.doe@example.com");
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+
+        product = new Product();
+        product.setId(10L);
+        product.setAccountType("savings");
+        product.setAccountNumber("5300000001");
+        product.setStatus(AccountStatus.ACTIVE.name());
+        product.setAccountBalance(1_250_075L);
+        product.setExentaGMF(false);
+        product.setCreatedAt(LocalDateTime.now());
+        product.setUpdatedAt(LocalDateTime.now());
+        product.setUser(user);
+
+        transaction = new Transaction();
+        transaction.setId(100L);
+        transaction.setTransactionType(TransactionType.DEPOSIT.name());
+        transaction.setAmount(50_000L);
+        transaction.setTransactionDate(LocalDateTime.now());
+        transaction.setProduct(product);
+
+        System.out.printf("Deposit response payload: entity %d bytes, DTO %d bytes%n",
+                serializeEntity().length, mapAndSerializeDto().length);
+        System.out.printf("Product response payload: entity %d bytes, DTO %d bytes%n",
+                serializeProductEntity().length, mapAndSerializeProductDto().length);
+    }
+
+    @Benchmark
+    public byte[] serializeEntity() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transaction);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializeDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transactionMapper.toResponseDTO(transaction));
+    }
+
+    @Benchmark
+    public byte[] serializeProductEntity() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializeProductDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(productMapper.toResponseDTO(product));
+    }
+}
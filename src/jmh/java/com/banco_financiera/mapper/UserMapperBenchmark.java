@@ -0,0 +1,81 @@
+package com.banco_financiera.mapper;
+
+import com.banco_financiera.dto.UserRequestDTO;
+import com.banco_financiera.dto.UserResponseDTO;
+import com.banco_financiera.models.User;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the generated {@link UserMapper} conversions: request to entity, entity to response,
+ * a 100-user page to responses, and an in-place update from a request.
+ *
+ * Run with: ./gradlew jmh -PjmhIncludes=UserMapperBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserMapperBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final UserMapper userMapper = Mappers.getMapper(UserMapper.class);
+
+    private UserRequestDTO request;
+    private User user;
+    private List<User> page;
+
+    @Setup
+    public void setUp() {
+        request = new UserRequestDTO();
+        request.setIdentificationType("CC");
+        request.setIdentificationNumber(1020304050L);
+        request.setFirstName("John");
+        request.setLastName("Doe");
+        request.setEmail("john.doe@example.com");
+        request.setBirthDate(LocalDate.of(1990, 1, 1));
+
+        page = new ArrayList<>(PAGE_SIZE);
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            User pageUser = userMapper.toEntity(request);
+            pageUser.setId(id);
+            pageUser.setCreatedAt(LocalDateTime.now());
+            pageUser.setUpdatedAt(LocalDateTime.now());
+            page.add(pageUser);
+        }
+        user = page.get(0);
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return userMapper.toEntity(request);
+    }
+
+    @Benchmark
+    public UserResponseDTO toResponseDTO() {
+        return userMapper.toResponseDTO(user);
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> toResponseDTOList() {
+        return userMapper.toResponseDTOList(page);
+    }
+
+    @Benchmark
+    public User updateEntityFromDTO() {
+        userMapper.updateEntityFromDTO(request, user);
+        return user;
+    }
+}
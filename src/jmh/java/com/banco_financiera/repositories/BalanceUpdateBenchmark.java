@@ -0,0 +1,142 @@
+package com.banco_financiera.repositories;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two withdrawal paths of TransactionServiceImpl at the JDBC level:
+ * <ul>
+ *   <li>{@code loadModifySave}: SELECT of the product joined with its user (the eager fetch done by
+ *       getActiveProductById), then a full-row UPDATE like Hibernate's dirty check emits.</li>
+ *   <li>{@code atomicUpdate}: the single conditional UPDATE from ProductRepository.debitActiveAccount.</li>
+ * </ul>
+ * Both commit per operation, like one request each, and run single threaded so the numbers are
+ * per-request latency rather than a contention test. Defaults to in-memory H2, where round trips are
+ * nearly free; override the {@code jdbcUrl}, {@code user} and {@code password} params (for example via
+ * {@code benchmarkParameters} in the jmh block of build.gradle.kts) to measure against PostgreSQL.
+ * Only the scratch tables {@code bench_products}/{@code bench_users} are touched.
+ *
+ * Run with: ./gradlew jmh -PjmhIncludes=BalanceUpdateBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BalanceUpdateBenchmark {
+
+    private static final int ACCOUNTS = 1_000;
+
+    @Param({"jdbc:h2:mem:balance-bench;DB_CLOSE_DELAY=-1"})
+    public String jdbcUrl;
+
+    @Param({"sa"})
+    public String user;
+
+    @Param({""})
+    public String password;
+
+    private Connection connection;
+    private PreparedStatement selectProduct;
+    private PreparedStatement updateFullRow;
+    private PreparedStatement atomicDebit;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(jdbcUrl, user, password);
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS bench_products");
+            ddl.execute("DROP TABLE IF EXISTS bench_users");
+            ddl.execute("CREATE TABLE bench_users (id BIGINT PRIMARY KEY, first_name VARCHAR(100), last_name VARCHAR(100), email VARCHAR(100))");
+            ddl.execute("CREATE TABLE bench_products (id BIGINT PRIMARY KEY, account_type VARCHAR(255), account_number VARCHAR(255), " +
+                    "status VARCHAR(255), account_balance BIGINT, exenta_gmf BOOLEAN, created_at TIMESTAMP, " +
+                    "updated_at TIMESTAMP, version BIGINT, user_id BIGINT REFERENCES bench_users (id))");
+        }
+        try (PreparedStatement users = connection.prepareStatement("INSERT INTO bench_users VALUES (?, 'John', 'Doe', ?)");
+             PreparedStatement products = connection.prepareStatement(
+                     "INSERT INTO bench_products VALUES (?, 'savings', ?, 'ACTIVE', 100000000000000, false, ?, ?, 0, ?)")) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (long id = 1; id <= ACCOUNTS; id++) {
+                users.setLong(1, id);
+                users.setString(2, "user" + id + "@example.com");
+                users.addBatch();
+                products.setLong(1, id);
+                products.setString(2, "53" + id);
+                products.setTimestamp(3, now);
+                products.setTimestamp(4, now);
+                products.setLong(5, id);
+                products.addBatch();
+            }
+            users.executeBatch();
+            products.executeBatch();
+        }
+        connection.setAutoCommit(false);
+
+        selectProduct = connection.prepareStatement(
+                "SELECT p.*, u.* FROM bench_products p JOIN bench_users u ON u.id = p.user_id WHERE p.id = ?");
+        updateFullRow = connection.prepareStatement(
+                "UPDATE bench_products SET account_type = ?, account_number = ?, status = ?, account_balance = ?, " +
+                "exenta_gmf = ?, updated_at = ?, version = ? WHERE id = ? AND version = ?");
+        atomicDebit = connection.prepareStatement(
+                "UPDATE bench_products SET account_balance = account_balance - ?, version = version + 1, updated_at = ? " +
+                "WHERE id = ? AND UPPER(status) = 'ACTIVE' AND account_balance >= ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int loadModifySave() throws SQLException {
+        long id = ThreadLocalRandom.current().nextLong(ACCOUNTS) + 1;
+        selectProduct.setLong(1, id);
+        int updated;
+        try (ResultSet rs = selectProduct.executeQuery()) {
+            rs.next();
+            long balance = rs.getLong("account_balance");
+            long version = rs.getLong("version");
+            updateFullRow.setString(1, rs.getString("account_type"));
+            updateFullRow.setString(2, rs.getString("account_number"));
+            updateFullRow.setString(3, rs.getString("status"));
+            updateFullRow.setLong(4, balance - 100);
+            updateFullRow.setBoolean(5, rs.getBoolean("exenta_gmf"));
+            updateFullRow.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now()));
+            updateFullRow.setLong(7, version + 1);
+            updateFullRow.setLong(8, id);
+            updateFullRow.setLong(9, version);
+            updated = updateFullRow.executeUpdate();
+        }
+        connection.commit();
+        return updated;
+    }
+
+    @Benchmark
+    public int atomicUpdate() throws SQLException {
+        long id = ThreadLocalRandom.current().nextLong(ACCOUNTS) + 1;
+        atomicDebit.setLong(1, 100);
+        atomicDebit.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+        atomicDebit.setLong(3, id);
+        atomicDebit.setLong(4, 100);
+        int updated = atomicDebit.executeUpdate();
+        connection.commit();
+        return updated;
+    }
+}
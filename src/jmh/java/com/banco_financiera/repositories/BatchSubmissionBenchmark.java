@@ -0,0 +1,186 @@
+package com.banco_financiera.repositories;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies 10k deposits spread over a set of accounts, at the JDBC level:
+ * <ul>
+ *   <li>{@code singleItem}: what 10k calls to the deposit endpoint do, each a SELECT, an UPDATE,
+ *       an INSERT and a commit.</li>
+ *   <li>{@code batched}: what {@code POST /transactions/batch} does, per chunk of 1000 one balance
+ *       SELECT, one batched UPDATE per touched account, one batched INSERT and a commit.</li>
+ * </ul>
+ * HTTP and JSON costs are not included; results are per deposit. Defaults to in-memory H2; override
+ * {@code jdbcUrl}, {@code user} and {@code password} to measure against PostgreSQL, where each saved
+ * round trip counts. Only the scratch tables {@code bench_batch_products}/{@code bench_batch_transactions} are touched.
+ *
+ * Run with: ./gradlew jmh -PjmhIncludes=BatchSubmissionBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchSubmissionBenchmark {
+
+    private static final int OPERATIONS = 10_000;
+    private static final int CHUNK_SIZE = 1_000;
+
+    @Param({"jdbc:h2:mem:batch-bench;DB_CLOSE_DELAY=-1"})
+    public String jdbcUrl;
+
+    @Param({"sa"})
+    public String user;
+
+    @Param({""})
+    public String password;
+
+    @Param({"100", "5000"})
+    public int accounts;
+
+    private Connection connection;
+    private PreparedStatement selectBalance;
+    private PreparedStatement updateBalance;
+    private PreparedStatement insertTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(jdbcUrl, user, password);
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS bench_batch_transactions");
+            ddl.execute("DROP TABLE IF EXISTS bench_batch_products");
+            ddl.execute("CREATE TABLE bench_batch_products (id BIGINT PRIMARY KEY, status VARCHAR(255), " +
+                    "account_balance BIGINT, updated_at TIMESTAMP, version BIGINT)");
+            ddl.execute("CREATE TABLE bench_batch_transactions (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "transaction_type VARCHAR(255) NOT NULL, amount BIGINT NOT NULL, transaction_date TIMESTAMP NOT NULL, " +
+                    "product_id BIGINT NOT NULL REFERENCES bench_batch_products (id))");
+        }
+        try (PreparedStatement products = connection.prepareStatement(
+                "INSERT INTO bench_batch_products VALUES (?, 'ACTIVE', 0, ?, 0)")) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (long id = 1; id <= accounts; id++) {
+                products.setLong(1, id);
+                products.setTimestamp(2, now);
+                products.addBatch();
+            }
+            products.executeBatch();
+        }
+        connection.setAutoCommit(false);
+
+        selectBalance = connection.prepareStatement(
+                "SELECT id, status, account_balance, version FROM bench_batch_products WHERE id = ?");
+        updateBalance = connection.prepareStatement(
+                "UPDATE bench_batch_products SET account_balance = ?, version = version + 1, updated_at = ? WHERE id = ? AND version = ?");
+        insertTransaction = connection.prepareStatement(
+                "INSERT INTO bench_batch_transactions (transaction_type, amount, transaction_date, product_id) VALUES ('DEPOSIT', ?, ?, ?)",
+                new String[]{"id"});
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int singleItem() throws SQLException {
+        int written = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            long id = accountOf(i);
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            selectBalance.setLong(1, id);
+            try (ResultSet rs = selectBalance.executeQuery()) {
+                rs.next();
+                updateBalance.setLong(1, rs.getLong("account_balance") + 100);
+                updateBalance.setTimestamp(2, now);
+                updateBalance.setLong(3, id);
+                updateBalance.setLong(4, rs.getLong("version"));
+            }
+            written += updateBalance.executeUpdate();
+            setTransaction(id, now);
+            written += insertTransaction.executeUpdate();
+            connection.commit();
+        }
+        return written;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int batched() throws SQLException {
+        int written = 0;
+        for (int start = 0; start < OPERATIONS; start += CHUNK_SIZE) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            int end = Math.min(start + CHUNK_SIZE, OPERATIONS);
+            Map<Long, long[]> balances = loadBalances(start, end);
+
+            for (int i = start; i < end; i++) {
+                long id = accountOf(i);
+                balances.get(id)[0] += 100;
+                setTransaction(id, now);
+                insertTransaction.addBatch();
+            }
+            for (Map.Entry<Long, long[]> account : balances.entrySet()) {
+                updateBalance.setLong(1, account.getValue()[0]);
+                updateBalance.setTimestamp(2, now);
+                updateBalance.setLong(3, account.getKey());
+                updateBalance.setLong(4, account.getValue()[1]);
+                updateBalance.addBatch();
+            }
+            written += updateBalance.executeBatch().length;
+            written += insertTransaction.executeBatch().length;
+            connection.commit();
+        }
+        return written;
+    }
+
+    /** One SELECT for all accounts of the chunk, like ProductRepository.findBalancesByIdIn. */
+    private Map<Long, long[]> loadBalances(int start, int end) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT id, account_balance, version FROM bench_batch_products WHERE id IN (");
+        int distinct = Math.min(end - start, accounts);
+        for (int i = 0; i < distinct; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        Map<Long, long[]> balances = new HashMap<>();
+        try (PreparedStatement select = connection.prepareStatement(sql.append(')').toString())) {
+            for (int i = 0; i < distinct; i++) {
+                select.setLong(i + 1, accountOf(start + i));
+            }
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    balances.put(rs.getLong(1), new long[]{rs.getLong(2), rs.getLong(3)});
+                }
+            }
+        }
+        return balances;
+    }
+
+    private void setTransaction(long productId, Timestamp now) throws SQLException {
+        insertTransaction.setLong(1, 100);
+        insertTransaction.setTimestamp(2, now);
+        insertTransaction.setLong(3, productId);
+    }
+
+    private long accountOf(int operation) {
+        return operation % accounts + 1;
+    }
+}
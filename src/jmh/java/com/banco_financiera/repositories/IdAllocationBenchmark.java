@@ -0,0 +1,140 @@
+package com.banco_financiera.repositories;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of transaction rows before and after moving ids from IDENTITY to pooled-lo sequences:
+ * <ul>
+ *   <li>{@code identity}: what Hibernate does for IDENTITY ids, one INSERT round trip per row to read
+ *       the generated key.</li>
+ *   <li>{@code pooledSequence}: one {@code nextval} per 50 ids (pooled-lo, sequence INCREMENT BY 50),
+ *       ids assigned in memory and rows sent as JDBC batches of 50, like
+ *       {@code hibernate.jdbc.batch_size=50}.</li>
+ * </ul>
+ * Each invocation inserts and commits {@value #ROWS} rows; results are per row. Defaults to in-memory H2;
+ * override {@code jdbcUrl}, {@code user} and {@code password} to measure against PostgreSQL (add
+ * {@code reWriteBatchedInserts=true} to the URL to match the application). Only the scratch tables
+ * {@code bench_id_identity}/{@code bench_id_sequence} and sequence {@code bench_id_seq} are touched.
+ *
+ * Run with: ./gradlew jmh -PjmhIncludes=IdAllocationBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IdAllocationBenchmark {
+
+    private static final int ROWS = 1_000;
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Param({"jdbc:h2:mem:id-bench;DB_CLOSE_DELAY=-1"})
+    public String jdbcUrl;
+
+    @Param({"sa"})
+    public String user;
+
+    @Param({""})
+    public String password;
+
+    private Connection connection;
+    private PreparedStatement insertIdentity;
+    private PreparedStatement insertWithId;
+    private PreparedStatement nextval;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(jdbcUrl, user, password);
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS bench_id_identity");
+            ddl.execute("DROP TABLE IF EXISTS bench_id_sequence");
+            ddl.execute("DROP SEQUENCE IF EXISTS bench_id_seq");
+            ddl.execute("CREATE TABLE bench_id_identity (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "transaction_type VARCHAR(255) NOT NULL, amount BIGINT NOT NULL, transaction_date TIMESTAMP NOT NULL, product_id BIGINT NOT NULL)");
+            ddl.execute("CREATE SEQUENCE bench_id_seq START WITH 1 INCREMENT BY " + ALLOCATION_SIZE);
+            ddl.execute("CREATE TABLE bench_id_sequence (id BIGINT PRIMARY KEY, " +
+                    "transaction_type VARCHAR(255) NOT NULL, amount BIGINT NOT NULL, transaction_date TIMESTAMP NOT NULL, product_id BIGINT NOT NULL)");
+        }
+        connection.setAutoCommit(false);
+
+        insertIdentity = connection.prepareStatement(
+                "INSERT INTO bench_id_identity (transaction_type, amount, transaction_date, product_id) VALUES ('DEPOSIT', ?, ?, ?)",
+                new String[]{"id"});
+        insertWithId = connection.prepareStatement(
+                "INSERT INTO bench_id_sequence (id, transaction_type, amount, transaction_date, product_id) VALUES (?, 'DEPOSIT', ?, ?, ?)");
+        nextval = connection.prepareStatement(jdbcUrl.startsWith("jdbc:postgresql")
+                ? "SELECT nextval('bench_id_seq')"
+                : "SELECT NEXT VALUE FOR bench_id_seq");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long identity() throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long lastId = 0;
+        for (int i = 0; i < ROWS; i++) {
+            insertIdentity.setLong(1, 100);
+            insertIdentity.setTimestamp(2, now);
+            insertIdentity.setLong(3, i % 100 + 1);
+            insertIdentity.executeUpdate();
+            try (ResultSet keys = insertIdentity.getGeneratedKeys()) {
+                keys.next();
+                lastId = keys.getLong(1);
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long pooledSequence() throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long nextId = 0;
+        long blockEnd = 0;
+        for (int i = 0; i < ROWS; i++) {
+            if (nextId == blockEnd) {
+                // pooled-lo: the sequence value is the low end of a block of ALLOCATION_SIZE ids
+                try (ResultSet rs = nextval.executeQuery()) {
+                    rs.next();
+                    nextId = rs.getLong(1);
+                }
+                blockEnd = nextId + ALLOCATION_SIZE;
+            }
+            insertWithId.setLong(1, nextId++);
+            insertWithId.setLong(2, 100);
+            insertWithId.setTimestamp(3, now);
+            insertWithId.setLong(4, i % 100 + 1);
+            insertWithId.addBatch();
+            if ((i + 1) % ALLOCATION_SIZE == 0) {
+                insertWithId.executeBatch();
+            }
+        }
+        insertWithId.executeBatch();
+        connection.commit();
+        return nextId;
+    }
+}
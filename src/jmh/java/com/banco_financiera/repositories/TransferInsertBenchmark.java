@@ -0,0 +1,164 @@
+package com.banco_financiera.repositories;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the statements a transfer commits at the JDBC level:
+ * <ul>
+ *   <li>{@code singleLeg}: the previous path, two balance UPDATEs plus one source-side INSERT.</li>
+ *   <li>{@code doubleEntryBatched}: two UPDATEs plus both legs in one JDBC batch, as Hibernate
+ *       flushes them now that ids come from a sequence.</li>
+ *   <li>{@code doubleEntrySeparate}: two UPDATEs plus the two legs as separate INSERTs, which is
+ *       what Hibernate emits for IDENTITY ids.</li>
+ * </ul>
+ * Each operation commits, like one request. Defaults to in-memory H2; override {@code jdbcUrl},
+ * {@code user} and {@code password} to measure against PostgreSQL, where the saved round trip matters.
+ * Only the scratch tables {@code bench_transfer_products}/{@code bench_transfer_transactions} are touched.
+ *
+ * Run with: ./gradlew jmh -PjmhIncludes=TransferInsertBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TransferInsertBenchmark {
+
+    private static final int ACCOUNTS = 1_000;
+
+    @Param({"jdbc:h2:mem:transfer-bench;DB_CLOSE_DELAY=-1"})
+    public String jdbcUrl;
+
+    @Param({"sa"})
+    public String user;
+
+    @Param({""})
+    public String password;
+
+    private Connection connection;
+    private PreparedStatement debit;
+    private PreparedStatement credit;
+    private PreparedStatement insertLeg;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(jdbcUrl, user, password);
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS bench_transfer_transactions");
+            ddl.execute("DROP TABLE IF EXISTS bench_transfer_products");
+            ddl.execute("CREATE TABLE bench_transfer_products (id BIGINT PRIMARY KEY, status VARCHAR(255), " +
+                    "account_balance BIGINT, updated_at TIMESTAMP, version BIGINT)");
+            ddl.execute("CREATE TABLE bench_transfer_transactions (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "transaction_type VARCHAR(255) NOT NULL, amount BIGINT NOT NULL, transfer_id UUID, " +
+                    "transaction_date TIMESTAMP NOT NULL, product_id BIGINT NOT NULL REFERENCES bench_transfer_products (id))");
+            ddl.execute("CREATE INDEX idx_bench_transfer_product_date_id ON bench_transfer_transactions (product_id, transaction_date, id)");
+        }
+        try (PreparedStatement products = connection.prepareStatement(
+                "INSERT INTO bench_transfer_products VALUES (?, 'ACTIVE', 100000000000000, ?, 0)")) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (long id = 1; id <= ACCOUNTS; id++) {
+                products.setLong(1, id);
+                products.setTimestamp(2, now);
+                products.addBatch();
+            }
+            products.executeBatch();
+        }
+        connection.setAutoCommit(false);
+
+        debit = connection.prepareStatement("UPDATE bench_transfer_products SET account_balance = account_balance - ?, " +
+                "version = version + 1, updated_at = ? WHERE id = ? AND account_balance >= ?");
+        credit = connection.prepareStatement("UPDATE bench_transfer_products SET account_balance = account_balance + ?, " +
+                "version = version + 1, updated_at = ? WHERE id = ?");
+        insertLeg = connection.prepareStatement("INSERT INTO bench_transfer_transactions " +
+                "(transaction_type, amount, transfer_id, transaction_date, product_id) VALUES (?, ?, ?, ?, ?)",
+                new String[]{"id"});
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int singleLeg() throws SQLException {
+        long from = randomAccount();
+        Timestamp now = updateBalances(from, randomAccount());
+        setLeg("TRANSFER", null, now, from);
+        int inserted = insertLeg.executeUpdate();
+        connection.commit();
+        return inserted;
+    }
+
+    @Benchmark
+    public int doubleEntryBatched() throws SQLException {
+        long from = randomAccount();
+        long to = randomAccount();
+        Timestamp now = updateBalances(from, to);
+        UUID transferId = UUID.randomUUID();
+        setLeg("TRANSFER", transferId, now, from);
+        insertLeg.addBatch();
+        setLeg("TRANSFER_IN", transferId, now, to);
+        insertLeg.addBatch();
+        int inserted = insertLeg.executeBatch().length;
+        connection.commit();
+        return inserted;
+    }
+
+    @Benchmark
+    public int doubleEntrySeparate() throws SQLException {
+        long from = randomAccount();
+        long to = randomAccount();
+        Timestamp now = updateBalances(from, to);
+        UUID transferId = UUID.randomUUID();
+        setLeg("TRANSFER", transferId, now, from);
+        int inserted = insertLeg.executeUpdate();
+        setLeg("TRANSFER_IN", transferId, now, to);
+        inserted += insertLeg.executeUpdate();
+        connection.commit();
+        return inserted;
+    }
+
+    private Timestamp updateBalances(long from, long to) throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        debit.setLong(1, 100);
+        debit.setTimestamp(2, now);
+        debit.setLong(3, from);
+        debit.setLong(4, 100);
+        debit.executeUpdate();
+        credit.setLong(1, 100);
+        credit.setTimestamp(2, now);
+        credit.setLong(3, to);
+        credit.executeUpdate();
+        return now;
+    }
+
+    private void setLeg(String type, UUID transferId, Timestamp now, long productId) throws SQLException {
+        insertLeg.setString(1, type);
+        insertLeg.setLong(2, 100);
+        insertLeg.setObject(3, transferId);
+        insertLeg.setTimestamp(4, now);
+        insertLeg.setLong(5, productId);
+    }
+
+    private static long randomAccount() {
+        return ThreadLocalRandom.current().nextLong(ACCOUNTS) + 1;
+    }
+}
@@ -0,0 +1,71 @@
+package com.banco_financiera.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of authenticating one HTTP Basic request with the production provider setup
+ * ({@link InMemoryUserDetailsManager} + {@link BCryptPasswordEncoder} at its default strength):
+ * a full BCrypt verification per request versus a hit in {@link CachingAuthenticationProvider}.
+ * Authentication is pure CPU work, so the average time per op under a thread per core is the
+ * CPU time each request spends on it; add {@code -prof gc} for allocations.
+ *
+ * Run with: ./gradlew jmh -PjmhIncludes=AuthenticationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(Threads.MAX)
+public class AuthenticationBenchmark {
+
+    private DaoAuthenticationProvider bcryptProvider;
+    private CachingAuthenticationProvider cachingProvider;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        InMemoryUserDetailsManager userDetailsService = new InMemoryUserDetailsManager(User.builder()
+                .username("user")
+                .password(passwordEncoder.encode("password"))
+                .roles("USER")
+                .build());
+
+        bcryptProvider = new DaoAuthenticationProvider();
+        bcryptProvider.setPasswordEncoder(passwordEncoder);
+        bcryptProvider.setUserDetailsService(userDetailsService);
+
+        cachingProvider = new CachingAuthenticationProvider(bcryptProvider, new SimpleMeterRegistry(),
+                10_000, Duration.ofMinutes(10));
+        cachingProvider.authenticate(credentials());
+    }
+
+    @Benchmark
+    public Authentication bcryptPerRequest() {
+        return bcryptProvider.authenticate(credentials());
+    }
+
+    @Benchmark
+    public Authentication cachedCredentials() {
+        return cachingProvider.authenticate(credentials());
+    }
+
+    private static Authentication credentials() {
+        return UsernamePasswordAuthenticationToken.unauthenticated("user", "password");
+    }
+}
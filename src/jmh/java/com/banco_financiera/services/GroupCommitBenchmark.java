@@ -0,0 +1,122 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.dto.TransactionRequestDTO;
+import com.banco_financiera.locking.BalanceMutationExecutor;
+import com.banco_financiera.locking.GroupCommitCoordinator;
+import com.banco_financiera.locking.StripedAccountLockManager;
+import com.banco_financiera.metrics.ServiceMetrics;
+import com.banco_financiera.models.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposits from 32 threads into random accounts through {@link TransactionServiceImpl} in entity mode,
+ * committing each deposit on its own ({@code individualCommits}) or through the
+ * {@link GroupCommitCoordinator} ({@code groupCommits}). Repositories are in-memory stand-ins; the
+ * transaction manager holds one of 4 connections from begin to completion and takes the commit latency
+ * parameter to commit, like a small pool in front of a database flushing its log. Sample mode reports
+ * the latency percentiles, p99 included; commits per second and the mean group size are printed after
+ * each iteration. Only deposits are run, since the stand-ins cannot undo a rolled-back group.
+ *
+ * Run with: ./gradlew jmh -PjmhIncludes=GroupCommitBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(32)
+public class GroupCommitBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final int CONNECTIONS = 4;
+
+    @Param({"0", "200"})
+    public long commitLatencyMicros;
+
+    @Param({"200"})
+    public long windowMicros;
+
+    private InMemoryStandIns.NoOpTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionServiceImpl individualService;
+    private TransactionServiceImpl groupedService;
+    private TransactionRequestDTO request;
+    private long iterationStart;
+    private long commitsAtStart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryStandIns standIns = new InMemoryStandIns(ACCOUNTS, 0L);
+        meterRegistry = new SimpleMeterRegistry();
+        transactionManager = new InMemoryStandIns.NoOpTransactionManager(
+                Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(commitLatencyMicros)), CONNECTIONS);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        BalanceMutationExecutor executor = new BalanceMutationExecutor(
+                transactionTemplate,
+                new StripedAccountLockManager(1024, 30_000),
+                meterRegistry,
+                "pessimistic", 5, 5, 200, 2.0);
+
+        individualService = service(standIns, executor, standIns.disabledGroupCommit());
+        groupedService = service(standIns, executor, new GroupCommitCoordinator(
+                transactionTemplate, executor, meterRegistry, true, windowMicros, 64, 30_000));
+
+        request = new TransactionRequestDTO();
+        request.setAmount(100L);
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        iterationStart = System.nanoTime();
+        commitsAtStart = transactionManager.commits();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportCommits() {
+        double seconds = (System.nanoTime() - iterationStart) / 1e9;
+        double groupSize = meterRegistry.summary(GroupCommitCoordinator.GROUP_SIZE).mean();
+        System.out.printf("%n%.0f commits/s, mean group size %.1f%n",
+                (transactionManager.commits() - commitsAtStart) / seconds, groupSize);
+    }
+
+    @Benchmark
+    public Transaction individualCommits() {
+        return individualService.deposit(randomAccount(), request);
+    }
+
+    @Benchmark
+    public Transaction groupCommits() {
+        return groupedService.deposit(randomAccount(), request);
+    }
+
+    private TransactionServiceImpl service(InMemoryStandIns standIns, BalanceMutationExecutor executor,
+                                           GroupCommitCoordinator groupCommitCoordinator) {
+        return new TransactionServiceImpl(
+                standIns.transactionRepository(),
+                standIns.productRepository(),
+                standIns.productService(),
+                executor,
+                standIns.disabledLedger(),
+                standIns.disabledShards(),
+                groupCommitCoordinator,
+                new ServiceMetrics(meterRegistry));
+    }
+
+    private static long randomAccount() {
+        return ThreadLocalRandom.current().nextLong(1, ACCOUNTS + 1);
+    }
+}
@@ -0,0 +1,111 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.dto.TransactionRequestDTO;
+import com.banco_financiera.locking.BalanceMutationExecutor;
+import com.banco_financiera.locking.StripedAccountLockManager;
+import com.banco_financiera.metrics.ServiceMetrics;
+import com.banco_financiera.models.Transaction;
+import com.banco_financiera.sharding.ShardedLedgerProcessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deposits from 16 threads into one account, through {@link TransactionServiceImpl} in entity mode
+ * (striped account lock, one commit per deposit) and in sharded mode (one owner thread, one commit per
+ * batch of whatever deposits are waiting). Repositories are in-memory stand-ins; the commit latency
+ * parameter stands in for the database round trip and log flush, which is what the account lock is held
+ * across. With no latency both paths measure their hand-offs; with some, the locking path is capped at
+ * one deposit per commit while the sharded path's batches grow to absorb it. Sample mode reports the
+ * latency percentiles, p99 included.
+ *
+ * Run with: ./gradlew jmh -PjmhIncludes=HotAccountBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(16)
+public class HotAccountBenchmark {
+
+    private static final long HOT_ACCOUNT = 1L;
+
+    @Param({"0", "200"})
+    public long commitLatencyMicros;
+
+    private TransactionServiceImpl lockingService;
+    private TransactionServiceImpl shardedService;
+    private ShardedLedgerProcessor shardedLedgerProcessor;
+    private TransactionRequestDTO request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryStandIns standIns = new InMemoryStandIns(1, 0L);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BalanceMutationExecutor executor = new BalanceMutationExecutor(
+                new TransactionTemplate(new InMemoryStandIns.NoOpTransactionManager(
+                        Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(commitLatencyMicros)))),
+                new StripedAccountLockManager(1024, 30_000),
+                meterRegistry,
+                "pessimistic", 5, 5, 200, 2.0);
+
+        lockingService = new TransactionServiceImpl(
+                standIns.transactionRepository(),
+                standIns.productRepository(),
+                standIns.productService(),
+                executor,
+                standIns.disabledLedger(),
+                standIns.disabledShards(),
+                standIns.disabledGroupCommit(),
+                new ServiceMetrics(meterRegistry));
+
+        shardedLedgerProcessor = new ShardedLedgerProcessor(
+                standIns.transactionRepository(),
+                standIns.productRepository(),
+                standIns.productCache(),
+                standIns.emptyLedger(),
+                executor,
+                meterRegistry,
+                "sharded", 8, 8192, 500, 100_000, 30_000);
+        shardedLedgerProcessor.start();
+        shardedService = new TransactionServiceImpl(
+                standIns.transactionRepository(),
+                standIns.productRepository(),
+                standIns.productService(),
+                executor,
+                standIns.emptyLedger(),
+                shardedLedgerProcessor,
+                standIns.disabledGroupCommit(),
+                new ServiceMetrics(meterRegistry));
+
+        request = new TransactionRequestDTO();
+        request.setAmount(100L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        shardedLedgerProcessor.stop();
+    }
+
+    @Benchmark
+    public Transaction lockingDeposit() {
+        return lockingService.deposit(HOT_ACCOUNT, request);
+    }
+
+    @Benchmark
+    public Transaction shardedDeposit() {
+        return shardedService.deposit(HOT_ACCOUNT, request);
+    }
+}
@@ -0,0 +1,280 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.cache.ProductCache;
+import com.banco_financiera.cache.ProductSummary;
+import com.banco_financiera.enums.AccountStatus;
+import com.banco_financiera.exception.business.AccountInactiveException;
+import com.banco_financiera.exception.business.AccountNotFoundException;
+import com.banco_financiera.locking.GroupCommitCoordinator;
+import com.banco_financiera.models.Product;
+import com.banco_financiera.models.Transaction;
+import com.banco_financiera.repositories.AccountBalanceView;
+import com.banco_financiera.repositories.ProductRepository;
+import com.banco_financiera.repositories.TransactionRepository;
+import com.banco_financiera.sharding.ShardedLedgerProcessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Map-backed stand-ins for the repositories and collaborators of the service layer, so that
+ * benchmarks measure the service code itself rather than a database. Only the methods the
+ * benchmarked paths call are implemented; anything else throws.
+ */
+final class InMemoryStandIns {
+
+    private final Map<Long, Product> products = new ConcurrentHashMap<>();
+    private final AtomicLong transactionIds = new AtomicLong();
+
+    InMemoryStandIns(int accounts, long openingBalance) {
+        for (long id = 1; id <= accounts; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setAccountType("savings");
+            product.setAccountNumber("53" + id);
+            product.setStatus(AccountStatus.ACTIVE.name());
+            product.setAccountBalance(openingBalance);
+            product.setExentaGMF(false);
+            product.setVersion(0L);
+            products.put(id, product);
+        }
+    }
+
+    ProductRepository productRepository() {
+        return standIn(ProductRepository.class, Map.of(
+                "save", args -> args[0],
+                "findById", args -> Optional.ofNullable(products.get((Long) args[0])),
+                "getReferenceById", args -> products.get((Long) args[0]),
+                "findSummaryById", args -> Optional.ofNullable(products.get((Long) args[0])).map(InMemoryStandIns::summary),
+                "findBalancesByIdIn", args -> ((List<?>) args[0]).stream()
+                        .map(id -> products.get((Long) id))
+                        .filter(Objects::nonNull)
+                        .map(InMemoryStandIns::balanceView)
+                        .toList()));
+    }
+
+    /**
+     * Assigns ids like the sequence would, but keeps nothing, so memory stays flat.
+     */
+    TransactionRepository transactionRepository() {
+        return standIn(TransactionRepository.class, Map.of(
+                "save", args -> assignId((Transaction) args[0]),
+                "saveAll", args -> {
+                    ((Iterable<?>) args[0]).forEach(transaction -> assignId((Transaction) transaction));
+                    return args[0];
+                },
+                "clearPendingCredits", args -> ((Collection<?>) args[0]).size(),
+                "findByPendingCreditProductIdIsNotNullOrderByIdAsc", args -> List.of()));
+    }
+
+    IProductService productService() {
+        return standIn(IProductService.class, Map.of(
+                "getActiveProductById", args -> {
+                    Long id = (Long) args[0];
+                    Product product = products.get(id);
+                    if (product == null) {
+                        throw new AccountNotFoundException(id);
+                    }
+                    if (!AccountStatus.ACTIVE.name().equalsIgnoreCase(product.getStatus())) {
+                        throw new AccountInactiveException(id, product.getStatus());
+                    }
+                    return product;
+                },
+                "getActiveProductSummary", args -> {
+                    Product product = products.get((Long) args[0]);
+                    if (product == null) {
+                        throw new AccountNotFoundException((Long) args[0]);
+                    }
+                    return summary(product);
+                }));
+    }
+
+    /**
+     * A real product cache over the stand-in repository, large enough to hold every account
+     */
+    ProductCache productCache() {
+        return new ProductCache(productRepository(), event -> {
+        }, new SimpleMeterRegistry(), Math.max(1, products.size()), 3600);
+    }
+
+    ILedgerService disabledLedger() {
+        return standIn(ILedgerService.class, Map.of("isEnabled", args -> false));
+    }
+
+    /**
+     * A ledger whose accounts have no entries yet, so every account opens with its stored balance
+     */
+    ILedgerService emptyLedger() {
+        return standIn(ILedgerService.class, Map.of(
+                "isEnabled", args -> true,
+                "openForAppend", args -> args[1]));
+    }
+
+    ShardedLedgerProcessor disabledShards() {
+        return new ShardedLedgerProcessor(transactionRepository(), productRepository(), productCache(),
+                disabledLedger(), null, new SimpleMeterRegistry(), "entity", 1, 2, 1, 1, 0);
+    }
+
+    GroupCommitCoordinator disabledGroupCommit() {
+        return new GroupCommitCoordinator(null, null, new SimpleMeterRegistry(), false, 0, 1, 0);
+    }
+
+    private static ProductSummary summary(Product product) {
+        return new ProductSummary(product.getId(), product.getAccountType(), product.getAccountNumber(),
+                product.getStatus(), product.getExentaGMF(), null);
+    }
+
+    private static AccountBalanceView balanceView(Product product) {
+        return new AccountBalanceView() {
+            @Override
+            public Long getId() {
+                return product.getId();
+            }
+
+            @Override
+            public String getStatus() {
+                return product.getStatus();
+            }
+
+            @Override
+            public long getAccountBalance() {
+                return product.getAccountBalance();
+            }
+
+            @Override
+            public Long getVersion() {
+                return product.getVersion();
+            }
+        };
+    }
+
+    private Transaction assignId(Transaction transaction) {
+        transaction.setId(transactionIds.incrementAndGet());
+        return transaction;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T standIn(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> type.getSimpleName() + " stand-in";
+                };
+            }
+            Function<Object[], Object> handler = methods.get(method.getName());
+            if (handler == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return handler.apply(args == null ? new Object[0] : args);
+        });
+    }
+
+    /**
+     * Drives transaction synchronization like a real transaction manager, so that account locks
+     * are released at completion, but talks to no resource. A commit latency stands in for the
+     * database's round trip and log flush. Nested transactions join the active one, and a fixed
+     * pool size can be given to model connections held from begin to completion.
+     */
+    static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        private final long commitLatencyNanos;
+        private final Semaphore connections;
+        private final AtomicLong commits = new AtomicLong();
+
+        NoOpTransactionManager() {
+            this(Duration.ZERO);
+        }
+
+        NoOpTransactionManager(Duration commitLatency) {
+            this(commitLatency, 0);
+        }
+
+        /**
+         * @param connections Pool size, or 0 for unlimited
+         */
+        NoOpTransactionManager(Duration commitLatency, int connections) {
+            this.commitLatencyNanos = commitLatency.toNanos();
+            this.connections = connections > 0 ? new Semaphore(connections) : null;
+        }
+
+        long commits() {
+            return commits.get();
+        }
+
+        @Override
+        protected Object doGetTransaction() {
+            Object current = TransactionSynchronizationManager.getResource(this);
+            return current != null ? current : new NoOpTransaction();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return TransactionSynchronizationManager.hasResource(this);
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            if (connections != null) {
+                connections.acquireUninterruptibly();
+            }
+            TransactionSynchronizationManager.bindResource(this, transaction);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            if (commitLatencyNanos > 0) {
+                LockSupport.parkNanos(commitLatencyNanos);
+            }
+            commits.incrementAndGet();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+            ((NoOpTransaction) status.getTransaction()).rollbackOnly = true;
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            TransactionSynchronizationManager.unbindResource(this);
+            if (connections != null) {
+                connections.release();
+            }
+        }
+    }
+
+    private static final class NoOpTransaction implements SmartTransactionObject {
+
+        private boolean rollbackOnly;
+
+        @Override
+        public boolean isRollbackOnly() {
+            return rollbackOnly;
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.dto.TransactionRequestDTO;
+import com.banco_financiera.locking.BalanceMutationExecutor;
+import com.banco_financiera.locking.StripedAccountLockManager;
+import com.banco_financiera.metrics.ServiceMetrics;
+import com.banco_financiera.models.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@link TransactionServiceImpl} deposit, withdraw and transfer paths in entity mode,
+ * with repositories replaced by in-memory stand-ins ({@link InMemoryStandIns}). What remains is the
+ * service's own work: the mutation executor, striped account locks, transaction synchronization,
+ * money arithmetic, metrics and logging. Database costs are covered by the JDBC benchmarks in
+ * {@code repositories}.
+ *
+ * Run with: ./gradlew jmh -PjmhIncludes=TransactionServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransactionServiceBenchmark {
+
+    @Param({"1000"})
+    public int accounts;
+
+    private TransactionServiceImpl transactionService;
+    private TransactionRequestDTO request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryStandIns standIns = new InMemoryStandIns(accounts, Long.MAX_VALUE / 2);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BalanceMutationExecutor executor = new BalanceMutationExecutor(
+                new TransactionTemplate(new InMemoryStandIns.NoOpTransactionManager()),
+                new StripedAccountLockManager(1024, 5_000),
+                meterRegistry,
+                "pessimistic", 5, 5, 200, 2.0);
+        transactionService = new TransactionServiceImpl(
+                standIns.transactionRepository(),
+                standIns.productRepository(),
+                standIns.productService(),
+                executor,
+                standIns.disabledLedger(),
+                standIns.disabledShards(),
+                standIns.disabledGroupCommit(),
+                new ServiceMetrics(meterRegistry));
+
+        request = new TransactionRequestDTO();
+        request.setAmount(100L);
+    }
+
+    @Benchmark
+    public Transaction deposit() {
+        return transactionService.deposit(randomAccount(), request);
+    }
+
+    @Benchmark
+    public Transaction withdraw() {
+        return transactionService.withdraw(randomAccount(), request);
+    }
+
+    @Benchmark
+    public Transaction transfer() {
+        long from = randomAccount();
+        long to = from % accounts + 1;
+        return transactionService.transfer(from, to, request);
+    }
+
+    private long randomAccount() {
+        return ThreadLocalRandom.current().nextLong(accounts) + 1;
+    }
+}
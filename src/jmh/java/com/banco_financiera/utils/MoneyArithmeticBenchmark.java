@@ -0,0 +1,62 @@
+package com.banco_financiera.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-transaction money handling before and after the switch to minor units:
+ * {@code Double -> BigDecimal.valueOf -> add/compare/subtract -> doubleValue()} versus plain
+ * {@code long} arithmetic with overflow checks. Run with {@code -prof gc} to see allocations per op.
+ *
+ * Run with: ./gradlew jmh -PjmhIncludes=MoneyArithmeticBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyArithmeticBenchmark {
+
+    private final char[] amountText = "2000.50".toCharArray();
+
+    private Double balanceDouble = 1_250_000.75;
+    private BigDecimal amountDecimal = new BigDecimal("2000.50");
+
+    private long balanceMinor = 125_000_075L;
+    private long amountMinor = 200_050L;
+
+    @Benchmark
+    public Double transferBigDecimal() {
+        // Mirrors the old withdraw/transfer: funds check, debit, credit, back to Double
+        BigDecimal current = BigDecimal.valueOf(balanceDouble);
+        if (current.compareTo(amountDecimal) < 0) {
+            throw new IllegalStateException();
+        }
+        Double debited = current.subtract(amountDecimal).doubleValue();
+        return BigDecimal.valueOf(debited).add(amountDecimal).doubleValue();
+    }
+
+    @Benchmark
+    public long transferMinorUnits() {
+        if (balanceMinor < amountMinor) {
+            throw new IllegalStateException();
+        }
+        long debited = Money.subtract(balanceMinor, amountMinor);
+        return Money.add(debited, amountMinor);
+    }
+
+    @Benchmark
+    public BigDecimal parseBigDecimal() {
+        return new BigDecimal(amountText, 0, amountText.length);
+    }
+
+    @Benchmark
+    public long parseMinorUnits() {
+        return Money.parse(amountText, 0, amountText.length);
+    }
+}
@@ -0,0 +1,40 @@
+package com.banco_financiera.utils;
+
+import com.banco_financiera.enums.AccountTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the request validation helpers: {@link StringValidator#isValidEmail} on a valid
+ * and an invalid address, and {@link EnumUtils#isStringInEnum} on a matching and a non-matching value.
+ *
+ * Run with: ./gradlew jmh -PjmhIncludes=ValidationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationBenchmark {
+
+    @Param({"john.doe@example.com", "john.doe@example"})
+    public String email;
+
+    @Param({"savings", "checking"})
+    public String accountType;
+
+    @Benchmark
+    public boolean isValidEmail() {
+        return StringValidator.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean isStringInEnum() {
+        return EnumUtils.isStringInEnum(accountType, AccountTypes.class);
+    }
+}
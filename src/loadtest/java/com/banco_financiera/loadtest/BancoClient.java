@@ -0,0 +1,106 @@
+package com.banco_financiera.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Blocking calls to the REST API over the JDK {@link HttpClient}, authenticated with HTTP Basic.
+ * Meant to be called from virtual threads, one request per thread.
+ */
+final class BancoClient {
+
+    private static final String API = "/api/v1/banco-financiera";
+
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final String authorization;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** Unique across runs against a persistent database, since it starts from the clock */
+    private final AtomicLong identificationNumbers = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    BancoClient(URI baseUri, String username, String password, Duration timeout, Executor executor) {
+        this.httpClient = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(timeout)
+                .build();
+        this.baseUri = baseUri;
+        this.authorization = "Basic " + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        this.timeout = timeout;
+    }
+
+    HttpResponse<String> createUser() throws IOException, InterruptedException {
+        long identificationNumber = identificationNumbers.incrementAndGet();
+        return post("/users", """
+                {"identification_type": "CC", "identification_number": %d, "first_name": "Load",
+                 "last_name": "Test", "email": "load%d@example.com", "birth_date": "1990-01-01"}
+                """.formatted(identificationNumber, identificationNumber));
+    }
+
+    HttpResponse<String> createProduct(long userId, String openingBalance) throws IOException, InterruptedException {
+        return post("/products", """
+                {"account_type": "savings", "account_balance": %s, "exenta_gmf": false, "user_id": %d}
+                """.formatted(openingBalance, userId));
+    }
+
+    HttpResponse<String> deposit(long productId, String amount) throws IOException, InterruptedException {
+        return post("/transactions/" + productId + "/deposit", amountBody(amount));
+    }
+
+    HttpResponse<String> withdraw(long productId, String amount) throws IOException, InterruptedException {
+        return post("/transactions/" + productId + "/withdraw", amountBody(amount));
+    }
+
+    HttpResponse<String> transfer(long fromProductId, long toProductId, String amount) throws IOException, InterruptedException {
+        return post("/transactions/" + fromProductId + "/transfer/" + toProductId, amountBody(amount));
+    }
+
+    HttpResponse<String> asyncDeposit(long productId, String amount) throws IOException, InterruptedException {
+        return post("/transactions/async/" + productId + "/deposit", amountBody(amount));
+    }
+
+    HttpResponse<String> asyncWithdraw(long productId, String amount) throws IOException, InterruptedException {
+        return post("/transactions/async/" + productId + "/withdraw", amountBody(amount));
+    }
+
+    HttpResponse<String> asyncTransfer(long fromProductId, long toProductId, String amount) throws IOException, InterruptedException {
+        return post("/transactions/async/" + fromProductId + "/transfer/" + toProductId, amountBody(amount));
+    }
+
+    /**
+     * Id of the resource a successful create returned
+     * @throws IllegalStateException if the create failed
+     */
+    long createdId(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Create failed with HTTP " + response.statusCode() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("id").asLong();
+    }
+
+    private static String amountBody(String amount) {
+        return "{\"amount\": " + amount + "}";
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(API + path))
+                .timeout(timeout)
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,62 @@
+package com.banco_financiera.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counts of one endpoint. Latencies are recorded in microseconds
+ * from the request's scheduled start, not its actual send time, so that a stalled server shows up
+ * in the percentiles instead of silently lowering the offered load (coordinated omission).
+ */
+final class EndpointStats {
+
+    /** Highest trackable latency: one minute, in microseconds */
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+    private final LongAdder successes = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    void recordSuccess(long latencyNanos) {
+        recorder.recordValue(clamp(latencyNanos));
+        successes.increment();
+    }
+
+    /**
+     * @param reason HTTP status code, or a short description for client-side failures
+     */
+    void recordError(long latencyNanos, String reason) {
+        recorder.recordValue(clamp(latencyNanos));
+        errors.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Drop everything recorded so far, e.g. at the end of the warm-up
+     */
+    void reset() {
+        recorder.reset();
+        successes.reset();
+        errors.clear();
+    }
+
+    Histogram histogram() {
+        return recorder.getIntervalHistogram();
+    }
+
+    long successes() {
+        return successes.sum();
+    }
+
+    Map<String, LongAdder> errors() {
+        return errors;
+    }
+
+    private static long clamp(long latencyNanos) {
+        return Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(latencyNanos), 1), MAX_LATENCY_MICROS);
+    }
+}
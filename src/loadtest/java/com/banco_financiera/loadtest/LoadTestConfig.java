@@ -0,0 +1,122 @@
+package com.banco_financiera.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load test settings, read from {@code loadTest.*} system properties (the Gradle task forwards
+ * {@code -PloadTest.*} project properties).
+ *
+ * @param database    {@code h2} boots the app in-process on the {@code test} profile, {@code postgres}
+ *                    boots it on the default profile against the configured local database
+ * @param baseUrl     Drive an already running instance instead of booting one; ignores {@code database}
+ * @param rps         Target request rate, held regardless of response times (open model)
+ * @param mix         Relative weight of each operation, e.g. {@code deposit=40,withdraw=25,...}
+ * @param maxInFlight Requests allowed in flight at once; arrivals beyond it are counted as client errors
+ * @param threads     How the booted app serves requests: {@code platform} (Tomcat's thread pool),
+ *                    {@code virtual} (the {@code virtual-threads} profile) or {@code both}, one after the
+ *                    other, with a side-by-side comparison
+ * @param dbLatency   Delay added to every statement and commit of the booted app ({@link SimulatedDbLatency})
+ * @param poolSize    Connection pool size of the booted app; {@code null} keeps the profile's own
+ */
+public record LoadTestConfig(String database,
+                             String baseUrl,
+                             int rps,
+                             Duration warmup,
+                             Duration duration,
+                             int users,
+                             int products,
+                             Map<Operation, Integer> mix,
+                             int maxInFlight,
+                             Duration requestTimeout,
+                             String username,
+                             String password,
+                             Path reportDir,
+                             String threads,
+                             Duration dbLatency,
+                             Integer poolSize) {
+
+    private static final String PREFIX = "loadTest.";
+    private static final String DEFAULT_MIX = "create_user=5,create_product=5,deposit=40,withdraw=25,transfer=25";
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                property("database", "h2"),
+                property("baseUrl", null),
+                Integer.parseInt(property("rps", "200")),
+                Duration.ofSeconds(Long.parseLong(property("warmupSeconds", "10"))),
+                Duration.ofSeconds(Long.parseLong(property("durationSeconds", "60"))),
+                Integer.parseInt(property("users", "100")),
+                Integer.parseInt(property("products", "1000")),
+                parseMix(property("mix", DEFAULT_MIX)),
+                Integer.parseInt(property("maxInFlight", "10000")),
+                Duration.ofMillis(Long.parseLong(property("timeoutMs", "10000"))),
+                property("username", null),
+                property("password", null),
+                Path.of(property("reportDir", "build/reports/loadtest")),
+                property("threads", "platform"),
+                Duration.ofMillis(Long.parseLong(property("dbLatencyMs", "0"))),
+                property("poolSize", null) == null ? null : Integer.valueOf(property("poolSize", null)));
+    }
+
+    /**
+     * Thread models to run, in order
+     */
+    public List<String> threadModes() {
+        List<String> modes = switch (threads.toLowerCase()) {
+            case "platform" -> List.of("platform");
+            case "virtual" -> List.of("virtual");
+            case "both" -> List.of("platform", "virtual");
+            default -> throw new IllegalArgumentException("loadTest.threads must be platform, virtual or both, not " + threads);
+        };
+        if (baseUrl != null && (modes.size() > 1 || !dbLatency.isZero() || poolSize != null)) {
+            throw new IllegalArgumentException("loadTest.threads=both, dbLatencyMs and poolSize need the app booted in-process, not loadTest.baseUrl");
+        }
+        return modes;
+    }
+
+    /**
+     * Pick an operation at random according to the mix weights
+     */
+    public Operation nextOperation() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty operation mix");
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] weight = part.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry '" + part + "', expected operation=weight");
+            }
+            int value = Integer.parseInt(weight[1].trim());
+            if (value < 0) {
+                throw new IllegalArgumentException("Mix weights must not be negative: " + part);
+            }
+            if (value > 0) {
+                weights.put(Operation.valueOf(weight[0].trim().toUpperCase()), value);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The operation mix has no positive weight");
+        }
+        return weights;
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,321 @@
+package com.banco_financiera.loadtest;
+
+import com.banco_financiera.BancoFinancieraApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end HTTP load generator. Boots the application in-process (H2 or a local PostgreSQL) unless
+ * pointed at a running instance, seeds users and funded accounts, then drives the configured mix of
+ * create-user, create-product, deposit, withdraw and transfer requests at a fixed arrival rate, each
+ * request on its own virtual thread. After a warm-up, it reports throughput, error rate and latency
+ * percentiles per endpoint, and writes the full HdrHistogram distributions next to the summary.
+ * With {@code loadTest.threads=both} it runs twice, on platform and then on virtual request threads,
+ * and compares the totals; {@code loadTest.dbLatencyMs} makes every database round trip that slow.
+ *
+ * Run with: ./gradlew loadTest -PloadTest.rps=500 -PloadTest.durationSeconds=60
+ */
+public final class LoadTestRunner {
+
+    /** Large enough that the seeded accounts never run out of funds during a run */
+    private static final String OPENING_BALANCE = "1000000000.00";
+    private static final String AMOUNT = "10.00";
+
+    private final LoadTestConfig config;
+    private final BancoClient client;
+    private final ExecutorService executor;
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+
+    private long[] userIds;
+    private long[] productIds;
+
+    LoadTestRunner(LoadTestConfig config, BancoClient client, ExecutorService executor) {
+        this.config = config;
+        this.client = client;
+        this.executor = executor;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        List<String> modes = config.threadModes();
+        List<Totals> totals = new ArrayList<>();
+        for (String threads : modes) {
+            Path reportDir = modes.size() > 1 ? config.reportDir().resolve(threads) : config.reportDir();
+            totals.add(run(config, threads, reportDir));
+        }
+        if (totals.size() > 1) {
+            compare(config, totals);
+        }
+    }
+
+    private static Totals run(LoadTestConfig config, String threads, Path reportDir) throws Exception {
+        ConfigurableApplicationContext context = config.baseUrl() == null ? boot(config, threads) : null;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            URI baseUri;
+            String username = config.username();
+            String password = config.password();
+            if (context != null) {
+                Environment environment = context.getEnvironment();
+                baseUri = URI.create("http://localhost:" + environment.getRequiredProperty("local.server.port"));
+                username = username != null ? username : environment.getRequiredProperty("security.user.name");
+                password = password != null ? password : environment.getRequiredProperty("security.user.password");
+            } else {
+                baseUri = URI.create(config.baseUrl());
+            }
+            if (username == null || password == null) {
+                throw new IllegalArgumentException("loadTest.username and loadTest.password are required with loadTest.baseUrl");
+            }
+
+            BancoClient client = new BancoClient(baseUri, username, password, config.requestTimeout(), executor);
+            LoadTestRunner runner = new LoadTestRunner(config, client, executor);
+            runner.seed();
+
+            System.out.printf("Warming up for %ds at %d req/s against %s (%s threads)%n",
+                    config.warmup().toSeconds(), config.rps(), baseUri, threads);
+            runner.drive(config.warmup());
+            runner.stats.values().forEach(EndpointStats::reset);
+
+            System.out.printf("Measuring for %ds at %d req/s%n", config.duration().toSeconds(), config.rps());
+            long elapsedNanos = runner.drive(config.duration());
+            return runner.report(elapsedNanos, threads, reportDir);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext boot(LoadTestConfig config, String threads) {
+        String profile = switch (config.database().toLowerCase()) {
+            // application-test.properties: in-memory H2, schema from the entities
+            case "h2" -> "test";
+            // application.properties only (not dev, which logs every SQL statement): local PostgreSQL, Flyway schema
+            case "postgres" -> "default";
+            default -> throw new IllegalArgumentException("loadTest.database must be h2 or postgres, not " + config.database());
+        };
+        if (threads.equals("virtual")) {
+            profile += ",virtual-threads";
+        }
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=" + profile,
+                "--server.port=0",
+                "--logging.level.com.banco_financiera=WARN"));
+        if (config.poolSize() != null) {
+            args.add("--spring.datasource.hikari.maximum-pool-size=" + config.poolSize());
+            args.add("--spring.datasource.hikari.minimum-idle=" + config.poolSize());
+        }
+        SpringApplication application = new SpringApplication(BancoFinancieraApplication.class);
+        if (!config.dbLatency().isZero()) {
+            application.addInitializers(context ->
+                    context.getBeanFactory().addBeanPostProcessor(new SimulatedDbLatency(config.dbLatency())));
+        }
+        return application.run(args.toArray(String[]::new));
+    }
+
+    /**
+     * Create the users and funded accounts that the measured operations act on
+     */
+    private void seed() throws Exception {
+        if (config.users() < 1 || config.products() < 2) {
+            throw new IllegalArgumentException("loadTest.users must be at least 1 and loadTest.products at least 2");
+        }
+        System.out.printf("Seeding %d users and %d accounts%n", config.users(), config.products());
+        userIds = inParallel(config.users(), () -> client.createdId(client.createUser()));
+        productIds = inParallel(config.products(), () -> client.createdId(client.createProduct(randomOf(userIds), OPENING_BALANCE)));
+    }
+
+    private long[] inParallel(int count, Callable<Long> create) throws Exception {
+        List<Callable<Long>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(create);
+        }
+        List<Future<Long>> results = executor.invokeAll(tasks);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = results.get(i).get();
+        }
+        return ids;
+    }
+
+    /**
+     * Issue requests at the target rate for the given time, whatever the response times, then wait
+     * for the ones still in flight
+     * @return nanoseconds from the first request until the last response
+     */
+    private long drive(Duration length) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(config.maxInFlight());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rps();
+        long start = System.nanoTime();
+        long end = start + length.toNanos();
+
+        for (long scheduled = start; scheduled < end; scheduled += intervalNanos) {
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = config.nextOperation();
+            EndpointStats endpoint = stats.get(operation);
+            if (!inFlight.tryAcquire()) {
+                endpoint.recordError(System.nanoTime() - scheduled, "client saturated");
+                continue;
+            }
+            long scheduledAt = scheduled;
+            executor.execute(() -> {
+                try {
+                    call(operation, scheduledAt, endpoint);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        inFlight.acquire(config.maxInFlight());
+        inFlight.release(config.maxInFlight());
+        return System.nanoTime() - start;
+    }
+
+    private void call(Operation operation, long scheduled, EndpointStats endpoint) {
+        try {
+            HttpResponse<String> response = switch (operation) {
+                case CREATE_USER -> client.createUser();
+                case CREATE_PRODUCT -> client.createProduct(randomOf(userIds), OPENING_BALANCE);
+                case DEPOSIT -> client.deposit(randomOf(productIds), AMOUNT);
+                case WITHDRAW -> client.withdraw(randomOf(productIds), AMOUNT);
+                case TRANSFER -> {
+                    int from = ThreadLocalRandom.current().nextInt(productIds.length);
+                    int to = (from + 1 + ThreadLocalRandom.current().nextInt(productIds.length - 1)) % productIds.length;
+                    yield client.transfer(productIds[from], productIds[to], AMOUNT);
+                }
+                case ASYNC_DEPOSIT -> client.asyncDeposit(randomOf(productIds), AMOUNT);
+                case ASYNC_WITHDRAW -> client.asyncWithdraw(randomOf(productIds), AMOUNT);
+                case ASYNC_TRANSFER -> {
+                    int from = ThreadLocalRandom.current().nextInt(productIds.length);
+                    int to = (from + 1 + ThreadLocalRandom.current().nextInt(productIds.length - 1)) % productIds.length;
+                    yield client.asyncTransfer(productIds[from], productIds[to], AMOUNT);
+                }
+            };
+            long latency = System.nanoTime() - scheduled;
+            if (response.statusCode() / 100 == 2) {
+                endpoint.recordSuccess(latency);
+            } else {
+                endpoint.recordError(latency, "HTTP " + response.statusCode());
+            }
+        } catch (HttpTimeoutException e) {
+            endpoint.recordError(System.nanoTime() - scheduled, "timeout");
+        } catch (IOException e) {
+            endpoint.recordError(System.nanoTime() - scheduled, e.getClass().getSimpleName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Print and write the per-endpoint results
+     * @return totals across all endpoints, for comparing runs
+     */
+    private Totals report(long elapsedNanos, String threads, Path reportDir) throws IOException {
+        Files.createDirectories(reportDir);
+        double seconds = elapsedNanos / 1e9;
+        Histogram all = new Histogram(3);
+        long allRequests = 0;
+        long allErrors = 0;
+        try (PrintStream summary = new PrintStream(Files.newOutputStream(reportDir.resolve("summary.txt")))) {
+            for (PrintStream out : List.of(System.out, summary)) {
+                out.printf("Target %d req/s for %.1fs, %s threads, simulated DB latency %d ms, mix %s%n",
+                        config.rps(), seconds, threads, config.dbLatency().toMillis(), config.mix());
+                out.printf("%-15s %9s %10s %8s %9s %9s %9s %9s %9s%n",
+                        "endpoint", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+            }
+            for (Map.Entry<Operation, EndpointStats> entry : stats.entrySet()) {
+                if (!config.mix().containsKey(entry.getKey())) {
+                    continue;
+                }
+                EndpointStats endpoint = entry.getValue();
+                Histogram histogram = endpoint.histogram();
+                long errors = endpoint.errors().values().stream().mapToLong(LongAdder::sum).sum();
+                long requests = endpoint.successes() + errors;
+                all.add(histogram);
+                allRequests += requests;
+                allErrors += errors;
+                for (PrintStream out : List.of(System.out, summary)) {
+                    out.printf("%-15s %9d %10.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                            entry.getKey().name().toLowerCase(), requests, requests / seconds,
+                            requests == 0 ? 0.0 : 100.0 * errors / requests,
+                            millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                            millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                            millis(histogram.getMaxValue()));
+                    endpoint.errors().forEach((reason, count) -> out.printf("%-15s   %s: %d%n", "", reason, count.sum()));
+                }
+                try (PrintStream distribution = new PrintStream(Files.newOutputStream(
+                        reportDir.resolve(entry.getKey().name().toLowerCase() + ".hgrm")))) {
+                    histogram.outputPercentileDistribution(distribution, 1000.0);
+                }
+            }
+        }
+        System.out.println("Report and latency distributions (.hgrm, in ms) written to " + reportDir.toAbsolutePath());
+        return new Totals(threads, allRequests, allErrors, seconds, all);
+    }
+
+    /**
+     * Side-by-side totals of the runs, e.g. platform against virtual threads
+     */
+    private static void compare(LoadTestConfig config, List<Totals> runs) throws IOException {
+        try (PrintStream comparison = new PrintStream(Files.newOutputStream(config.reportDir().resolve("comparison.txt")))) {
+            for (PrintStream out : List.of(System.out, comparison)) {
+                out.printf("%nTarget %d req/s, simulated DB latency %d ms, pool size %s%n", config.rps(),
+                        config.dbLatency().toMillis(), config.poolSize() == null ? "per profile" : config.poolSize());
+                out.printf("%-10s %10s %8s %9s %9s %9s%n", "threads", "ok req/s", "errors", "p50 ms", "p99 ms", "max ms");
+                for (Totals run : runs) {
+                    Histogram latency = run.latency();
+                    out.printf("%-10s %10.1f %7.2f%% %9.2f %9.2f %9.2f%n", run.threads(),
+                            (run.requests() - run.errors()) / run.seconds(),
+                            run.requests() == 0 ? 0.0 : 100.0 * run.errors() / run.requests(),
+                            millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(99)),
+                            millis(latency.getMaxValue()));
+                }
+            }
+        }
+    }
+
+    /**
+     * One run's results across all endpoints
+     * @param latency Microseconds, as in {@link EndpointStats}
+     */
+    private record Totals(String threads, long requests, long errors, double seconds, Histogram latency) {
+    }
+
+    private static long randomOf(long[] ids) {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.banco_financiera.loadtest;
+
+/**
+ * Endpoints driven by the load generator, each reported separately.
+ */
+public enum Operation {
+    CREATE_USER,
+    CREATE_PRODUCT,
+    DEPOSIT,
+    WITHDRAW,
+    TRANSFER,
+    /** Submissions to the async pipeline, answered with 202 once queued; not in the default mix */
+    ASYNC_DEPOSIT,
+    ASYNC_WITHDRAW,
+    ASYNC_TRANSFER
+}
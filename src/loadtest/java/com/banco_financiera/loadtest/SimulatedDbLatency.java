@@ -0,0 +1,104 @@
+package com.banco_financiera.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Adds a fixed delay to every statement execution and commit, as if the database were that far away
+ * or that busy. The pooled connection stays checked out during the delay, exactly as it would while
+ * waiting on a slow server, so the delay costs request threads and pool slots alike. Registered by
+ * {@link LoadTestRunner} when {@code loadTest.dbLatencyMs} is set.
+ */
+final class SimulatedDbLatency implements BeanPostProcessor {
+
+    private final Duration latency;
+
+    SimulatedDbLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        // A DelegatingDataSource is unwrapped by Boot's pool metrics and health checks
+        if (bean instanceof DataSource dataSource && !(bean instanceof DelayedDataSource)) {
+            return new DelayedDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    private final class DelayedDataSource extends DelegatingDataSource {
+
+        DelayedDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return delayed(super.getConnection(), Connection.class);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return delayed(super.getConnection(username, password), Connection.class);
+        }
+    }
+
+    /**
+     * Proxy a connection or statement: statements it creates are proxied in turn, and executions and
+     * commits are delayed before they reach the driver
+     */
+    private <T> T delayed(T target, Class<T> type) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "commit", "execute", "executeQuery", "executeUpdate", "executeLargeUpdate",
+                        "executeBatch", "executeLargeBatch" -> pause();
+                default -> {
+                }
+            }
+            Object result = invoke(target, method, args);
+            if (result instanceof Statement && method.getReturnType().isInterface()) {
+                return delayed(result, typeOf(method));
+            }
+            return result;
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Object> typeOf(Method method) {
+        return (Class<Object>) method.getReturnType();
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void pause() throws SQLException {
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted during simulated database latency", e);
+        }
+    }
+}
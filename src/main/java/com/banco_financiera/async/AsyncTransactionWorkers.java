@@ -0,0 +1,309 @@
+package com.banco_financiera.async;
+
+import com.banco_financiera.dto.TransactionRequestDTO;
+import com.banco_financiera.enums.QueuedTransactionStatus;
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.exception.business.BusinessException;
+import com.banco_financiera.models.QueuedTransaction;
+import com.banco_financiera.models.Transaction;
+import com.banco_financiera.repositories.QueuedTransactionRepository;
+import com.banco_financiera.services.ITransactionService;
+import com.banco_financiera.sharding.ShardedLedgerProcessor;
+import com.banco_financiera.utils.ExceptionCauses;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies queued transactions, one worker thread per partition. A worker takes the pending head of
+ * its partition in id order and applies each request through {@link ITransactionService} in the same
+ * database transaction that marks it settled, so a request is applied exactly once even if the node
+ * dies halfway. A business rejection settles the request as REJECTED and the worker moves on. Any
+ * other failure (lock timeout, lost connection) stops the partition and retries the same request
+ * after a backoff, so later requests for its account never overtake it. After
+ * {@code max-attempts} failures it is settled as FAILED.
+ * <p>
+ * Workers poll every {@code poll-interval-ms}, and are woken at once when this node accepts a
+ * request. Partitions are not leased between nodes: with several nodes, run the workers on one of them
+ * ({@code banco.transactions.async.workers-enabled}). The settle condition still keeps a request from
+ * being applied twice, but accounts would lose their ordering.
+ */
+@Slf4j
+@Component
+public class AsyncTransactionWorkers {
+
+    public static final String SETTLEMENT_LAG = "banco.async.settlement.lag";
+
+    private final QueuedTransactionRepository queuedTransactionRepository;
+    private final ITransactionService transactionService;
+    private final ShardedLedgerProcessor shardedLedgerProcessor;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int partitions;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final int maxAttempts;
+
+    private final Semaphore[] wakeUps;
+    private final Map<UUID, CompletableFuture<QueuedTransaction>> waiters = new ConcurrentHashMap<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    public AsyncTransactionWorkers(QueuedTransactionRepository queuedTransactionRepository,
+                                   ITransactionService transactionService,
+                                   ShardedLedgerProcessor shardedLedgerProcessor,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${banco.transactions.async.workers-enabled:true}") boolean enabled,
+                                   @Value("${banco.transactions.async.partitions:8}") int partitions,
+                                   @Value("${banco.transactions.async.batch-size:100}") int batchSize,
+                                   @Value("${banco.transactions.async.poll-interval-ms:200}") long pollIntervalMs,
+                                   @Value("${banco.transactions.async.max-attempts:5}") int maxAttempts) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("banco.transactions.async.partitions must be at least 1");
+        }
+        this.queuedTransactionRepository = queuedTransactionRepository;
+        this.transactionService = transactionService;
+        this.shardedLedgerProcessor = shardedLedgerProcessor;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.partitions = partitions;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxAttempts = maxAttempts;
+        this.wakeUps = new Semaphore[partitions];
+        for (int i = 0; i < partitions; i++) {
+            wakeUps[i] = new Semaphore(0);
+        }
+    }
+
+    /**
+     * Partition that orders the operations of an account
+     */
+    public int partitionOf(Long productId) {
+        return (int) Math.floorMod(productId, (long) partitions);
+    }
+
+    /**
+     * Tell the partition's worker that a request was committed, instead of waiting for its next poll
+     */
+    public void wake(int partition) {
+        Semaphore wakeUp = wakeUps[partition];
+        if (wakeUp.availablePermits() == 0) {
+            wakeUp.release();
+        }
+    }
+
+    /**
+     * Whether this node runs workers, and so can tell when a request settles
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Completes with the settled request when a worker on this node settles it. The caller must check
+     * the stored status after registering, since the request may have settled just before.
+     */
+    public CompletableFuture<QueuedTransaction> whenSettled(UUID trackingId) {
+        return waiters.computeIfAbsent(trackingId, id -> new CompletableFuture<>());
+    }
+
+    /**
+     * Stop waiting for a request that will not settle here, e.g. because it already has
+     */
+    public void forget(UUID trackingId) {
+        waiters.remove(trackingId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Async transaction workers are disabled on this node");
+            return;
+        }
+        running = true;
+        for (int partition = 0; partition < partitions; partition++) {
+            int owned = partition;
+            Thread thread = new Thread(() -> run(owned), "async-tx-" + partition);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        log.info("Started {} async transaction workers", partitions);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        threads.forEach(Thread::interrupt);
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void run(int partition) {
+        while (running) {
+            try {
+                if (drain(partition) == 0) {
+                    wakeUps[partition].tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Async transaction worker {} failed to read its queue: {}", partition, e.getMessage(), e);
+                sleep(pollIntervalMs);
+            }
+        }
+    }
+
+    /**
+     * Settle the pending head of a partition, stopping at the first request that has to be retried
+     * @return number of requests settled
+     * @throws InterruptedException if the worker is stopped during a retry backoff
+     */
+    int drain(int partition) throws InterruptedException {
+        List<QueuedTransaction> head = queuedTransactionRepository.findPendingHead(partition, PageRequest.of(0, batchSize));
+        int settled = 0;
+        for (QueuedTransaction queued : head) {
+            if (!settle(queued)) {
+                Thread.sleep(pollIntervalMs);
+                break;
+            }
+            settled++;
+        }
+        return settled;
+    }
+
+    /**
+     * Apply one request and mark it settled
+     * @return false if it failed for a technical reason and has to be retried before anything after it
+     */
+    boolean settle(QueuedTransaction queued) {
+        try {
+            Transaction transaction = shardedLedgerProcessor.isEnabled() ? applyOnShard(queued) : applyAndSettle(queued);
+            if (transaction != null) {
+                settled(queued, QueuedTransactionStatus.COMPLETED, transaction.getId(), null, null);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            BusinessException rejection = ExceptionCauses.businessCause(e);
+            if (rejection != null) {
+                return finish(queued, QueuedTransactionStatus.REJECTED, rejection.getErrorCode(), rejection.getMessage());
+            }
+            int attempts = queued.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                log.error("Giving up on queued {} {} after {} attempts: {}",
+                        queued.getOperation(), queued.getTrackingId(), attempts, e.getMessage(), e);
+                return finish(queued, QueuedTransactionStatus.FAILED, "PROCESSING_FAILED", truncate(e.getMessage()));
+            }
+            log.warn("Queued {} {} failed (attempt {} of {}), retrying: {}",
+                    queued.getOperation(), queued.getTrackingId(), attempts, maxAttempts, e.getMessage());
+            transactionTemplate.executeWithoutResult(status ->
+                    queuedTransactionRepository.recordFailedAttempt(queued.getId(), truncate(e.getMessage())));
+            queued.setAttempts(attempts);
+            return false;
+        }
+    }
+
+    private Transaction applyAndSettle(QueuedTransaction queued) {
+        return transactionTemplate.execute(status -> {
+            Transaction applied = apply(queued);
+            if (queuedTransactionRepository.settle(queued.getId(), QueuedTransactionStatus.COMPLETED.name(),
+                    applied.getId(), null, null, LocalDateTime.now()) == 0) {
+                // Settled elsewhere meanwhile: roll back rather than apply it twice
+                status.setRollbackOnly();
+                return null;
+            }
+            return applied;
+        });
+    }
+
+    /**
+     * The shard writes the entry in its own transaction, so the request is marked settled in that one
+     */
+    private Transaction applyOnShard(QueuedTransaction queued) {
+        return shardedLedgerProcessor.apply(TransactionType.valueOf(queued.getOperation()), queued.getProductId(),
+                queued.getToProductId(), queued.getAmount(), applied -> {
+                    if (queuedTransactionRepository.settle(queued.getId(), QueuedTransactionStatus.COMPLETED.name(),
+                            applied.getId(), null, null, LocalDateTime.now()) == 0) {
+                        // Settled elsewhere meanwhile: the shard drops this entry rather than apply it twice
+                        throw new IllegalStateException("Queued " + queued.getTrackingId() + " was already settled");
+                    }
+                });
+    }
+
+    private Transaction apply(QueuedTransaction queued) {
+        TransactionRequestDTO request = new TransactionRequestDTO();
+        request.setAmount(queued.getAmount());
+        return switch (TransactionType.valueOf(queued.getOperation())) {
+            case DEPOSIT -> transactionService.deposit(queued.getProductId(), request);
+            case WITHDRAW -> transactionService.withdraw(queued.getProductId(), request);
+            case TRANSFER -> transactionService.transfer(queued.getProductId(), queued.getToProductId(), request);
+            case TRANSFER_IN -> throw new IllegalStateException("TRANSFER_IN is never queued");
+        };
+    }
+
+    private boolean finish(QueuedTransaction queued, QueuedTransactionStatus status, String errorCode, String errorMessage) {
+        Integer updated = transactionTemplate.execute(tx -> queuedTransactionRepository.settle(
+                queued.getId(), status.name(), null, errorCode, errorMessage, LocalDateTime.now()));
+        if (updated != null && updated > 0) {
+            settled(queued, status, null, errorCode, errorMessage);
+        }
+        return true;
+    }
+
+    private void settled(QueuedTransaction queued, QueuedTransactionStatus status, Long transactionId,
+                         String errorCode, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        queued.setStatus(status.name());
+        queued.setTransactionId(transactionId);
+        queued.setErrorCode(errorCode);
+        queued.setErrorMessage(errorMessage);
+        queued.setSettledAt(now);
+        Timer.builder(SETTLEMENT_LAG)
+                .description("Time from acceptance to settlement of async transactions")
+                .tag("operation", queued.getOperation())
+                .tag("status", status.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.between(queued.getAcceptedAt(), now));
+        CompletableFuture<QueuedTransaction> waiter = waiters.remove(queued.getTrackingId());
+        if (waiter != null) {
+            waiter.complete(queued);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message == null || message.length() <= 500 ? message : message.substring(0, 500);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
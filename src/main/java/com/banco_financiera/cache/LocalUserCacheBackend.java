@@ -0,0 +1,69 @@
+package com.banco_financiera.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-JVM backend (Caffeine). Negative entries get their own, shorter TTL, since a user created
+ * on another node stays invisible to this one until its negative entry expires.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.cache.users.backend", havingValue = "local", matchIfMissing = true)
+public class LocalUserCacheBackend implements UserCacheBackend {
+
+    static final String NAME = "users";
+
+    private final Cache<Long, UserLookup> cache;
+
+    public LocalUserCacheBackend(MeterRegistry meterRegistry,
+                                 @Value("${banco.cache.users.maximum-size:100000}") long maximumSize,
+                                 @Value("${banco.cache.users.ttl-seconds:300}") long ttlSeconds,
+                                 @Value("${banco.cache.users.negative-ttl-seconds:10}") long negativeTtlSeconds) {
+        long ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        long negativeTtlNanos = TimeUnit.SECONDS.toNanos(negativeTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Long, UserLookup>() {
+                    @Override
+                    public long expireAfterCreate(Long key, UserLookup lookup, long currentTime) {
+                        return lookup.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long key, UserLookup lookup, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, lookup, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long key, UserLookup lookup, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    @Override
+    public UserLookup get(Long identificationNumber) {
+        return cache.getIfPresent(identificationNumber);
+    }
+
+    @Override
+    public void put(Long identificationNumber, UserLookup lookup) {
+        cache.put(identificationNumber, lookup);
+    }
+
+    @Override
+    public void evict(Long identificationNumber) {
+        cache.invalidate(identificationNumber);
+    }
+}
@@ -0,0 +1,93 @@
+package com.banco_financiera.cache;
+
+import com.banco_financiera.repositories.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded, read-through cache of {@link ProductSummary} keyed by product id (Caffeine, W-TinyLFU
+ * admission). Changes made on this node are evicted at once and published as a
+ * {@link ProductChangedEvent}; with {@code banco.cache.products.invalidation=notify} the
+ * {@link ProductCacheNotifier} evicts them on every other node as the change commits. Entries also
+ * expire after {@code banco.cache.products.ttl-seconds}, which only matters if a notification is lost.
+ * Absent products are not cached. Hit, miss, eviction and size metrics are published as
+ * {@code cache.*} meters tagged {@code cache=products}.
+ */
+@Slf4j
+@Component
+public class ProductCache {
+
+    static final String NAME = "products";
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<Long, ProductSummary> cache;
+
+    public ProductCache(ProductRepository productRepository,
+                        ApplicationEventPublisher eventPublisher,
+                        MeterRegistry meterRegistry,
+                        @Value("${banco.cache.products.maximum-size:10000}") long maximumSize,
+                        @Value("${banco.cache.products.ttl-seconds:30}") long ttlSeconds) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    /**
+     * Summary of a product, loading it from the database on a miss
+     * @return Empty if the product does not exist
+     */
+    public Optional<ProductSummary> get(Long productId) {
+        return Optional.ofNullable(cache.get(productId,
+                id -> productRepository.findSummaryById(id).orElse(null)));
+    }
+
+    /**
+     * Evict a product that is being changed, here and on the other nodes. Inside a transaction it is
+     * evicted again after completion, so a concurrent miss cannot re-cache the row as it was before
+     * the commit.
+     */
+    public void evict(Long productId) {
+        cache.invalidate(productId);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(productId);
+                }
+            });
+        }
+        log.debug("Evicted product {} from cache", productId);
+    }
+
+    /**
+     * Evict a product changed by another node
+     */
+    public void evictLocally(Long productId) {
+        cache.invalidate(productId);
+    }
+
+    /**
+     * Evict every product, e.g. after changes from other nodes may have been missed
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
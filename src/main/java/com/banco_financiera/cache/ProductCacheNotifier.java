@@ -0,0 +1,121 @@
+package com.banco_financiera.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evicts changed products from the {@link ProductCache} of every node through PostgreSQL
+ * {@code LISTEN}/{@code NOTIFY}. A {@link ProductChangedEvent} is sent as a notification inside the
+ * transaction making the change, so the database delivers it only if that transaction commits, and
+ * right after it does. Each node listens on one connection of its pool.
+ * <p>
+ * Notifications sent while a node is not listening are lost, so the node evicts its whole cache
+ * whenever it (re)connects; until then its entries are only bounded by the cache TTL.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "banco.cache.products.invalidation", havingValue = "notify")
+public class ProductCacheNotifier {
+
+    static final String CHANNEL = "banco_product_changed";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final ProductCache productCache;
+    private final long pollMillis;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public ProductCacheNotifier(JdbcTemplate jdbcTemplate,
+                                DataSource dataSource,
+                                ProductCache productCache,
+                                @Value("${banco.cache.products.notify-poll-ms:500}") long pollMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.productCache = productCache;
+        this.pollMillis = pollMillis;
+    }
+
+    /**
+     * Runs in the caller's transaction, if any, so the other nodes only hear about committed changes
+     */
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, event.productId().toString());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        listener = new Thread(this::listen, "product-cache-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+            listener.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                // Changes made while nobody was listening were never heard
+                productCache.evictAll();
+                log.info("Listening for product changes from other nodes");
+
+                PGConnection notifications = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] received = notifications.getNotifications((int) pollMillis);
+                    if (received == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : received) {
+                        productCache.evictLocally(Long.valueOf(notification.getParameter()));
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Product change listener lost its connection, reconnecting: {}", e.getMessage());
+                productCache.evictAll();
+                sleep(pollMillis);
+            }
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.banco_financiera.cache;
+
+/**
+ * Published by {@link ProductCache#evict(Long)} when a product's status or metadata is being changed,
+ * so that other nodes can evict it too (see {@link ProductCacheNotifier}).
+ */
+public record ProductChangedEvent(Long productId) {
+}
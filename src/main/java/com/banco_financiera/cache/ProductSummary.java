@@ -0,0 +1,15 @@
+package com.banco_financiera.cache;
+
+import com.banco_financiera.enums.AccountStatus;
+
+/**
+ * The cacheable part of a product: status and metadata. It deliberately has no balance,
+ * so a cached summary can never be used to serve or check one.
+ */
+public record ProductSummary(Long id, String accountType, String accountNumber, String status,
+                             Boolean exentaGMF, Long userId) {
+
+    public boolean isActive() {
+        return AccountStatus.ACTIVE.name().equalsIgnoreCase(status);
+    }
+}
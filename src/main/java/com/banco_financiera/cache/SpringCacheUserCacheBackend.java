@@ -0,0 +1,43 @@
+package com.banco_financiera.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backend that stores lookups in a named cache of the application's {@link CacheManager},
+ * e.g. a Redis cache shared by every node. Expiry, including how long negative entries live,
+ * is whatever that cache is configured with.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.cache.users.backend", havingValue = "spring")
+public class SpringCacheUserCacheBackend implements UserCacheBackend {
+
+    private final Cache cache;
+
+    public SpringCacheUserCacheBackend(CacheManager cacheManager,
+                                       @Value("${banco.cache.users.cache-name:users}") String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            throw new IllegalStateException("No cache named '" + cacheName + "' in the configured CacheManager");
+        }
+        this.cache = cache;
+    }
+
+    @Override
+    public UserLookup get(Long identificationNumber) {
+        return cache.get(identificationNumber, UserLookup.class);
+    }
+
+    @Override
+    public void put(Long identificationNumber, UserLookup lookup) {
+        cache.put(identificationNumber, lookup);
+    }
+
+    @Override
+    public void evict(Long identificationNumber) {
+        cache.evict(identificationNumber);
+    }
+}
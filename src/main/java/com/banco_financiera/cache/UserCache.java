@@ -0,0 +1,55 @@
+package com.banco_financiera.cache;
+
+import com.banco_financiera.dto.UserResponseDTO;
+import com.banco_financiera.mapper.UserMapper;
+import com.banco_financiera.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * Read-through cache of {@link UserRepository#findByIdentificationNumber(Long)}, including misses.
+ * Every write to a user must {@link #evict(Long)} each identification number it touches,
+ * so that neither the old row nor a negative entry outlives the commit.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserCache {
+
+    private final UserCacheBackend backend;
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+
+    public Optional<UserResponseDTO> findByIdentificationNumber(Long identificationNumber) {
+        UserLookup lookup = backend.get(identificationNumber);
+        if (lookup == null) {
+            lookup = userRepository.findByIdentificationNumber(identificationNumber)
+                    .map(user -> new UserLookup(userMapper.toResponseDTO(user)))
+                    .orElse(UserLookup.absent());
+            backend.put(identificationNumber, lookup);
+        }
+        return lookup.toOptional();
+    }
+
+    /**
+     * Evict an identification number now and, inside a transaction, again after completion,
+     * so a concurrent miss cannot re-cache what the row looked like before the commit.
+     */
+    public void evict(Long identificationNumber) {
+        backend.evict(identificationNumber);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    backend.evict(identificationNumber);
+                }
+            });
+        }
+        log.debug("Evicted user {} from cache", identificationNumber);
+    }
+}
@@ -0,0 +1,18 @@
+package com.banco_financiera.cache;
+
+/**
+ * Storage behind {@link UserCache}, selected with {@code banco.cache.users.backend}:
+ * {@code local} keeps entries in this JVM, {@code spring} delegates to the application's
+ * {@code CacheManager} so a shared store (e.g. Redis) can be plugged in by configuration.
+ */
+public interface UserCacheBackend {
+
+    /**
+     * @return The cached lookup, or null when the identification number is not cached
+     */
+    UserLookup get(Long identificationNumber);
+
+    void put(Long identificationNumber, UserLookup lookup);
+
+    void evict(Long identificationNumber);
+}
@@ -0,0 +1,28 @@
+package com.banco_financiera.cache;
+
+import com.banco_financiera.dto.UserResponseDTO;
+
+import java.io.Serializable;
+import java.util.Optional;
+
+/**
+ * Cached result of looking a user up by identification number. An empty lookup records that
+ * no such user exists (negative caching), so repeated checks for a free number stay in memory.
+ * Serializable so that remote backends can store it.
+ */
+public record UserLookup(UserResponseDTO user) implements Serializable {
+
+    private static final UserLookup ABSENT = new UserLookup(null);
+
+    public static UserLookup absent() {
+        return ABSENT;
+    }
+
+    public boolean isPresent() {
+        return user != null;
+    }
+
+    public Optional<UserResponseDTO> toOptional() {
+        return Optional.ofNullable(user);
+    }
+}
@@ -36,6 +36,11 @@ public class OpenApiConfig {
                                 new SecurityScheme()
                                         .type(SecurityScheme.Type.HTTP)
                                         .scheme("basic")
-                                        .description("Basic Authentication with username and password")));
+                                        .description("Basic Authentication with username and password"))
+                        .addSecuritySchemes("bearerAuth",
+                                new SecurityScheme()
+                                        .type(SecurityScheme.Type.HTTP)
+                                        .scheme("bearer")
+                                        .description("Signed token from POST /auth/token (when banco.security.token.enabled)")));
     }
 }
\ No newline at end of file
@@ -1,8 +1,15 @@
 package com.banco_financiera.config;
 
+import com.banco_financiera.security.CachingAuthenticationProvider;
+import com.banco_financiera.security.HmacTokenService;
+import com.banco_financiera.security.TokenAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.userdetails.User;
@@ -11,19 +18,34 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    private static final String TOKEN_ENDPOINT = "/api/v1/banco-financiera/auth/token";
+
     @Value("${security.user.name}")
     private String username;
 
     @Value("${security.user.password}")
     private String password;
 
+    @Value("${banco.security.auth-cache.enabled:true}")
+    private boolean authCacheEnabled;
+
+    @Value("${banco.security.auth-cache.maximum-size:10000}")
+    private long authCacheMaximumSize;
+
+    @Value("${banco.security.auth-cache.ttl-seconds:60}")
+    private long authCacheTtlSeconds;
+
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, ObjectProvider<HmacTokenService> tokenService) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(authz -> authz
@@ -47,6 +69,11 @@ public class SecurityConfig {
                         )
                 );
 
+        // Opt-in signed tokens (banco.security.token.enabled); Basic keeps working alongside them
+        tokenService.ifAvailable(service -> http.addFilterBefore(
+                new TokenAuthenticationFilter(service, new AntPathRequestMatcher(TOKEN_ENDPOINT)),
+                BasicAuthenticationFilter.class));
+
         return http.build();
     }
 
@@ -67,6 +94,24 @@ public class SecurityConfig {
         return new InMemoryUserDetailsManager(user, admin);
     }
 
+    /**
+     * BCrypt is deliberately slow, so unless disabled, verified credentials are remembered for a short
+     * TTL instead of being re-hashed on every Basic-authenticated request.
+     */
+    @Bean
+    public AuthenticationProvider authenticationProvider(InMemoryUserDetailsManager userDetailsService,
+                                                         PasswordEncoder passwordEncoder,
+                                                         MeterRegistry meterRegistry) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsService(userDetailsService);
+        if (!authCacheEnabled) {
+            return provider;
+        }
+        return new CachingAuthenticationProvider(provider, meterRegistry,
+                authCacheMaximumSize, Duration.ofSeconds(authCacheTtlSeconds));
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
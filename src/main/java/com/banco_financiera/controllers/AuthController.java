@@ -0,0 +1,43 @@
+package com.banco_financiera.controllers;
+
+import com.banco_financiera.dto.TokenResponseDTO;
+import com.banco_financiera.security.HmacTokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping(value = "/api/v1/banco-financiera/auth", produces = {MediaType.APPLICATION_JSON_VALUE})
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "banco.security.token.enabled", havingValue = "true")
+@Tag(name = "Authentication", description = "Signed token issuance")
+@SecurityRequirement(name = "basicAuth")
+public class AuthController {
+
+    private final HmacTokenService tokenService;
+
+    @Operation(summary = "Issue a token",
+            description = "Exchange Basic credentials for a signed bearer token, valid on every node until it expires")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Token issued"),
+            @ApiResponse(responseCode = "401", description = "Authentication required")
+    })
+    @PostMapping("/token")
+    public ResponseEntity<TokenResponseDTO> issueToken(Authentication authentication) {
+        log.debug("Issuing token for {}", authentication.getName());
+        return ResponseEntity.ok(new TokenResponseDTO(tokenService.issue(authentication), "Bearer",
+                tokenService.getTtl().toSeconds()));
+    }
+}
@@ -1,9 +1,11 @@
 package com.banco_financiera.controllers;
 
 import com.banco_financiera.core.exceptions.HttpClientException;
+import com.banco_financiera.dto.KeysetPageDTO;
 import com.banco_financiera.dto.ProductRequestDTO;
-import com.banco_financiera.models.Product;
+import com.banco_financiera.dto.ProductResponseDTO;
 import com.banco_financiera.services.IProductService;
+import com.banco_financiera.utils.NdjsonExport;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -17,8 +19,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
 import java.util.Optional;
 
 @Slf4j
@@ -31,16 +33,37 @@ public class ProductController {
 
     private final IProductService productService;
 
-    @Operation(summary = "Get all products", description = "Retrieve all financial products in the system")
+    @Operation(summary = "Get products",
+            description = "Page through the financial products ordered by ID. Pass the returned next_cursor to get the next page")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size"),
             @ApiResponse(responseCode = "401", description = "Authentication required")
     })
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        log.debug("Getting all products");
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<KeysetPageDTO<ProductResponseDTO>> getProducts(
+            @Parameter(description = "next_cursor of the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "50") int size) {
+
+        log.debug("Getting products after cursor: {}", cursor);
+        return ResponseEntity.ok(productService.getProducts(cursor, size));
+    }
+
+    @Operation(summary = "Export all products",
+            description = "Stream every financial product as newline-delimited JSON, one product per line")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "401", description = "Authentication required")
+    })
+    @GetMapping(value = "/export", produces = NdjsonExport.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        log.debug("Starting product export");
+        StreamingResponseBody body = productService::exportProducts;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonExport.MEDIA_TYPE))
+                .body(body);
     }
 
     @Operation(summary = "Get product by ID", description = "Retrieve a specific product by its ID")
@@ -50,12 +73,12 @@ public class ProductController {
             @ApiResponse(responseCode = "401", description = "Authentication required")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(
+    public ResponseEntity<ProductResponseDTO> getProductById(
             @Parameter(description = "Product ID", required = true)
             @PathVariable Long id) {
 
         log.debug("Getting product by ID: {}", id);
-        Optional<Product> product = productService.getProductById(id);
+        Optional<ProductResponseDTO> product = productService.getProductById(id);
 
         return product.map(ResponseEntity::ok)
                      .orElse(ResponseEntity.notFound().build());
@@ -69,12 +92,12 @@ public class ProductController {
             @ApiResponse(responseCode = "401", description = "Authentication required")
     })
     @PostMapping
-    public ResponseEntity<Product> createProduct(
+    public ResponseEntity<ProductResponseDTO> createProduct(
             @Parameter(description = "Product data", required = true)
             @Valid @RequestBody ProductRequestDTO productRequestDTO) throws HttpClientException {
 
         log.debug("Creating product for user ID: {}", productRequestDTO.getUserId());
-        Product createdProduct = productService.createProduct(productRequestDTO, productRequestDTO.getUserId());
+        ProductResponseDTO createdProduct = productService.createProduct(productRequestDTO, productRequestDTO.getUserId());
         return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
     }
 
@@ -86,14 +109,14 @@ public class ProductController {
             @ApiResponse(responseCode = "401", description = "Authentication required")
     })
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(
+    public ResponseEntity<ProductResponseDTO> updateProduct(
             @Parameter(description = "Product ID", required = true)
             @PathVariable Long id,
             @Parameter(description = "Updated product data", required = true)
             @Valid @RequestBody ProductRequestDTO productRequestDTO) throws HttpClientException {
 
         log.debug("Updating product with ID: {}", id);
-        Product updatedProduct = productService.updateProduct(id, productRequestDTO);
+        ProductResponseDTO updatedProduct = productService.updateProduct(id, productRequestDTO);
         return ResponseEntity.ok(updatedProduct);
     }
 
@@ -104,14 +127,14 @@ public class ProductController {
             @ApiResponse(responseCode = "401", description = "Authentication required")
     })
     @PutMapping("/{id}/status")
-    public ResponseEntity<Product> updateProductStatus(
+    public ResponseEntity<ProductResponseDTO> updateProductStatus(
             @Parameter(description = "Product ID", required = true)
             @PathVariable Long id,
             @Parameter(description = "New status", required = true)
             @RequestParam String status) throws HttpClientException {
 
         log.debug("Updating product status for ID: {} to: {}", id, status);
-        Product updatedProduct = productService.updateProductStatus(id, status);
+        ProductResponseDTO updatedProduct = productService.updateProductStatus(id, status);
         return ResponseEntity.ok(updatedProduct);
     }
 
@@ -1,15 +1,28 @@
 package com.banco_financiera.controllers;
 
+import com.banco_financiera.dto.AsyncTransactionDTO;
+import com.banco_financiera.dto.BatchTransactionRequestDTO;
+import com.banco_financiera.dto.BatchTransactionResponseDTO;
+import com.banco_financiera.dto.KeysetPageDTO;
+import com.banco_financiera.dto.TransactionHistoryDTO;
 import com.banco_financiera.dto.TransactionRequestDTO;
+import com.banco_financiera.dto.TransactionResponseDTO;
+import com.banco_financiera.enums.TransactionType;
 import com.banco_financiera.exception.business.BusinessException;
+import com.banco_financiera.mapper.TransactionMapper;
 import com.banco_financiera.models.Transaction;
+import com.banco_financiera.services.IAsyncTransactionService;
+import com.banco_financiera.services.IBatchTransactionService;
+import com.banco_financiera.services.IIdempotencyService;
 import com.banco_financiera.services.ITransactionService;
+import com.banco_financiera.services.ITransactionStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +30,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -26,25 +47,65 @@ import org.springframework.web.bind.annotation.*;
 @SecurityRequirement(name = "basicAuth")
 public class TransactionController {
 
+    /**
+     * Optional on every operation: a retry with the same key gets the first response back instead of
+     * executing again (see {@link IIdempotencyService})
+     */
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final ITransactionService transactionService;
+    private final IBatchTransactionService batchTransactionService;
+    private final ITransactionStreamService transactionStreamService;
+    private final IAsyncTransactionService asyncTransactionService;
+    private final IIdempotencyService idempotencyService;
+    private final TransactionMapper transactionMapper;
+
+    @Operation(summary = "Get transaction history",
+            description = "Page through the transactions of a product, newest first. Pass the returned next_cursor to get the next page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transactions retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "401", description = "Authentication required")
+    })
+    @GetMapping("/{productId}")
+    public ResponseEntity<KeysetPageDTO<TransactionHistoryDTO>> getTransactionHistory(
+            @Parameter(description = "Product ID", required = true)
+            @PathVariable Long productId,
+            @Parameter(description = "next_cursor of the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "50") int size) throws BusinessException {
+
+        log.debug("Getting transaction history for product ID: {}", productId);
+        return ResponseEntity.ok(transactionService.getTransactionHistory(productId, cursor, size));
+    }
 
     @Operation(summary = "Make a deposit", description = "Deposit money into a financial product account")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Deposit completed successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid input data"),
             @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request"),
             @ApiResponse(responseCode = "401", description = "Authentication required")
     })
     @PostMapping("/{productId}/deposit")
-    public ResponseEntity<Transaction> deposit(
+    public ResponseEntity<TransactionResponseDTO> deposit(
             @Parameter(description = "Product ID to deposit to", required = true)
             @PathVariable Long productId,
+            @Parameter(description = "Client-chosen key; a retry with the same key returns the first response without executing again")
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Parameter(hidden = true) Principal principal,
             @Parameter(description = "Transaction details", required = true)
             @Valid @RequestBody TransactionRequestDTO transactionRequestDTO) throws BusinessException {
 
         log.debug("Processing deposit for product ID: {} with amount: {}", productId, transactionRequestDTO.getAmount());
-        Transaction transaction = transactionService.deposit(productId, transactionRequestDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
+        return idempotencyService.execute(owner(principal), idempotencyKey,
+                List.of("deposit", productId, transactionRequestDTO), TransactionResponseDTO.class, () -> {
+                    Transaction transaction = transactionService.deposit(productId, transactionRequestDTO);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(transactionMapper.toResponseDTO(transaction));
+                });
     }
 
     @Operation(summary = "Make a withdrawal", description = "Withdraw money from a financial product account")
@@ -52,18 +113,26 @@ public class TransactionController {
             @ApiResponse(responseCode = "201", description = "Withdrawal completed successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid input data or insufficient funds"),
             @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request"),
             @ApiResponse(responseCode = "401", description = "Authentication required")
     })
     @PostMapping("/{productId}/withdraw")
-    public ResponseEntity<Transaction> withdraw(
+    public ResponseEntity<TransactionResponseDTO> withdraw(
             @Parameter(description = "Product ID to withdraw from", required = true)
             @PathVariable Long productId,
+            @Parameter(description = "Client-chosen key; a retry with the same key returns the first response without executing again")
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Parameter(hidden = true) Principal principal,
             @Parameter(description = "Transaction details", required = true)
             @Valid @RequestBody TransactionRequestDTO transactionRequestDTO) throws BusinessException {
 
         log.debug("Processing withdrawal for product ID: {} with amount: {}", productId, transactionRequestDTO.getAmount());
-        Transaction transaction = transactionService.withdraw(productId, transactionRequestDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
+        return idempotencyService.execute(owner(principal), idempotencyKey,
+                List.of("withdraw", productId, transactionRequestDTO), TransactionResponseDTO.class, () -> {
+                    Transaction transaction = transactionService.withdraw(productId, transactionRequestDTO);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(transactionMapper.toResponseDTO(transaction));
+                });
     }
 
     @Operation(summary = "Make a transfer", description = "Transfer money between financial product accounts")
@@ -71,20 +140,180 @@ public class TransactionController {
             @ApiResponse(responseCode = "201", description = "Transfer completed successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid input data, insufficient funds, or transfer to same account"),
             @ApiResponse(responseCode = "404", description = "Source or destination product not found"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request"),
             @ApiResponse(responseCode = "401", description = "Authentication required")
     })
     @PostMapping("/{fromProductId}/transfer/{toProductId}")
-    public ResponseEntity<Transaction> transfer(
+    public ResponseEntity<TransactionResponseDTO> transfer(
             @Parameter(description = "Source product ID", required = true)
             @PathVariable Long fromProductId,
             @Parameter(description = "Destination product ID", required = true)
             @PathVariable Long toProductId,
+            @Parameter(description = "Client-chosen key; a retry with the same key returns the first response without executing again")
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Parameter(hidden = true) Principal principal,
             @Parameter(description = "Transaction details", required = true)
             @Valid @RequestBody TransactionRequestDTO transactionRequestDTO) throws BusinessException {
 
         log.debug("Processing transfer from product ID: {} to product ID: {} with amount: {}",
                 fromProductId, toProductId, transactionRequestDTO.getAmount());
-        Transaction transaction = transactionService.transfer(fromProductId, toProductId, transactionRequestDTO);
-        return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
+        return idempotencyService.execute(owner(principal), idempotencyKey,
+                List.of("transfer", fromProductId, toProductId, transactionRequestDTO), TransactionResponseDTO.class, () -> {
+                    Transaction transaction = transactionService.transfer(fromProductId, toProductId, transactionRequestDTO);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(transactionMapper.toResponseDTO(transaction));
+                });
+    }
+
+    @Operation(summary = "Submit a batch of transactions",
+            description = "Apply a mixed list of deposits, withdrawals and transfers in request order. " +
+                    "Each operation succeeds or fails on its own; the response holds one result per operation")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see per-operation results"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data or batch too large"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request"),
+            @ApiResponse(responseCode = "401", description = "Authentication required")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<BatchTransactionResponseDTO> batch(
+            @Parameter(description = "Client-chosen key; a retry with the same key returns the first response without executing again")
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Parameter(hidden = true) Principal principal,
+            @Parameter(description = "Operations to apply", required = true)
+            @Valid @RequestBody BatchTransactionRequestDTO batchTransactionRequestDTO) {
+
+        log.debug("Processing batch of {} operations", batchTransactionRequestDTO.getOperations().size());
+        return idempotencyService.execute(owner(principal), idempotencyKey,
+                List.of("batch", batchTransactionRequestDTO), BatchTransactionResponseDTO.class,
+                () -> ResponseEntity.ok(batchTransactionService.process(batchTransactionRequestDTO.getOperations())));
+    }
+
+    @Operation(summary = "Stream a file of transactions",
+            description = "Apply newline-delimited JSON operations (one batch operation per line) as they are read, " +
+                    "streaming back one NDJSON result per line as each chunk commits. Idempotency-Key is not " +
+                    "supported: results are written as they are produced, so resend only the lines that failed")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream accepted, see per-line results"),
+            @ApiResponse(responseCode = "401", description = "Authentication required")
+    })
+    @PostMapping(value = "/stream", consumes = "application/x-ndjson", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> stream(HttpServletRequest request) {
+        log.debug("Starting NDJSON ingestion");
+        StreamingResponseBody body = output -> transactionStreamService.ingest(request.getInputStream(), output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @Operation(summary = "Submit a deposit for asynchronous settlement",
+            description = "Validate and queue a deposit, answering at once with a tracking id. " +
+                    "Operations on an account settle in the order they were accepted")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Deposit accepted, poll the Location for its outcome"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data or inactive account"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request"),
+            @ApiResponse(responseCode = "401", description = "Authentication required")
+    })
+    @PostMapping("/async/{productId}/deposit")
+    public ResponseEntity<AsyncTransactionDTO> submitDeposit(
+            @Parameter(description = "Product ID to deposit to", required = true)
+            @PathVariable Long productId,
+            @Parameter(description = "Client-chosen key; a retry with the same key returns the first response without executing again")
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Parameter(hidden = true) Principal principal,
+            @Parameter(description = "Transaction details", required = true)
+            @Valid @RequestBody TransactionRequestDTO transactionRequestDTO) throws BusinessException {
+
+        return idempotencyService.execute(owner(principal), idempotencyKey,
+                List.of("async_deposit", productId, transactionRequestDTO), AsyncTransactionDTO.class,
+                () -> accepted(asyncTransactionService.submit(TransactionType.DEPOSIT, productId, null, transactionRequestDTO)));
+    }
+
+    @Operation(summary = "Submit a withdrawal for asynchronous settlement",
+            description = "Validate and queue a withdrawal, answering at once with a tracking id. " +
+                    "Funds are checked when it settles")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Withdrawal accepted, poll the Location for its outcome"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data or inactive account"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request"),
+            @ApiResponse(responseCode = "401", description = "Authentication required")
+    })
+    @PostMapping("/async/{productId}/withdraw")
+    public ResponseEntity<AsyncTransactionDTO> submitWithdraw(
+            @Parameter(description = "Product ID to withdraw from", required = true)
+            @PathVariable Long productId,
+            @Parameter(description = "Client-chosen key; a retry with the same key returns the first response without executing again")
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Parameter(hidden = true) Principal principal,
+            @Parameter(description = "Transaction details", required = true)
+            @Valid @RequestBody TransactionRequestDTO transactionRequestDTO) throws BusinessException {
+
+        return idempotencyService.execute(owner(principal), idempotencyKey,
+                List.of("async_withdraw", productId, transactionRequestDTO), AsyncTransactionDTO.class,
+                () -> accepted(asyncTransactionService.submit(TransactionType.WITHDRAW, productId, null, transactionRequestDTO)));
+    }
+
+    @Operation(summary = "Submit a transfer for asynchronous settlement",
+            description = "Validate and queue a transfer, answering at once with a tracking id. " +
+                    "Funds are checked when it settles")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Transfer accepted, poll the Location for its outcome"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data, inactive account, or transfer to same account"),
+            @ApiResponse(responseCode = "404", description = "Source or destination product not found"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request"),
+            @ApiResponse(responseCode = "401", description = "Authentication required")
+    })
+    @PostMapping("/async/{fromProductId}/transfer/{toProductId}")
+    public ResponseEntity<AsyncTransactionDTO> submitTransfer(
+            @Parameter(description = "Source product ID", required = true)
+            @PathVariable Long fromProductId,
+            @Parameter(description = "Destination product ID", required = true)
+            @PathVariable Long toProductId,
+            @Parameter(description = "Client-chosen key; a retry with the same key returns the first response without executing again")
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Parameter(hidden = true) Principal principal,
+            @Parameter(description = "Transaction details", required = true)
+            @Valid @RequestBody TransactionRequestDTO transactionRequestDTO) throws BusinessException {
+
+        return idempotencyService.execute(owner(principal), idempotencyKey,
+                List.of("async_transfer", fromProductId, toProductId, transactionRequestDTO), AsyncTransactionDTO.class,
+                () -> accepted(asyncTransactionService.submit(TransactionType.TRANSFER, fromProductId, toProductId, transactionRequestDTO)));
+    }
+
+    @Operation(summary = "Get the outcome of an asynchronous transaction",
+            description = "Current state of a submitted transaction. With wait_ms, the response is held until it " +
+                    "settles or the time is up (long polling)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "PENDING, COMPLETED, REJECTED or FAILED"),
+            @ApiResponse(responseCode = "404", description = "Unknown tracking id"),
+            @ApiResponse(responseCode = "401", description = "Authentication required")
+    })
+    @GetMapping("/async/{trackingId}")
+    public CompletableFuture<AsyncTransactionDTO> getAsyncTransaction(
+            @Parameter(description = "Tracking ID returned on submission", required = true)
+            @PathVariable UUID trackingId,
+            @Parameter(description = "Milliseconds to wait for settlement")
+            @RequestParam(name = "wait_ms", defaultValue = "0") long waitMs) throws BusinessException {
+
+        return asyncTransactionService.awaitSettled(trackingId, Duration.ofMillis(waitMs));
+    }
+
+    private static String owner(Principal principal) {
+        return principal != null ? principal.getName() : null;
+    }
+
+    private static ResponseEntity<AsyncTransactionDTO> accepted(AsyncTransactionDTO queued) {
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/v1/banco-financiera/transactions/async/{trackingId}")
+                        .buildAndExpand(queued.getTrackingId())
+                        .toUri())
+                .body(queued);
     }
-}
\ No newline at end of file
+}
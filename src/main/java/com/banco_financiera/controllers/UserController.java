@@ -1,9 +1,11 @@
 package com.banco_financiera.controllers;
 
 import com.banco_financiera.core.exceptions.HttpClientException;
+import com.banco_financiera.dto.KeysetPageDTO;
 import com.banco_financiera.dto.UserRequestDTO;
 import com.banco_financiera.dto.UserResponseDTO;
 import com.banco_financiera.services.IUserService;
+import com.banco_financiera.utils.NdjsonExport;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -17,8 +19,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
 import java.util.Optional;
 
 @Slf4j
@@ -31,16 +33,37 @@ public class UserController {
 
     private final IUserService userService;
 
-    @Operation(summary = "Get all users", description = "Retrieve all users in the system")
+    @Operation(summary = "Get users",
+            description = "Page through the users ordered by ID. Pass the returned next_cursor to get the next page")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Users retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size"),
             @ApiResponse(responseCode = "401", description = "Authentication required")
     })
     @GetMapping
-    public ResponseEntity<List<UserResponseDTO>> getAllUsers() {
-        log.debug("Getting all users");
-        List<UserResponseDTO> users = userService.findAll();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<KeysetPageDTO<UserResponseDTO>> getUsers(
+            @Parameter(description = "next_cursor of the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "50") int size) {
+
+        log.debug("Getting users after cursor: {}", cursor);
+        return ResponseEntity.ok(userService.findPage(cursor, size));
+    }
+
+    @Operation(summary = "Export all users",
+            description = "Stream every user as newline-delimited JSON, one user per line")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+            @ApiResponse(responseCode = "401", description = "Authentication required")
+    })
+    @GetMapping(value = "/export", produces = NdjsonExport.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        log.debug("Starting user export");
+        StreamingResponseBody body = userService::exportUsers;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NdjsonExport.MEDIA_TYPE))
+                .body(body);
     }
 
     @Operation(summary = "Get user by identification number", description = "Retrieve a specific user by their identification number")
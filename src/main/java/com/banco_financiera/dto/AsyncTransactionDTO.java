@@ -0,0 +1,51 @@
+package com.banco_financiera.dto;
+
+import com.banco_financiera.utils.MoneyDeserializer;
+import com.banco_financiera.utils.MoneySerializer;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * State of an asynchronously submitted transaction: PENDING until a worker settles it as
+ * COMPLETED (with the resulting transaction id), REJECTED (with the business error) or FAILED.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AsyncTransactionDTO {
+
+    @JsonProperty("tracking_id")
+    private UUID trackingId;
+
+    private String status;
+
+    private String operation;
+
+    @JsonProperty("product_id")
+    private Long productId;
+
+    @JsonProperty("to_product_id")
+    private Long toProductId;
+
+    @JsonSerialize(using = MoneySerializer.class)
+    @JsonDeserialize(using = MoneyDeserializer.class)
+    private long amount;
+
+    @JsonProperty("transaction_id")
+    private Long transactionId;
+
+    private String error;
+
+    private String message;
+
+    @JsonProperty("accepted_at")
+    private LocalDateTime acceptedAt;
+
+    @JsonProperty("settled_at")
+    private LocalDateTime settledAt;
+}
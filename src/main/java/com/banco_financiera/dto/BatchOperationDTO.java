@@ -0,0 +1,31 @@
+package com.banco_financiera.dto;
+
+import com.banco_financiera.utils.MoneyDeserializer;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+@Data
+public class BatchOperationDTO {
+
+    @NotBlank(message = "Operation type is required")
+    @Pattern(regexp = "(?i)DEPOSIT|WITHDRAW|TRANSFER", message = "Operation type must be DEPOSIT, WITHDRAW or TRANSFER")
+    private String type;
+
+    /** Account deposited to, withdrawn from, or the source of a transfer. */
+    @NotNull(message = "Product ID is required")
+    @JsonProperty("product_id")
+    private Long productId;
+
+    /** Destination of a transfer; ignored for other types. */
+    @JsonProperty("to_product_id")
+    private Long toProductId;
+
+    /** Amount in minor units (cents); sent as a decimal in major units, e.g. 2000.50. */
+    @NotNull(message = "Amount is required")
+    @Positive(message = "Amount must be greater than 0")
+    @Max(value = 99_999_999_999_999L, message = "Amount format is invalid")
+    @JsonDeserialize(using = MoneyDeserializer.class)
+    private Long amount;
+}
@@ -0,0 +1,48 @@
+package com.banco_financiera.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchOperationResultDTO {
+
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+
+    /** Position of the operation in the request. */
+    private int index;
+
+    private String status;
+
+    @JsonProperty("transaction_id")
+    private Long transactionId;
+
+    @JsonProperty("transfer_id")
+    private UUID transferId;
+
+    private String error;
+
+    private String message;
+
+    public static BatchOperationResultDTO succeeded(int index, Long transactionId, UUID transferId) {
+        return new BatchOperationResultDTO(index, SUCCEEDED, transactionId, transferId, null, null);
+    }
+
+    public static BatchOperationResultDTO failed(int index, String error, String message) {
+        return new BatchOperationResultDTO(index, FAILED, null, null, error, message);
+    }
+
+    @JsonIgnore
+    public boolean isSucceeded() {
+        return SUCCEEDED.equals(status);
+    }
+}
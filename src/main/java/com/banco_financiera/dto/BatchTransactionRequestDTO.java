@@ -0,0 +1,14 @@
+package com.banco_financiera.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchTransactionRequestDTO {
+
+    @NotEmpty(message = "At least one operation is required")
+    private List<@Valid BatchOperationDTO> operations;
+}
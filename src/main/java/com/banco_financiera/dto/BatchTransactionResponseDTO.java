@@ -0,0 +1,25 @@
+package com.banco_financiera.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTransactionResponseDTO {
+
+    private int total;
+    private int succeeded;
+    private int failed;
+
+    /** One result per operation, in request order. */
+    private List<BatchOperationResultDTO> results;
+
+    public static BatchTransactionResponseDTO of(List<BatchOperationResultDTO> results) {
+        int succeeded = (int) results.stream().filter(BatchOperationResultDTO::isSucceeded).count();
+        return new BatchTransactionResponseDTO(results.size(), succeeded, results.size() - succeeded, results);
+    }
+}
@@ -0,0 +1,20 @@
+package com.banco_financiera.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class KeysetPageDTO<T> {
+
+    private List<T> items;
+
+    /** Pass as {@code cursor} to get the next page; null on the last page. */
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+}
@@ -1,11 +1,11 @@
 package com.banco_financiera.dto;
 
+import com.banco_financiera.utils.MoneyDeserializer;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.validation.constraints.*;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 @Data
 public class ProductRequestDTO {
 
@@ -14,11 +14,13 @@ public class ProductRequestDTO {
     @JsonProperty("account_type")
     private String accountType;
 
+    /** Opening balance in minor units (cents); sent as a decimal in major units. */
     @NotNull(message = "Account balance is required")
-    @DecimalMin(value = "0.0", inclusive = true, message = "Account balance must be non-negative")
-    @Digits(integer = 12, fraction = 2, message = "Account balance format is invalid")
+    @PositiveOrZero(message = "Account balance must be non-negative")
+    @Max(value = 99_999_999_999_999L, message = "Account balance format is invalid")
     @JsonProperty("account_balance")
-    private BigDecimal accountBalance;
+    @JsonDeserialize(using = MoneyDeserializer.class)
+    private Long accountBalance;
 
     @NotNull(message = "Exempt GMF is required")
     @JsonProperty("exenta_gmf")
@@ -0,0 +1,45 @@
+package com.banco_financiera.dto;
+
+import com.banco_financiera.utils.MoneySerializer;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product as returned by the API: its own columns plus the owner's id, without the user graph.
+ * Field order matches the constructor used by the projection queries in {@code ProductRepository}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductResponseDTO {
+
+    private Long id;
+
+    @JsonProperty("account_type")
+    private String accountType;
+
+    @JsonProperty("account_number")
+    private String accountNumber;
+
+    private String status;
+
+    /** Balance in minor units, written as a decimal. */
+    @JsonProperty("account_balance")
+    @JsonSerialize(using = MoneySerializer.class)
+    private long accountBalance;
+
+    @JsonProperty("exenta_gmf")
+    private Boolean exentaGMF;
+
+    @JsonProperty("user_id")
+    private Long userId;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,41 @@
+package com.banco_financiera.dto;
+
+import com.banco_financiera.utils.MoneySerializer;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One row of an account's transaction history, read straight from the transactions table
+ * without the product and user graph.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransactionHistoryDTO {
+
+    private Long id;
+
+    @JsonProperty("transaction_type")
+    private String transactionType;
+
+    @JsonSerialize(using = MoneySerializer.class)
+    private long amount;
+
+    @JsonProperty("running_balance")
+    @JsonSerialize(using = MoneySerializer.class)
+    private Long runningBalance;
+
+    @JsonProperty("transfer_id")
+    private UUID transferId;
+
+    @JsonProperty("transaction_date")
+    private LocalDateTime transactionDate;
+}
@@ -1,15 +1,17 @@
 package com.banco_financiera.dto;
 
+import com.banco_financiera.utils.MoneyDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.validation.constraints.*;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 @Data
 public class TransactionRequestDTO {
 
+    /** Amount in minor units (cents); sent as a decimal in major units, e.g. 2000.50. */
     @NotNull(message = "Amount is required")
-    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
-    @Digits(integer = 12, fraction = 2, message = "Amount format is invalid")
-    private BigDecimal amount;
+    @Positive(message = "Amount must be greater than 0")
+    @Max(value = 99_999_999_999_999L, message = "Amount format is invalid")
+    @JsonDeserialize(using = MoneyDeserializer.class)
+    private Long amount;
 }
\ No newline at end of file
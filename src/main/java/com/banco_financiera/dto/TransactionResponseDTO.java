@@ -0,0 +1,48 @@
+package com.banco_financiera.dto;
+
+import com.banco_financiera.utils.MoneyDeserializer;
+import com.banco_financiera.utils.MoneySerializer;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Result of a deposit, withdrawal or transfer: ids, amount and the resulting balance,
+ * without the product and user graph.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransactionResponseDTO {
+
+    private Long id;
+
+    @JsonProperty("transaction_type")
+    private String transactionType;
+
+    @JsonSerialize(using = MoneySerializer.class)
+    @JsonDeserialize(using = MoneyDeserializer.class)
+    private long amount;
+
+    @JsonProperty("product_id")
+    private Long productId;
+
+    @JsonProperty("transfer_id")
+    private UUID transferId;
+
+    /**
+     * Balance of the account right after the transaction. Omitted in atomic balance-update mode,
+     * where the conditional UPDATE never reads the row back.
+     */
+    @JsonProperty("account_balance")
+    @JsonSerialize(using = MoneySerializer.class)
+    @JsonDeserialize(using = MoneyDeserializer.class)
+    private Long accountBalance;
+
+    @JsonProperty("transaction_date")
+    private LocalDateTime transactionDate;
+}
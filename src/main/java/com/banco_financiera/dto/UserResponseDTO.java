@@ -3,11 +3,12 @@ package com.banco_financiera.dto;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Data
-public class UserResponseDTO {
+public class UserResponseDTO implements Serializable {
     private Long id;
 
     @JsonProperty("identification_type")
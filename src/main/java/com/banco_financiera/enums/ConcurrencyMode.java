@@ -0,0 +1,6 @@
+package com.banco_financiera.enums;
+
+public enum ConcurrencyMode {
+    PESSIMISTIC,
+    OPTIMISTIC
+}
@@ -0,0 +1,8 @@
+package com.banco_financiera.enums;
+
+public enum IdempotencyKeyStatus {
+    /** Claimed by a request that is still running, or that stopped before its outcome was known. */
+    IN_PROGRESS,
+    /** The response is stored and is replayed to retries. */
+    COMPLETED
+}
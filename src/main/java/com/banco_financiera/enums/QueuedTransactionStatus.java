@@ -0,0 +1,16 @@
+package com.banco_financiera.enums;
+
+public enum QueuedTransactionStatus {
+    PENDING,
+    COMPLETED,
+    REJECTED,
+    FAILED;
+
+    /**
+     * Whether the request has reached its final state: applied, rejected by a business rule,
+     * or given up on after repeated technical failures.
+     */
+    public boolean isSettled() {
+        return this != PENDING;
+    }
+}
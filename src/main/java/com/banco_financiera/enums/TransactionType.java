@@ -3,5 +3,14 @@ package com.banco_financiera.enums;
 public enum TransactionType {
     DEPOSIT,
     WITHDRAW,
-    TRANSFER
+    TRANSFER,
+    TRANSFER_IN;
+
+    /**
+     * Whether this type adds to the balance of the account it is recorded on.
+     * TRANSFER is the source side of a transfer, TRANSFER_IN the destination side.
+     */
+    public boolean isCredit() {
+        return this == DEPOSIT || this == TRANSFER_IN;
+    }
 }
@@ -3,12 +3,19 @@ package com.banco_financiera.exception;
 import com.banco_financiera.dto.ErrorResponseDTO;
 import com.banco_financiera.exception.business.*;
 import com.banco_financiera.exception.data.DataAccessException;
+import com.banco_financiera.exception.service.ConcurrentUpdateException;
+import com.banco_financiera.exception.service.GroupCommitTimeoutException;
+import com.banco_financiera.exception.service.IdempotencyKeyInProgressException;
 import com.banco_financiera.exception.service.ServiceException;
+import com.banco_financiera.exception.service.ShardTimeoutException;
+import com.banco_financiera.utils.Money;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -48,8 +55,24 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponseDTO> handleUnreadableMessage(
+            HttpMessageNotReadableException ex, HttpServletRequest request) {
+
+        log.warn("Unreadable request body on request to {}: {}", request.getRequestURI(), ex.getMessage());
+
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                "MALFORMED_REQUEST",
+                "Request body is malformed or contains invalid values",
+                HttpStatus.BAD_REQUEST.value(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
     // Business Layer Exceptions
-    @ExceptionHandler({UserNotFoundException.class, AccountNotFoundException.class})
+    @ExceptionHandler({UserNotFoundException.class, AccountNotFoundException.class, QueuedTransactionNotFoundException.class})
     public ResponseEntity<ErrorResponseDTO> handleResourceNotFound(
             BusinessException ex, HttpServletRequest request) {
 
@@ -71,7 +94,7 @@ public class GlobalExceptionHandler {
             InsufficientFundsException ex, HttpServletRequest request) {
 
         log.warn("Insufficient funds on request to {}: Account={}, Available={}, Requested={}",
-                request.getRequestURI(), ex.getAccountId(), ex.getCurrentBalance(), ex.getRequestedAmount());
+                request.getRequestURI(), ex.getAccountId(), Money.format(ex.getCurrentBalance()), Money.format(ex.getRequestedAmount()));
 
         ErrorResponseDTO errorResponse = new ErrorResponseDTO(
                 ex.getErrorCode(),
@@ -83,7 +106,8 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
-    @ExceptionHandler({AccountInactiveException.class, TransferToSameAccountException.class})
+    @ExceptionHandler({AccountInactiveException.class, TransferToSameAccountException.class,
+            BalanceManagedByLedgerException.class})
     public ResponseEntity<ErrorResponseDTO> handleBusinessRuleViolation(
             BusinessException ex, HttpServletRequest request) {
 
@@ -117,7 +141,57 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
     }
 
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ErrorResponseDTO> handleIdempotencyKeyReused(
+            IdempotencyKeyReusedException ex, HttpServletRequest request) {
+
+        log.warn("Idempotency key reused on request to {}: {}", request.getRequestURI(), ex.getIdempotencyKey());
+
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                ex.getErrorCode(),
+                ex.getMessage(),
+                HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(errorResponse);
+    }
+
     // Service Layer Exceptions
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    public ResponseEntity<ErrorResponseDTO> handleConcurrentUpdate(
+            ConcurrentUpdateException ex, HttpServletRequest request) {
+
+        log.warn("Concurrent update conflict on request to {}: {} after {} attempts",
+                request.getRequestURI(), ex.getTransactionType(), ex.getAttempts());
+
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                ex.getErrorCode(),
+                ex.getMessage(),
+                HttpStatus.CONFLICT.value(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
+    // The first request with this key has not finished yet; retrying later replays its response
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<ErrorResponseDTO> handleIdempotencyKeyInProgress(
+            IdempotencyKeyInProgressException ex, HttpServletRequest request) {
+
+        log.warn("Idempotency key in progress on request to {}: {}", request.getRequestURI(), ex.getIdempotencyKey());
+
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                ex.getErrorCode(),
+                ex.getMessage(),
+                HttpStatus.CONFLICT.value(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
     @ExceptionHandler(ServiceException.class)
     public ResponseEntity<ErrorResponseDTO> handleServiceException(
             ServiceException ex, HttpServletRequest request) {
@@ -177,6 +251,60 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
     }
 
+    // No connection within the pool's connection-timeout: the database is the bottleneck, so the
+    // client should back off and retry rather than treat it as a server bug
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<ErrorResponseDTO> handleCannotCreateTransaction(
+            CannotCreateTransactionException ex, HttpServletRequest request) {
+
+        log.warn("No database connection for request to {}: {}", request.getRequestURI(), ex.getMessage());
+
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                "DATABASE_UNAVAILABLE",
+                "The service is busy, please retry",
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
+    // The shard is behind on commits. Unlike a missing connection, the operation may still be
+    // committed, so the client should check the account before retrying
+    @ExceptionHandler(ShardTimeoutException.class)
+    public ResponseEntity<ErrorResponseDTO> handleShardTimeout(
+            ShardTimeoutException ex, HttpServletRequest request) {
+
+        log.warn("Shard timeout on request to {}: {}", request.getRequestURI(), ex.getMessage());
+
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                ex.getErrorCode(),
+                ex.getMessage(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
+    // The group's leader did not commit in time. The mutation may still be committed with the group,
+    // so, as with a shard timeout, the client should check the account before retrying
+    @ExceptionHandler(GroupCommitTimeoutException.class)
+    public ResponseEntity<ErrorResponseDTO> handleGroupCommitTimeout(
+            GroupCommitTimeoutException ex, HttpServletRequest request) {
+
+        log.warn("Group commit timeout on request to {}: {}", request.getRequestURI(), ex.getMessage());
+
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                ex.getErrorCode(),
+                ex.getMessage(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponseDTO> handleIllegalArgument(
             IllegalArgumentException ex, HttpServletRequest request) {
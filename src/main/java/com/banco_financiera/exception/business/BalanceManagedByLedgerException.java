@@ -0,0 +1,15 @@
+package com.banco_financiera.exception.business;
+
+import lombok.Getter;
+
+@Getter
+public class BalanceManagedByLedgerException extends BusinessException {
+
+    private final Long accountId;
+
+    public BalanceManagedByLedgerException(Long accountId) {
+        super("BALANCE_MANAGED_BY_LEDGER",
+              String.format("The balance of account %d is kept by its ledger; use a deposit or withdrawal to change it", accountId));
+        this.accountId = accountId;
+    }
+}
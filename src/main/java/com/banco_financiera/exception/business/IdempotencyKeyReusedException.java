@@ -0,0 +1,15 @@
+package com.banco_financiera.exception.business;
+
+import lombok.Getter;
+
+@Getter
+public class IdempotencyKeyReusedException extends BusinessException {
+
+    private final String idempotencyKey;
+
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super("IDEMPOTENCY_KEY_REUSED",
+              String.format("Idempotency key %s was already used for a different request", idempotencyKey));
+        this.idempotencyKey = idempotencyKey;
+    }
+}
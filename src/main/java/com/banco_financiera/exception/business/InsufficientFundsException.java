@@ -1,20 +1,19 @@
 package com.banco_financiera.exception.business;
 
+import com.banco_financiera.utils.Money;
 import lombok.Getter;
 
-import java.math.BigDecimal;
-
 @Getter
 public class InsufficientFundsException extends BusinessException {
 
     private final Long accountId;
-    private final BigDecimal currentBalance;
-    private final BigDecimal requestedAmount;
+    private final long currentBalance;
+    private final long requestedAmount;
 
-    public InsufficientFundsException(Long accountId, BigDecimal currentBalance, BigDecimal requestedAmount) {
+    public InsufficientFundsException(Long accountId, long currentBalance, long requestedAmount) {
         super("INSUFFICIENT_FUNDS",
               String.format("Insufficient funds in account %d. Available: %s, Requested: %s",
-                          accountId, currentBalance, requestedAmount));
+                          accountId, Money.format(currentBalance), Money.format(requestedAmount)));
         this.accountId = accountId;
         this.currentBalance = currentBalance;
         this.requestedAmount = requestedAmount;
@@ -0,0 +1,17 @@
+package com.banco_financiera.exception.business;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+public class QueuedTransactionNotFoundException extends BusinessException {
+
+    private final UUID trackingId;
+
+    public QueuedTransactionNotFoundException(UUID trackingId) {
+        super("TRACKING_ID_NOT_FOUND",
+              String.format("No transaction was submitted with tracking ID %s", trackingId));
+        this.trackingId = trackingId;
+    }
+}
@@ -0,0 +1,15 @@
+package com.banco_financiera.exception.service;
+
+import lombok.Getter;
+
+@Getter
+public class AccountLockTimeoutException extends ServiceException {
+
+    private final Long accountId;
+
+    public AccountLockTimeoutException(Long accountId, long timeoutMillis) {
+        super("ACCOUNT_LOCK_TIMEOUT",
+              String.format("Could not lock account %d within %d ms", accountId, timeoutMillis));
+        this.accountId = accountId;
+    }
+}
@@ -0,0 +1,18 @@
+package com.banco_financiera.exception.service;
+
+import lombok.Getter;
+
+@Getter
+public class ConcurrentUpdateException extends ServiceException {
+
+    private final String transactionType;
+    private final int attempts;
+
+    public ConcurrentUpdateException(String transactionType, int attempts, Throwable cause) {
+        super("CONCURRENT_UPDATE",
+              String.format("%s could not be applied after %d attempts due to concurrent updates", transactionType, attempts),
+              cause);
+        this.transactionType = transactionType;
+        this.attempts = attempts;
+    }
+}
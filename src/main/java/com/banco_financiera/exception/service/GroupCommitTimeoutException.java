@@ -0,0 +1,9 @@
+package com.banco_financiera.exception.service;
+
+public class GroupCommitTimeoutException extends ServiceException {
+
+    public GroupCommitTimeoutException(long timeoutMillis) {
+        super("GROUP_COMMIT_TIMEOUT",
+              String.format("Group commit did not complete within %d ms", timeoutMillis));
+    }
+}
@@ -0,0 +1,15 @@
+package com.banco_financiera.exception.service;
+
+import lombok.Getter;
+
+@Getter
+public class IdempotencyKeyInProgressException extends ServiceException {
+
+    private final String idempotencyKey;
+
+    public IdempotencyKeyInProgressException(String idempotencyKey, long waitMillis) {
+        super("IDEMPOTENCY_KEY_IN_PROGRESS",
+              String.format("A request with idempotency key %s is still in progress after %d ms", idempotencyKey, waitMillis));
+        this.idempotencyKey = idempotencyKey;
+    }
+}
@@ -0,0 +1,15 @@
+package com.banco_financiera.exception.service;
+
+import lombok.Getter;
+
+@Getter
+public class ShardTimeoutException extends ServiceException {
+
+    private final Long accountId;
+
+    public ShardTimeoutException(String operation, Long accountId, long timeoutMillis) {
+        super("SHARD_TIMEOUT",
+              String.format("%s on account %d was not committed within %d ms", operation, accountId, timeoutMillis));
+        this.accountId = accountId;
+    }
+}
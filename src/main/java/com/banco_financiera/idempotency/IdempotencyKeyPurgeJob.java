@@ -0,0 +1,25 @@
+package com.banco_financiera.idempotency;
+
+import com.banco_financiera.services.IIdempotencyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically deletes idempotency keys past their {@code banco.idempotency.ttl-hours}, a batch per
+ * statement, so the table only holds the keys clients may still retry with.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyKeyPurgeJob {
+
+    private final IIdempotencyService idempotencyService;
+
+    @Scheduled(fixedDelayString = "${banco.idempotency.purge.interval-ms:300000}")
+    public void purge() {
+        log.debug("Purging expired idempotency keys");
+        idempotencyService.purgeExpired();
+    }
+}
@@ -0,0 +1,33 @@
+package com.banco_financiera.ledger;
+
+import com.banco_financiera.services.ILedgerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically snapshots accounts whose ledger tail has grown long, keeping balance reads
+ * to the latest snapshot plus a short tail scan.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("'${banco.transactions.balance-update:entity}'.toLowerCase() matches 'ledger|sharded'")
+public class LedgerCompactionJob {
+
+    private final ILedgerService ledgerService;
+    private final int minTail;
+
+    public LedgerCompactionJob(ILedgerService ledgerService,
+                               @Value("${banco.ledger.compaction.min-tail:100}") int minTail) {
+        this.ledgerService = ledgerService;
+        this.minTail = minTail;
+    }
+
+    @Scheduled(fixedDelayString = "${banco.ledger.compaction.interval-ms:60000}")
+    public void compact() {
+        log.debug("Compacting ledgers with at least {} entries since their latest snapshot", minTail);
+        ledgerService.compact(minTail);
+    }
+}
@@ -0,0 +1,62 @@
+package com.banco_financiera.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * One-off rebuild tool: replays every ledger, reports inconsistencies and exits.
+ * <pre>
+ * java -jar banco-financiera.jar --banco.ledger.rebuild.enabled=true --banco.ledger.rebuild.repair=true
+ * </pre>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "banco.ledger.rebuild.enabled", havingValue = "true")
+public class LedgerRebuildRunner implements ApplicationRunner {
+
+    private final LedgerVerifier ledgerVerifier;
+    private final ApplicationContext applicationContext;
+    private final int parallelism;
+    private final boolean repair;
+
+    public LedgerRebuildRunner(LedgerVerifier ledgerVerifier,
+                               ApplicationContext applicationContext,
+                               @Value("${banco.ledger.rebuild.parallelism:8}") int parallelism,
+                               @Value("${banco.ledger.rebuild.repair:false}") boolean repair) {
+        this.ledgerVerifier = ledgerVerifier;
+        this.applicationContext = applicationContext;
+        this.parallelism = parallelism;
+        this.repair = repair;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        List<LedgerVerificationResult> results = ledgerVerifier.verifyAll(parallelism, repair);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        List<LedgerVerificationResult> inconsistent = results.stream()
+                .filter(result -> !result.isConsistent())
+                .toList();
+        inconsistent.forEach(result -> log.warn("Inconsistent ledger: {}", result));
+        log.info("Replayed {} accounts ({} entries) in {} ms: {} inconsistent{}",
+                results.size(),
+                results.stream().mapToLong(LedgerVerificationResult::entries).sum(),
+                elapsedMillis,
+                inconsistent.size(),
+                repair ? ", stored balances repaired" : "");
+
+        // Broken running balances on past entries cannot be repaired by re-snapshotting
+        boolean unrepaired = inconsistent.stream().anyMatch(result -> !repair || result.brokenEntryId() != null);
+        int exitCode = unrepaired ? 1 : 0;
+        System.exit(SpringApplication.exit(applicationContext, () -> exitCode));
+    }
+}
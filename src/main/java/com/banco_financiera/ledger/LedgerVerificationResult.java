@@ -0,0 +1,25 @@
+package com.banco_financiera.ledger;
+
+/**
+ * Outcome of replaying the ledger of one account.
+ * @param productId Account replayed
+ * @param entries Number of ledger entries replayed after the opening snapshot
+ * @param replayedBalance Balance obtained by replaying the ledger, in minor units
+ * @param storedBalance Balance stored on the product, in minor units; in ledger mode it is only
+ *                      refreshed at compaction, so it is checked against the latest snapshot
+ * @param brokenEntryId First entry whose running balance disagrees with the replay, or null
+ * @param snapshotMismatch Whether the latest snapshot disagrees with the replay
+ * @param storedMismatch Whether the stored balance disagrees with the latest snapshot
+ */
+public record LedgerVerificationResult(Long productId,
+                                       long entries,
+                                       long replayedBalance,
+                                       long storedBalance,
+                                       Long brokenEntryId,
+                                       boolean snapshotMismatch,
+                                       boolean storedMismatch) {
+
+    public boolean isConsistent() {
+        return brokenEntryId == null && !snapshotMismatch && !storedMismatch;
+    }
+}
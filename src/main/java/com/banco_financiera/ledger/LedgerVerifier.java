@@ -0,0 +1,127 @@
+package com.banco_financiera.ledger;
+
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.locking.BalanceMutationExecutor;
+import com.banco_financiera.models.BalanceSnapshot;
+import com.banco_financiera.models.Product;
+import com.banco_financiera.repositories.BalanceSnapshotRepository;
+import com.banco_financiera.repositories.LedgerEntryView;
+import com.banco_financiera.repositories.ProductRepository;
+import com.banco_financiera.repositories.TransactionRepository;
+import com.banco_financiera.utils.Money;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Replays the ledger of every account from its opening snapshot and checks the running balance
+ * of each entry, the latest snapshot and the stored product balance against the replay.
+ * Accounts are independent, so they are replayed in parallel, each in its own read-only transaction.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LedgerVerifier {
+
+    private final ProductRepository productRepository;
+    private final TransactionRepository transactionRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceMutationExecutor balanceMutationExecutor;
+
+    /**
+     * Verify every account
+     * @param parallelism Number of accounts replayed concurrently
+     * @param repair Re-snapshot inconsistent accounts at their replayed balance and store it on the product.
+     *               Broken running balances on past entries are only reported, never rewritten
+     * @return One result per account
+     */
+    public List<LedgerVerificationResult> verifyAll(int parallelism, boolean repair) {
+        List<Long> productIds = productRepository.findAllIds();
+        log.info("Replaying ledgers of {} accounts with parallelism {}", productIds.size(), parallelism);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            List<Future<LedgerVerificationResult>> futures = new ArrayList<>(productIds.size());
+            for (Long productId : productIds) {
+                futures.add(executor.submit(() -> verify(productId, repair)));
+            }
+            List<LedgerVerificationResult> results = new ArrayList<>(futures.size());
+            for (Future<LedgerVerificationResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying ledgers", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to replay ledger", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public LedgerVerificationResult verify(Long productId, boolean repair) {
+        LedgerVerificationResult result = transactionTemplate.execute(status -> replay(productId));
+        if (repair && result != null && !result.isConsistent()) {
+            // Under the account lock so no entry lands between the replay and the new snapshot
+            LedgerVerificationResult repaired = balanceMutationExecutor.executeWithLocks("REBUILD", () -> {
+                LedgerVerificationResult current = replay(productId);
+                BalanceSnapshot snapshot = new BalanceSnapshot();
+                snapshot.setProductId(productId);
+                snapshot.setBalance(current.replayedBalance());
+                snapshot.setLastTransactionId(transactionRepository.findLastTransactionId(productId));
+                balanceSnapshotRepository.save(snapshot);
+                balanceSnapshotRepository.deleteSupersededSnapshots(productId, snapshot.getId());
+                productRepository.overwriteBalance(productId, current.replayedBalance(), LocalDateTime.now());
+                return current;
+            }, productId);
+            log.warn("Repaired ledger of product {}: stored {} -> replayed {}", productId,
+                    Money.format(repaired.storedBalance()), Money.format(repaired.replayedBalance()));
+        }
+        return result;
+    }
+
+    private LedgerVerificationResult replay(Long productId) {
+        Product product = productRepository.findById(productId).orElseThrow();
+        Optional<BalanceSnapshot> opening = balanceSnapshotRepository.findFirstByProductIdAndOpeningTrue(productId);
+        if (opening.isEmpty()) {
+            // Account never written in ledger mode: the stored balance is the only source of truth
+            return new LedgerVerificationResult(productId, 0, product.getAccountBalance(), product.getAccountBalance(), null, false, false);
+        }
+
+        long balance = opening.get().getBalance();
+        long entries = 0;
+        Long brokenEntryId = null;
+        try (Stream<LedgerEntryView> ledger = transactionRepository.streamLedgerEntriesAfter(productId, opening.get().getLastTransactionId())) {
+            for (LedgerEntryView entry : (Iterable<LedgerEntryView>) ledger::iterator) {
+                balance = TransactionType.valueOf(entry.getTransactionType()).isCredit()
+                        ? Money.add(balance, entry.getAmount())
+                        : Money.subtract(balance, entry.getAmount());
+                entries++;
+                if (brokenEntryId == null && entry.getRunningBalance() != null && entry.getRunningBalance() != balance) {
+                    brokenEntryId = entry.getId();
+                }
+            }
+        }
+
+        BalanceSnapshot latest = balanceSnapshotRepository.findFirstByProductIdOrderByLastTransactionIdDesc(productId).orElseThrow();
+        long expectedAtLatest = Money.add(balance, -transactionRepository.sumSignedAmountsAfter(productId, latest.getLastTransactionId()));
+        boolean snapshotMismatch = latest.getBalance() != expectedAtLatest;
+        boolean storedMismatch = product.getAccountBalance() != latest.getBalance();
+
+        return new LedgerVerificationResult(productId, entries, balance, product.getAccountBalance(),
+                brokenEntryId, snapshotMismatch, storedMismatch);
+    }
+}
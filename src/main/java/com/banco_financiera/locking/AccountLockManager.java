@@ -0,0 +1,13 @@
+package com.banco_financiera.locking;
+
+public interface AccountLockManager {
+
+    /**
+     * Lock the given accounts until the current transaction completes.
+     * Locks are always taken in ascending product ID order so that two transfers
+     * touching the same pair of accounts can never deadlock each other.
+     * @param productIds Product IDs to lock (duplicates and nulls are ignored)
+     * @throws IllegalStateException if called outside of an active transaction
+     */
+    void lockAccounts(Long... productIds);
+}
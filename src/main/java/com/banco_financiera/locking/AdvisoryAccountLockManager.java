@@ -0,0 +1,56 @@
+package com.banco_financiera.locking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+
+/**
+ * Cluster-wide account locks using PostgreSQL transaction-scoped advisory locks.
+ * The locks are released by the database on commit or rollback, so nothing has to
+ * be cleaned up here and any number of application nodes can share the same database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "banco.locking.mode", havingValue = "advisory")
+public class AdvisoryAccountLockManager implements AccountLockManager {
+
+    /** High 16 bits of every account lock key, keeping them apart from other advisory lock users. */
+    static final long ACCOUNT_LOCK_NAMESPACE = 0x4246L << 48;
+
+    private static final long PRODUCT_ID_MASK = (1L << 48) - 1;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void lockAccounts(Long... productIds) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Account locks can only be acquired inside a transaction");
+        }
+
+        // Locks are taken in key order, which is the id order unless ids beyond 48 bits had to be folded
+        long[] keys = Arrays.stream(LockOrdering.ascendingDistinct(productIds))
+                .map(AdvisoryAccountLockManager::lockKey)
+                .sorted()
+                .distinct()
+                .toArray();
+        for (long key : keys) {
+            log.trace("Acquiring advisory lock {}", key);
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, key);
+        }
+    }
+
+    /**
+     * Single bigint advisory lock key of an account: the namespace in the high 16 bits, the product ID
+     * in the low 48. Larger IDs are folded into 48 bits; two accounts sharing a key only share a lock.
+     */
+    static long lockKey(long productId) {
+        long id = (productId & ~PRODUCT_ID_MASK) == 0 ? productId : (productId ^ (productId >>> 48));
+        return ACCOUNT_LOCK_NAMESPACE | (id & PRODUCT_ID_MASK);
+    }
+}
@@ -0,0 +1,177 @@
+package com.banco_financiera.locking;
+
+import com.banco_financiera.enums.ConcurrencyMode;
+import com.banco_financiera.exception.service.ConcurrentUpdateException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.OptimisticLockException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a balance mutation in its own transaction using the configured concurrency mode.
+ * <ul>
+ *   <li>{@code PESSIMISTIC}: the affected accounts are locked through {@link AccountLockManager} first.</li>
+ *   <li>{@code OPTIMISTIC}: no lock is taken; the {@code @Version} check on {@code Product} detects
+ *       lost updates at commit and the whole mutation is retried with exponential backoff.</li>
+ * </ul>
+ * Optimistic conflicts are retried in both modes, since other writers (e.g. product updates)
+ * can still bump the version while a pessimistic mutation is running.
+ */
+@Slf4j
+@Component
+public class BalanceMutationExecutor {
+
+    private static final String METRIC_PREFIX = "banco.transactions.";
+
+    private final TransactionTemplate transactionTemplate;
+    private final AccountLockManager accountLockManager;
+    private final MeterRegistry meterRegistry;
+
+    @Getter
+    private final ConcurrencyMode mode;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final double backoffMultiplier;
+
+    public BalanceMutationExecutor(TransactionTemplate transactionTemplate,
+                                   AccountLockManager accountLockManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${banco.transactions.concurrency-mode:pessimistic}") String mode,
+                                   @Value("${banco.transactions.retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${banco.transactions.retry.initial-backoff-ms:5}") long initialBackoffMillis,
+                                   @Value("${banco.transactions.retry.max-backoff-ms:200}") long maxBackoffMillis,
+                                   @Value("${banco.transactions.retry.multiplier:2.0}") double backoffMultiplier) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("banco.transactions.retry.max-attempts must be at least 1");
+        }
+        this.transactionTemplate = transactionTemplate;
+        this.accountLockManager = accountLockManager;
+        this.meterRegistry = meterRegistry;
+        this.mode = ConcurrencyMode.valueOf(mode.toUpperCase());
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.backoffMultiplier = backoffMultiplier;
+    }
+
+    /**
+     * Execute a balance mutation
+     * @param operation Operation name used for logging and metric tags (DEPOSIT, WITHDRAW, TRANSFER)
+     * @param mutation Mutation to run; must be safe to run again from scratch after a rollback
+     * @param productIds Accounts to lock in pessimistic mode; pass none when the mutation is
+     *                   atomic on its own (e.g. a conditional single-statement UPDATE)
+     * @return Result of the mutation
+     * @throws ConcurrentUpdateException if the mutation still conflicts after all attempts
+     */
+    public <T> T execute(String operation, Supplier<T> mutation, Long... productIds) {
+        return doExecute(operation, mutation, mode == ConcurrencyMode.PESSIMISTIC, productIds);
+    }
+
+    /**
+     * Execute a balance mutation that must hold the account locks whatever the concurrency mode,
+     * e.g. ledger appends, whose running balance depends on the previous entry rather than on
+     * a versioned row.
+     */
+    public <T> T executeWithLocks(String operation, Supplier<T> mutation, Long... productIds) {
+        return doExecute(operation, mutation, true, productIds);
+    }
+
+    private <T> T doExecute(String operation, Supplier<T> mutation, boolean lock, Long... productIds) {
+        // Retrying is only possible when we own the transaction; inside a caller's transaction
+        // a conflict has already marked it rollback-only, so run once and let the caller decide.
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return runInTransaction(operation, mutation, lock, productIds);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            counter("attempts", operation).increment();
+            try {
+                return runInTransaction(operation, mutation, lock, productIds);
+            } catch (RuntimeException e) {
+                if (!isOptimisticConflict(e)) {
+                    throw e;
+                }
+                counter("optimistic.conflicts", operation).increment();
+                if (attempt >= maxAttempts) {
+                    counter("optimistic.exhausted", operation).increment();
+                    log.warn("{} on accounts {} gave up after {} conflicting attempts", operation, Arrays.toString(productIds), attempt);
+                    throw new ConcurrentUpdateException(operation, attempt, e);
+                }
+                counter("optimistic.retries", operation).increment();
+                log.debug("{} on accounts {} hit a concurrent update, retrying (attempt {})", operation, Arrays.toString(productIds), attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private <T> T runInTransaction(String operation, Supplier<T> mutation, boolean lock, Long... productIds) {
+        return transactionTemplate.execute(status -> {
+            if (lock && productIds.length > 0) {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                try {
+                    accountLockManager.lockAccounts(productIds);
+                } finally {
+                    sample.stop(lockWaitTimer(operation));
+                }
+            }
+            return mutation.get();
+        });
+    }
+
+    private void backoff(int attempt) {
+        double ceiling = Math.min(maxBackoffMillis, initialBackoffMillis * Math.pow(backoffMultiplier, attempt - 1));
+        long sleepMillis = (long) (ThreadLocalRandom.current().nextDouble() * ceiling);
+        if (sleepMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(sleepMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off after a concurrent update", e);
+        }
+    }
+
+    /**
+     * Time spent acquiring the account locks, timeouts included. Uncontended acquisitions take
+     * microseconds, so the histogram starts lower than the service timers.
+     */
+    private Timer lockWaitTimer(String operation) {
+        return Timer.builder("banco.locks.wait")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+
+    private Counter counter(String name, String operation) {
+        return Counter.builder(METRIC_PREFIX + name)
+                .tag("operation", operation)
+                .tag("mode", mode.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    static boolean isOptimisticConflict(Throwable e) {
+        for (Throwable current = e; current != null; current = current.getCause()) {
+            if (current instanceof OptimisticLockingFailureException
+                    || current instanceof OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,322 @@
+package com.banco_financiera.locking;
+
+import com.banco_financiera.exception.service.GroupCommitTimeoutException;
+import com.banco_financiera.utils.ExceptionCauses;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in group commit ({@code banco.transactions.group-commit.enabled}): balance mutations arriving
+ * within {@code window-us} of each other share one database transaction, and so one commit and one
+ * log flush. The first caller of a group is its leader: it waits out the window (or until the group is
+ * full), locks every account of the group in one ordered pass, runs the mutations in arrival order and
+ * commits; the other callers wait for their own result.
+ * <p>
+ * Each caller still gets its own outcome. A business rejection writes nothing, so the others commit
+ * as usual. If the rejection marked the shared transaction rollback-only (it was thrown through a
+ * transactional service), the group is rolled back and run again once without the rejected members;
+ * if that run is rolled back too, the remaining members run one by one, so contention cannot multiply
+ * the work. Any other failure rolls the group back, and its members run one by one in their own
+ * transactions, with the usual optimistic retries, exactly as without group commit.
+ * <p>
+ * The other callers wait at most {@code wait-ms} for the leader and then get a
+ * {@link GroupCommitTimeoutException}. A mutation the leader had not started by then is skipped; one
+ * it had started may still be committed with the group.
+ * <p>
+ * Callers already inside a transaction are not grouped, since the leader's transaction is not theirs.
+ */
+@Slf4j
+@Component
+public class GroupCommitCoordinator {
+
+    public static final String GROUP_SIZE = "banco.groupcommit.size";
+    public static final String TRANSACTIONS = "banco.groupcommit.transactions";
+
+    /** Times a group rolled back by a rejection is run again before its members run one by one */
+    private static final int MAX_RERUNS = 1;
+
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceMutationExecutor balanceMutationExecutor;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxSize;
+    private final long waitMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Group accepting members, or null until the next caller opens one */
+    private Group open;
+
+    private final DistributionSummary groupSize;
+    private final Counter committed;
+    private final Counter rolledBack;
+    private final Counter fellBack;
+
+    public GroupCommitCoordinator(TransactionTemplate transactionTemplate,
+                                  BalanceMutationExecutor balanceMutationExecutor,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${banco.transactions.group-commit.enabled:false}") boolean enabled,
+                                  @Value("${banco.transactions.group-commit.window-us:200}") long windowMicros,
+                                  @Value("${banco.transactions.group-commit.max-size:64}") int maxSize,
+                                  @Value("${banco.transactions.group-commit.wait-ms:5000}") long waitMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("banco.transactions.group-commit.max-size must be at least 1");
+        }
+        this.transactionTemplate = transactionTemplate;
+        this.balanceMutationExecutor = balanceMutationExecutor;
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxSize = maxSize;
+        this.waitMillis = waitMillis;
+        this.groupSize = DistributionSummary.builder(GROUP_SIZE)
+                .description("Mutations sharing one group commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.committed = transactions(meterRegistry, "committed");
+        this.rolledBack = transactions(meterRegistry, "rolled_back");
+        this.fellBack = transactions(meterRegistry, "fallback");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Run a mutation as part of the next group commit
+     * @param mutation Mutation to run; joins the group's transaction, or runs in its own if the group
+     *                 fails for a reason other than a business rejection
+     * @param productIds Accounts the mutation writes
+     * @return Result of the mutation, once the group is committed
+     * @throws GroupCommitTimeoutException If the group's leader did not finish within {@code wait-ms}
+     */
+    public <T> T execute(Supplier<T> mutation, Long... productIds) {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return mutation.get();
+        }
+        Member<T> member = new Member<>(mutation, productIds);
+        Group group = join(member);
+        if (group.leader == Thread.currentThread()) {
+            lead(group);
+        }
+        try {
+            return member.result.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw abandon(member);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw abandon(member);
+        }
+    }
+
+    /**
+     * Give up waiting for the leader; it skips the mutation if it has not started it yet
+     */
+    private GroupCommitTimeoutException abandon(Member<?> member) {
+        GroupCommitTimeoutException timeout = new GroupCommitTimeoutException(waitMillis);
+        member.result.completeExceptionally(timeout);
+        log.warn("Gave up on a group commit after {} ms", waitMillis);
+        return timeout;
+    }
+
+    private Group join(Member<?> member) {
+        lock.lock();
+        try {
+            if (open == null) {
+                open = new Group(Thread.currentThread());
+            }
+            Group group = open;
+            group.members.add(member);
+            if (group.members.size() >= maxSize) {
+                open = null;
+                group.closed = true;
+                LockSupport.unpark(group.leader);
+            }
+            return group;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void lead(Group group) {
+        long deadline = System.nanoTime() + windowNanos;
+        long remaining;
+        while (!group.closed && (remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+        }
+        lock.lock();
+        try {
+            if (open == group) {
+                open = null;
+            }
+            group.closed = true;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            commit(group.members);
+        } catch (Throwable e) {
+            group.members.forEach(member -> member.result.completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    /**
+     * Commit a closed group; members are only read by the leader from here on
+     */
+    private void commit(List<Member<?>> members) {
+        groupSize.record(members.size());
+        if (members.size() == 1) {
+            members.get(0).runAlone();
+            return;
+        }
+        List<Member<?>> pending = new ArrayList<>(members);
+        try {
+            for (int run = 0; run <= MAX_RERUNS && pending.size() > 1; run++) {
+                List<Member<?>> survivors = pending;
+                boolean done = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                    balanceMutationExecutor.executeWithLocks("GROUP", () -> {
+                        survivors.forEach(Member::apply);
+                        return null;
+                    }, accountsOf(survivors));
+                    if (status.isRollbackOnly()) {
+                        // A rejection poisoned the transaction: nothing may be committed from it
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                    return true;
+                }));
+                if (done) {
+                    committed.increment();
+                    pending.forEach(Member::complete);
+                    return;
+                }
+                rolledBack.increment();
+                List<Member<?>> next = new ArrayList<>(pending.size());
+                for (Member<?> member : pending) {
+                    if (member.rejection != null) {
+                        member.complete();
+                    } else {
+                        next.add(member);
+                    }
+                }
+                if (next.size() == pending.size()) {
+                    throw new IllegalStateException("Group transaction was marked rollback-only without a rejection");
+                }
+                pending = next;
+            }
+        } catch (RuntimeException e) {
+            fellBack.increment();
+            log.warn("Group commit of {} mutations failed, running them one by one: {}", pending.size(), e.getMessage());
+            pending.forEach(Member::runAlone);
+            return;
+        }
+        if (pending.size() > 1) {
+            fellBack.increment();
+            log.debug("Group commit rolled back {} times, running its {} remaining mutations one by one",
+                    MAX_RERUNS + 1, pending.size());
+        }
+        pending.forEach(Member::runAlone);
+    }
+
+    private static Long[] accountsOf(List<Member<?>> members) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Member<?> member : members) {
+            ids.addAll(List.of(member.productIds));
+        }
+        return ids.toArray(Long[]::new);
+    }
+
+    private static Counter transactions(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(TRANSACTIONS)
+                .description("Group commit transactions by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /** Callers sharing one transaction; closed once its leader stops waiting for more */
+    private static final class Group {
+        private final Thread leader;
+        private final List<Member<?>> members = new ArrayList<>();
+        private volatile boolean closed;
+
+        private Group(Thread leader) {
+            this.leader = leader;
+        }
+    }
+
+    /** One caller's mutation, and its outcome in the latest attempt of its group */
+    private static final class Member<T> {
+        private final Supplier<T> mutation;
+        private final Long[] productIds;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+        private RuntimeException rejection;
+
+        private Member(Supplier<T> mutation, Long[] productIds) {
+            this.mutation = mutation;
+            this.productIds = productIds;
+        }
+
+        /**
+         * Run inside the group's transaction, keeping a business rejection to itself
+         */
+        private void apply() {
+            value = null;
+            rejection = null;
+            if (result.isDone()) {
+                // Its caller stopped waiting
+                return;
+            }
+            try {
+                value = mutation.get();
+            } catch (RuntimeException e) {
+                if (!ExceptionCauses.isBusinessRejection(e)) {
+                    throw e;
+                }
+                rejection = e;
+            }
+        }
+
+        private void complete() {
+            if (rejection != null) {
+                result.completeExceptionally(rejection);
+            } else {
+                result.complete(value);
+            }
+        }
+
+        private void runAlone() {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(mutation.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.banco_financiera.locking;
+
+import java.util.Arrays;
+
+final class LockOrdering {
+
+    private LockOrdering() {
+    }
+
+    /**
+     * Normalize a set of product IDs into the canonical lock order:
+     * nulls removed, duplicates collapsed, ascending.
+     */
+    static long[] ascendingDistinct(Long... productIds) {
+        long[] ids = Arrays.stream(productIds)
+                .filter(id -> id != null)
+                .mapToLong(Long::longValue)
+                .sorted()
+                .distinct()
+                .toArray();
+        return ids;
+    }
+}
@@ -0,0 +1,35 @@
+package com.banco_financiera.locking;
+
+import com.banco_financiera.repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Account locks taken with {@code SELECT ... FOR UPDATE} on the product rows themselves.
+ * The locked products are loaded into the persistence context, so the follow-up
+ * lookups done by the transaction service are served without another query.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "banco.locking.mode", havingValue = "row")
+public class RowAccountLockManager implements AccountLockManager {
+
+    private final ProductRepository productRepository;
+
+    @Override
+    public void lockAccounts(Long... productIds) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Account locks can only be acquired inside a transaction");
+        }
+
+        List<Long> ids = Arrays.stream(LockOrdering.ascendingDistinct(productIds)).boxed().toList();
+        if (!ids.isEmpty()) {
+            productRepository.findAllByIdForUpdate(ids);
+        }
+    }
+}
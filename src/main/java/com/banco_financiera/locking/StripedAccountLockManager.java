@@ -0,0 +1,107 @@
+package com.banco_financiera.locking;
+
+import com.banco_financiera.exception.service.AccountLockTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-JVM account locks backed by a fixed array of {@link ReentrantLock} stripes.
+ * Memory stays constant regardless of the number of accounts; two accounts that
+ * hash to the same stripe simply share a lock. Only safe when a single node
+ * writes to the database, use the advisory or row modes for multi-node setups.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "banco.locking.mode", havingValue = "striped", matchIfMissing = true)
+public class StripedAccountLockManager implements AccountLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutMillis;
+
+    public StripedAccountLockManager(@Value("${banco.locking.stripes:1024}") int stripes,
+                                     @Value("${banco.locking.timeout-ms:5000}") long timeoutMillis) {
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("banco.locking.stripes must be a positive power of two");
+        }
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = stripes - 1;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void lockAccounts(Long... productIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Account locks can only be acquired inside a transaction");
+        }
+
+        // Deadlock freedom requires a global order over the locks actually taken, which are
+        // the stripes rather than the accounts themselves, so sort by stripe index.
+        int[] stripeIndexes = Arrays.stream(LockOrdering.ascendingDistinct(productIds))
+                .mapToInt(this::stripeFor)
+                .sorted()
+                .distinct()
+                .toArray();
+
+        List<ReentrantLock> acquired = new ArrayList<>(stripeIndexes.length);
+        try {
+            for (int stripe : stripeIndexes) {
+                ReentrantLock lock = stripes[stripe];
+                if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    log.warn("Timed out waiting {} ms for account lock stripe {}", timeoutMillis, stripe);
+                    throw new AccountLockTimeoutException(firstAccountOnStripe(stripe, productIds), timeoutMillis);
+                }
+                acquired.add(lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            releaseAll(acquired);
+            throw new IllegalStateException("Interrupted while waiting for account lock", e);
+        } catch (RuntimeException e) {
+            releaseAll(acquired);
+            throw e;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                releaseAll(acquired);
+            }
+        });
+    }
+
+    int stripeFor(long productId) {
+        // Spread the bits so that sequential IDs do not cluster on neighbouring stripes
+        long h = productId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private Long firstAccountOnStripe(int stripe, Long... productIds) {
+        for (Long productId : productIds) {
+            if (productId != null && stripeFor(productId) == stripe) {
+                return productId;
+            }
+        }
+        return null;
+    }
+
+    private static void releaseAll(List<ReentrantLock> acquired) {
+        for (int i = acquired.size() - 1; i >= 0; i--) {
+            acquired.get(i).unlock();
+        }
+        acquired.clear();
+    }
+}
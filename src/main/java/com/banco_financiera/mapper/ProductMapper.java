@@ -0,0 +1,13 @@
+package com.banco_financiera.mapper;
+
+import com.banco_financiera.dto.ProductResponseDTO;
+import com.banco_financiera.models.Product;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface ProductMapper {
+
+    @Mapping(target = "userId", source = "user.id")
+    ProductResponseDTO toResponseDTO(Product product);
+}
@@ -0,0 +1,14 @@
+package com.banco_financiera.mapper;
+
+import com.banco_financiera.dto.AsyncTransactionDTO;
+import com.banco_financiera.models.QueuedTransaction;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface QueuedTransactionMapper {
+
+    @Mapping(target = "error", source = "errorCode")
+    @Mapping(target = "message", source = "errorMessage")
+    AsyncTransactionDTO toDTO(QueuedTransaction queuedTransaction);
+}
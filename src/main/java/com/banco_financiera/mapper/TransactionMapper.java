@@ -0,0 +1,28 @@
+package com.banco_financiera.mapper;
+
+import com.banco_financiera.dto.TransactionResponseDTO;
+import com.banco_financiera.models.Product;
+import com.banco_financiera.models.Transaction;
+import org.hibernate.Hibernate;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface TransactionMapper {
+
+    @Mapping(target = "productId", source = "product.id")
+    @Mapping(target = "accountBalance", expression = "java(balanceAfter(transaction))")
+    TransactionResponseDTO toResponseDTO(Transaction transaction);
+
+    /**
+     * Ledger entries carry their running balance; otherwise the product was updated in memory and holds
+     * the new balance, unless it is an uninitialized reference, which is never loaded just for this.
+     */
+    default Long balanceAfter(Transaction transaction) {
+        if (transaction.getRunningBalance() != null) {
+            return transaction.getRunningBalance();
+        }
+        Product product = transaction.getProduct();
+        return product != null && Hibernate.isInitialized(product) ? product.getAccountBalance() : null;
+    }
+}
@@ -0,0 +1,128 @@
+package com.banco_financiera.metrics;
+
+import com.banco_financiera.exception.business.AccountInactiveException;
+import com.banco_financiera.exception.business.AccountNotFoundException;
+import com.banco_financiera.exception.business.BusinessException;
+import com.banco_financiera.exception.business.DuplicateResourceException;
+import com.banco_financiera.exception.business.InsufficientFundsException;
+import com.banco_financiera.exception.business.TransferToSameAccountException;
+import com.banco_financiera.exception.business.UserNotFoundException;
+import com.banco_financiera.exception.service.ConcurrentUpdateException;
+import com.banco_financiera.utils.ExceptionCauses;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times service operations and counts their business rejections.
+ * <ul>
+ *   <li>{@code banco.service.calls}: timer tagged with {@code operation} and {@code outcome}
+ *       ({@code success}, a rejection reason such as {@code insufficient_funds}, {@code conflict}
+ *       when optimistic retries ran out, or {@code error}).</li>
+ *   <li>{@code banco.business.rejections}: counter tagged with {@code operation} and {@code reason},
+ *       incremented whenever a call fails with a {@link BusinessException}.</li>
+ * </ul>
+ * Timers publish histogram buckets only, so percentiles are computed by Prometheus and recording stays
+ * a lookup in a map plus a few atomic increments. Meters are resolved once per tag combination.
+ */
+@Component
+public class ServiceMetrics {
+
+    public static final String CALLS = "banco.service.calls";
+    public static final String REJECTIONS = "banco.business.rejections";
+    static final String SUCCESS = "success";
+    static final String CONFLICT = "conflict";
+    static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Counter>> rejections = new ConcurrentHashMap<>();
+
+    public ServiceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * A service call, possibly throwing a checked exception
+     */
+    @FunctionalInterface
+    public interface Call<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * Run a call, recording its duration and outcome
+     * @param operation Operation name used as the {@code operation} tag, e.g. {@code deposit}
+     * @return Result of the call
+     * @throws E whatever the call throws, unchanged
+     */
+    public <T, E extends Exception> T record(String operation, Call<T, E> call) throws E {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = SUCCESS;
+        try {
+            return call.run();
+        } catch (Exception e) {
+            outcome = outcome(e);
+            if (!ERROR.equals(outcome) && !CONFLICT.equals(outcome)) {
+                rejections.computeIfAbsent(operation, key -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(outcome, reason -> Counter.builder(REJECTIONS)
+                                .tag("operation", operation)
+                                .tag("reason", reason)
+                                .register(meterRegistry))
+                        .increment();
+            }
+            throw e;
+        } finally {
+            sample.stop(timer(operation, outcome));
+        }
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return timers.computeIfAbsent(operation, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, key -> Timer.builder(CALLS)
+                        .tag("operation", operation)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofMillis(1))
+                        .maximumExpectedValue(Duration.ofSeconds(10))
+                        .register(meterRegistry));
+    }
+
+    /**
+     * Outcome tag of a failed call, from the business exception or conflict anywhere in its cause chain
+     */
+    static String outcome(Throwable e) {
+        BusinessException rejection = ExceptionCauses.businessCause(e);
+        if (rejection != null) {
+            return reason(rejection);
+        }
+        return ExceptionCauses.find(e, ConcurrentUpdateException.class) != null ? CONFLICT : ERROR;
+    }
+
+    private static String reason(BusinessException rejection) {
+        if (rejection instanceof InsufficientFundsException) {
+            return "insufficient_funds";
+        }
+        if (rejection instanceof AccountInactiveException) {
+            return "account_inactive";
+        }
+        if (rejection instanceof TransferToSameAccountException) {
+            return "same_account";
+        }
+        if (rejection instanceof AccountNotFoundException) {
+            return "account_not_found";
+        }
+        if (rejection instanceof UserNotFoundException) {
+            return "user_not_found";
+        }
+        if (rejection instanceof DuplicateResourceException) {
+            return "duplicate";
+        }
+        return "rejected";
+    }
+}
@@ -0,0 +1,112 @@
+package com.banco_financiera.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Watches for virtual threads that block while pinned to their carrier thread, typically inside a
+ * {@code synchronized} block, through the JDK's own {@code jdk.VirtualThreadPinned} flight recorder
+ * event. Each pin over the threshold is timed in {@code banco.threads.pinned}, and the first one from
+ * every call site is logged with its stack, so the offending lock can be replaced by a
+ * {@link java.util.concurrent.locks.ReentrantLock} (as in the striped account locks).
+ * Enabled by the {@code virtual-threads} profile; the event does not exist before Java 21.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "banco.threads.pinning.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    public static final String PINNED = "banco.threads.pinned";
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    /** Stack frames shown in the log, from the innermost */
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Timer pinned;
+    private final Duration threshold;
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${banco.threads.pinning.threshold-ms:20}") long thresholdMs) {
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.pinned = Timer.builder(PINNED)
+                .description("Time virtual threads spent blocked while pinned to their carrier")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(threshold)
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("Virtual threads need Java 21, running on {}: requests are served by platform threads "
+                    + "and pinning is not monitored", Runtime.version());
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Monitoring virtual thread pinning over {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        if (loggedSites.add(site(frames))) {
+            log.warn("Virtual thread {} blocked for {} ms while pinned to its carrier:\n{}",
+                    event.getThread() == null ? "?" : event.getThread().getJavaName(),
+                    event.getDuration().toMillis(), describe(event.getStackTrace()));
+        }
+    }
+
+    /**
+     * Call site of a pin: its innermost application frame, or the innermost frame if none is ours
+     */
+    private static String site(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .map(VirtualThreadPinningMonitor::frame)
+                .filter(frame -> frame.startsWith("com.banco_financiera."))
+                .findFirst()
+                .orElseGet(() -> frames.isEmpty() ? "unknown" : frame(frames.get(0)));
+    }
+
+    private static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\tno stack trace";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> "\tat " + frame(frame))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
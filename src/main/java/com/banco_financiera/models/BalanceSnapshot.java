@@ -0,0 +1,43 @@
+package com.banco_financiera.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Balance of an account as of a given ledger entry. The opening snapshot seeds the ledger
+ * from the stored product balance and is kept forever so the ledger can be replayed;
+ * later snapshots are compacted down to the latest one.
+ */
+@Data
+@Entity
+@Table(name = "balance_snapshots")
+public class BalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_snapshots_seq")
+    @SequenceGenerator(name = "balance_snapshots_seq", sequenceName = "balance_snapshots_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    /** Balance in minor units including every entry up to {@link #lastTransactionId}. */
+    @Column(nullable = false)
+    private long balance;
+
+    @Column(name = "last_transaction_id", nullable = false)
+    private long lastTransactionId;
+
+    @Column(nullable = false)
+    private boolean opening;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,60 @@
+package com.banco_financiera.models;
+
+import com.banco_financiera.enums.IdempotencyKeyStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * An {@code Idempotency-Key} sent to a transaction endpoint. The row is inserted before the operation
+ * runs, so the unique (owner, key) index lets only one request execute it; once the operation
+ * succeeds the row holds its response, which is replayed to retries until the key expires.
+ */
+@Data
+@Entity
+@Table(name = "idempotency_keys",
+       uniqueConstraints = @UniqueConstraint(name = "ux_idempotency_keys_owner_key",
+                                             columnNames = {"owner_name", "idempotency_key"}))
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_keys_seq")
+    @SequenceGenerator(name = "idempotency_keys_seq", sequenceName = "idempotency_keys_id_seq", allocationSize = 50)
+    private Long id;
+
+    /** Authenticated client the key belongs to. */
+    @Column(name = "owner_name", nullable = false, updatable = false, length = 100)
+    private String ownerName;
+
+    @Column(name = "idempotency_key", nullable = false, updatable = false)
+    private String idempotencyKey;
+
+    /** SHA-256 of the operation and its parameters; a retry must send the same request. */
+    @Column(name = "request_hash", nullable = false, updatable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false)
+    private String status = IdempotencyKeyStatus.IN_PROGRESS.name();
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "response_location", length = 500)
+    private String responseLocation;
+
+    /** Response body as JSON. */
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false, updatable = false)
+    private LocalDateTime expiresAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
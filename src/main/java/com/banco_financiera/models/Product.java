@@ -1,9 +1,15 @@
 package com.banco_financiera.models;
 
 import com.banco_financiera.enums.AccountStatus;
+import com.banco_financiera.utils.Money;
+import com.banco_financiera.utils.MoneySerializer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -18,7 +24,8 @@ import static org.hibernate.type.descriptor.java.JdbcDateJavaType.DATE_FORMAT;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -33,9 +40,11 @@ public class Product {
     @JsonProperty("status")
     private String status = AccountStatus.ACTIVE.name();
 
+    /** Balance in minor units (cents), see {@link Money}. */
     @Column(nullable = false)
     @JsonProperty("account_balance")
-    private Double accountBalance;
+    @JsonSerialize(using = MoneySerializer.class)
+    private long accountBalance;
 
     @Column(name = "exenta_gmf", nullable = false)
     @JsonProperty("exenta_gmf")
@@ -51,8 +60,15 @@ public class Product {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
-    @ManyToOne
+    @Version
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
     @PrePersist
@@ -0,0 +1,79 @@
+package com.banco_financiera.models;
+
+import com.banco_financiera.enums.QueuedTransactionStatus;
+import com.banco_financiera.utils.Money;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A deposit, withdrawal or transfer accepted for asynchronous settlement. Rows of one partition are
+ * applied in id order, and the partition is derived from the account the money leaves (or enters, for
+ * deposits), so the operations of an account settle in the order they were accepted.
+ */
+@Data
+@Entity
+@Table(name = "transaction_queue")
+public class QueuedTransaction {
+
+    /**
+     * Taken from the column default by the INSERT itself, so id order is acceptance order across nodes
+     * (see V12.0) and submitting costs one statement. Rows are inserted one per request, so there is
+     * no batch for a sequence to enable.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Returned to the client with the 202 and used to poll the outcome. */
+    @Column(name = "tracking_id", nullable = false, unique = true, updatable = false)
+    private UUID trackingId;
+
+    /** DEPOSIT, WITHDRAW or TRANSFER. */
+    @Column(nullable = false, updatable = false)
+    private String operation;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private Long productId;
+
+    /** Destination of a transfer; null for other operations. */
+    @Column(name = "to_product_id", updatable = false)
+    private Long toProductId;
+
+    /** Amount in minor units (cents), see {@link Money}. */
+    @Column(nullable = false, updatable = false)
+    private long amount;
+
+    @Column(name = "partition_key", nullable = false, updatable = false)
+    private int partitionKey;
+
+    @Column(nullable = false)
+    private String status = QueuedTransactionStatus.PENDING.name();
+
+    /** Technical failures so far; business rejections settle on the first attempt. */
+    @Column(nullable = false)
+    private int attempts;
+
+    /** Id of the resulting transaction (the source leg for transfers) once completed. */
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    @Column(name = "error_code")
+    private String errorCode;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @Column(name = "accepted_at", nullable = false, updatable = false)
+    private LocalDateTime acceptedAt;
+
+    @Column(name = "settled_at")
+    private LocalDateTime settledAt;
+
+    @PrePersist
+    protected void onCreate() {
+        acceptedAt = LocalDateTime.now();
+    }
+}
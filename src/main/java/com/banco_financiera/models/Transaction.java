@@ -1,11 +1,19 @@
 package com.banco_financiera.models;
 
+import com.banco_financiera.utils.Money;
+import com.banco_financiera.utils.MoneySerializer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 import static org.hibernate.type.descriptor.java.JdbcDateJavaType.DATE_FORMAT;
 
@@ -14,25 +22,52 @@ import static org.hibernate.type.descriptor.java.JdbcDateJavaType.DATE_FORMAT;
 @Table(name = "transactions")
 public class Transaction {
 
+    /** One nextval per row, so ids grow with commit order per account (see V12.0). */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_id_seq", allocationSize = 1)
     private Long id;
 
     @Column(nullable = false)
     @JsonProperty("transaction_type")
     private String transactionType;
 
+    /** Amount in minor units (cents), see {@link Money}. */
     @Column(nullable = false)
     @JsonProperty("amount")
-    private Double amount;
+    @JsonSerialize(using = MoneySerializer.class)
+    private long amount;
+
+    /** Balance of the account right after this entry, in minor units; only set in ledger mode. */
+    @Column(name = "running_balance")
+    @JsonProperty("running_balance")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonSerialize(using = MoneySerializer.class)
+    private Long runningBalance;
+
+    /** Shared by the TRANSFER and TRANSFER_IN legs of one transfer; null for other types. */
+    @Column(name = "transfer_id")
+    @JsonProperty("transfer_id")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private UUID transferId;
+
+    /**
+     * Destination of a TRANSFER leg whose TRANSFER_IN leg is not committed yet; only set in sharded
+     * mode, where the two legs of a transfer between shards commit separately.
+     */
+    @Column(name = "pending_credit_product_id")
+    @JsonIgnore
+    private Long pendingCreditProductId;
 
     @Column(nullable = false)
     @JsonProperty("transaction_date")
     @DateTimeFormat(pattern = DATE_FORMAT)
     private LocalDateTime transactionDate;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "product_id", referencedColumnName = "id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Product product;
 
     @PrePersist
@@ -0,0 +1,15 @@
+package com.banco_financiera.repositories;
+
+/**
+ * Balance-related columns of a product, read without loading the entity or its user.
+ */
+public interface AccountBalanceView {
+
+    Long getId();
+
+    String getStatus();
+
+    long getAccountBalance();
+
+    Long getVersion();
+}
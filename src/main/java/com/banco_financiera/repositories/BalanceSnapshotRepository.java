@@ -0,0 +1,49 @@
+package com.banco_financiera.repositories;
+
+import com.banco_financiera.models.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    Optional<BalanceSnapshot> findFirstByProductIdOrderByLastTransactionIdDesc(Long productId);
+
+    Optional<BalanceSnapshot> findFirstByProductIdAndOpeningTrue(Long productId);
+
+    /**
+     * Latest snapshot of each of these accounts with the net effect of its tail, in one query.
+     * Accounts without a ledger yet are left out.
+     */
+    @Query("SELECT s.productId AS productId, s.balance AS snapshotBalance, " +
+           "COALESCE(SUM(CASE WHEN t.transactionType IN ('DEPOSIT', 'TRANSFER_IN') THEN t.amount ELSE -t.amount END), 0) AS tail " +
+           "FROM BalanceSnapshot s LEFT JOIN Transaction t ON t.product.id = s.productId AND t.id > s.lastTransactionId " +
+           "WHERE s.productId IN :productIds AND s.id = (" +
+           "SELECT MAX(l.id) FROM BalanceSnapshot l WHERE l.productId = s.productId AND l.lastTransactionId = (" +
+           "SELECT MAX(m.lastTransactionId) FROM BalanceSnapshot m WHERE m.productId = s.productId)) " +
+           "GROUP BY s.productId, s.balance")
+    List<LedgerBalanceView> findLedgerBalances(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Drop every snapshot of an account except the opening one and the one to keep.
+     */
+    @Modifying
+    @Query("DELETE FROM BalanceSnapshot s WHERE s.productId = :productId AND s.opening = false AND s.id <> :keepId")
+    int deleteSupersededSnapshots(@Param("productId") Long productId, @Param("keepId") Long keepId);
+
+    /**
+     * Accounts whose ledger tail after their latest snapshot has at least {@code minTail} entries.
+     */
+    @Query(value = "SELECT t.product_id FROM transactions t " +
+                   "JOIN (SELECT product_id, MAX(last_transaction_id) AS last_id FROM balance_snapshots GROUP BY product_id) s " +
+                   "ON s.product_id = t.product_id " +
+                   "WHERE t.id > s.last_id " +
+                   "GROUP BY t.product_id HAVING COUNT(*) >= :minTail",
+           nativeQuery = true)
+    List<Long> findAccountsWithTailOfAtLeast(@Param("minTail") long minTail);
+}
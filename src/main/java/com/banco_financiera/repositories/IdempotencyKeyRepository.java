@@ -0,0 +1,38 @@
+package com.banco_financiera.repositories;
+
+import com.banco_financiera.models.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByOwnerNameAndIdempotencyKey(String ownerName, String idempotencyKey);
+
+    /**
+     * Store the response of a claimed key
+     * @return number of rows updated: 1 if the claim was still in progress, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = 'COMPLETED', r.responseStatus = :responseStatus, " +
+           "r.responseLocation = :responseLocation, r.responseBody = :responseBody " +
+           "WHERE r.id = :id AND r.status = 'IN_PROGRESS'")
+    int complete(@Param("id") Long id,
+                 @Param("responseStatus") int responseStatus,
+                 @Param("responseLocation") String responseLocation,
+                 @Param("responseBody") String responseBody);
+
+    /**
+     * Delete up to {@code limit} expired keys, oldest first, in one statement
+     * @return number of keys deleted; fewer than {@code limit} once none are left
+     */
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE id IN (" +
+                   "SELECT id FROM idempotency_keys WHERE expires_at < :now ORDER BY expires_at LIMIT :limit)",
+           nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
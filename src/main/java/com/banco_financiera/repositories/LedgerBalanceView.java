@@ -0,0 +1,13 @@
+package com.banco_financiera.repositories;
+
+/**
+ * Latest snapshot of an account and the net effect of the ledger entries after it.
+ */
+public interface LedgerBalanceView {
+
+    Long getProductId();
+
+    long getSnapshotBalance();
+
+    long getTail();
+}
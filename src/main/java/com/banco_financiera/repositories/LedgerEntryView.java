@@ -0,0 +1,15 @@
+package com.banco_financiera.repositories;
+
+/**
+ * Minimal view of a ledger entry for replaying balances, without loading the product graph.
+ */
+public interface LedgerEntryView {
+
+    Long getId();
+
+    String getTransactionType();
+
+    long getAmount();
+
+    Long getRunningBalance();
+}
@@ -0,0 +1,53 @@
+package com.banco_financiera.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes the final balances of many accounts in a single JDBC batch, guarded by the
+ * same version check Hibernate uses for {@code Product}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductBalanceBatchWriter {
+
+    private static final String UPDATE_SQL =
+            "UPDATE products SET account_balance = ?, version = version + 1, updated_at = ? WHERE id = ? AND version = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record BalanceUpdate(Long productId, long balance, long expectedVersion) {
+    }
+
+    /**
+     * @throws ObjectOptimisticLockingFailureException if any account changed since its balance was read
+     */
+    public void updateBalances(List<BalanceUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, update) -> {
+            ps.setLong(1, update.balance());
+            ps.setTimestamp(2, now);
+            ps.setLong(3, update.productId());
+            ps.setLong(4, update.expectedVersion());
+        })[0];
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                throw new ObjectOptimisticLockingFailureException("Product", updates.get(i).productId());
+            }
+            // Statement.SUCCESS_NO_INFO: the driver rewrote the batch and cannot report per-row counts
+            if (counts[i] != 1 && counts[i] != Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("Unexpected update count " + counts[i] + " for product " + updates.get(i).productId());
+            }
+        }
+    }
+}
@@ -1,7 +1,89 @@
 package com.banco_financiera.repositories;
 
+import com.banco_financiera.cache.ProductSummary;
+import com.banco_financiera.dto.ProductResponseDTO;
 import com.banco_financiera.models.Product;
-import org.springframework.data.repository.CrudRepository;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface ProductRepository extends CrudRepository<Product, Long> {
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    String SELECT_RESPONSE = "SELECT new com.banco_financiera.dto.ProductResponseDTO(p.id, p.accountType, p.accountNumber, " +
+            "p.status, p.accountBalance, p.exentaGMF, p.user.id, p.createdAt, p.updatedAt) FROM Product p ";
+
+    /**
+     * Keyset page of products ordered by id, projected straight into response DTOs.
+     */
+    @Query(SELECT_RESPONSE + "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductResponseDTO> findResponsesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(SELECT_RESPONSE + "WHERE p.id = :id")
+    Optional<ProductResponseDTO> findResponseById(@Param("id") Long id);
+
+    /**
+     * All products as response DTOs through a forward-only JDBC cursor. Must be consumed inside
+     * a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_RESPONSE + "ORDER BY p.id")
+    Stream<ProductResponseDTO> streamAllResponses();
+
+    /**
+     * Status and metadata of a product without its balance or user, for {@code ProductCache}.
+     */
+    @Query("SELECT new com.banco_financiera.cache.ProductSummary(p.id, p.accountType, p.accountNumber, p.status, p.exentaGMF, p.user.id) " +
+            "FROM Product p WHERE p.id = :id")
+    Optional<ProductSummary> findSummaryById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Add an amount in minor units to the balance of an active account in a single statement.
+     * @return number of rows updated: 1 on success, 0 if the account is missing or not active
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.accountBalance = p.accountBalance + :amount, " +
+           "p.version = p.version + 1, p.updatedAt = :now " +
+           "WHERE p.id = :id AND UPPER(p.status) = 'ACTIVE'")
+    int creditActiveAccount(@Param("id") Long id, @Param("amount") long amount, @Param("now") LocalDateTime now);
+
+    /**
+     * Subtract an amount in minor units from the balance of an active account in a single statement, only if it has enough funds.
+     * @return number of rows updated: 1 on success, 0 if the account is missing, not active or short of funds
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.accountBalance = p.accountBalance - :amount, " +
+           "p.version = p.version + 1, p.updatedAt = :now " +
+           "WHERE p.id = :id AND UPPER(p.status) = 'ACTIVE' AND p.accountBalance >= :amount")
+    int debitActiveAccount(@Param("id") Long id, @Param("amount") long amount, @Param("now") LocalDateTime now);
+
+    @Query("SELECT p.id AS id, p.status AS status, p.accountBalance AS accountBalance, p.version AS version " +
+           "FROM Product p WHERE p.id IN :ids")
+    List<AccountBalanceView> findBalancesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Product p ORDER BY p.id")
+    List<Long> findAllIds();
+
+    /**
+     * Overwrite the stored balance, used when the ledger is the source of truth.
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.accountBalance = :balance, p.version = p.version + 1, p.updatedAt = :now WHERE p.id = :id")
+    int overwriteBalance(@Param("id") Long id, @Param("balance") long balance, @Param("now") LocalDateTime now);
 }
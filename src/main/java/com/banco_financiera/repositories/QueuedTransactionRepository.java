@@ -0,0 +1,48 @@
+package com.banco_financiera.repositories;
+
+import com.banco_financiera.models.QueuedTransaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface QueuedTransactionRepository extends JpaRepository<QueuedTransaction, Long> {
+
+    Optional<QueuedTransaction> findByTrackingId(UUID trackingId);
+
+    /**
+     * Oldest pending requests of a partition, in the order they must be applied
+     */
+    @Query("SELECT q FROM QueuedTransaction q WHERE q.partitionKey = :partition AND q.status = 'PENDING' ORDER BY q.id")
+    List<QueuedTransaction> findPendingHead(@Param("partition") int partition, Pageable pageable);
+
+    /**
+     * Move a pending request to its final state. The status condition makes settlement happen at most
+     * once: a second worker holding the same row updates nothing and must roll back what it applied.
+     * @return number of rows updated: 1 if the request was still pending, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE QueuedTransaction q SET q.status = :status, q.transactionId = :transactionId, " +
+           "q.errorCode = :errorCode, q.errorMessage = :errorMessage, q.settledAt = :now " +
+           "WHERE q.id = :id AND q.status = 'PENDING'")
+    int settle(@Param("id") Long id,
+               @Param("status") String status,
+               @Param("transactionId") Long transactionId,
+               @Param("errorCode") String errorCode,
+               @Param("errorMessage") String errorMessage,
+               @Param("now") LocalDateTime now);
+
+    /**
+     * Count a failed attempt at a pending request, recording why it failed
+     */
+    @Modifying
+    @Query("UPDATE QueuedTransaction q SET q.attempts = q.attempts + 1, q.errorMessage = :errorMessage " +
+           "WHERE q.id = :id AND q.status = 'PENDING'")
+    int recordFailedAttempt(@Param("id") Long id, @Param("errorMessage") String errorMessage);
+}
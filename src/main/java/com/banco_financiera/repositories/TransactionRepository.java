@@ -1,7 +1,65 @@
 package com.banco_financiera.repositories;
 
+import com.banco_financiera.dto.TransactionHistoryDTO;
 import com.banco_financiera.models.Transaction;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends CrudRepository<Transaction, Long> {
+
+    /**
+     * Net effect in minor units of the ledger entries of an account after a given entry.
+     * Backed by the (product_id, id) index, so it only scans the tail.
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN t.transactionType IN ('DEPOSIT', 'TRANSFER_IN') THEN t.amount ELSE -t.amount END), 0) " +
+           "FROM Transaction t WHERE t.product.id = :productId AND t.id > :afterId")
+    long sumSignedAmountsAfter(@Param("productId") Long productId, @Param("afterId") long afterId);
+
+    @Query("SELECT COALESCE(MAX(t.id), 0) FROM Transaction t WHERE t.product.id = :productId")
+    long findLastTransactionId(@Param("productId") Long productId);
+
+    @Query("SELECT t.id AS id, t.transactionType AS transactionType, t.amount AS amount, t.runningBalance AS runningBalance " +
+           "FROM Transaction t WHERE t.product.id = :productId AND t.id > :afterId ORDER BY t.id")
+    Stream<LedgerEntryView> streamLedgerEntriesAfter(@Param("productId") Long productId, @Param("afterId") long afterId);
+
+    /**
+     * TRANSFER legs of sharded mode whose credit was never committed, oldest first
+     */
+    List<Transaction> findByPendingCreditProductIdIsNotNullOrderByIdAsc();
+
+    /**
+     * Mark the credits of these TRANSFER legs as committed
+     */
+    @Modifying
+    @Query("UPDATE Transaction t SET t.pendingCreditProductId = NULL WHERE t.id IN :ids")
+    int clearPendingCredits(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Newest entries of an account, served by the (product_id, transaction_date, id) index.
+     */
+    @Query("SELECT new com.banco_financiera.dto.TransactionHistoryDTO(t.id, t.transactionType, t.amount, t.runningBalance, t.transferId, t.transactionDate) " +
+           "FROM Transaction t WHERE t.product.id = :productId " +
+           "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<TransactionHistoryDTO> findHistory(@Param("productId") Long productId, Limit limit);
+
+    /**
+     * Entries of an account older than a keyset position. The row-value comparison lets the index
+     * seek straight to the position, so the cost does not grow with the page number.
+     */
+    @Query("SELECT new com.banco_financiera.dto.TransactionHistoryDTO(t.id, t.transactionType, t.amount, t.runningBalance, t.transferId, t.transactionDate) " +
+           "FROM Transaction t WHERE t.product.id = :productId " +
+           "AND (t.transactionDate, t.id) < (:beforeDate, :beforeId) " +
+           "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<TransactionHistoryDTO> findHistoryBefore(@Param("productId") Long productId,
+                                                  @Param("beforeDate") LocalDateTime beforeDate,
+                                                  @Param("beforeId") Long beforeId,
+                                                  Limit limit);
 }
@@ -0,0 +1,97 @@
+package com.banco_financiera.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Remembers successful username/password authentications for a short TTL, so HTTP Basic clients
+ * pay the BCrypt verification once per TTL instead of on every request.
+ * <p>
+ * Entries are keyed by an HMAC-SHA256 of {@code username:password} under a random key generated at
+ * startup, so neither passwords nor reproducible hashes of them are ever held in memory. Failed
+ * attempts are never cached and always reach the delegate, so guessing still costs a full BCrypt
+ * check. A changed or disabled account keeps working on this node until its entry expires.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    static final String NAME = "authentication";
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final AuthenticationProvider delegate;
+    private final Cache<String, Authentication> cache;
+    private final Mac prototype;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, MeterRegistry meterRegistry,
+                                         long maximumSize, Duration ttl) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(new SecretKeySpec(key, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!(authentication.getCredentials() instanceof String password)) {
+            return delegate.authenticate(authentication);
+        }
+
+        String key = keyOf(authentication.getName(), password);
+        Authentication cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    private String keyOf(String username, String password) {
+        Mac mac = newMac();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) ':');
+        return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Mac newMac() {
+        try {
+            // Mac is not thread-safe; cloning an initialized one is far cheaper than init()
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(ALGORITHM + " does not support cloning", e);
+        }
+    }
+}
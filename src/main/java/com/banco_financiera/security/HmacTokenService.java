@@ -0,0 +1,129 @@
+package com.banco_financiera.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+/**
+ * Issues and verifies self-contained bearer tokens signed with HMAC-SHA256 under a secret shared by
+ * every node ({@code banco.security.token.secret}), so any node verifies any token with one MAC and
+ * no user lookup, password hash or identity provider.
+ * <p>
+ * Format: {@code base64url(payload) "." base64url(mac)}, where the payload is
+ * {@code username \n expiresAtEpochSeconds \n comma-separated authorities}. Tokens cannot be revoked
+ * before they expire, short of rotating the secret, so keep {@code banco.security.token.ttl-seconds} short.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "banco.security.token.enabled", havingValue = "true")
+public class HmacTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final char SEPARATOR = '\n';
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Mac prototype;
+    private final Duration ttl;
+    private final Clock clock;
+
+    public HmacTokenService(@Value("${banco.security.token.secret:}") String secret,
+                            @Value("${banco.security.token.ttl-seconds:900}") long ttlSeconds) {
+        this(secret, Duration.ofSeconds(ttlSeconds), Clock.systemUTC());
+    }
+
+    HmacTokenService(String secret, Duration ttl, Clock clock) {
+        byte[] key = secret == null || secret.isBlank() ? new byte[0] : Base64.getDecoder().decode(secret);
+        if (key.length < MIN_SECRET_BYTES) {
+            throw new IllegalArgumentException(
+                    "banco.security.token.secret must be a base64 key of at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(new SecretKeySpec(key, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Issue a token for an already authenticated principal
+     */
+    public String issue(Authentication authentication) {
+        long expiresAt = clock.instant().plus(ttl).getEpochSecond();
+        String authorities = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        String payload = authentication.getName() + SEPARATOR + expiresAt + SEPARATOR + authorities;
+
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + '.' + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * @return The authenticated principal, or null if the token is malformed, forged or expired
+     */
+    public Authentication verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            payloadBytes = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+            return null;
+        }
+
+        // Signed by us from here on, so the payload is well formed
+        String payload = new String(payloadBytes, StandardCharsets.UTF_8);
+        int first = payload.indexOf(SEPARATOR);
+        int second = payload.indexOf(SEPARATOR, first + 1);
+        long expiresAt = Long.parseLong(payload, first + 1, second, 10);
+        if (clock.instant().getEpochSecond() >= expiresAt) {
+            log.debug("Rejected expired token");
+            return null;
+        }
+
+        return UsernamePasswordAuthenticationToken.authenticated(payload.substring(0, first), null,
+                AuthorityUtils.commaSeparatedStringToAuthorityList(payload.substring(second + 1)));
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            // Mac is not thread-safe; cloning an initialized one is far cheaper than init()
+            return ((Mac) prototype.clone()).doFinal(payload);
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(ALGORITHM + " does not support cloning", e);
+        }
+    }
+}
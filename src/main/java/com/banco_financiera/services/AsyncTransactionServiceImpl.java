@@ -0,0 +1,124 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.async.AsyncTransactionWorkers;
+import com.banco_financiera.dto.AsyncTransactionDTO;
+import com.banco_financiera.dto.TransactionRequestDTO;
+import com.banco_financiera.enums.QueuedTransactionStatus;
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.exception.business.BusinessException;
+import com.banco_financiera.exception.business.QueuedTransactionNotFoundException;
+import com.banco_financiera.mapper.QueuedTransactionMapper;
+import com.banco_financiera.metrics.ServiceMetrics;
+import com.banco_financiera.models.QueuedTransaction;
+import com.banco_financiera.repositories.QueuedTransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts transactions for asynchronous settlement by {@link AsyncTransactionWorkers}. Submitting
+ * costs one cached account check and one single-row INSERT: no balance read, no account lock, and
+ * no waiting behind other operations on the same account. The INSERT commits to the main database
+ * before the request is acknowledged, so submission still pays one commit's latency; that is the
+ * price of a request being durable once accepted, without a separate store to run.
+ */
+@Slf4j
+@Service
+public class AsyncTransactionServiceImpl implements IAsyncTransactionService {
+
+    private final QueuedTransactionRepository queuedTransactionRepository;
+    private final IProductService productService;
+    private final ITransactionService transactionService;
+    private final AsyncTransactionWorkers workers;
+    private final QueuedTransactionMapper queuedTransactionMapper;
+    private final ServiceMetrics serviceMetrics;
+    private final long maxWaitMs;
+
+    public AsyncTransactionServiceImpl(QueuedTransactionRepository queuedTransactionRepository,
+                                       IProductService productService,
+                                       ITransactionService transactionService,
+                                       AsyncTransactionWorkers workers,
+                                       QueuedTransactionMapper queuedTransactionMapper,
+                                       ServiceMetrics serviceMetrics,
+                                       @Value("${banco.transactions.async.max-wait-ms:30000}") long maxWaitMs) {
+        this.queuedTransactionRepository = queuedTransactionRepository;
+        this.productService = productService;
+        this.transactionService = transactionService;
+        this.workers = workers;
+        this.queuedTransactionMapper = queuedTransactionMapper;
+        this.serviceMetrics = serviceMetrics;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    @Override
+    public AsyncTransactionDTO submit(TransactionType operation, Long productId, Long toProductId,
+                                      TransactionRequestDTO transactionRequestDTO) throws BusinessException {
+        return serviceMetrics.record("submit_" + operation.name().toLowerCase(),
+                () -> insert(operation, productId, toProductId, transactionRequestDTO));
+    }
+
+    private AsyncTransactionDTO insert(TransactionType operation, Long productId, Long toProductId,
+                                       TransactionRequestDTO transactionRequestDTO) {
+        if (operation == TransactionType.TRANSFER_IN) {
+            throw new IllegalArgumentException("TRANSFER_IN cannot be submitted");
+        }
+        productService.getActiveProductSummary(productId);
+        if (operation == TransactionType.TRANSFER) {
+            transactionService.validateTransferNotSameAccount(productId, toProductId);
+            productService.getActiveProductSummary(toProductId);
+        }
+
+        QueuedTransaction queued = new QueuedTransaction();
+        queued.setTrackingId(UUID.randomUUID());
+        queued.setOperation(operation.name());
+        queued.setProductId(productId);
+        queued.setToProductId(operation == TransactionType.TRANSFER ? toProductId : null);
+        queued.setAmount(transactionRequestDTO.getAmount());
+        queued.setPartitionKey(workers.partitionOf(productId));
+        QueuedTransaction saved = queuedTransactionRepository.save(queued);
+
+        // Committed by now, so the worker will find it
+        workers.wake(saved.getPartitionKey());
+        log.debug("Queued {} on product {} as {}", operation, productId, saved.getTrackingId());
+        return queuedTransactionMapper.toDTO(saved);
+    }
+
+    @Override
+    public AsyncTransactionDTO getStatus(UUID trackingId) throws BusinessException {
+        return queuedTransactionMapper.toDTO(find(trackingId));
+    }
+
+    @Override
+    public CompletableFuture<AsyncTransactionDTO> awaitSettled(UUID trackingId, Duration wait) throws BusinessException {
+        long waitMs = Math.min(Math.max(wait.toMillis(), 0), maxWaitMs);
+        if (waitMs == 0 || !workers.isEnabled()) {
+            return CompletableFuture.completedFuture(getStatus(trackingId));
+        }
+        CompletableFuture<QueuedTransaction> settlement = workers.whenSettled(trackingId);
+        QueuedTransaction current;
+        try {
+            current = find(trackingId);
+        } catch (BusinessException e) {
+            workers.forget(trackingId);
+            throw e;
+        }
+        if (QueuedTransactionStatus.valueOf(current.getStatus()).isSettled()) {
+            workers.forget(trackingId);
+            return CompletableFuture.completedFuture(queuedTransactionMapper.toDTO(current));
+        }
+        // A copy, so that one poller timing out does not end the wait of another on the same request
+        return settlement.copy()
+                .completeOnTimeout(current, waitMs, TimeUnit.MILLISECONDS)
+                .thenApply(queuedTransactionMapper::toDTO);
+    }
+
+    private QueuedTransaction find(UUID trackingId) {
+        return queuedTransactionRepository.findByTrackingId(trackingId)
+                .orElseThrow(() -> new QueuedTransactionNotFoundException(trackingId));
+    }
+}
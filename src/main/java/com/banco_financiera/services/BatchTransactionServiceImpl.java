@@ -0,0 +1,311 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.dto.BatchOperationDTO;
+import com.banco_financiera.dto.BatchOperationResultDTO;
+import com.banco_financiera.dto.BatchTransactionResponseDTO;
+import com.banco_financiera.enums.AccountStatus;
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.exception.BaseException;
+import com.banco_financiera.exception.business.AccountInactiveException;
+import com.banco_financiera.exception.business.AccountNotFoundException;
+import com.banco_financiera.exception.business.BusinessException;
+import com.banco_financiera.exception.business.InsufficientFundsException;
+import com.banco_financiera.exception.business.TransferToSameAccountException;
+import com.banco_financiera.locking.BalanceMutationExecutor;
+import com.banco_financiera.models.Transaction;
+import com.banco_financiera.repositories.AccountBalanceView;
+import com.banco_financiera.repositories.ProductBalanceBatchWriter;
+import com.banco_financiera.repositories.ProductBalanceBatchWriter.BalanceUpdate;
+import com.banco_financiera.repositories.ProductRepository;
+import com.banco_financiera.repositories.TransactionRepository;
+import com.banco_financiera.sharding.ShardedLedgerProcessor;
+import com.banco_financiera.utils.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Applies batches of operations in chunks. Each chunk runs in one transaction that:
+ * <ol>
+ *   <li>locks every account of the chunk in a single ordered pass,</li>
+ *   <li>reads their balances with one query,</li>
+ *   <li>applies the operations in request order in memory, rejecting individual ones,</li>
+ *   <li>writes one balance UPDATE per touched account and all transaction rows as JDBC batches.</li>
+ * </ol>
+ * A chunk that hits a concurrent update is retried as a whole by {@link BalanceMutationExecutor}; a chunk
+ * that still fails rolls back alone and reports its operations as failed, while the results of chunks
+ * already committed are kept.
+ * In sharded mode the operations are handed to the shards owning their accounts instead (see
+ * {@link ShardedLedgerProcessor}), and a chunk is no longer one transaction.
+ */
+@Slf4j
+@Service
+public class BatchTransactionServiceImpl implements IBatchTransactionService {
+
+    private final BalanceMutationExecutor balanceMutationExecutor;
+    private final ProductRepository productRepository;
+    private final ProductBalanceBatchWriter productBalanceBatchWriter;
+    private final TransactionRepository transactionRepository;
+    private final ILedgerService ledgerService;
+    private final ShardedLedgerProcessor shardedLedgerProcessor;
+    private final int chunkSize;
+    private final int maxOperations;
+
+    public BatchTransactionServiceImpl(BalanceMutationExecutor balanceMutationExecutor,
+                                       ProductRepository productRepository,
+                                       ProductBalanceBatchWriter productBalanceBatchWriter,
+                                       TransactionRepository transactionRepository,
+                                       ILedgerService ledgerService,
+                                       ShardedLedgerProcessor shardedLedgerProcessor,
+                                       @Value("${banco.transactions.batch.chunk-size:1000}") int chunkSize,
+                                       @Value("${banco.transactions.batch.max-operations:10000}") int maxOperations) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("banco.transactions.batch.chunk-size must be at least 1");
+        }
+        this.balanceMutationExecutor = balanceMutationExecutor;
+        this.productRepository = productRepository;
+        this.productBalanceBatchWriter = productBalanceBatchWriter;
+        this.transactionRepository = transactionRepository;
+        this.ledgerService = ledgerService;
+        this.shardedLedgerProcessor = shardedLedgerProcessor;
+        this.chunkSize = chunkSize;
+        this.maxOperations = maxOperations;
+    }
+
+    @Override
+    public BatchTransactionResponseDTO process(List<BatchOperationDTO> operations) {
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("A batch accepts at most " + maxOperations + " operations");
+        }
+        log.debug("Processing batch of {} operations in chunks of {}", operations.size(), chunkSize);
+
+        List<BatchOperationResultDTO> results = new ArrayList<>(operations.size());
+        for (int start = 0; start < operations.size(); start += chunkSize) {
+            List<BatchOperationDTO> chunk = operations.subList(start, Math.min(start + chunkSize, operations.size()));
+            try {
+                results.addAll(processChunk(chunk, start));
+            } catch (RuntimeException e) {
+                // The chunk rolled back as a whole (e.g. lock timeout); earlier chunks stay committed
+                log.error("Batch chunk starting at operation {} failed: {}", start, e.getMessage());
+                String error = e instanceof BaseException base ? base.getErrorCode() : "PROCESSING_ERROR";
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(BatchOperationResultDTO.failed(start + i, error, e.getMessage()));
+                }
+            }
+        }
+
+        BatchTransactionResponseDTO response = BatchTransactionResponseDTO.of(results);
+        log.info("Batch completed: {} operations, {} succeeded, {} failed",
+                response.getTotal(), response.getSucceeded(), response.getFailed());
+        return response;
+    }
+
+    @Override
+    public List<BatchOperationResultDTO> processChunk(List<BatchOperationDTO> chunk, int offset) {
+        if (chunk.isEmpty()) {
+            return List.of();
+        }
+        if (shardedLedgerProcessor.isEnabled()) {
+            return applyOnShards(chunk, offset);
+        }
+        return balanceMutationExecutor.executeWithLocks("BATCH", () -> applyChunk(chunk, offset), accountsOf(chunk));
+    }
+
+    /**
+     * Submit every operation of the chunk before waiting for any, so each shard writes its share of
+     * the chunk in as few commits as it can. Operations on one account keep their request order.
+     */
+    private List<BatchOperationResultDTO> applyOnShards(List<BatchOperationDTO> chunk, int offset) {
+        BatchOperationResultDTO[] results = new BatchOperationResultDTO[chunk.size()];
+        List<CompletableFuture<Transaction>> submitted = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            BatchOperationDTO operation = chunk.get(i);
+            CompletableFuture<Transaction> result = null;
+            try {
+                result = shardedLedgerProcessor.submit(TransactionType.valueOf(operation.getType().toUpperCase()),
+                        operation.getProductId(), destinationOf(operation), operation.getAmount());
+            } catch (BusinessException e) {
+                results[i] = BatchOperationResultDTO.failed(offset + i, e.getErrorCode(), e.getMessage());
+            } catch (IllegalArgumentException e) {
+                results[i] = BatchOperationResultDTO.failed(offset + i, "INVALID_OPERATION", e.getMessage());
+            } catch (RuntimeException e) {
+                // Not queued (e.g. shard timeout); operations queued before it are still reported one by one
+                String error = e instanceof BaseException base ? base.getErrorCode() : "PROCESSING_FAILED";
+                results[i] = BatchOperationResultDTO.failed(offset + i, error, e.getMessage());
+            }
+            submitted.add(result);
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            if (submitted.get(i) == null) {
+                continue;
+            }
+            try {
+                Transaction row = submitted.get(i).join();
+                results[i] = BatchOperationResultDTO.succeeded(offset + i, row.getId(), row.getTransferId());
+            } catch (CompletionException e) {
+                // Operations that were committed stay committed, so report failures one by one
+                if (e.getCause() instanceof BusinessException business) {
+                    results[i] = BatchOperationResultDTO.failed(offset + i, business.getErrorCode(), business.getMessage());
+                } else if (e.getCause() instanceof ArithmeticException) {
+                    results[i] = BatchOperationResultDTO.failed(offset + i, "AMOUNT_OVERFLOW",
+                            "Operation would overflow the account balance");
+                } else {
+                    results[i] = BatchOperationResultDTO.failed(offset + i, "PROCESSING_FAILED", e.getCause().getMessage());
+                }
+            }
+        }
+        return List.of(results);
+    }
+
+    private List<BatchOperationResultDTO> applyChunk(List<BatchOperationDTO> chunk, int offset) {
+        boolean ledger = ledgerService.isEnabled();
+        Map<Long, AccountState> accounts = new HashMap<>();
+        for (AccountBalanceView view : productRepository.findBalancesByIdIn(List.of(accountsOf(chunk)))) {
+            boolean writable = AccountStatus.ACTIVE.name().equalsIgnoreCase(view.getStatus());
+            long balance = ledger && writable
+                    ? ledgerService.openForAppend(view.getId(), view.getAccountBalance())
+                    : view.getAccountBalance();
+            accounts.put(view.getId(), new AccountState(view, balance));
+        }
+
+        BatchOperationResultDTO[] results = new BatchOperationResultDTO[chunk.size()];
+        List<Transaction> rows = new ArrayList<>(chunk.size());
+        int[] firstRowOfOperation = new int[chunk.size()];
+        for (int i = 0; i < chunk.size(); i++) {
+            BatchOperationDTO operation = chunk.get(i);
+            firstRowOfOperation[i] = rows.size();
+            try {
+                apply(operation, accounts, rows, ledger);
+            } catch (BusinessException e) {
+                results[i] = BatchOperationResultDTO.failed(offset + i, e.getErrorCode(), e.getMessage());
+            } catch (IllegalArgumentException e) {
+                results[i] = BatchOperationResultDTO.failed(offset + i, "INVALID_OPERATION", e.getMessage());
+            } catch (ArithmeticException e) {
+                results[i] = BatchOperationResultDTO.failed(offset + i, "AMOUNT_OVERFLOW",
+                        "Operation would overflow the account balance");
+            }
+        }
+
+        if (!ledger) {
+            List<BalanceUpdate> updates = new ArrayList<>();
+            for (AccountState account : accounts.values()) {
+                if (account.balance != account.view.getAccountBalance()) {
+                    updates.add(new BalanceUpdate(account.view.getId(), account.balance, account.view.getVersion()));
+                }
+            }
+            productBalanceBatchWriter.updateBalances(updates);
+        }
+        // Ids are assigned on persist from the sequence; inserts are batched at flush
+        transactionRepository.saveAll(rows);
+
+        for (int i = 0; i < chunk.size(); i++) {
+            if (results[i] == null) {
+                Transaction row = rows.get(firstRowOfOperation[i]);
+                results[i] = BatchOperationResultDTO.succeeded(offset + i, row.getId(), row.getTransferId());
+            }
+        }
+        return List.of(results);
+    }
+
+    private void apply(BatchOperationDTO operation, Map<Long, AccountState> accounts, List<Transaction> rows, boolean ledger) {
+        TransactionType type = TransactionType.valueOf(operation.getType().toUpperCase());
+        long amount = operation.getAmount();
+        AccountState account = activeAccount(accounts, operation.getProductId());
+
+        switch (type) {
+            case DEPOSIT -> {
+                account.balance = Money.add(account.balance, amount);
+                rows.add(row(account, type, amount, null, ledger));
+            }
+            case WITHDRAW -> {
+                debit(account, amount);
+                rows.add(row(account, type, amount, null, ledger));
+            }
+            case TRANSFER -> {
+                if (operation.getToProductId() == null) {
+                    throw new IllegalArgumentException("to_product_id is required for transfers");
+                }
+                if (operation.getProductId().equals(operation.getToProductId())) {
+                    throw new TransferToSameAccountException(operation.getProductId());
+                }
+                AccountState destination = activeAccount(accounts, operation.getToProductId());
+                // Checked before the debit, so an overflowing credit leaves both balances untouched
+                long credited = Money.add(destination.balance, amount);
+                debit(account, amount);
+                destination.balance = credited;
+                UUID transferId = UUID.randomUUID();
+                rows.add(row(account, TransactionType.TRANSFER, amount, transferId, ledger));
+                rows.add(row(destination, TransactionType.TRANSFER_IN, amount, transferId, ledger));
+            }
+            default -> throw new IllegalArgumentException("Unsupported operation type: " + type);
+        }
+    }
+
+    private static AccountState activeAccount(Map<Long, AccountState> accounts, Long productId) {
+        AccountState account = accounts.get(productId);
+        if (account == null) {
+            throw new AccountNotFoundException(productId);
+        }
+        if (!AccountStatus.ACTIVE.name().equalsIgnoreCase(account.view.getStatus())) {
+            throw new AccountInactiveException(productId, account.view.getStatus());
+        }
+        return account;
+    }
+
+    private static void debit(AccountState account, long amount) {
+        if (account.balance < amount) {
+            throw new InsufficientFundsException(account.view.getId(), account.balance, amount);
+        }
+        account.balance = Money.subtract(account.balance, amount);
+    }
+
+    private Transaction row(AccountState account, TransactionType type, long amount, UUID transferId, boolean ledger) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionType(type.name());
+        transaction.setAmount(amount);
+        transaction.setTransferId(transferId);
+        transaction.setRunningBalance(ledger ? account.balance : null);
+        transaction.setProduct(productRepository.getReferenceById(account.view.getId()));
+        return transaction;
+    }
+
+    private static Long[] accountsOf(List<BatchOperationDTO> chunk) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (BatchOperationDTO operation : chunk) {
+            ids.add(operation.getProductId());
+            if (destinationOf(operation) != null) {
+                ids.add(destinationOf(operation));
+            }
+        }
+        return ids.toArray(Long[]::new);
+    }
+
+    /**
+     * Destination of a transfer; a to_product_id sent with any other type is ignored
+     */
+    private static Long destinationOf(BatchOperationDTO operation) {
+        return TransactionType.TRANSFER.name().equalsIgnoreCase(operation.getType()) ? operation.getToProductId() : null;
+    }
+
+    /** Balance of one account as operations of the chunk are applied to it. */
+    private static final class AccountState {
+        private final AccountBalanceView view;
+        private long balance;
+
+        private AccountState(AccountBalanceView view, long balance) {
+            this.view = view;
+            this.balance = balance;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.dto.AsyncTransactionDTO;
+import com.banco_financiera.dto.TransactionRequestDTO;
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.exception.business.BusinessException;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public interface IAsyncTransactionService {
+
+    /**
+     * Validate a deposit, withdrawal or transfer and queue it for settlement. The request is durable
+     * once this returns; its balance effects happen later, in order with the account's other queued
+     * operations. Funds are only checked at settlement.
+     * @param operation DEPOSIT, WITHDRAW or TRANSFER
+     * @param productId Account to deposit to or withdraw from, or source of a transfer
+     * @param toProductId Destination of a transfer; null otherwise
+     * @param transactionRequestDTO Transaction details
+     * @return Pending request with its tracking id
+     * @throws BusinessException if an account is missing or inactive, or a transfer targets its own account
+     */
+    AsyncTransactionDTO submit(TransactionType operation, Long productId, Long toProductId,
+                               TransactionRequestDTO transactionRequestDTO) throws BusinessException;
+
+    /**
+     * Current state of a submitted request
+     * @param trackingId Tracking id returned by {@link #submit}
+     * @throws BusinessException if no request has this tracking id
+     */
+    AsyncTransactionDTO getStatus(UUID trackingId) throws BusinessException;
+
+    /**
+     * State of a submitted request once it settles, or after the wait, whichever comes first (long polling).
+     * Only settlements by this node's workers end the wait early.
+     * @param trackingId Tracking id returned by {@link #submit}
+     * @param wait Longest time to wait; capped by {@code banco.transactions.async.max-wait-ms}
+     * @throws BusinessException if no request has this tracking id
+     */
+    CompletableFuture<AsyncTransactionDTO> awaitSettled(UUID trackingId, Duration wait) throws BusinessException;
+}
@@ -0,0 +1,29 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.dto.BatchOperationDTO;
+import com.banco_financiera.dto.BatchOperationResultDTO;
+import com.banco_financiera.dto.BatchTransactionResponseDTO;
+
+import java.util.List;
+
+public interface IBatchTransactionService {
+
+    /**
+     * Apply a mixed list of deposits, withdrawals and transfers.
+     * Operations are applied in request order; one failing operation (e.g. insufficient funds)
+     * does not affect the others, and each operation gets its own result.
+     * @param operations Operations to apply
+     * @return Per-operation results, in request order
+     * @throws IllegalArgumentException if the batch exceeds the configured maximum size
+     */
+    BatchTransactionResponseDTO process(List<BatchOperationDTO> operations);
+
+    /**
+     * Apply one chunk of operations in a single transaction, for callers that do their own chunking
+     * (e.g. streaming ingestion). Keep chunks within {@code banco.transactions.batch.chunk-size}.
+     * @param chunk Operations to apply, in order
+     * @param offset Index of the first operation, used to number the results
+     * @return Per-operation results, in order
+     */
+    List<BatchOperationResultDTO> processChunk(List<BatchOperationDTO> chunk, int offset);
+}
@@ -0,0 +1,37 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.exception.business.IdempotencyKeyReusedException;
+import com.banco_financiera.exception.service.IdempotencyKeyInProgressException;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IIdempotencyService {
+
+    /**
+     * Run an operation at most once per idempotency key. The first request with a key runs it and, if
+     * it succeeds, stores its response; retries get that response back without running it again, and
+     * duplicates arriving while it runs wait for its outcome. An operation rejected by a business rule
+     * stores nothing, so it can be retried with the same key; after any other failure its outcome is
+     * unknown, and the key stays claimed until it expires.
+     * @param owner Authenticated client; keys of different clients never collide
+     * @param key {@code Idempotency-Key} header, or null to just run the operation
+     * @param request Operation name and parameters; a retry must send the same ones
+     * @param responseType Type of the response body, to read a stored response back
+     * @param operation The operation, answering with a 2xx response when it succeeds
+     * @return Response of the operation, or of the first request with this key
+     * @throws IdempotencyKeyReusedException if the key was used for a different request
+     * @throws IdempotencyKeyInProgressException if the first request with this key is still running
+     *                                           after {@code banco.idempotency.wait-ms}, or failed with
+     *                                           an unknown outcome
+     * @throws IllegalArgumentException if the key is blank or longer than 255 characters
+     */
+    <T> ResponseEntity<T> execute(String owner, String key, Object request, Class<T> responseType,
+                                  Supplier<ResponseEntity<T>> operation);
+
+    /**
+     * Delete expired keys in batches of {@code banco.idempotency.purge.batch-size}
+     * @return Number of keys deleted
+     */
+    int purgeExpired();
+}
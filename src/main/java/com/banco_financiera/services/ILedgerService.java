@@ -0,0 +1,71 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.exception.business.BusinessException;
+import com.banco_financiera.models.Product;
+import com.banco_financiera.models.Transaction;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ILedgerService {
+
+    /**
+     * Whether balances are derived from the ledger ({@code banco.transactions.balance-update=ledger}
+     * or {@code sharded})
+     * @return true if the ledger is the source of truth for balances
+     */
+    boolean isEnabled();
+
+    /**
+     * Current balance of an account: latest snapshot plus the ledger entries after it.
+     * Falls back to the stored product balance when the account has no ledger yet.
+     * @param product Product to read the balance of
+     * @return Balance in minor units
+     */
+    long currentBalance(Product product);
+
+    /**
+     * Same as {@link #currentBalance(Product)} for several accounts, in one query
+     * @param productIds Accounts to read the balance of
+     * @return Balance in minor units by product id; accounts without a ledger yet are left out, and
+     *         their stored balance is current
+     */
+    Map<Long, Long> currentBalances(Collection<Long> productIds);
+
+    /**
+     * Make sure an account has a ledger and return its current balance, for callers that compute
+     * the running balances of several entries themselves. Same locking requirements as {@link #append}.
+     * @param productId Account about to be written
+     * @param storedBalance Balance stored on the product, seeds the ledger if the account has none yet
+     * @return Balance in minor units before the first new entry
+     */
+    long openForAppend(Long productId, long storedBalance);
+
+    /**
+     * Append an entry to the ledger of an account. Must run inside a transaction holding the
+     * account lock, since the running balance is computed from the previous entry.
+     * @param product Account the entry is recorded on
+     * @param transactionType Entry type; debits are checked against the current balance
+     * @param amount Amount in minor units
+     * @return Saved transaction carrying its running balance
+     * @throws BusinessException if a debit exceeds the current balance
+     */
+    Transaction append(Product product, TransactionType transactionType, long amount) throws BusinessException;
+
+    /**
+     * Build the next ledger entry of an account without saving it, for callers that insert
+     * entries of several accounts in one batch. Same locking requirements as {@link #append}.
+     * @return Unsaved transaction carrying its running balance
+     * @throws BusinessException if a debit exceeds the current balance
+     */
+    Transaction prepare(Product product, TransactionType transactionType, long amount) throws BusinessException;
+
+    /**
+     * Take a fresh snapshot for every account whose ledger tail has grown past {@code minTail} entries,
+     * drop the snapshots it supersedes and refresh the stored product balance.
+     * @param minTail Minimum number of entries after the latest snapshot to compact an account
+     * @return Number of accounts compacted
+     */
+    int compact(int minTail);
+}
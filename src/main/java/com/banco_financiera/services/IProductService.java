@@ -1,26 +1,41 @@
 package com.banco_financiera.services;
 
+import com.banco_financiera.cache.ProductSummary;
 import com.banco_financiera.core.exceptions.HttpClientException;
+import com.banco_financiera.dto.KeysetPageDTO;
 import com.banco_financiera.dto.ProductRequestDTO;
+import com.banco_financiera.dto.ProductResponseDTO;
+import com.banco_financiera.exception.business.BusinessException;
 import com.banco_financiera.models.Product;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Optional;
 
 public interface IProductService {
 
     /**
-     * Get all products
-     * @return List of all products
+     * Get a page of products ordered by ID
+     * @param cursor {@code next_cursor} of the previous page, or null for the first page
+     * @param size Page size
+     * @return Page of products and the cursor of the next one
+     * @throws IllegalArgumentException if the cursor or size is invalid
      */
-    List<Product> getAllProducts();
+    KeysetPageDTO<ProductResponseDTO> getProducts(String cursor, int size);
+
+    /**
+     * Write every product as newline-delimited JSON, reading them through a database cursor
+     * @param output Destination of the export
+     * @throws IOException if writing fails
+     */
+    void exportProducts(OutputStream output) throws IOException;
 
     /**
      * Get product by ID
      * @param id Product ID
      * @return Optional containing the product if found
      */
-    Optional<Product> getProductById(Long id);
+    Optional<ProductResponseDTO> getProductById(Long id);
 
     /**
      * Create a new product for a user
@@ -29,7 +44,7 @@ public interface IProductService {
      * @return Created product
      * @throws HttpClientException if user not found or validation fails
      */
-    Product createProduct(ProductRequestDTO productRequestDTO, Long userId) throws HttpClientException;
+    ProductResponseDTO createProduct(ProductRequestDTO productRequestDTO, Long userId) throws HttpClientException;
 
     /**
      * Update an existing product
@@ -38,7 +53,7 @@ public interface IProductService {
      * @return Updated product
      * @throws HttpClientException if product not found or update fails
      */
-    Product updateProduct(Long id, ProductRequestDTO productRequestDTO) throws HttpClientException;
+    ProductResponseDTO updateProduct(Long id, ProductRequestDTO productRequestDTO) throws HttpClientException;
 
     /**
      * Delete product by ID
@@ -54,7 +69,7 @@ public interface IProductService {
      * @return Updated product
      * @throws HttpClientException if product not found
      */
-    Product updateProductStatus(Long id, String status) throws HttpClientException;
+    ProductResponseDTO updateProductStatus(Long id, String status) throws HttpClientException;
 
     /**
      * Get active product by ID (for transactions)
@@ -63,4 +78,14 @@ public interface IProductService {
      * @throws HttpClientException if product not found or inactive
      */
     Product getActiveProductById(Long id) throws HttpClientException;
+
+    /**
+     * Check that a product exists and is active using the product cache, without reading its row.
+     * Status may lag a change made on another node by up to the cache TTL; callers that need the
+     * balance must use {@link #getActiveProductById(Long)} instead.
+     * @param id Product ID
+     * @return Cached status and metadata of the product
+     * @throws BusinessException if product not found or inactive
+     */
+    ProductSummary getActiveProductSummary(Long id) throws BusinessException;
 }
\ No newline at end of file
@@ -1,11 +1,11 @@
 package com.banco_financiera.services;
 
+import com.banco_financiera.dto.KeysetPageDTO;
+import com.banco_financiera.dto.TransactionHistoryDTO;
 import com.banco_financiera.dto.TransactionRequestDTO;
 import com.banco_financiera.exception.business.BusinessException;
 import com.banco_financiera.models.Transaction;
 
-import java.math.BigDecimal;
-
 public interface ITransactionService {
 
     /**
@@ -36,14 +36,25 @@ public interface ITransactionService {
      */
     Transaction transfer(Long fromProductId, Long toProductId, TransactionRequestDTO transactionRequestDTO) throws BusinessException;
 
+    /**
+     * Get a page of an account's transactions, newest first
+     * @param productId Product ID
+     * @param cursor {@code next_cursor} of the previous page, or null for the first page
+     * @param size Page size
+     * @return Page of transactions and the cursor of the next one
+     * @throws BusinessException if product not found
+     * @throws IllegalArgumentException if the cursor or size is invalid
+     */
+    KeysetPageDTO<TransactionHistoryDTO> getTransactionHistory(Long productId, String cursor, int size) throws BusinessException;
+
     /**
      * Validate if account has sufficient funds for a transaction
-     * @param currentBalance Current account balance
-     * @param amount Amount to validate
+     * @param currentBalance Current account balance in minor units
+     * @param amount Amount to validate in minor units
      * @param accountId Account ID for error reporting
      * @throws BusinessException if insufficient funds
      */
-    void validateSufficientFunds(BigDecimal currentBalance, BigDecimal amount, Long accountId) throws BusinessException;
+    void validateSufficientFunds(long currentBalance, long amount, Long accountId) throws BusinessException;
 
     /**
      * Validate if transfer is not to the same account
@@ -0,0 +1,18 @@
+package com.banco_financiera.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface ITransactionStreamService {
+
+    /**
+     * Apply a newline-delimited JSON stream of operations, writing one NDJSON result line per
+     * operation as each chunk commits. Memory use is bounded by the chunk size, not the stream size.
+     * A line that is not valid JSON ends the stream with a final error line; earlier chunks stay applied.
+     * @param input One operation object per line (same fields as a batch operation)
+     * @param output Receives one result object per line, in input order
+     * @throws IOException if reading the input or writing the output fails
+     */
+    void ingest(InputStream input, OutputStream output) throws IOException;
+}
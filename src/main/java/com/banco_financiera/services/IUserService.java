@@ -1,21 +1,33 @@
 package com.banco_financiera.services;
 
 import com.banco_financiera.core.exceptions.HttpClientException;
+import com.banco_financiera.dto.KeysetPageDTO;
 import com.banco_financiera.dto.UserRequestDTO;
 import com.banco_financiera.dto.UserResponseDTO;
 import com.banco_financiera.models.User;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Optional;
 
 public interface IUserService {
 
     /**
-     * Retrieve all users
-     * @return List of all users
+     * Retrieve a page of users ordered by ID
+     * @param cursor {@code next_cursor} of the previous page, or null for the first page
+     * @param size Page size
+     * @return Page of users and the cursor of the next one
+     * @throws IllegalArgumentException if the cursor or size is invalid
      */
-    List<UserResponseDTO> findAll();
+    KeysetPageDTO<UserResponseDTO> findPage(String cursor, int size);
+
+    /**
+     * Write every user as newline-delimited JSON, reading them through a database cursor
+     * @param output Destination of the export
+     * @throws IOException if writing fails
+     */
+    void exportUsers(OutputStream output) throws IOException;
 
     /**
      * Find user by ID
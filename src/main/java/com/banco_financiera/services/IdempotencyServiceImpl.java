@@ -0,0 +1,362 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.enums.IdempotencyKeyStatus;
+import com.banco_financiera.exception.business.IdempotencyKeyReusedException;
+import com.banco_financiera.exception.service.IdempotencyKeyInProgressException;
+import com.banco_financiera.models.IdempotencyRecord;
+import com.banco_financiera.repositories.IdempotencyKeyRepository;
+import com.banco_financiera.utils.ExceptionCauses;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency keys backed by the {@code idempotency_keys} table, with two in-memory layers in front:
+ * <ul>
+ *   <li>a bounded Caffeine cache of completed responses, so a retry on the node that answered the first
+ *       request is replayed without touching the database;</li>
+ *   <li>a map of the keys this node is running, so a duplicate arriving meanwhile waits for that
+ *       execution instead of racing it.</li>
+ * </ul>
+ * A key not found in either is claimed by inserting its row, in its own transaction, before the
+ * operation runs; the unique (owner, key) index makes the claim fail for a duplicate on another node,
+ * which then polls the row until its response is stored. The lookup in front of the operation is timed
+ * as {@code banco.idempotency.lookup}.
+ * <p>
+ * Only a business rejection releases the key, since it wrote nothing. After any other failure (a
+ * timeout, a lost connection, a failed commit) the operation may or may not have been applied, so the
+ * key stays claimed until it expires and retries get a 409 rather than a second run.
+ * <p>
+ * Not transactional on purpose: the claim must be committed before the operation runs in its own
+ * transaction.
+ */
+@Slf4j
+@Service
+public class IdempotencyServiceImpl implements IIdempotencyService {
+
+    public static final String LOOKUP = "banco.idempotency.lookup";
+    public static final String REPLAYS = "banco.idempotency.replays";
+    /** Response header telling a client it got the stored response of an earlier request. */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final String ANONYMOUS = "anonymous";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_MILLIS = 20;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final long waitMillis;
+    private final int purgeBatchSize;
+
+    private final Cache<String, StoredResponse> completed;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> replays = new ConcurrentHashMap<>();
+    private final Timer lookupTimer;
+
+    public IdempotencyServiceImpl(IdempotencyKeyRepository idempotencyKeyRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${banco.idempotency.ttl-hours:24}") long ttlHours,
+                                  @Value("${banco.idempotency.cache.maximum-size:10000}") long cacheMaximumSize,
+                                  @Value("${banco.idempotency.wait-ms:10000}") long waitMillis,
+                                  @Value("${banco.idempotency.purge.batch-size:1000}") int purgeBatchSize) {
+        if (purgeBatchSize < 1) {
+            throw new IllegalArgumentException("banco.idempotency.purge.batch-size must be at least 1");
+        }
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.waitMillis = waitMillis;
+        this.purgeBatchSize = purgeBatchSize;
+        // Stored responses never change, so the cache only has to forget them when the key expires
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotency");
+        this.lookupTimer = Timer.builder(LOOKUP)
+                .description("Idempotency key lookup before running an operation")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(meterRegistry);
+    }
+
+    @Override
+    public <T> ResponseEntity<T> execute(String owner, String key, Object request, Class<T> responseType,
+                                         Supplier<ResponseEntity<T>> operation) {
+        if (key == null) {
+            return operation.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String ownerName = owner != null ? owner : ANONYMOUS;
+
+        long start = System.nanoTime();
+        String requestHash = hash(request);
+        String scopedKey = ownerName + '\n' + key;
+        StoredResponse stored = completed.getIfPresent(scopedKey);
+        CompletableFuture<StoredResponse> execution = null;
+        CompletableFuture<StoredResponse> running = null;
+        if (stored == null) {
+            execution = new CompletableFuture<>();
+            running = inFlight.putIfAbsent(scopedKey, execution);
+        }
+        lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (stored != null) {
+            return replay(key, stored, requestHash, responseType, "cache");
+        }
+        if (running != null) {
+            StoredResponse first = await(key, running);
+            if (first == null) {
+                // The first execution did not store a response: run it again as a request of our own
+                return execute(owner, key, request, responseType, operation);
+            }
+            return replay(key, first, requestHash, responseType, "in_flight");
+        }
+
+        try {
+            return executeOnce(ownerName, key, scopedKey, requestHash, responseType, operation, execution);
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, execution);
+        }
+    }
+
+    private <T> ResponseEntity<T> executeOnce(String ownerName, String key, String scopedKey, String requestHash,
+                                              Class<T> responseType, Supplier<ResponseEntity<T>> operation,
+                                              CompletableFuture<StoredResponse> execution) {
+        Long claimId;
+        while ((claimId = claim(ownerName, key, requestHash)) == null) {
+            // Another node holds the key, or it was answered before this node's cache saw it
+            StoredResponse existing = awaitStored(ownerName, key, requestHash);
+            if (existing != null) {
+                completed.put(scopedKey, existing);
+                execution.complete(existing);
+                return replay(key, existing, requestHash, responseType, "database");
+            }
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = operation.get();
+        } catch (RuntimeException e) {
+            if (ExceptionCauses.isBusinessRejection(e)) {
+                release(claimId);
+            } else {
+                log.warn("Outcome of the request with idempotency key {} is unknown, keeping the key claimed: {}",
+                        key, e.getMessage());
+            }
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            release(claimId);
+            // Waiters run the operation themselves, so they must not find this execution again
+            inFlight.remove(scopedKey, execution);
+            execution.complete(null);
+            return response;
+        }
+
+        StoredResponse stored = new StoredResponse(requestHash, response.getStatusCode().value(),
+                response.getHeaders().getLocation() != null ? response.getHeaders().getLocation().toString() : null,
+                toJson(response.getBody()));
+        Long id = claimId;
+        try {
+            transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.complete(
+                    id, stored.status(), stored.location(), stored.body()));
+        } catch (RuntimeException e) {
+            // The operation is done: answer it, and leave the key claimed rather than allow a second run
+            log.warn("Could not store the response for idempotency key {}: {}", key, e.getMessage());
+        }
+        completed.put(scopedKey, stored);
+        execution.complete(stored);
+        return response;
+    }
+
+    /**
+     * Insert the key's row in its own transaction
+     * @return Id of the claim, or null if the key is already taken
+     */
+    private Long claim(String ownerName, String key, String requestHash) {
+        IdempotencyRecord entry = new IdempotencyRecord();
+        entry.setOwnerName(ownerName);
+        entry.setIdempotencyKey(key);
+        entry.setRequestHash(requestHash);
+        entry.setStatus(IdempotencyKeyStatus.IN_PROGRESS.name());
+        entry.setExpiresAt(LocalDateTime.now().plus(ttl));
+        try {
+            return transactionTemplate.execute(status -> idempotencyKeyRepository.saveAndFlush(entry).getId());
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Wait for the response of a key claimed by another request
+     * @return The stored response, or null if the key is free again (released, expired or purged)
+     */
+    private StoredResponse awaitStored(String ownerName, String key, String requestHash) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        while (true) {
+            Optional<IdempotencyRecord> found = idempotencyKeyRepository.findByOwnerNameAndIdempotencyKey(ownerName, key);
+            if (found.isEmpty()) {
+                return null;
+            }
+            IdempotencyRecord entry = found.get();
+            if (entry.getExpiresAt().isBefore(LocalDateTime.now())) {
+                release(entry.getId());
+                return null;
+            }
+            if (!entry.getRequestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            if (IdempotencyKeyStatus.COMPLETED.name().equals(entry.getStatus())) {
+                return new StoredResponse(entry.getRequestHash(), entry.getResponseStatus(),
+                        entry.getResponseLocation(), entry.getResponseBody());
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw new IdempotencyKeyInProgressException(key, waitMillis);
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyKeyInProgressException(key, waitMillis);
+            }
+        }
+    }
+
+    /**
+     * Wait for the execution of a key running on this node
+     * @return Its stored response, or null if it stored none
+     */
+    private StoredResponse await(String key, CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(key, waitMillis);
+        } catch (ExecutionException e) {
+            // Duplicates share the outcome of the first execution, failures included
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key, waitMillis);
+        }
+    }
+
+    private void release(Long claimId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.deleteById(claimId));
+        } catch (RuntimeException e) {
+            log.warn("Could not release idempotency claim {}: {}", claimId, e.getMessage());
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(String key, StoredResponse stored, String requestHash,
+                                         Class<T> responseType, String source) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        replays.computeIfAbsent(source, tag -> Counter.builder(REPLAYS)
+                        .description("Responses replayed for a repeated idempotency key")
+                        .tag("source", tag)
+                        .register(meterRegistry))
+                .increment();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.location() != null) {
+            builder.location(URI.create(stored.location()));
+        }
+        return builder.body(fromJson(stored.body(), responseType));
+    }
+
+    @Override
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> idempotencyKeyRepository.deleteExpired(now, purgeBatchSize));
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        if (total > 0) {
+            log.info("Purged {} expired idempotency keys", total);
+        }
+        return total;
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response", e);
+        }
+    }
+
+    private <T> T fromJson(String body, Class<T> responseType) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored response", e);
+        }
+    }
+
+    /** Response of the first request with a key, as stored in its row */
+    private record StoredResponse(String requestHash, int status, String location, String body) {
+    }
+}
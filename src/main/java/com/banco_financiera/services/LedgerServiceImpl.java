@@ -0,0 +1,171 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.exception.business.BusinessException;
+import com.banco_financiera.exception.business.InsufficientFundsException;
+import com.banco_financiera.locking.BalanceMutationExecutor;
+import com.banco_financiera.models.BalanceSnapshot;
+import com.banco_financiera.models.Product;
+import com.banco_financiera.models.Transaction;
+import com.banco_financiera.repositories.BalanceSnapshotRepository;
+import com.banco_financiera.repositories.LedgerBalanceView;
+import com.banco_financiera.repositories.ProductRepository;
+import com.banco_financiera.repositories.TransactionRepository;
+import com.banco_financiera.utils.Money;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class LedgerServiceImpl implements ILedgerService {
+
+    private final TransactionRepository transactionRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final ProductRepository productRepository;
+    private final BalanceMutationExecutor balanceMutationExecutor;
+
+    @Value("${banco.transactions.balance-update:entity}")
+    private String balanceUpdateMode;
+
+    @Override
+    public boolean isEnabled() {
+        // Sharded mode writes the same ledger, from the shard threads
+        return "ledger".equalsIgnoreCase(balanceUpdateMode) || "sharded".equalsIgnoreCase(balanceUpdateMode);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long currentBalance(Product product) {
+        return currentBalance(product.getId(), product::getAccountBalance);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Long> currentBalances(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Long> balances = new HashMap<>();
+        for (LedgerBalanceView ledger : balanceSnapshotRepository.findLedgerBalances(productIds)) {
+            balances.put(ledger.getProductId(), Money.add(ledger.getSnapshotBalance(), ledger.getTail()));
+        }
+        return balances;
+    }
+
+    @Override
+    public long openForAppend(Long productId, long storedBalance) {
+        return openForAppend(productId, () -> storedBalance);
+    }
+
+    @Override
+    public Transaction append(Product product, TransactionType transactionType, long amount) throws BusinessException {
+        Transaction transaction = prepare(product, transactionType, amount);
+        log.debug("Appending {} of {} to ledger of product {}, running balance {}",
+                transactionType, amount, product.getId(), transaction.getRunningBalance());
+        return transactionRepository.save(transaction);
+    }
+
+    @Override
+    public Transaction prepare(Product product, TransactionType transactionType, long amount) throws BusinessException {
+        Long productId = product.getId();
+        // The product may be an uninitialized reference: its stored balance is only read to open the ledger
+        long previousBalance = openForAppend(productId, product::getAccountBalance);
+        long runningBalance;
+        if (transactionType.isCredit()) {
+            runningBalance = Money.add(previousBalance, amount);
+        } else {
+            if (previousBalance < amount) {
+                throw new InsufficientFundsException(productId, previousBalance, amount);
+            }
+            runningBalance = Money.subtract(previousBalance, amount);
+        }
+
+        Transaction transaction = new Transaction();
+        transaction.setTransactionType(transactionType.name());
+        transaction.setAmount(amount);
+        transaction.setRunningBalance(runningBalance);
+        transaction.setProduct(product);
+        return transaction;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int compact(int minTail) {
+        List<Long> productIds = balanceSnapshotRepository.findAccountsWithTailOfAtLeast(minTail);
+        int compacted = 0;
+        for (Long productId : productIds) {
+            try {
+                // Same lock as writers: a snapshot must not be taken while an entry below its
+                // last_transaction_id is still uncommitted, or the tail scan would skip it for good
+                balanceMutationExecutor.executeWithLocks("COMPACT", () -> compactAccount(productId), productId);
+                compacted++;
+            } catch (RuntimeException e) {
+                log.error("Failed to compact ledger of product {}: {}", productId, e.getMessage());
+            }
+        }
+        if (compacted > 0) {
+            log.info("Compacted ledger of {} accounts", compacted);
+        }
+        return compacted;
+    }
+
+    private BalanceSnapshot compactAccount(Long productId) {
+        Product product = productRepository.getReferenceById(productId);
+        long lastTransactionId = transactionRepository.findLastTransactionId(productId);
+        long balance = currentBalance(productId, product::getAccountBalance);
+
+        BalanceSnapshot snapshot = saveSnapshot(productId, balance, lastTransactionId, false);
+        balanceSnapshotRepository.deleteSupersededSnapshots(productId, snapshot.getId());
+        productRepository.overwriteBalance(productId, balance, LocalDateTime.now());
+        return snapshot;
+    }
+
+    private long openForAppend(Long productId, LongSupplier storedBalance) {
+        ensureOpeningSnapshot(productId, storedBalance);
+        return currentBalance(productId, storedBalance);
+    }
+
+    /**
+     * The first ledger write of an account freezes its stored balance, and every entry recorded
+     * before, into the opening snapshot the ledger is replayed from.
+     */
+    private void ensureOpeningSnapshot(Long productId, LongSupplier storedBalance) {
+        Optional<BalanceSnapshot> opening = balanceSnapshotRepository.findFirstByProductIdAndOpeningTrue(productId);
+        if (opening.isEmpty()) {
+            long lastTransactionId = transactionRepository.findLastTransactionId(productId);
+            long balance = storedBalance.getAsLong();
+            saveSnapshot(productId, balance, lastTransactionId, true);
+            log.info("Opened ledger for product {} with balance {}", productId, balance);
+        }
+    }
+
+    private long currentBalance(Long productId, LongSupplier storedBalance) {
+        return balanceSnapshotRepository.findFirstByProductIdOrderByLastTransactionIdDesc(productId)
+                .map(snapshot -> Money.add(snapshot.getBalance(),
+                        transactionRepository.sumSignedAmountsAfter(productId, snapshot.getLastTransactionId())))
+                .orElseGet(storedBalance::getAsLong);
+    }
+
+    private BalanceSnapshot saveSnapshot(Long productId, long balance, long lastTransactionId, boolean opening) {
+        BalanceSnapshot snapshot = new BalanceSnapshot();
+        snapshot.setProductId(productId);
+        snapshot.setBalance(balance);
+        snapshot.setLastTransactionId(lastTransactionId);
+        snapshot.setOpening(opening);
+        return balanceSnapshotRepository.save(snapshot);
+    }
+}
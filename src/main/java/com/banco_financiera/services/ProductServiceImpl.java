@@ -1,24 +1,42 @@
 package com.banco_financiera.services;
 
+import com.banco_financiera.cache.ProductCache;
+import com.banco_financiera.cache.ProductSummary;
 import com.banco_financiera.core.exceptions.HttpClientException;
+import com.banco_financiera.dto.KeysetPageDTO;
 import com.banco_financiera.dto.ProductRequestDTO;
+import com.banco_financiera.dto.ProductResponseDTO;
 import com.banco_financiera.enums.AccountStatus;
 import com.banco_financiera.enums.AccountTypes;
 import com.banco_financiera.exception.business.AccountNotFoundException;
+import com.banco_financiera.exception.business.BalanceManagedByLedgerException;
+import com.banco_financiera.exception.business.BusinessException;
 import com.banco_financiera.exception.business.UserNotFoundException;
 import com.banco_financiera.exception.business.AccountInactiveException;
+import com.banco_financiera.mapper.ProductMapper;
+import com.banco_financiera.metrics.ServiceMetrics;
 import com.banco_financiera.models.Product;
 import com.banco_financiera.models.User;
 import com.banco_financiera.repositories.ProductRepository;
 import com.banco_financiera.repositories.UserRepository;
 import com.banco_financiera.utils.EnumUtils;
+import com.banco_financiera.utils.KeysetCursor;
+import com.banco_financiera.utils.KeysetPagination;
+import com.banco_financiera.utils.NdjsonExport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 
@@ -30,23 +48,53 @@ public class ProductServiceImpl implements IProductService {
 
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
+    private final ILedgerService ledgerService;
+    private final ProductCache productCache;
+    private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final ServiceMetrics serviceMetrics;
+
+    @Value("${banco.pagination.max-page-size:500}")
+    private int maxPageSize = 500;
 
     @Override
     @Transactional(readOnly = true)
-    public List<Product> getAllProducts() {
-        log.debug("Getting all products");
-        return (List<Product>) productRepository.findAll();
+    public KeysetPageDTO<ProductResponseDTO> getProducts(String cursor, int size) {
+        log.debug("Getting products after cursor: {}", cursor);
+        KeysetPagination.checkPageSize(size, maxPageSize);
+        List<ProductResponseDTO> products = productRepository.findResponsesAfter(
+                KeysetPagination.afterId(cursor), Limit.of(size + 1));
+        applyLedgerBalances(products);
+        return KeysetPagination.page(products, size, last -> KeysetCursor.of(last.getId()));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Optional<Product> getProductById(Long id) {
+    public void exportProducts(OutputStream output) throws IOException {
+        log.debug("Exporting all products");
+        long exported = NdjsonExport.writeChunks(productRepository.streamAllResponses(), products -> {
+            applyLedgerBalances(products);
+            return products;
+        }, objectMapper, entityManager, output);
+        log.info("Exported {} products", exported);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ProductResponseDTO> getProductById(Long id) {
         log.debug("Getting product by ID: {}", id);
-        return productRepository.findById(id);
+        Optional<ProductResponseDTO> product = productRepository.findResponseById(id);
+        product.ifPresent(found -> applyLedgerBalances(List.of(found)));
+        return product;
     }
 
     @Override
-    public Product createProduct(ProductRequestDTO productRequestDTO, Long userId) throws HttpClientException {
+    public ProductResponseDTO createProduct(ProductRequestDTO productRequestDTO, Long userId) throws HttpClientException {
+        return serviceMetrics.record("create_product", () -> insertProduct(productRequestDTO, userId));
+    }
+
+    private ProductResponseDTO insertProduct(ProductRequestDTO productRequestDTO, Long userId) throws HttpClientException {
         log.debug("Creating product for user ID: {}", userId);
 
         try {
@@ -61,13 +109,13 @@ public class ProductServiceImpl implements IProductService {
 
             // Validate savings account balance
             if (productRequestDTO.getAccountType().equalsIgnoreCase(AccountTypes.SAVINGS.name())
-                && productRequestDTO.getAccountBalance().compareTo(BigDecimal.ZERO) < 0) {
+                && productRequestDTO.getAccountBalance() < 0) {
                 throw new IllegalArgumentException("Savings account balance cannot be less than 0");
             }
 
             Product product = new Product();
             product.setAccountType(productRequestDTO.getAccountType());
-            product.setAccountBalance(productRequestDTO.getAccountBalance().doubleValue());
+            product.setAccountBalance(productRequestDTO.getAccountBalance());
             product.setExentaGMF(productRequestDTO.getExemptGmf());
             product.setUser(user);
 
@@ -87,7 +135,7 @@ public class ProductServiceImpl implements IProductService {
 
             Product savedProduct = productRepository.save(product);
             log.info("Product created successfully with ID: {}", savedProduct.getId());
-            return savedProduct;
+            return productMapper.toResponseDTO(savedProduct);
 
         } catch (Exception e) {
             log.error("Error creating product for user {}: {}", userId, e.getMessage());
@@ -96,21 +144,37 @@ public class ProductServiceImpl implements IProductService {
     }
 
     @Override
-    public Product updateProduct(Long id, ProductRequestDTO productRequestDTO) throws HttpClientException {
+    public ProductResponseDTO updateProduct(Long id, ProductRequestDTO productRequestDTO) throws HttpClientException {
         log.debug("Updating product with ID: {}", id);
 
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new AccountNotFoundException(id));
 
+        // In ledger mode the stored balance is overwritten at compaction, so an edit would be lost
+        Long ledgerBalance = null;
+        if (ledgerService.isEnabled()) {
+            ledgerBalance = ledgerService.currentBalance(existingProduct);
+            if (!ledgerBalance.equals(productRequestDTO.getAccountBalance())) {
+                throw new BalanceManagedByLedgerException(id);
+            }
+        }
+
         try {
             // Update allowed fields
             existingProduct.setAccountType(productRequestDTO.getAccountType());
-            existingProduct.setAccountBalance(productRequestDTO.getAccountBalance().doubleValue());
+            if (ledgerBalance == null) {
+                existingProduct.setAccountBalance(productRequestDTO.getAccountBalance());
+            }
             existingProduct.setExentaGMF(productRequestDTO.getExemptGmf());
+            productCache.evict(id);
 
             Product updatedProduct = productRepository.save(existingProduct);
             log.info("Product updated successfully with ID: {}", updatedProduct.getId());
-            return updatedProduct;
+            ProductResponseDTO response = productMapper.toResponseDTO(updatedProduct);
+            if (ledgerBalance != null) {
+                response.setAccountBalance(ledgerBalance);
+            }
+            return response;
 
         } catch (Exception e) {
             log.error("Error updating product {}: {}", id, e.getMessage());
@@ -125,26 +189,29 @@ public class ProductServiceImpl implements IProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new AccountNotFoundException(id));
 
-        if (product.getAccountBalance() != 0) {
+        long balance = ledgerService.isEnabled() ? ledgerService.currentBalance(product) : product.getAccountBalance();
+        if (balance != 0) {
             throw new IllegalArgumentException("Cannot delete a product with a non-zero balance");
         }
 
+        productCache.evict(id);
         productRepository.deleteById(id);
         log.info("Product deleted successfully with ID: {}", id);
     }
 
     @Override
-    public Product updateProductStatus(Long id, String status) throws HttpClientException {
+    public ProductResponseDTO updateProductStatus(Long id, String status) throws HttpClientException {
         log.debug("Updating product status for ID: {} to: {}", id, status);
 
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new AccountNotFoundException(id));
 
         product.setStatus(status);
+        productCache.evict(id);
         Product updatedProduct = productRepository.save(product);
 
         log.info("Product status updated successfully for ID: {}", id);
-        return updatedProduct;
+        return productMapper.toResponseDTO(updatedProduct);
     }
 
     @Override
@@ -161,4 +228,35 @@ public class ProductServiceImpl implements IProductService {
 
         return product;
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ProductSummary getActiveProductSummary(Long id) throws BusinessException {
+        ProductSummary summary = productCache.get(id)
+                .orElseThrow(() -> new AccountNotFoundException(id));
+
+        if (!summary.isActive()) {
+            throw new AccountInactiveException(id, summary.status());
+        }
+
+        return summary;
+    }
+
+    /**
+     * In ledger mode the stored balance is only refreshed at compaction, so reads take it from the ledger,
+     * in one query for all the products read together.
+     */
+    private void applyLedgerBalances(List<ProductResponseDTO> products) {
+        if (!ledgerService.isEnabled() || products.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> balances = ledgerService.currentBalances(
+                products.stream().map(ProductResponseDTO::getId).toList());
+        for (ProductResponseDTO product : products) {
+            Long balance = balances.get(product.getId());
+            if (balance != null) {
+                product.setAccountBalance(balance);
+            }
+        }
+    }
+}
@@ -23,7 +23,7 @@ public class TransactionService {
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
     }
 
-    private Transaction buildTransaction(Product product , Double amount, String typeTransaction){
+    private Transaction buildTransaction(Product product , long amount, String typeTransaction){
         Transaction transaction = new Transaction();
         transaction.setTransactionType(typeTransaction);
         transaction.setAmount(amount);
@@ -33,7 +33,7 @@ public class TransactionService {
     }
 
 
-    public Transaction deposit(Long productId, Double amount) {
+    public Transaction deposit(Long productId, long amount) {
         Product product = findProductById(productId);
         product.setAccountBalance(product.getAccountBalance() + amount);
         productRepository.save(product);
@@ -43,7 +43,7 @@ public class TransactionService {
     }
 
 
-    public Transaction withdraw(Long productId, Double amount) {
+    public Transaction withdraw(Long productId, long amount) {
         Product product = findProductById(productId);
         if (product.getAccountBalance() < amount) {
             throw new IllegalArgumentException("Insufficient balance");
@@ -54,7 +54,7 @@ public class TransactionService {
         return transactionRepository.save(transaction);
     }
 
-    public Transaction transfer(Long fromProductId, Long toProductId, Double amount) {
+    public Transaction transfer(Long fromProductId, Long toProductId, long amount) {
         Product fromProduct = findProductById(fromProductId);
         Product toProduct =findProductById(toProductId);
 
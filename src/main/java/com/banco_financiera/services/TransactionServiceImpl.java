@@ -1,47 +1,156 @@
 package com.banco_financiera.services;
 
+import com.banco_financiera.core.exceptions.HttpClientException;
+import com.banco_financiera.dto.KeysetPageDTO;
+import com.banco_financiera.dto.TransactionHistoryDTO;
 import com.banco_financiera.dto.TransactionRequestDTO;
 import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.exception.business.AccountNotFoundException;
 import com.banco_financiera.exception.business.BusinessException;
 import com.banco_financiera.exception.business.InsufficientFundsException;
 import com.banco_financiera.exception.business.TransferToSameAccountException;
 import com.banco_financiera.exception.service.TransactionProcessingException;
+import com.banco_financiera.locking.BalanceMutationExecutor;
+import com.banco_financiera.locking.GroupCommitCoordinator;
+import com.banco_financiera.metrics.ServiceMetrics;
 import com.banco_financiera.models.Product;
 import com.banco_financiera.models.Transaction;
 import com.banco_financiera.repositories.ProductRepository;
 import com.banco_financiera.repositories.TransactionRepository;
+import com.banco_financiera.sharding.ShardedLedgerProcessor;
+import com.banco_financiera.utils.KeysetCursor;
+import com.banco_financiera.utils.KeysetPagination;
+import com.banco_financiera.utils.Money;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class TransactionServiceImpl implements ITransactionService {
 
     private final TransactionRepository transactionRepository;
     private final ProductRepository productRepository;
     private final IProductService productService;
+    private final BalanceMutationExecutor balanceMutationExecutor;
+    private final ILedgerService ledgerService;
+    private final ShardedLedgerProcessor shardedLedgerProcessor;
+    private final GroupCommitCoordinator groupCommitCoordinator;
+    private final ServiceMetrics serviceMetrics;
+
+    /**
+     * "entity" loads, mutates and saves the product; "atomic" uses one conditional UPDATE statement;
+     * "ledger" only appends entries and derives the balance from the latest snapshot; "sharded" appends
+     * the same entries from the thread that owns the account (see {@link ShardedLedgerProcessor}).
+     */
+    @Value("${banco.transactions.balance-update:entity}")
+    private String balanceUpdateMode;
+
+    @Value("${banco.pagination.max-page-size:500}")
+    private int maxPageSize = 500;
 
     @Override
     public Transaction deposit(Long productId, TransactionRequestDTO transactionRequestDTO) throws BusinessException {
         log.debug("Processing deposit for product ID: {} with amount: {}", productId, transactionRequestDTO.getAmount());
+        return serviceMetrics.record("deposit",
+                () -> inGroupCommit(() -> applyDepositInMode(productId, transactionRequestDTO), productId));
+    }
+
+    @Override
+    public Transaction withdraw(Long productId, TransactionRequestDTO transactionRequestDTO) throws BusinessException {
+        log.debug("Processing withdrawal for product ID: {} with amount: {}", productId, transactionRequestDTO.getAmount());
+        return serviceMetrics.record("withdraw",
+                () -> inGroupCommit(() -> applyWithdrawInMode(productId, transactionRequestDTO), productId));
+    }
+
+    @Override
+    public Transaction transfer(Long fromProductId, Long toProductId, TransactionRequestDTO transactionRequestDTO) throws BusinessException {
+        log.debug("Processing transfer from product ID: {} to product ID: {} with amount: {}",
+                fromProductId, toProductId, transactionRequestDTO.getAmount());
+        return serviceMetrics.record("transfer", () -> inGroupCommit(
+                () -> applyTransferInMode(fromProductId, toProductId, transactionRequestDTO), fromProductId, toProductId));
+    }
+
+    /**
+     * Share the commit with concurrent operations when group commit is enabled. Sharded mode already
+     * commits in batches, from the shard threads.
+     */
+    private Transaction inGroupCommit(Supplier<Transaction> mutation, Long... productIds) {
+        if (shardedLedgerProcessor.isEnabled()) {
+            return mutation.get();
+        }
+        return groupCommitCoordinator.execute(mutation, productIds);
+    }
 
+    private Transaction applyDepositInMode(Long productId, TransactionRequestDTO transactionRequestDTO) {
+        if (shardedLedgerProcessor.isEnabled()) {
+            return shardedLedgerProcessor.apply(TransactionType.DEPOSIT, productId, null, transactionRequestDTO.getAmount());
+        }
+        if (ledgerService.isEnabled()) {
+            return balanceMutationExecutor.executeWithLocks(TransactionType.DEPOSIT.name(),
+                    () -> appendToLedger(productId, TransactionType.DEPOSIT, transactionRequestDTO), productId);
+        }
+        if (isAtomicBalanceUpdate()) {
+            return balanceMutationExecutor.execute(TransactionType.DEPOSIT.name(),
+                    () -> applyAtomicDeposit(productId, transactionRequestDTO));
+        }
+        return balanceMutationExecutor.execute(TransactionType.DEPOSIT.name(),
+                () -> applyDeposit(productId, transactionRequestDTO), productId);
+    }
+
+    private Transaction applyWithdrawInMode(Long productId, TransactionRequestDTO transactionRequestDTO) {
+        if (shardedLedgerProcessor.isEnabled()) {
+            return shardedLedgerProcessor.apply(TransactionType.WITHDRAW, productId, null, transactionRequestDTO.getAmount());
+        }
+        if (ledgerService.isEnabled()) {
+            return balanceMutationExecutor.executeWithLocks(TransactionType.WITHDRAW.name(),
+                    () -> appendToLedger(productId, TransactionType.WITHDRAW, transactionRequestDTO), productId);
+        }
+        if (isAtomicBalanceUpdate()) {
+            return balanceMutationExecutor.execute(TransactionType.WITHDRAW.name(),
+                    () -> applyAtomicWithdraw(productId, transactionRequestDTO));
+        }
+        return balanceMutationExecutor.execute(TransactionType.WITHDRAW.name(),
+                () -> applyWithdraw(productId, transactionRequestDTO), productId);
+    }
+
+    private Transaction applyTransferInMode(Long fromProductId, Long toProductId, TransactionRequestDTO transactionRequestDTO) {
+        // Validate transfer is not to same account
+        validateTransferNotSameAccount(fromProductId, toProductId);
+
+        if (shardedLedgerProcessor.isEnabled()) {
+            return shardedLedgerProcessor.apply(TransactionType.TRANSFER, fromProductId, toProductId,
+                    transactionRequestDTO.getAmount());
+        }
+        if (ledgerService.isEnabled()) {
+            return balanceMutationExecutor.executeWithLocks(TransactionType.TRANSFER.name(),
+                    () -> appendTransferToLedger(fromProductId, toProductId, transactionRequestDTO), fromProductId, toProductId);
+        }
+        return balanceMutationExecutor.execute(TransactionType.TRANSFER.name(),
+                () -> applyTransfer(fromProductId, toProductId, transactionRequestDTO), fromProductId, toProductId);
+    }
+
+    private Transaction applyDeposit(Long productId, TransactionRequestDTO transactionRequestDTO) {
         try {
             Product product = productService.getActiveProductById(productId);
-            BigDecimal amount = transactionRequestDTO.getAmount();
+            long amount = transactionRequestDTO.getAmount();
 
             // Update account balance
-            BigDecimal newBalance = BigDecimal.valueOf(product.getAccountBalance()).add(amount);
-            product.setAccountBalance(newBalance.doubleValue());
+            product.setAccountBalance(Money.add(product.getAccountBalance(), amount));
             productRepository.save(product);
 
             // Create transaction record
-            Transaction transaction = buildTransaction(product, amount.doubleValue(), TransactionType.DEPOSIT.name());
+            Transaction transaction = buildTransaction(product, amount, TransactionType.DEPOSIT.name());
             Transaction savedTransaction = transactionRepository.save(transaction);
 
             log.info("Deposit transaction completed successfully for product ID: {} with amount: {}", productId, amount);
@@ -53,25 +162,21 @@ public class TransactionServiceImpl implements ITransactionService {
         }
     }
 
-    @Override
-    public Transaction withdraw(Long productId, TransactionRequestDTO transactionRequestDTO) throws BusinessException {
-        log.debug("Processing withdrawal for product ID: {} with amount: {}", productId, transactionRequestDTO.getAmount());
-
+    private Transaction applyWithdraw(Long productId, TransactionRequestDTO transactionRequestDTO) {
         try {
             Product product = productService.getActiveProductById(productId);
-            BigDecimal amount = transactionRequestDTO.getAmount();
-            BigDecimal currentBalance = BigDecimal.valueOf(product.getAccountBalance());
+            long amount = transactionRequestDTO.getAmount();
+            long currentBalance = product.getAccountBalance();
 
             // Validate sufficient funds
             validateSufficientFunds(currentBalance, amount, productId);
 
             // Update account balance
-            BigDecimal newBalance = currentBalance.subtract(amount);
-            product.setAccountBalance(newBalance.doubleValue());
+            product.setAccountBalance(Money.subtract(currentBalance, amount));
             productRepository.save(product);
 
             // Create transaction record
-            Transaction transaction = buildTransaction(product, amount.doubleValue(), TransactionType.WITHDRAW.name());
+            Transaction transaction = buildTransaction(product, amount, TransactionType.WITHDRAW.name());
             Transaction savedTransaction = transactionRepository.save(transaction);
 
             log.info("Withdrawal transaction completed successfully for product ID: {} with amount: {}", productId, amount);
@@ -85,37 +190,72 @@ public class TransactionServiceImpl implements ITransactionService {
         }
     }
 
-    @Override
-    public Transaction transfer(Long fromProductId, Long toProductId, TransactionRequestDTO transactionRequestDTO) throws BusinessException {
-        log.debug("Processing transfer from product ID: {} to product ID: {} with amount: {}",
-                fromProductId, toProductId, transactionRequestDTO.getAmount());
+    /**
+     * Deposit fast path: one conditional UPDATE plus the transaction insert, without loading the product.
+     * The product is only read when the UPDATE matched nothing, to report why.
+     */
+    private Transaction applyAtomicDeposit(Long productId, TransactionRequestDTO transactionRequestDTO) {
+        long amount = transactionRequestDTO.getAmount();
 
-        try {
-            // Validate transfer is not to same account
-            validateTransferNotSameAccount(fromProductId, toProductId);
+        int updated = productRepository.creditActiveAccount(productId, amount, LocalDateTime.now());
+        if (updated == 0) {
+            // Throws AccountNotFoundException or AccountInactiveException
+            loadActiveProduct(productId, TransactionType.DEPOSIT);
+            throw new ObjectOptimisticLockingFailureException(Product.class, productId);
+        }
+
+        Transaction transaction = buildTransaction(productRepository.getReferenceById(productId),
+                amount, TransactionType.DEPOSIT.name());
+        Transaction savedTransaction = transactionRepository.save(transaction);
+
+        log.info("Deposit transaction completed successfully for product ID: {} with amount: {}", productId, amount);
+        return savedTransaction;
+    }
+
+    /**
+     * Withdrawal fast path: the funds check is part of the UPDATE predicate, so no lock is needed.
+     */
+    private Transaction applyAtomicWithdraw(Long productId, TransactionRequestDTO transactionRequestDTO) {
+        long amount = transactionRequestDTO.getAmount();
+
+        int updated = productRepository.debitActiveAccount(productId, amount, LocalDateTime.now());
+        if (updated == 0) {
+            Product product = loadActiveProduct(productId, TransactionType.WITHDRAW);
+            validateSufficientFunds(product.getAccountBalance(), amount, productId);
+            // Active with enough funds now: the balance moved between the UPDATE and the read, try again
+            throw new ObjectOptimisticLockingFailureException(Product.class, productId);
+        }
+
+        Transaction transaction = buildTransaction(productRepository.getReferenceById(productId),
+                amount, TransactionType.WITHDRAW.name());
+        Transaction savedTransaction = transactionRepository.save(transaction);
 
+        log.info("Withdrawal transaction completed successfully for product ID: {} with amount: {}", productId, amount);
+        return savedTransaction;
+    }
+
+    private Transaction applyTransfer(Long fromProductId, Long toProductId, TransactionRequestDTO transactionRequestDTO) {
+        try {
             Product fromProduct = productService.getActiveProductById(fromProductId);
             Product toProduct = productService.getActiveProductById(toProductId);
 
-            BigDecimal amount = transactionRequestDTO.getAmount();
-            BigDecimal fromCurrentBalance = BigDecimal.valueOf(fromProduct.getAccountBalance());
+            long amount = transactionRequestDTO.getAmount();
+            long fromCurrentBalance = fromProduct.getAccountBalance();
 
             // Validate sufficient funds
             validateSufficientFunds(fromCurrentBalance, amount, fromProductId);
 
             // Update balances
-            BigDecimal newFromBalance = fromCurrentBalance.subtract(amount);
-            fromProduct.setAccountBalance(newFromBalance.doubleValue());
+            fromProduct.setAccountBalance(Money.subtract(fromCurrentBalance, amount));
             productRepository.save(fromProduct);
 
-            BigDecimal toCurrentBalance = BigDecimal.valueOf(toProduct.getAccountBalance());
-            BigDecimal newToBalance = toCurrentBalance.add(amount);
-            toProduct.setAccountBalance(newToBalance.doubleValue());
+            toProduct.setAccountBalance(Money.add(toProduct.getAccountBalance(), amount));
             productRepository.save(toProduct);
 
-            // Create transaction record (from source account perspective)
-            Transaction transaction = buildTransaction(fromProduct, amount.doubleValue(), TransactionType.TRANSFER.name());
-            Transaction savedTransaction = transactionRepository.save(transaction);
+            // Record both legs; the source leg is returned
+            Transaction savedTransaction = insertTransferLegs(
+                    buildTransaction(fromProduct, amount, TransactionType.TRANSFER.name()),
+                    buildTransaction(toProduct, amount, TransactionType.TRANSFER_IN.name()));
 
             log.info("Transfer transaction completed successfully from product ID: {} to product ID: {} with amount: {}",
                     fromProductId, toProductId, amount);
@@ -129,9 +269,61 @@ public class TransactionServiceImpl implements ITransactionService {
         }
     }
 
+    /**
+     * Ledger path: no product row is written, so concurrent writers on one account only
+     * serialize on the account lock, never on the products table.
+     */
+    private Transaction appendToLedger(Long productId, TransactionType transactionType, TransactionRequestDTO transactionRequestDTO) {
+        Product product = activeProductReference(productId);
+        Transaction savedTransaction = ledgerService.append(product, transactionType, transactionRequestDTO.getAmount());
+
+        log.info("{} ledger entry recorded for product ID: {} with amount: {}",
+                transactionType, productId, transactionRequestDTO.getAmount());
+        return savedTransaction;
+    }
+
+    private Transaction appendTransferToLedger(Long fromProductId, Long toProductId, TransactionRequestDTO transactionRequestDTO) {
+        Product fromProduct = activeProductReference(fromProductId);
+        Product toProduct = activeProductReference(toProductId);
+        long amount = transactionRequestDTO.getAmount();
+
+        // Source leg first so an insufficient balance fails before anything is written
+        Transaction savedTransaction = insertTransferLegs(
+                ledgerService.prepare(fromProduct, TransactionType.TRANSFER, amount),
+                ledgerService.prepare(toProduct, TransactionType.TRANSFER_IN, amount));
+
+        log.info("Transfer ledger entries recorded from product ID: {} to product ID: {} with amount: {}",
+                fromProductId, toProductId, amount);
+        return savedTransaction;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<TransactionHistoryDTO> getTransactionHistory(Long productId, String cursor, int size) throws BusinessException {
+        log.debug("Getting transaction history for product ID: {} after cursor: {}", productId, cursor);
+        KeysetPagination.checkPageSize(size, maxPageSize);
+        if (!productRepository.existsById(productId)) {
+            throw new AccountNotFoundException(productId);
+        }
+
+        Limit limit = Limit.of(size + 1);
+        List<TransactionHistoryDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findHistory(productId, limit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            if (position.timestamp() == null) {
+                throw new IllegalArgumentException("Invalid pagination cursor");
+            }
+            rows = transactionRepository.findHistoryBefore(productId, position.timestamp(), position.id(), limit);
+        }
+
+        return KeysetPagination.page(rows, size, last -> new KeysetCursor(last.getTransactionDate(), last.getId()));
+    }
+
     @Override
-    public void validateSufficientFunds(BigDecimal currentBalance, BigDecimal amount, Long accountId) throws BusinessException {
-        if (currentBalance.compareTo(amount) < 0) {
+    public void validateSufficientFunds(long currentBalance, long amount, Long accountId) throws BusinessException {
+        if (currentBalance < amount) {
             throw new InsufficientFundsException(accountId, currentBalance, amount);
         }
     }
@@ -143,7 +335,41 @@ public class TransactionServiceImpl implements ITransactionService {
         }
     }
 
-    private Transaction buildTransaction(Product product, Double amount, String typeTransaction) {
+    private Product loadActiveProduct(Long productId, TransactionType transactionType) {
+        try {
+            return productService.getActiveProductById(productId);
+        } catch (HttpClientException e) {
+            throw new TransactionProcessingException(transactionType.name(), productId, "Failed to load product", e);
+        }
+    }
+
+    /**
+     * Status check from the product cache plus an uninitialized reference, for paths that never
+     * read or write the product row. Paths that update the stored balance load the row instead.
+     */
+    private Product activeProductReference(Long productId) {
+        productService.getActiveProductSummary(productId);
+        return productRepository.getReferenceById(productId);
+    }
+
+    private boolean isAtomicBalanceUpdate() {
+        return "atomic".equalsIgnoreCase(balanceUpdateMode);
+    }
+
+    /**
+     * Save the debit and credit legs of a transfer under one transfer id. Ids come from the
+     * sequence before the insert, so both inserts are flushed together as one JDBC batch.
+     * @return The source (debit) leg
+     */
+    private Transaction insertTransferLegs(Transaction debit, Transaction credit) {
+        UUID transferId = UUID.randomUUID();
+        debit.setTransferId(transferId);
+        credit.setTransferId(transferId);
+        transactionRepository.saveAll(List.of(debit, credit));
+        return debit;
+    }
+
+    private Transaction buildTransaction(Product product, long amount, String typeTransaction) {
         Transaction transaction = new Transaction();
         transaction.setTransactionType(typeTransaction);
         transaction.setAmount(amount);
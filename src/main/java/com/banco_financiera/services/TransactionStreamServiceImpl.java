@@ -0,0 +1,183 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.dto.BatchOperationDTO;
+import com.banco_financiera.dto.BatchOperationResultDTO;
+import com.banco_financiera.exception.BaseException;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams NDJSON operations through {@link IBatchTransactionService} one chunk at a time.
+ * Only the current chunk of operations and its results are held in memory: the parser reads
+ * one root-level value at a time, and results are written and flushed after every chunk.
+ */
+@Slf4j
+@Service
+public class TransactionStreamServiceImpl implements ITransactionStreamService {
+
+    private final IBatchTransactionService batchTransactionService;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter resultWriter;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public TransactionStreamServiceImpl(IBatchTransactionService batchTransactionService,
+                                        ObjectMapper objectMapper,
+                                        Validator validator,
+                                        @Value("${banco.transactions.batch.chunk-size:1000}") int chunkSize) {
+        this.batchTransactionService = batchTransactionService;
+        this.objectMapper = objectMapper;
+        // Flushed once per chunk rather than once per line
+        this.resultWriter = objectMapper.writerFor(BatchOperationResultDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void ingest(InputStream input, OutputStream output) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(input);
+             JsonGenerator generator = objectMapper.createGenerator(output, JsonEncoding.UTF8)) {
+            // Lines are terminated explicitly instead of separated by the default space
+            generator.setRootValueSeparator(null);
+            Chunk chunk = new Chunk(chunkSize);
+            int index = 0;
+            int succeeded = 0;
+            try {
+                for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken(), index++) {
+                    chunk.add(read(parser, index));
+                    if (chunk.isFull()) {
+                        succeeded += flush(chunk, generator);
+                    }
+                }
+                succeeded += flush(chunk, generator);
+            } catch (StreamReadException e) {
+                // The tokenizer cannot resynchronize after invalid JSON: settle what was read and stop
+                succeeded += flush(chunk, generator);
+                write(BatchOperationResultDTO.failed(index, "MALFORMED_LINE", e.getOriginalMessage()), generator);
+                log.warn("Stopped NDJSON ingestion at record {}: {}", index, e.getOriginalMessage());
+            }
+            log.info("NDJSON ingestion completed: {} records, {} succeeded", index, succeeded);
+        }
+    }
+
+    /**
+     * Read the current root-level value; a well-formed line that does not map to a valid
+     * operation becomes a failed result instead of an operation.
+     */
+    private Object read(JsonParser parser, int index) throws IOException {
+        BatchOperationDTO operation;
+        try {
+            operation = objectMapper.readValue(parser, BatchOperationDTO.class);
+        } catch (DatabindException e) {
+            // readValue stops inside the offending value; skip to its end to stay on line boundaries
+            while (parser.getParsingContext().getParent() != null && parser.nextToken() != null) {
+                parser.skipChildren();
+            }
+            return BatchOperationResultDTO.failed(index, "MALFORMED_REQUEST", e.getOriginalMessage());
+        }
+        Set<ConstraintViolation<BatchOperationDTO>> violations = validator.validate(operation);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            return BatchOperationResultDTO.failed(index, "VALIDATION_ERROR", message);
+        }
+        return operation;
+    }
+
+    /**
+     * Apply the valid operations of the chunk, then write every result of the chunk in input order.
+     * @return Number of operations that succeeded
+     */
+    private int flush(Chunk chunk, JsonGenerator generator) throws IOException {
+        if (chunk.entries.isEmpty()) {
+            return 0;
+        }
+        List<BatchOperationDTO> operations = new ArrayList<>(chunk.entries.size());
+        for (Object entry : chunk.entries) {
+            if (entry instanceof BatchOperationDTO operation) {
+                operations.add(operation);
+            }
+        }
+        List<BatchOperationResultDTO> applied;
+        try {
+            applied = batchTransactionService.processChunk(operations, 0);
+        } catch (RuntimeException e) {
+            // The chunk rolled back as a whole (e.g. lock timeout): fail its operations and keep streaming
+            log.error("NDJSON chunk starting at record {} failed: {}", chunk.firstIndex, e.getMessage());
+            String error = e instanceof BaseException base ? base.getErrorCode() : "PROCESSING_ERROR";
+            applied = operations.stream()
+                    .map(operation -> BatchOperationResultDTO.failed(0, error, e.getMessage()))
+                    .toList();
+        }
+
+        int succeeded = 0;
+        int next = 0;
+        for (int i = 0; i < chunk.entries.size(); i++) {
+            BatchOperationResultDTO result;
+            if (chunk.entries.get(i) instanceof BatchOperationResultDTO rejected) {
+                result = rejected;
+            } else {
+                result = applied.get(next++);
+                result.setIndex(chunk.firstIndex + i);
+                succeeded += result.isSucceeded() ? 1 : 0;
+            }
+            write(result, generator);
+        }
+        generator.flush();
+        chunk.clear();
+        return succeeded;
+    }
+
+    private void write(BatchOperationResultDTO result, JsonGenerator generator) throws IOException {
+        resultWriter.writeValue(generator, result);
+        generator.writeRaw('\n');
+    }
+
+    /** Records read since the last flush: operations to apply or results of rejected lines. */
+    private static final class Chunk {
+        private final int capacity;
+        private final List<Object> entries;
+        private int firstIndex;
+
+        private Chunk(int capacity) {
+            this.capacity = capacity;
+            this.entries = new ArrayList<>(capacity);
+        }
+
+        private void add(Object entry) {
+            entries.add(entry);
+        }
+
+        private boolean isFull() {
+            return entries.size() >= capacity;
+        }
+
+        private void clear() {
+            firstIndex += entries.size();
+            entries.clear();
+        }
+    }
+}
@@ -1,19 +1,31 @@
 package com.banco_financiera.services;
 
+import com.banco_financiera.cache.UserCache;
 import com.banco_financiera.core.exceptions.HttpClientException;
+import com.banco_financiera.dto.KeysetPageDTO;
 import com.banco_financiera.dto.UserRequestDTO;
 import com.banco_financiera.dto.UserResponseDTO;
 import com.banco_financiera.exception.business.DuplicateResourceException;
 import com.banco_financiera.exception.business.UserNotFoundException;
 import com.banco_financiera.mapper.UserMapper;
+import com.banco_financiera.metrics.ServiceMetrics;
 import com.banco_financiera.models.User;
 import com.banco_financiera.repositories.UserRepository;
+import com.banco_financiera.utils.KeysetCursor;
+import com.banco_financiera.utils.KeysetPagination;
+import com.banco_financiera.utils.NdjsonExport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.List;
@@ -27,13 +39,31 @@ public class UserServiceImpl implements IUserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final UserCache userCache;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final ServiceMetrics serviceMetrics;
+
+    @Value("${banco.pagination.max-page-size:500}")
+    private int maxPageSize = 500;
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<UserResponseDTO> findPage(String cursor, int size) {
+        log.debug("Finding users after cursor: {}", cursor);
+        KeysetPagination.checkPageSize(size, maxPageSize);
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPagination.afterId(cursor), Limit.of(size + 1));
+        return KeysetPagination.page(userMapper.toResponseDTOList(users), size, last -> KeysetCursor.of(last.getId()));
+    }
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserResponseDTO> findAll() {
-        log.debug("Finding all users");
-        List<User> users = (List<User>) userRepository.findAll();
-        return userMapper.toResponseDTOList(users);
+    public void exportUsers(OutputStream output) throws IOException {
+        log.debug("Exporting all users");
+        long exported = NdjsonExport.write(userRepository.streamAll(), userMapper::toResponseDTO,
+                objectMapper, entityManager, output);
+        log.info("Exported {} users", exported);
     }
 
     @Override
@@ -48,12 +78,15 @@ public class UserServiceImpl implements IUserService {
     @Transactional(readOnly = true)
     public Optional<UserResponseDTO> findByIdentificationNumber(Long identificationNumber) {
         log.debug("Finding user by identification number: {}", identificationNumber);
-        return userRepository.findByIdentificationNumber(identificationNumber)
-                .map(userMapper::toResponseDTO);
+        return userCache.findByIdentificationNumber(identificationNumber);
     }
 
     @Override
     public UserResponseDTO createUser(UserRequestDTO userRequestDTO) throws HttpClientException {
+        return serviceMetrics.record("create_user", () -> insertUser(userRequestDTO));
+    }
+
+    private UserResponseDTO insertUser(UserRequestDTO userRequestDTO) throws HttpClientException {
         log.debug("Creating user with identification number: {}", userRequestDTO.getIdentificationNumber());
 
         try {
@@ -62,13 +95,14 @@ public class UserServiceImpl implements IUserService {
                 throw new IllegalArgumentException("User must be at least 18 years old");
             }
 
-            // Check for duplicate identification number
-            if (userRepository.findByIdentificationNumber(userRequestDTO.getIdentificationNumber()).isPresent()) {
+            // Check for duplicate identification number; a stale negative entry is caught by the unique constraint
+            if (userCache.findByIdentificationNumber(userRequestDTO.getIdentificationNumber()).isPresent()) {
                 throw new DuplicateResourceException("User", "identification_number", userRequestDTO.getIdentificationNumber());
             }
 
             User user = userMapper.toEntity(userRequestDTO);
             User savedUser = userRepository.save(user);
+            userCache.evict(savedUser.getIdentificationNumber());
 
             log.info("User created successfully with ID: {}", savedUser.getId());
             return userMapper.toResponseDTO(savedUser);
@@ -93,6 +127,9 @@ public class UserServiceImpl implements IUserService {
         try {
             userMapper.updateEntityFromDTO(userRequestDTO, existingUser);
             User updatedUser = userRepository.save(existingUser);
+            // The identification number itself may have changed: evict the old and the new one
+            userCache.evict(identificationNumber);
+            userCache.evict(updatedUser.getIdentificationNumber());
 
             log.info("User updated successfully with ID: {}", updatedUser.getId());
             return userMapper.toResponseDTO(updatedUser);
@@ -109,6 +146,7 @@ public class UserServiceImpl implements IUserService {
 
         User user = getUserEntityByIdentificationNumber(identificationNumber);
         userRepository.delete(user);
+        userCache.evict(identificationNumber);
 
         log.info("User deleted successfully with identification number: {}", identificationNumber);
     }
@@ -129,7 +167,15 @@ public class UserServiceImpl implements IUserService {
     public User getUserEntityByIdentificationNumber(Long identificationNumber) throws HttpClientException {
         log.debug("Getting user entity by identification number: {}", identificationNumber);
 
-        return userRepository.findByIdentificationNumber(identificationNumber)
+        // Writes need the managed entity; the cache resolves the id, or rejects unknown numbers without a query
+        Long userId = userCache.findByIdentificationNumber(identificationNumber)
+                .map(UserResponseDTO::getId)
                 .orElseThrow(() -> new UserNotFoundException(identificationNumber, true));
+        return userRepository.findById(userId)
+                .filter(user -> identificationNumber.equals(user.getIdentificationNumber()))
+                .orElseThrow(() -> {
+                    userCache.evict(identificationNumber);
+                    return new UserNotFoundException(identificationNumber, true);
+                });
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.banco_financiera.sharding;
+
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.models.Transaction;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * One entry of a shard's ring buffer: an operation on an account the shard owns, or the credit leg of
+ * a transfer whose debit leg another shard has committed. Completes {@link #result} with the entry
+ * returned to the caller (the debit leg, for transfers).
+ */
+final class LedgerOperation {
+
+    final TransactionType type;
+    final Long productId;
+    /** Destination of a TRANSFER */
+    final Long toProductId;
+    final long amount;
+    /** Whether the destination of a TRANSFER belongs to another shard */
+    final boolean crossShard;
+    /** Runs in the transaction that writes the entry, after it has its id; may be null */
+    final Consumer<Transaction> inTransaction;
+    /** Committed debit leg a TRANSFER_IN credits */
+    final Transaction debit;
+    final CompletableFuture<Transaction> result;
+    /** Failed commits of a TRANSFER_IN, which is retried rather than dropped */
+    int attempts;
+
+    private LedgerOperation(TransactionType type, Long productId, Long toProductId, long amount, boolean crossShard,
+                            Consumer<Transaction> inTransaction, Transaction debit, CompletableFuture<Transaction> result) {
+        this.type = type;
+        this.productId = productId;
+        this.toProductId = toProductId;
+        this.amount = amount;
+        this.crossShard = crossShard;
+        this.inTransaction = inTransaction;
+        this.debit = debit;
+        this.result = result;
+    }
+
+    static LedgerOperation submitted(TransactionType type, Long productId, Long toProductId, long amount,
+                                     boolean crossShard, Consumer<Transaction> inTransaction) {
+        return new LedgerOperation(type, productId, toProductId, amount, crossShard, inTransaction, null,
+                new CompletableFuture<>());
+    }
+
+    /**
+     * Credit leg of a committed debit leg, completing the transfer's result when it commits
+     */
+    static LedgerOperation credit(Transaction debit, Long toProductId, CompletableFuture<Transaction> result) {
+        return new LedgerOperation(TransactionType.TRANSFER_IN, toProductId, null, debit.getAmount(), false, null,
+                debit, result);
+    }
+}
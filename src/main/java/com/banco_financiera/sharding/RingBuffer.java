@@ -0,0 +1,102 @@
+package com.banco_financiera.sharding;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer with preallocated slots, in the style of the
+ * LMAX Disruptor. Producers claim a sequence with one CAS and publish their slot by advancing its
+ * sequence number; the consumer takes every published slot in order without any lock. A full buffer
+ * makes {@link #offer} fail instead of blocking, so the caller decides how to apply back-pressure.
+ */
+final class RingBuffer<E> {
+
+    private final Object[] slots;
+    /** Per slot: equal to the producer sequence when free, to that sequence + 1 once published */
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    /** Next sequence to consume; only written by the consumer */
+    private volatile long head;
+
+    RingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two, got " + capacity);
+        }
+        this.slots = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Publish an element; safe from any number of threads
+     * @return false if the buffer is full
+     */
+    boolean offer(E element) {
+        long sequence;
+        int index;
+        while (true) {
+            sequence = tail.get();
+            index = (int) (sequence & mask);
+            long distance = sequences.get(index) - sequence;
+            if (distance == 0) {
+                if (tail.compareAndSet(sequence, sequence + 1)) {
+                    break;
+                }
+            } else if (distance < 0) {
+                // The slot still holds the element of the previous lap
+                return false;
+            }
+            // Otherwise another producer claimed this sequence first: read the tail again
+        }
+        slots[index] = element;
+        sequences.set(index, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Move up to {@code max} published elements to {@code sink}, in publication order. Consumer thread only.
+     * @return number of elements moved
+     */
+    @SuppressWarnings("unchecked")
+    int drainTo(List<? super E> sink, int max) {
+        long next = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (next & mask);
+            if (sequences.get(index) != next + 1) {
+                break;
+            }
+            sink.add((E) slots[index]);
+            slots[index] = null;
+            // Free the slot for the producer one lap ahead
+            sequences.set(index, next + slots.length);
+            next++;
+            drained++;
+        }
+        head = next;
+        return drained;
+    }
+
+    /**
+     * Whether nothing is published. Exact from the consumer thread, a hint from any other
+     */
+    boolean isEmpty() {
+        return sequences.get((int) (head & mask)) != head + 1;
+    }
+
+    /**
+     * Claimed but not yet consumed elements, for monitoring
+     */
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,484 @@
+package com.banco_financiera.sharding;
+
+import com.banco_financiera.cache.ProductCache;
+import com.banco_financiera.cache.ProductSummary;
+import com.banco_financiera.enums.AccountStatus;
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.exception.business.AccountInactiveException;
+import com.banco_financiera.exception.business.AccountNotFoundException;
+import com.banco_financiera.exception.business.BusinessException;
+import com.banco_financiera.exception.business.InsufficientFundsException;
+import com.banco_financiera.locking.BalanceMutationExecutor;
+import com.banco_financiera.models.Transaction;
+import com.banco_financiera.repositories.AccountBalanceView;
+import com.banco_financiera.repositories.ProductRepository;
+import com.banco_financiera.repositories.TransactionRepository;
+import com.banco_financiera.services.ILedgerService;
+import com.banco_financiera.utils.Money;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Owner of a subset of the accounts. Its thread is the only writer of their ledgers, so it keeps their
+ * balances in memory and applies operations to them without any lock. Each turn of its loop takes every
+ * operation waiting in the ring buffer (up to {@code maxBatch}), applies them in order, and writes all
+ * their entries in one transaction: the longer a commit takes, the more operations the next one carries.
+ * <p>
+ * An operation that cannot be applied (a business rejection, a balance overflow, or a failed
+ * {@code inTransaction} hook) is rejected on its own: its entries and balance changes are dropped and
+ * the rest of the batch commits.
+ * <p>
+ * Balances only change in memory once their entries are committed. An account is read from its ledger
+ * the first time the shard sees it, and is forgotten again when more than {@code maxAccounts} are held.
+ * The commit still takes the account locks, uncontended except against ledger compaction, which must
+ * not snapshot an account while entries of it are uncommitted.
+ */
+@Slf4j
+final class Shard implements Runnable {
+
+    /** Upper bound of an idle wait: producers unpark the thread, this only covers a lost wake-up */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+    /** A credit that fails this many commits stays pending in the database until the next start */
+    static final int CREDIT_ATTEMPTS = 5;
+
+    private final int index;
+    private final int maxBatch;
+    private final RingBuffer<LedgerOperation> ring;
+    /** Credits forwarded by other shards; unbounded so that two full shards never wait on each other */
+    private final Queue<LedgerOperation> credits = new ConcurrentLinkedQueue<>();
+    /** Committed balances of the accounts seen last, in access order; owner thread only */
+    private final Map<Long, Long> balances;
+
+    private final TransactionRepository transactionRepository;
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ILedgerService ledgerService;
+    private final BalanceMutationExecutor balanceMutationExecutor;
+    private final Consumer<LedgerOperation> creditRouter;
+
+    private final DistributionSummary batchSize;
+    private final Timer committed;
+    private final Timer failed;
+
+    private Thread thread;
+    private volatile boolean running;
+    private volatile boolean waiting;
+
+    Shard(int index, int ringSize, int maxBatch, int maxAccounts,
+          TransactionRepository transactionRepository,
+          ProductRepository productRepository,
+          ProductCache productCache,
+          ILedgerService ledgerService,
+          BalanceMutationExecutor balanceMutationExecutor,
+          Consumer<LedgerOperation> creditRouter,
+          MeterRegistry meterRegistry) {
+        this.index = index;
+        this.maxBatch = maxBatch;
+        this.ring = new RingBuffer<>(ringSize);
+        this.balances = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > maxAccounts;
+            }
+        };
+        this.transactionRepository = transactionRepository;
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.ledgerService = ledgerService;
+        this.balanceMutationExecutor = balanceMutationExecutor;
+        this.creditRouter = creditRouter;
+
+        String shard = Integer.toString(index);
+        Gauge.builder("banco.shards.queue.depth", ring, RingBuffer::size)
+                .description("Operations waiting in the ring buffer of a shard")
+                .tag("shard", shard)
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("banco.shards.batch.size")
+                .description("Operations written by one group commit")
+                .tag("shard", shard)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.committed = commitTimer(meterRegistry, shard, "success");
+        this.failed = commitTimer(meterRegistry, shard, "error");
+    }
+
+    void start() {
+        running = true;
+        thread = new Thread(this, "ledger-shard-" + index);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop once the operations already accepted are written
+     */
+    void stop(Duration timeout) throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(timeout.toMillis());
+        }
+    }
+
+    /**
+     * Hand an operation to the owner thread
+     * @return false if the ring buffer is full
+     */
+    boolean offer(LedgerOperation operation) {
+        if (!ring.offer(operation)) {
+            return false;
+        }
+        wake();
+        return true;
+    }
+
+    /**
+     * Queue the credit leg of a transfer another shard has debited; never refused
+     */
+    void credit(LedgerOperation credit) {
+        credits.add(credit);
+        wake();
+    }
+
+    int index() {
+        return index;
+    }
+
+    @Override
+    public void run() {
+        List<LedgerOperation> batch = new ArrayList<>(maxBatch);
+        while (running || !ring.isEmpty() || !credits.isEmpty()) {
+            batch.clear();
+            LedgerOperation credit;
+            while (batch.size() < maxBatch && (credit = credits.poll()) != null) {
+                batch.add(credit);
+            }
+            ring.drainTo(batch, maxBatch - batch.size());
+            if (batch.isEmpty()) {
+                idle();
+            } else if (!process(batch)) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(RETRY_BACKOFF_MILLIS));
+            }
+        }
+        log.info("Ledger shard {} stopped", index);
+    }
+
+    private void idle() {
+        waiting = true;
+        // Checked after publishing the flag, so a producer either sees it or its element is seen here
+        if (running && ring.isEmpty() && credits.isEmpty()) {
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        waiting = false;
+    }
+
+    private void wake() {
+        if (waiting) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Apply and commit one batch, then complete its operations
+     * @return false if the commit failed
+     */
+    boolean process(List<LedgerOperation> batch) {
+        Timer.Sample sample = Timer.start();
+        Applied applied;
+        try {
+            applied = balanceMutationExecutor.executeWithLocks("SHARD", () -> applyAndWrite(batch), accountsOf(batch));
+        } catch (RuntimeException e) {
+            sample.stop(failed);
+            log.error("Ledger shard {} failed to commit {} operations: {}", index, batch.size(), e.getMessage(), e);
+            for (LedgerOperation operation : batch) {
+                fail(operation, e);
+            }
+            return false;
+        }
+        sample.stop(committed);
+        batchSize.record(batch.size());
+        balances.putAll(applied.balances);
+
+        for (int i = 0; i < batch.size(); i++) {
+            LedgerOperation operation = batch.get(i);
+            if (applied.rejections[i] != null) {
+                if (operation.type == TransactionType.TRANSFER_IN) {
+                    log.error("Could not credit transfer {} to product {}; it stays pending and is retried at the "
+                                    + "next start: {}", operation.debit.getTransferId(), operation.productId,
+                            applied.rejections[i].getMessage());
+                }
+                operation.result.completeExceptionally(applied.rejections[i]);
+            } else if (operation.type == TransactionType.TRANSFER && operation.crossShard) {
+                // Completed by the destination shard once the credit commits
+                creditRouter.accept(LedgerOperation.credit(applied.entries[i], operation.toProductId, operation.result));
+            } else {
+                operation.result.complete(applied.entries[i]);
+            }
+        }
+        return true;
+    }
+
+    private void fail(LedgerOperation operation, RuntimeException e) {
+        if (operation.type != TransactionType.TRANSFER_IN) {
+            operation.result.completeExceptionally(e);
+            return;
+        }
+        // The debit is committed: the credit has to land eventually
+        if (++operation.attempts < CREDIT_ATTEMPTS) {
+            credits.add(operation);
+            return;
+        }
+        log.error("Giving up on the credit of transfer {} to product {} after {} attempts; it stays pending "
+                        + "and is retried at the next start", operation.debit.getTransferId(), operation.productId,
+                operation.attempts);
+        operation.result.completeExceptionally(e);
+    }
+
+    /**
+     * Runs in the commit transaction, and again from scratch if it is retried, so it only works on
+     * copies of the committed balances
+     */
+    private Applied applyAndWrite(List<LedgerOperation> batch) {
+        Map<Long, Long> working = new HashMap<>();
+        Map<Long, String> unwritable = new HashMap<>();
+        load(batch, working, unwritable);
+
+        Transaction[] entries = new Transaction[batch.size()];
+        RuntimeException[] rejections = new RuntimeException[batch.size()];
+        List<Long> creditedDebits = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            LedgerOperation operation = batch.get(i);
+            Map<Long, Long> before = workingBalancesOf(operation, working);
+            int credited = creditedDebits.size();
+            List<Transaction> rows = new ArrayList<>(2);
+            try {
+                entries[i] = apply(operation, working, unwritable, rows, creditedDebits);
+                // Ids are assigned on persist from the sequence; inserts are batched at flush
+                transactionRepository.saveAll(rows);
+            } catch (BusinessException | ArithmeticException e) {
+                rejections[i] = e;
+            }
+            if (rejections[i] == null && operation.inTransaction != null) {
+                try {
+                    operation.inTransaction.accept(entries[i]);
+                } catch (RuntimeException e) {
+                    log.warn("Ledger shard {} skipped a {} on product {}: {}", index, operation.type,
+                            operation.productId, e.getMessage());
+                    transactionRepository.deleteAll(rows);
+                    rejections[i] = e;
+                }
+            }
+            if (rejections[i] != null) {
+                // Later operations must not build on what this one would have written
+                entries[i] = null;
+                restore(working, before);
+                creditedDebits.subList(credited, creditedDebits.size()).clear();
+            }
+        }
+
+        if (!creditedDebits.isEmpty()) {
+            transactionRepository.clearPendingCredits(creditedDebits);
+        }
+        return new Applied(working, entries, rejections);
+    }
+
+    /**
+     * Working balances of the accounts an operation writes, null for those not loaded in this batch yet
+     */
+    private static Map<Long, Long> workingBalancesOf(LedgerOperation operation, Map<Long, Long> working) {
+        Map<Long, Long> before = new HashMap<>(4);
+        before.put(operation.productId, working.get(operation.productId));
+        if (operation.toProductId != null) {
+            before.put(operation.toProductId, working.get(operation.toProductId));
+        }
+        return before;
+    }
+
+    private static void restore(Map<Long, Long> working, Map<Long, Long> before) {
+        before.forEach((productId, balance) -> {
+            if (balance == null) {
+                working.remove(productId);
+            } else {
+                working.put(productId, balance);
+            }
+        });
+    }
+
+    private Transaction apply(LedgerOperation operation, Map<Long, Long> working, Map<Long, String> unwritable,
+                              List<Transaction> rows, List<Long> creditedDebits) {
+        Long productId = operation.productId;
+        long amount = operation.amount;
+        switch (operation.type) {
+            case DEPOSIT -> {
+                requireActive(productId);
+                long balance = Money.add(balance(productId, working, unwritable), amount);
+                working.put(productId, balance);
+                return add(rows, entry(productId, TransactionType.DEPOSIT, amount, balance, null));
+            }
+            case WITHDRAW -> {
+                requireActive(productId);
+                long balance = debit(productId, amount, working, unwritable);
+                return add(rows, entry(productId, TransactionType.WITHDRAW, amount, balance, null));
+            }
+            case TRANSFER -> {
+                requireActive(productId);
+                requireActive(operation.toProductId);
+                UUID transferId = UUID.randomUUID();
+                if (operation.crossShard) {
+                    long balance = debit(productId, amount, working, unwritable);
+                    Transaction debit = entry(productId, TransactionType.TRANSFER, amount, balance, transferId);
+                    debit.setPendingCreditProductId(operation.toProductId);
+                    return add(rows, debit);
+                }
+                // Both accounts are ours: both legs go into this commit
+                long destinationBalance = Money.add(balance(operation.toProductId, working, unwritable), amount);
+                long balance = debit(productId, amount, working, unwritable);
+                working.put(operation.toProductId, destinationBalance);
+                Transaction debit = add(rows, entry(productId, TransactionType.TRANSFER, amount, balance, transferId));
+                rows.add(entry(operation.toProductId, TransactionType.TRANSFER_IN, amount, destinationBalance, transferId));
+                return debit;
+            }
+            case TRANSFER_IN -> {
+                // Not checked against the account status: the money has already left the source
+                long balance = Money.add(balance(productId, working, unwritable), amount);
+                working.put(productId, balance);
+                rows.add(entry(productId, TransactionType.TRANSFER_IN, amount, balance, operation.debit.getTransferId()));
+                creditedDebits.add(operation.debit.getId());
+                return operation.debit;
+            }
+            default -> throw new IllegalStateException("Unsupported operation type: " + operation.type);
+        }
+    }
+
+    /**
+     * Checked against the cache itself rather than through the transactional product service: a
+     * rejection thrown through that proxy would mark the whole batch's transaction rollback-only
+     */
+    private void requireActive(Long productId) {
+        ProductSummary summary = productCache.get(productId)
+                .orElseThrow(() -> new AccountNotFoundException(productId));
+        if (!summary.isActive()) {
+            throw new AccountInactiveException(productId, summary.status());
+        }
+    }
+
+    private long debit(Long productId, long amount, Map<Long, Long> working, Map<Long, String> unwritable) {
+        long current = balance(productId, working, unwritable);
+        if (current < amount) {
+            throw new InsufficientFundsException(productId, current, amount);
+        }
+        long balance = Money.subtract(current, amount);
+        working.put(productId, balance);
+        return balance;
+    }
+
+    private long balance(Long productId, Map<Long, Long> working, Map<Long, String> unwritable) {
+        Long balance = working.get(productId);
+        if (balance == null) {
+            balance = balances.get(productId);
+        }
+        if (balance == null) {
+            // Not loaded: the product cache said active, but the row is gone or no longer active
+            String status = unwritable.get(productId);
+            if (status != null) {
+                throw new AccountInactiveException(productId, status);
+            }
+            throw new AccountNotFoundException(productId);
+        }
+        return balance;
+    }
+
+    /**
+     * Read the balances of the accounts this shard has not seen yet, with one query. Accounts about to
+     * be credited by a transfer are opened whatever their status; others only if active.
+     */
+    private void load(List<LedgerOperation> batch, Map<Long, Long> working, Map<Long, String> unwritable) {
+        Set<Long> missing = new LinkedHashSet<>();
+        Set<Long> credited = new LinkedHashSet<>();
+        for (LedgerOperation operation : batch) {
+            if (!balances.containsKey(operation.productId)) {
+                missing.add(operation.productId);
+            }
+            if (operation.type == TransactionType.TRANSFER && !operation.crossShard
+                    && !balances.containsKey(operation.toProductId)) {
+                missing.add(operation.toProductId);
+            }
+            if (operation.type == TransactionType.TRANSFER_IN) {
+                credited.add(operation.productId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (AccountBalanceView view : productRepository.findBalancesByIdIn(List.copyOf(missing))) {
+            if (AccountStatus.ACTIVE.name().equalsIgnoreCase(view.getStatus()) || credited.contains(view.getId())) {
+                working.put(view.getId(), ledgerService.openForAppend(view.getId(), view.getAccountBalance()));
+            } else {
+                unwritable.put(view.getId(), view.getStatus());
+            }
+        }
+    }
+
+    private Transaction entry(Long productId, TransactionType type, long amount, long runningBalance, UUID transferId) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionType(type.name());
+        transaction.setAmount(amount);
+        transaction.setRunningBalance(runningBalance);
+        transaction.setTransferId(transferId);
+        transaction.setProduct(productRepository.getReferenceById(productId));
+        return transaction;
+    }
+
+    private static Transaction add(List<Transaction> rows, Transaction row) {
+        rows.add(row);
+        return row;
+    }
+
+    /**
+     * Accounts written by a batch: never the destination of a transfer to another shard
+     */
+    private static Long[] accountsOf(List<LedgerOperation> batch) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (LedgerOperation operation : batch) {
+            ids.add(operation.productId);
+            if (operation.type == TransactionType.TRANSFER && !operation.crossShard) {
+                ids.add(operation.toProductId);
+            }
+        }
+        return ids.toArray(Long[]::new);
+    }
+
+    private static Timer commitTimer(MeterRegistry meterRegistry, String shard, String outcome) {
+        return Timer.builder("banco.shards.commit")
+                .description("Time to apply and commit one batch of a shard")
+                .tag("shard", shard)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+
+    /** Outcome of a batch: balances to keep, and per operation its entry or its rejection */
+    private record Applied(Map<Long, Long> balances, Transaction[] entries, RuntimeException[] rejections) {
+    }
+}
@@ -0,0 +1,200 @@
+package com.banco_financiera.sharding;
+
+import com.banco_financiera.cache.ProductCache;
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.exception.business.TransferToSameAccountException;
+import com.banco_financiera.exception.service.ShardTimeoutException;
+import com.banco_financiera.locking.BalanceMutationExecutor;
+import com.banco_financiera.models.Transaction;
+import com.banco_financiera.repositories.ProductRepository;
+import com.banco_financiera.repositories.TransactionRepository;
+import com.banco_financiera.services.ILedgerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Sharded balance updates ({@code banco.transactions.balance-update=sharded}): every operation is
+ * routed by product id to the ring buffer of one {@link Shard}, whose single thread owns the account,
+ * holds its balance in memory and group-commits ledger entries. Hot accounts no longer serialize on a
+ * lock per operation, only on one commit per batch. The ledger is the same as in ledger mode, so
+ * balances are read and compacted the same way.
+ * <p>
+ * A transfer between accounts of two shards is debited by the source shard, then credited by the
+ * destination shard in a later commit; the caller gets its result when both have committed. The debit
+ * leg carries {@code pending_credit_product_id} until then, and any leg left pending by a stop is
+ * credited at the next start.
+ * <p>
+ * The shard threads must be the only writers of these ledgers: single node only, and every write path
+ * (single operations, batches, async settlement) goes through here in this mode.
+ */
+@Slf4j
+@Component
+public class ShardedLedgerProcessor {
+
+    private final TransactionRepository transactionRepository;
+    private final boolean enabled;
+    private final long timeoutMillis;
+    private final Shard[] shards;
+
+    public ShardedLedgerProcessor(TransactionRepository transactionRepository,
+                                  ProductRepository productRepository,
+                                  ProductCache productCache,
+                                  ILedgerService ledgerService,
+                                  BalanceMutationExecutor balanceMutationExecutor,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${banco.transactions.balance-update:entity}") String balanceUpdateMode,
+                                  @Value("${banco.transactions.sharded.shards:8}") int shardCount,
+                                  @Value("${banco.transactions.sharded.ring-size:8192}") int ringSize,
+                                  @Value("${banco.transactions.sharded.max-batch:500}") int maxBatch,
+                                  @Value("${banco.transactions.sharded.max-accounts-per-shard:100000}") int maxAccounts,
+                                  @Value("${banco.transactions.sharded.timeout-ms:5000}") long timeoutMillis) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("banco.transactions.sharded.shards must be at least 1");
+        }
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("banco.transactions.sharded.max-batch must be at least 1");
+        }
+        this.transactionRepository = transactionRepository;
+        this.enabled = "sharded".equalsIgnoreCase(balanceUpdateMode);
+        this.timeoutMillis = timeoutMillis;
+        this.shards = new Shard[enabled ? shardCount : 0];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i, ringSize, maxBatch, maxAccounts, transactionRepository, productRepository,
+                    productCache, ledgerService, balanceMutationExecutor, this::routeCredit, meterRegistry);
+        }
+    }
+
+    /**
+     * Whether balance updates go through the shards
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Shard owning an account
+     */
+    public int shardOf(Long productId) {
+        return (int) Math.floorMod(productId, (long) shards.length);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // Nothing else writes these ledgers yet, so a leg still pending was cut off by the last stop
+        List<Transaction> pending = transactionRepository.findByPendingCreditProductIdIsNotNullOrderByIdAsc();
+        for (Transaction debit : pending) {
+            routeCredit(LedgerOperation.credit(debit, debit.getPendingCreditProductId(), new CompletableFuture<>()));
+        }
+        if (!pending.isEmpty()) {
+            log.warn("Crediting {} transfers left pending by the last stop", pending.size());
+        }
+        for (Shard shard : shards) {
+            shard.start();
+        }
+        log.info("Started {} ledger shards", shards.length);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.stop(Duration.ofSeconds(10));
+        }
+    }
+
+    /**
+     * Apply an operation and wait until it is committed
+     * @param type DEPOSIT, WITHDRAW or TRANSFER
+     * @param toProductId Destination of a TRANSFER, null otherwise
+     * @return Committed entry; the debit leg for a transfer
+     * @throws ShardTimeoutException if the operation is not committed within {@code timeout-ms}. It may
+     *                               still be committed later
+     */
+    public Transaction apply(TransactionType type, Long productId, Long toProductId, long amount) {
+        return apply(type, productId, toProductId, amount, null);
+    }
+
+    /**
+     * Same as {@link #apply(TransactionType, Long, Long, long)}, running {@code inTransaction} in the
+     * transaction that writes the entry, e.g. to mark a queued request settled exactly once
+     */
+    public Transaction apply(TransactionType type, Long productId, Long toProductId, long amount,
+                             Consumer<Transaction> inTransaction) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        CompletableFuture<Transaction> result = submit(type, productId, toProductId, amount, inTransaction, deadline);
+        try {
+            return result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new ShardTimeoutException(type.name(), productId, timeoutMillis);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ShardTimeoutException(type.name(), productId, timeoutMillis);
+        }
+    }
+
+    /**
+     * Hand an operation to its shard without waiting for the commit, so a caller with many operations
+     * can have them all in flight at once. Operations on one account are applied in submission order.
+     * @return Completes with the committed entry, or with the business exception that rejected it
+     * @throws ShardTimeoutException if the shard's ring buffer stays full for {@code timeout-ms}
+     */
+    public CompletableFuture<Transaction> submit(TransactionType type, Long productId, Long toProductId, long amount) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        return submit(type, productId, toProductId, amount, null, deadline);
+    }
+
+    private CompletableFuture<Transaction> submit(TransactionType type, Long productId, Long toProductId, long amount,
+                                                  Consumer<Transaction> inTransaction, long deadline) {
+        if (!enabled) {
+            throw new IllegalStateException("Sharded balance updates are not enabled");
+        }
+        boolean crossShard = false;
+        if (type == TransactionType.TRANSFER) {
+            if (toProductId == null) {
+                throw new IllegalArgumentException("to_product_id is required for transfers");
+            }
+            if (productId.equals(toProductId)) {
+                throw new TransferToSameAccountException(productId);
+            }
+            crossShard = shardOf(productId) != shardOf(toProductId);
+        } else if (type == TransactionType.TRANSFER_IN) {
+            throw new IllegalArgumentException("TRANSFER_IN is only recorded as the credit leg of a transfer");
+        }
+
+        LedgerOperation operation = LedgerOperation.submitted(type, productId, toProductId, amount, crossShard, inTransaction);
+        Shard shard = shards[shardOf(productId)];
+        // Back-pressure: a full ring buffer means the shard is behind on commits
+        while (!shard.offer(operation)) {
+            if (System.nanoTime() - deadline >= 0) {
+                throw new ShardTimeoutException(type.name(), productId, timeoutMillis);
+            }
+            LockSupport.parkNanos(50_000);
+        }
+        return operation.result;
+    }
+
+    private void routeCredit(LedgerOperation credit) {
+        shards[shardOf(credit.productId)].credit(credit);
+    }
+}
@@ -0,0 +1,36 @@
+package com.banco_financiera.utils;
+
+import com.banco_financiera.exception.business.BusinessException;
+
+/**
+ * Cause-chain lookups. Services wrap some business exceptions (e.g. in a
+ * {@code TransactionProcessingException}), so callers that react to a rejection search the whole chain.
+ */
+public final class ExceptionCauses {
+
+    private ExceptionCauses() {
+    }
+
+    /**
+     * @return The outermost exception of the given type in the cause chain, or null if there is none
+     */
+    public static <T extends Throwable> T find(Throwable e, Class<T> type) {
+        for (Throwable current = e; current != null; current = current.getCause()) {
+            if (type.isInstance(current)) {
+                return type.cast(current);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The business exception the call was rejected with, or null if it failed for a technical reason
+     */
+    public static BusinessException businessCause(Throwable e) {
+        return find(e, BusinessException.class);
+    }
+
+    public static boolean isBusinessRejection(Throwable e) {
+        return businessCause(e) != null;
+    }
+}
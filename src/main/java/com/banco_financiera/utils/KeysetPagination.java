@@ -0,0 +1,44 @@
+package com.banco_financiera.utils;
+
+import com.banco_financiera.dto.KeysetPageDTO;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helpers shared by the keyset-paginated reads. Queries fetch {@code size + 1} rows so that
+ * the extra row tells whether a next page exists, without a count query.
+ */
+public final class KeysetPagination {
+
+    private KeysetPagination() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the size is outside {@code [1, maxPageSize]}
+     */
+    public static void checkPageSize(int size, int maxPageSize) {
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+    }
+
+    /**
+     * Build a page from up to {@code size + 1} rows
+     * @param cursorOf Cursor pointing after a given row
+     */
+    public static <T> KeysetPageDTO<T> page(List<T> rows, int size, Function<T, KeysetCursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new KeysetPageDTO<>(rows, null);
+        }
+        List<T> page = rows.subList(0, size);
+        return new KeysetPageDTO<>(page, cursorOf.apply(page.get(size - 1)).encode());
+    }
+
+    /**
+     * Id to seek after for id-ordered pages; 0 for the first page
+     */
+    public static long afterId(String cursor) {
+        return cursor == null || cursor.isBlank() ? 0L : KeysetCursor.decode(cursor).id();
+    }
+}
@@ -0,0 +1,128 @@
+package com.banco_financiera.utils;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point money arithmetic on {@code long} minor units (cents, two decimal places).
+ * All amounts and balances are stored and computed this way; decimals only exist at the
+ * JSON boundary. Arithmetic never allocates and throws {@link ArithmeticException} on overflow.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+    public static final long MINOR_UNITS_PER_MAJOR = 100L;
+
+    /** Longest formatted value: sign, 17 integer digits, point and 2 decimals of Long.MIN_VALUE. */
+    static final int MAX_FORMATTED_LENGTH = 21;
+
+    private Money() {
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Convert a decimal amount to minor units
+     * @throws ArithmeticException if the amount has more than two decimals or does not fit in a long
+     */
+    public static long fromDecimal(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Parse a plain decimal such as {@code 12}, {@code -0.5} or {@code 1250.75} into minor units
+     * without allocating. Exponent notation falls back to {@link BigDecimal}.
+     * @throws NumberFormatException if the text is not a number
+     * @throws ArithmeticException if it has more than two decimals or overflows
+     */
+    public static long parse(char[] text, int offset, int length) {
+        if (length <= 0) {
+            throw new NumberFormatException("Empty amount");
+        }
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (text[i] == '-' || text[i] == '+') {
+            negative = text[i] == '-';
+            i++;
+        }
+
+        // Accumulate as a negative number so that Long.MIN_VALUE minor units can be represented
+        long value = 0;
+        int fractionDigits = -1;
+        boolean sawDigit = false;
+        for (; i < end; i++) {
+            char c = text[i];
+            if (c >= '0' && c <= '9') {
+                if (fractionDigits >= 0) {
+                    if (fractionDigits == SCALE) {
+                        if (c != '0') {
+                            throw new ArithmeticException("Amounts support at most " + SCALE + " decimal places");
+                        }
+                        continue;
+                    }
+                    fractionDigits++;
+                }
+                value = Math.subtractExact(Math.multiplyExact(value, 10L), c - '0');
+                sawDigit = true;
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c == 'e' || c == 'E') {
+                return fromDecimal(new BigDecimal(text, offset, length));
+            } else {
+                throw new NumberFormatException("Invalid amount: " + new String(text, offset, length));
+            }
+        }
+        if (!sawDigit) {
+            throw new NumberFormatException("Invalid amount: " + new String(text, offset, length));
+        }
+        for (int scale = Math.max(fractionDigits, 0); scale < SCALE; scale++) {
+            value = Math.multiplyExact(value, 10L);
+        }
+        return negative ? value : Math.negateExact(value);
+    }
+
+    public static long parse(String text) {
+        return parse(text.toCharArray(), 0, text.length());
+    }
+
+    /**
+     * Write minor units as a plain decimal with exactly two decimals into {@code buffer}
+     * @param buffer Destination, at least {@value #MAX_FORMATTED_LENGTH} chars long
+     * @return number of chars written, starting at index 0
+     */
+    public static int format(long minorUnits, char[] buffer) {
+        // Work on the negative magnitude so Long.MIN_VALUE does not overflow
+        long remaining = minorUnits > 0 ? -minorUnits : minorUnits;
+        int pos = MAX_FORMATTED_LENGTH;
+        int digits = 0;
+        do {
+            buffer[--pos] = (char) ('0' - (remaining % 10));
+            remaining /= 10;
+            digits++;
+            if (digits == SCALE) {
+                buffer[--pos] = '.';
+            }
+        } while (remaining != 0 || digits <= SCALE);
+        if (minorUnits < 0) {
+            buffer[--pos] = '-';
+        }
+        int length = MAX_FORMATTED_LENGTH - pos;
+        System.arraycopy(buffer, pos, buffer, 0, length);
+        return length;
+    }
+
+    public static String format(long minorUnits) {
+        char[] buffer = new char[MAX_FORMATTED_LENGTH];
+        return new String(buffer, 0, format(minorUnits, buffer));
+    }
+}
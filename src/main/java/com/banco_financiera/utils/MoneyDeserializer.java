@@ -0,0 +1,33 @@
+package com.banco_financiera.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads a JSON amount in major units ({@code 1250.75} or {@code "1250.75"}) into minor units,
+ * parsing the token text directly instead of going through {@code BigDecimal}.
+ */
+public class MoneyDeserializer extends StdDeserializer<Long> {
+
+    public MoneyDeserializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT
+                && token != JsonToken.VALUE_STRING) {
+            return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+        }
+        try {
+            return Money.parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        } catch (NumberFormatException | ArithmeticException e) {
+            return (Long) ctxt.handleWeirdStringValue(Long.class, p.getText(), e.getMessage());
+        }
+    }
+}
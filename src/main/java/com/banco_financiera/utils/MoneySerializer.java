@@ -0,0 +1,28 @@
+package com.banco_financiera.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a minor-units amount as a JSON number with two decimals ({@code 125075} -> {@code 1250.75}),
+ * keeping the public API in major units.
+ */
+public class MoneySerializer extends StdSerializer<Long> {
+
+    private static final ThreadLocal<char[]> BUFFER =
+            ThreadLocal.withInitial(() -> new char[Money.MAX_FORMATTED_LENGTH]);
+
+    public MoneySerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long minorUnits, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        char[] buffer = BUFFER.get();
+        int length = Money.format(minorUnits, buffer);
+        gen.writeRawValue(buffer, 0, length);
+    }
+}
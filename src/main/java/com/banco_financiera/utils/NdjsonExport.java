@@ -0,0 +1,78 @@
+package com.banco_financiera.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes rows from a JDBC cursor as newline-delimited JSON while the cursor advances.
+ * The persistence context is cleared every {@value #CLEAR_EVERY} rows so heap use stays
+ * bounded however many rows the cursor returns.
+ */
+public final class NdjsonExport {
+
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+
+    /** Matches the fetch size of the streaming repository queries. */
+    private static final int CLEAR_EVERY = 1000;
+
+    private NdjsonExport() {
+    }
+
+    /**
+     * @return Number of rows written
+     */
+    public static <T> long write(Stream<T> rows, Function<T, ?> mapper, ObjectMapper objectMapper,
+                                 EntityManager entityManager, OutputStream output) throws IOException {
+        long written = 0;
+        try (rows; SequenceWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(output)) {
+            for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+                writer.write(mapper.apply(it.next()));
+                if (++written % CLEAR_EVERY == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Same as {@link #write}, but maps {@value #CLEAR_EVERY} rows at a time, for mappers that look
+     * up something for every row and can do it for a whole chunk in one query
+     * @return Number of rows written
+     */
+    public static <T> long writeChunks(Stream<T> rows, Function<List<T>, List<?>> chunkMapper, ObjectMapper objectMapper,
+                                       EntityManager entityManager, OutputStream output) throws IOException {
+        long written = 0;
+        List<T> chunk = new ArrayList<>(CLEAR_EVERY);
+        try (rows; SequenceWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(output)) {
+            for (Iterator<T> it = rows.iterator(); it.hasNext(); ) {
+                chunk.add(it.next());
+                if (chunk.size() == CLEAR_EVERY || !it.hasNext()) {
+                    for (Object row : chunkMapper.apply(chunk)) {
+                        writer.write(row);
+                    }
+                    written += chunk.size();
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+        return written;
+    }
+}
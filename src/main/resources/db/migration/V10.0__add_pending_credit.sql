@@ -0,0 +1,8 @@
+-- Sharded mode commits the two legs of a transfer between accounts of different shards separately:
+-- the TRANSFER leg records the destination here, and the commit of its TRANSFER_IN leg clears it.
+-- A leg still pending at startup (the node stopped in between) is credited again.
+ALTER TABLE transactions
+    ADD COLUMN IF NOT EXISTS pending_credit_product_id INT;
+
+-- Only credits in flight are indexed, so the startup scan stays small
+CREATE INDEX IF NOT EXISTS idx_transactions_pending_credit ON transactions (id) WHERE pending_credit_product_id IS NOT NULL;
@@ -0,0 +1,24 @@
+-- Idempotency-Key store for the transaction endpoints. A row is claimed (IN_PROGRESS) before the
+-- operation runs and holds the response once it succeeds, so a retry with the same key is answered
+-- from here instead of being executed again. Keys belong to the authenticated client.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+        id BIGSERIAL PRIMARY KEY,
+        owner_name VARCHAR(100) NOT NULL,
+        idempotency_key VARCHAR(255) NOT NULL,
+        request_hash VARCHAR(64) NOT NULL,
+        status VARCHAR(20) NOT NULL,
+        response_status INT,
+        response_location VARCHAR(500),
+        response_body TEXT,
+        created_at TIMESTAMP NOT NULL,
+        expires_at TIMESTAMP NOT NULL
+    );
+
+-- Ids come from the pooled-lo optimizer, like the other tables (see V8.0)
+ALTER SEQUENCE idempotency_keys_id_seq INCREMENT BY 50;
+
+-- The claim: a second INSERT of the same key fails instead of running the operation twice
+CREATE UNIQUE INDEX IF NOT EXISTS ux_idempotency_keys_owner_key ON idempotency_keys (owner_name, idempotency_key);
+
+-- Expired keys are purged in bulk, oldest first
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
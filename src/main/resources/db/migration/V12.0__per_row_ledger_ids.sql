@@ -0,0 +1,18 @@
+-- transactions and transaction_queue go back to one nextval per row. Pooled-lo blocks (V8.0, V9.0) are
+-- handed out per application node, so with several nodes a later entry could get a lower id than an
+-- earlier one. The ledger tail (id > balance_snapshots.last_transaction_id), compaction's MAX(id)
+-- watermark and the queue's id order all rely on ids growing with commit order per account, which
+-- per-row nextval gives while the account lock is held. Ids are still assigned before the INSERT, so
+-- transaction inserts stay JDBC batches. INCREMENT BY must match allocationSize = 1 on Transaction;
+-- QueuedTransaction takes its id from the column default.
+--
+-- Skip past the block each node may still be drawing from before the increment changes.
+SELECT setval('transactions_id_seq',
+              GREATEST((SELECT last_value FROM transactions_id_seq) + 49,
+                       (SELECT COALESCE(MAX(id), 0) FROM transactions)) + 1);
+ALTER SEQUENCE transactions_id_seq INCREMENT BY 1;
+
+SELECT setval('transaction_queue_id_seq',
+              GREATEST((SELECT last_value FROM transaction_queue_id_seq) + 49,
+                       (SELECT COALESCE(MAX(id), 0) FROM transaction_queue)) + 1);
+ALTER SEQUENCE transaction_queue_id_seq INCREMENT BY 1;
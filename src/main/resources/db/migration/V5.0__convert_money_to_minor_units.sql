@@ -0,0 +1,6 @@
+-- Balances and amounts are stored as BIGINT minor units (cents) instead of DOUBLE PRECISION
+ALTER TABLE products
+    ALTER COLUMN account_balance TYPE BIGINT USING ROUND(account_balance * 100)::BIGINT;
+
+ALTER TABLE transactions
+    ALTER COLUMN amount TYPE BIGINT USING ROUND(amount * 100)::BIGINT;
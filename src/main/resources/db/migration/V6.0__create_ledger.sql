@@ -0,0 +1,17 @@
+-- Ledger entries live in transactions; running_balance is only filled for rows written in ledger mode
+ALTER TABLE transactions
+    ADD COLUMN IF NOT EXISTS running_balance BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_transactions_product_id_id ON transactions (product_id, id);
+
+CREATE TABLE IF NOT EXISTS balance_snapshots (
+        id SERIAL PRIMARY KEY,
+        product_id INT NOT NULL,
+        balance BIGINT NOT NULL,
+        last_transaction_id BIGINT NOT NULL,
+        opening BOOLEAN NOT NULL DEFAULT FALSE,
+        created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+        FOREIGN KEY (product_id) REFERENCES products (id)
+    );
+
+CREATE INDEX IF NOT EXISTS idx_balance_snapshots_product_last_tx ON balance_snapshots (product_id, last_transaction_id);
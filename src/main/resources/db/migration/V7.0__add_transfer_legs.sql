@@ -0,0 +1,8 @@
+-- Transfers are recorded as two legs (TRANSFER on the source, TRANSFER_IN on the destination) sharing a transfer_id
+ALTER TABLE transactions
+    ADD COLUMN IF NOT EXISTS transfer_id UUID;
+
+CREATE INDEX IF NOT EXISTS idx_transactions_transfer_id ON transactions (transfer_id) WHERE transfer_id IS NOT NULL;
+
+-- Statement history of one account, either side of a transfer, is a single range scan
+CREATE INDEX IF NOT EXISTS idx_transactions_product_date_id ON transactions (product_id, transaction_date, id);
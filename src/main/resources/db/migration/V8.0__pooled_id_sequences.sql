@@ -0,0 +1,8 @@
+-- Ids are allocated by Hibernate from the SERIAL sequences with the pooled-lo optimizer: one nextval
+-- reserves a block of 50 ids, so inserts no longer need RETURNING and can be sent as JDBC batches.
+-- Plain INSERTs relying on the column DEFAULT still work; each nextval reserves its own block.
+-- INCREMENT BY must match allocationSize on the entities.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
+ALTER SEQUENCE transactions_id_seq INCREMENT BY 50;
+ALTER SEQUENCE balance_snapshots_id_seq INCREMENT BY 50;
@@ -0,0 +1,26 @@
+-- Accepted-then-settled transactions (POST /transactions/async/...). A row is committed before the
+-- request is answered with 202, then applied by the worker that owns its partition, in id order.
+-- No foreign keys: accounts are validated against the product cache at submission, keeping the insert
+-- free of lookups, and a missing account is reported as a rejection at settlement.
+CREATE TABLE IF NOT EXISTS transaction_queue (
+        id BIGSERIAL PRIMARY KEY,
+        tracking_id UUID NOT NULL UNIQUE,
+        operation VARCHAR(20) NOT NULL,
+        product_id INT NOT NULL,
+        to_product_id INT,
+        amount BIGINT NOT NULL,
+        partition_key INT NOT NULL,
+        status VARCHAR(20) NOT NULL,
+        attempts INT NOT NULL DEFAULT 0,
+        transaction_id BIGINT,
+        error_code VARCHAR(50),
+        error_message VARCHAR(500),
+        accepted_at TIMESTAMP NOT NULL,
+        settled_at TIMESTAMP
+    );
+
+-- Ids come from the pooled-lo optimizer, like the other tables (see V8.0)
+ALTER SEQUENCE transaction_queue_id_seq INCREMENT BY 50;
+
+-- Each worker reads the pending head of its partition; settled rows drop out of the index
+CREATE INDEX IF NOT EXISTS idx_transaction_queue_pending ON transaction_queue (partition_key, id) WHERE status = 'PENDING';
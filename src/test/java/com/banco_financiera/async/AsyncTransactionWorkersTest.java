@@ -0,0 +1,226 @@
+package com.banco_financiera.async;
+
+import com.banco_financiera.dto.TransactionRequestDTO;
+import com.banco_financiera.enums.QueuedTransactionStatus;
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.exception.business.InsufficientFundsException;
+import com.banco_financiera.exception.service.TransactionProcessingException;
+import com.banco_financiera.models.QueuedTransaction;
+import com.banco_financiera.models.Transaction;
+import com.banco_financiera.repositories.QueuedTransactionRepository;
+import com.banco_financiera.services.ITransactionService;
+import com.banco_financiera.sharding.ShardedLedgerProcessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncTransactionWorkersTest {
+
+    AsyncTransactionWorkers workers;
+
+    @Mock
+    QueuedTransactionRepository queuedTransactionRepository;
+
+    @Mock
+    ITransactionService transactionService;
+
+    @Mock
+    ShardedLedgerProcessor shardedLedgerProcessor;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(new SimpleTransactionStatus());
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(queuedTransactionRepository.settle(anyLong(), anyString(), any(), any(), any(), any()))
+                .thenReturn(1);
+        workers = new AsyncTransactionWorkers(queuedTransactionRepository, transactionService, shardedLedgerProcessor,
+                transactionTemplate, new SimpleMeterRegistry(), false, 4, 100, 0, 3);
+    }
+
+    @Test
+    public void drainShouldApplyPendingRequestsInOrderAndMarkThemCompleted() throws InterruptedException {
+        // Arrange
+        QueuedTransaction first = queued(1L, "DEPOSIT", 5L);
+        QueuedTransaction second = queued(2L, "WITHDRAW", 5L);
+        when(queuedTransactionRepository.findPendingHead(eq(1), any(Pageable.class))).thenReturn(List.of(first, second));
+        when(transactionService.deposit(eq(5L), any(TransactionRequestDTO.class))).thenReturn(transaction(100L));
+        when(transactionService.withdraw(eq(5L), any(TransactionRequestDTO.class))).thenReturn(transaction(101L));
+
+        // Act
+        int settled = workers.drain(1);
+
+        // Assert
+        assertEquals(2, settled);
+        InOrder inOrder = inOrder(transactionService, queuedTransactionRepository);
+        inOrder.verify(transactionService).deposit(eq(5L), any(TransactionRequestDTO.class));
+        inOrder.verify(queuedTransactionRepository).settle(eq(1L), eq("COMPLETED"), eq(100L), isNull(), isNull(), any());
+        inOrder.verify(transactionService).withdraw(eq(5L), any(TransactionRequestDTO.class));
+        inOrder.verify(queuedTransactionRepository).settle(eq(2L), eq("COMPLETED"), eq(101L), isNull(), isNull(), any());
+        assertEquals(QueuedTransactionStatus.COMPLETED.name(), second.getStatus());
+    }
+
+    @Test
+    public void settleShouldRejectWrappedBusinessExceptionAndMoveOn() {
+        // Arrange
+        QueuedTransaction queued = queued(1L, "WITHDRAW", 5L);
+        when(transactionService.withdraw(eq(5L), any(TransactionRequestDTO.class))).thenThrow(
+                new TransactionProcessingException("WITHDRAW", 5L, "Failed", new InsufficientFundsException(5L, 0L, 100L)));
+
+        // Act
+        boolean settled = workers.settle(queued);
+
+        // Assert
+        assertTrue(settled);
+        verify(queuedTransactionRepository).settle(eq(1L), eq("REJECTED"), isNull(), eq("INSUFFICIENT_FUNDS"), anyString(), any());
+        verify(queuedTransactionRepository, never()).recordFailedAttempt(anyLong(), any());
+        assertEquals("INSUFFICIENT_FUNDS", queued.getErrorCode());
+    }
+
+    @Test
+    public void drainShouldStopAtTechnicalFailureSoLaterRequestsWait() throws InterruptedException {
+        // Arrange
+        QueuedTransaction first = queued(1L, "DEPOSIT", 5L);
+        QueuedTransaction second = queued(2L, "DEPOSIT", 5L);
+        when(queuedTransactionRepository.findPendingHead(eq(1), any(Pageable.class))).thenReturn(List.of(first, second));
+        when(transactionService.deposit(eq(5L), any(TransactionRequestDTO.class)))
+                .thenThrow(new IllegalStateException("connection reset"));
+
+        // Act
+        int settled = workers.drain(1);
+
+        // Assert
+        assertEquals(0, settled);
+        verify(transactionService, times(1)).deposit(eq(5L), any(TransactionRequestDTO.class));
+        verify(queuedTransactionRepository).recordFailedAttempt(1L, "connection reset");
+        verify(queuedTransactionRepository, never()).settle(anyLong(), anyString(), any(), any(), any(), any());
+        assertEquals(1, first.getAttempts());
+    }
+
+    @Test
+    public void settleShouldFailRequestAfterMaxAttempts() {
+        // Arrange
+        QueuedTransaction queued = queued(1L, "TRANSFER", 5L);
+        queued.setToProductId(6L);
+        queued.setAttempts(2);
+        when(transactionService.transfer(eq(5L), eq(6L), any(TransactionRequestDTO.class)))
+                .thenThrow(new IllegalStateException("lock timeout"));
+
+        // Act
+        boolean settled = workers.settle(queued);
+
+        // Assert
+        assertTrue(settled);
+        verify(queuedTransactionRepository).settle(eq(1L), eq("FAILED"), isNull(), eq("PROCESSING_FAILED"), eq("lock timeout"), any());
+    }
+
+    @Test
+    public void settleShouldRollBackWhenRequestWasAlreadySettled() {
+        // Arrange
+        QueuedTransaction queued = queued(1L, "DEPOSIT", 5L);
+        when(transactionService.deposit(eq(5L), any(TransactionRequestDTO.class))).thenReturn(transaction(100L));
+        when(queuedTransactionRepository.settle(anyLong(), anyString(), any(), any(), any(), any())).thenReturn(0);
+        CompletableFuture<QueuedTransaction> settlement = workers.whenSettled(queued.getTrackingId());
+
+        // Act
+        boolean settled = workers.settle(queued);
+
+        // Assert
+        assertTrue(settled);
+        assertFalse(settlement.isDone());
+        assertEquals(QueuedTransactionStatus.PENDING.name(), queued.getStatus());
+    }
+
+    @Test
+    public void shardedSettleShouldMarkRequestSettledInTheShardCommit() {
+        // Arrange
+        QueuedTransaction queued = queued(1L, "DEPOSIT", 5L);
+        when(shardedLedgerProcessor.isEnabled()).thenReturn(true);
+        when(shardedLedgerProcessor.apply(eq(TransactionType.DEPOSIT), eq(5L), isNull(), eq(100L), any()))
+                .thenAnswer(invocation -> {
+                    Transaction committed = transaction(100L);
+                    invocation.<Consumer<Transaction>>getArgument(4).accept(committed);
+                    return committed;
+                });
+
+        // Act
+        boolean settled = workers.settle(queued);
+
+        // Assert
+        assertTrue(settled);
+        verify(queuedTransactionRepository).settle(eq(1L), eq("COMPLETED"), eq(100L), isNull(), isNull(), any());
+        verify(transactionTemplate, never()).execute(any());
+        verifyNoInteractions(transactionService);
+        assertEquals(QueuedTransactionStatus.COMPLETED.name(), queued.getStatus());
+    }
+
+    @Test
+    public void whenSettledShouldCompleteWithTheSettledRequest() {
+        // Arrange
+        QueuedTransaction queued = queued(1L, "DEPOSIT", 5L);
+        when(transactionService.deposit(eq(5L), any(TransactionRequestDTO.class))).thenReturn(transaction(100L));
+        CompletableFuture<QueuedTransaction> settlement = workers.whenSettled(queued.getTrackingId());
+
+        // Act
+        workers.settle(queued);
+
+        // Assert
+        assertTrue(settlement.isDone());
+        assertEquals(100L, settlement.join().getTransactionId());
+    }
+
+    @Test
+    public void partitionOfShouldKeepEachAccountOnOnePartition() {
+        // Act & Assert
+        assertEquals(workers.partitionOf(5L), workers.partitionOf(5L));
+        assertEquals(1, workers.partitionOf(5L));
+        assertEquals(0, workers.partitionOf(8L));
+    }
+
+    private static QueuedTransaction queued(Long id, String operation, Long productId) {
+        QueuedTransaction queued = new QueuedTransaction();
+        queued.setId(id);
+        queued.setTrackingId(UUID.randomUUID());
+        queued.setOperation(operation);
+        queued.setProductId(productId);
+        queued.setAmount(100L);
+        queued.setAcceptedAt(LocalDateTime.now());
+        return queued;
+    }
+
+    private static Transaction transaction(Long id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        return transaction;
+    }
+}
@@ -0,0 +1,122 @@
+package com.banco_financiera.cache;
+
+import com.banco_financiera.repositories.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductCacheTest {
+
+    @Mock
+    ProductRepository productRepository;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ProductCache productCache;
+
+    ProductSummary summary = new ProductSummary(1L, "savings", "5312345678", "ACTIVE", false, 7L);
+
+    @BeforeEach
+    public void setUp() {
+        productCache = new ProductCache(productRepository, eventPublisher, meterRegistry, 100, 60);
+    }
+
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void getShouldLoadOnceAndServeLaterReadsFromCache() {
+        // Arrange
+        when(productRepository.findSummaryById(1L)).thenReturn(Optional.of(summary));
+
+        // Act
+        productCache.get(1L);
+        Optional<ProductSummary> result = productCache.get(1L);
+
+        // Assert
+        assertEquals(Optional.of(summary), result);
+        verify(productRepository, times(1)).findSummaryById(1L);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void getShouldNotCacheMissingProducts() {
+        // Arrange
+        when(productRepository.findSummaryById(1L)).thenReturn(Optional.empty());
+
+        // Act
+        productCache.get(1L);
+        Optional<ProductSummary> result = productCache.get(1L);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(productRepository, times(2)).findSummaryById(1L);
+    }
+
+    @Test
+    public void evictShouldReloadOnNextRead() {
+        // Arrange
+        ProductSummary inactive = new ProductSummary(1L, "savings", "5312345678", "INACTIVE", false, 7L);
+        when(productRepository.findSummaryById(1L)).thenReturn(Optional.of(summary), Optional.of(inactive));
+        productCache.get(1L);
+
+        // Act
+        productCache.evict(1L);
+
+        // Assert
+        assertEquals("INACTIVE", productCache.get(1L).orElseThrow().status());
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L));
+    }
+
+    @Test
+    public void changeFromAnotherNodeShouldOnlyEvictLocally() {
+        // Arrange
+        ProductSummary inactive = new ProductSummary(1L, "savings", "5312345678", "INACTIVE", false, 7L);
+        when(productRepository.findSummaryById(1L)).thenReturn(Optional.of(summary), Optional.of(inactive));
+        productCache.get(1L);
+
+        // Act
+        productCache.evictLocally(1L);
+
+        // Assert
+        assertEquals("INACTIVE", productCache.get(1L).orElseThrow().status());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void evictShouldEvictAgainWhenTransactionCompletes() {
+        // Arrange
+        ProductSummary inactive = new ProductSummary(1L, "savings", "5312345678", "INACTIVE", false, 7L);
+        when(productRepository.findSummaryById(1L)).thenReturn(Optional.of(summary), Optional.of(inactive));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act - a concurrent reader re-caches the pre-commit row between eviction and commit
+        productCache.evict(1L);
+        productCache.get(1L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Assert
+        assertEquals("INACTIVE", productCache.get(1L).orElseThrow().status());
+    }
+}
@@ -0,0 +1,84 @@
+package com.banco_financiera.cache;
+
+import com.banco_financiera.dto.UserResponseDTO;
+import com.banco_financiera.mapper.UserMapper;
+import com.banco_financiera.models.User;
+import com.banco_financiera.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserCacheTest {
+
+    @Mock
+    UserRepository userRepository;
+
+    @Mock
+    UserMapper userMapper;
+
+    UserCache userCache;
+
+    @BeforeEach
+    public void setUp() {
+        LocalUserCacheBackend backend = new LocalUserCacheBackend(new SimpleMeterRegistry(), 100, 300, 10);
+        userCache = new UserCache(backend, userRepository, userMapper);
+    }
+
+    @Test
+    public void findByIdentificationNumberShouldCacheFoundUser() {
+        // Arrange
+        User user = new User();
+        user.setId(1L);
+        UserResponseDTO userResponse = new UserResponseDTO();
+        userResponse.setId(1L);
+        when(userRepository.findByIdentificationNumber(123456789L)).thenReturn(Optional.of(user));
+        when(userMapper.toResponseDTO(user)).thenReturn(userResponse);
+
+        // Act
+        userCache.findByIdentificationNumber(123456789L);
+        Optional<UserResponseDTO> result = userCache.findByIdentificationNumber(123456789L);
+
+        // Assert
+        assertEquals(Optional.of(userResponse), result);
+        verify(userRepository, times(1)).findByIdentificationNumber(123456789L);
+    }
+
+    @Test
+    public void findByIdentificationNumberShouldCacheMisses() {
+        // Arrange
+        when(userRepository.findByIdentificationNumber(123456789L)).thenReturn(Optional.empty());
+
+        // Act
+        userCache.findByIdentificationNumber(123456789L);
+        Optional<UserResponseDTO> result = userCache.findByIdentificationNumber(123456789L);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(userRepository, times(1)).findByIdentificationNumber(123456789L);
+    }
+
+    @Test
+    public void evictShouldDropNegativeEntryOfNewUser() {
+        // Arrange
+        User user = new User();
+        UserResponseDTO userResponse = new UserResponseDTO();
+        when(userRepository.findByIdentificationNumber(123456789L)).thenReturn(Optional.empty(), Optional.of(user));
+        when(userMapper.toResponseDTO(user)).thenReturn(userResponse);
+        userCache.findByIdentificationNumber(123456789L);
+
+        // Act
+        userCache.evict(123456789L);
+
+        // Assert
+        assertTrue(userCache.findByIdentificationNumber(123456789L).isPresent());
+    }
+}
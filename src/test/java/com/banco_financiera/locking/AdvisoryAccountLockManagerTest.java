@@ -0,0 +1,71 @@
+package com.banco_financiera.locking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AdvisoryAccountLockManagerTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    AdvisoryAccountLockManager lockManager;
+
+    @BeforeEach
+    public void setUp() {
+        lockManager = new AdvisoryAccountLockManager(jdbcTemplate);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    public void lockAccountsShouldTakeOneBigintLockPerAccountInOrder() {
+        // Act
+        lockManager.lockAccounts(9L, 3L, 9L);
+
+        // Assert
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).query(eq("SELECT pg_advisory_xact_lock(?)"), any(ResultSetExtractor.class),
+                eq(AdvisoryAccountLockManager.lockKey(3L)));
+        inOrder.verify(jdbcTemplate).query(eq("SELECT pg_advisory_xact_lock(?)"), any(ResultSetExtractor.class),
+                eq(AdvisoryAccountLockManager.lockKey(9L)));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    public void lockAccountsShouldAcceptIdsBeyondTheIntRange() {
+        // Arrange
+        long productId = Integer.MAX_VALUE + 10L;
+
+        // Act & Assert
+        assertDoesNotThrow(() -> lockManager.lockAccounts(productId));
+        assertEquals(AdvisoryAccountLockManager.ACCOUNT_LOCK_NAMESPACE | productId,
+                AdvisoryAccountLockManager.lockKey(productId));
+    }
+
+    @Test
+    public void lockKeyShouldStayInTheNamespaceForAnyId() {
+        // Act
+        long key = AdvisoryAccountLockManager.lockKey(Long.MAX_VALUE);
+
+        // Assert
+        assertEquals(AdvisoryAccountLockManager.ACCOUNT_LOCK_NAMESPACE, key & ~((1L << 48) - 1));
+    }
+}
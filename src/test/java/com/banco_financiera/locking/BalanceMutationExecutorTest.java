@@ -0,0 +1,119 @@
+package com.banco_financiera.locking;
+
+import com.banco_financiera.exception.service.ConcurrentUpdateException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BalanceMutationExecutorTest {
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    AccountLockManager accountLockManager;
+
+    SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    public void pessimisticModeShouldLockAccountsBeforeMutation() {
+        // Arrange
+        BalanceMutationExecutor executor = executor("pessimistic", 3);
+
+        // Act
+        String result = executor.execute("TRANSFER", () -> "done", 2L, 1L);
+
+        // Assert
+        assertEquals("done", result);
+        verify(accountLockManager, times(1)).lockAccounts(2L, 1L);
+    }
+
+    @Test
+    public void optimisticModeShouldNotLockAccounts() {
+        // Arrange
+        BalanceMutationExecutor executor = executor("optimistic", 3);
+
+        // Act
+        executor.execute("DEPOSIT", () -> "done", 1L);
+
+        // Assert
+        verify(accountLockManager, never()).lockAccounts(any());
+    }
+
+    @Test
+    public void optimisticConflictShouldBeRetriedUntilSuccess() {
+        // Arrange
+        BalanceMutationExecutor executor = executor("optimistic", 3);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        String result = executor.execute("DEPOSIT", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Product", 1L);
+            }
+            return "done";
+        }, 1L);
+
+        // Assert
+        assertEquals("done", result);
+        assertEquals(3, calls.get());
+        assertEquals(3.0, meterRegistry.get("banco.transactions.attempts").counter().count());
+        assertEquals(2.0, meterRegistry.get("banco.transactions.optimistic.conflicts").counter().count());
+        assertEquals(2.0, meterRegistry.get("banco.transactions.optimistic.retries").counter().count());
+    }
+
+    @Test
+    public void optimisticConflictShouldFailAfterMaxAttempts() {
+        // Arrange
+        BalanceMutationExecutor executor = executor("optimistic", 2);
+
+        // Act & Assert
+        ConcurrentUpdateException exception = assertThrows(ConcurrentUpdateException.class, () ->
+                executor.execute("WITHDRAW", () -> {
+                    throw new ObjectOptimisticLockingFailureException("Product", 1L);
+                }, 1L));
+
+        assertEquals(2, exception.getAttempts());
+        assertEquals(1.0, meterRegistry.get("banco.transactions.optimistic.exhausted").counter().count());
+    }
+
+    @Test
+    public void otherExceptionsShouldNotBeRetried() {
+        // Arrange
+        BalanceMutationExecutor executor = executor("optimistic", 5);
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                executor.execute("DEPOSIT", () -> {
+                    calls.incrementAndGet();
+                    throw new IllegalArgumentException("boom");
+                }, 1L));
+        assertEquals(1, calls.get());
+    }
+
+    private BalanceMutationExecutor executor(String mode, int maxAttempts) {
+        return new BalanceMutationExecutor(transactionTemplate, accountLockManager, meterRegistry,
+                mode, maxAttempts, 0, 0, 2.0);
+    }
+}
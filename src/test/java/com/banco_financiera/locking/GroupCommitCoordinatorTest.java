@@ -0,0 +1,266 @@
+package com.banco_financiera.locking;
+
+import com.banco_financiera.exception.business.InsufficientFundsException;
+import com.banco_financiera.exception.service.GroupCommitTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GroupCommitCoordinatorTest {
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    AccountLockManager accountLockManager;
+
+    SimpleMeterRegistry meterRegistry;
+    ExecutorService callers;
+
+    /** Status of the transaction running on the current thread; nested executions join it */
+    final ThreadLocal<SimpleTransactionStatus> current = new ThreadLocal<>();
+    /** Transactions begun, not counting nested executions */
+    final AtomicInteger transactions = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        callers = Executors.newFixedThreadPool(4);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            if (current.get() != null) {
+                return callback.doInTransaction(current.get());
+            }
+            transactions.incrementAndGet();
+            current.set(new SimpleTransactionStatus());
+            try {
+                return callback.doInTransaction(current.get());
+            } finally {
+                current.remove();
+            }
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCallersShouldShareOneCommit() throws Exception {
+        // Arrange
+        GroupCommitCoordinator coordinator = coordinator(true);
+
+        // Act
+        List<Future<String>> results = submitAll(coordinator,
+                () -> "first", () -> "second", () -> "third");
+
+        // Assert
+        assertEquals(List.of("first", "second", "third"), outcomes(results));
+        assertEquals(1.0, committed());
+        assertEquals(3.0, meterRegistry.get(GroupCommitCoordinator.GROUP_SIZE).summary().max());
+        verify(accountLockManager, times(1)).lockAccounts(any(Long[].class));
+    }
+
+    @Test
+    public void rejectionShouldFailOnlyItsCaller() throws Exception {
+        // Arrange
+        GroupCommitCoordinator coordinator = coordinator(true);
+
+        // Act
+        List<Future<String>> results = submitAll(coordinator,
+                () -> "first", GroupCommitCoordinatorTest::insufficientFunds, () -> "third");
+
+        // Assert
+        assertEquals(List.of("first", "INSUFFICIENT_FUNDS", "third"), outcomes(results));
+        assertEquals(1.0, committed());
+    }
+
+    @Test
+    public void rejectionMarkingTheTransactionRollbackOnlyShouldRerunTheOthers() throws Exception {
+        // Arrange
+        GroupCommitCoordinator coordinator = coordinator(true);
+        AtomicInteger firstRuns = new AtomicInteger();
+        Supplier<String> rejectedThroughTransactionalService = () -> {
+            current.get().setRollbackOnly();
+            return insufficientFunds();
+        };
+
+        // Act
+        List<Future<String>> results = submitAll(coordinator,
+                () -> "first" + firstRuns.incrementAndGet(), rejectedThroughTransactionalService, () -> "third");
+
+        // Assert
+        assertEquals(List.of("first2", "INSUFFICIENT_FUNDS", "third"), outcomes(results));
+        assertEquals(1.0, meterRegistry.get(GroupCommitCoordinator.TRANSACTIONS).tag("outcome", "rolled_back").counter().count());
+        assertEquals(1.0, committed());
+    }
+
+    @Test
+    public void secondRollbackShouldRunTheRemainingCallersOneByOne() throws Exception {
+        // Arrange
+        GroupCommitCoordinator coordinator = coordinator(true, 4, 5000);
+        Supplier<String> rejectedThroughTransactionalService = () -> {
+            current.get().setRollbackOnly();
+            return insufficientFunds();
+        };
+        Supplier<String> rejectedInTheRerun = () -> {
+            if (transactions.get() == 2) {
+                return rejectedThroughTransactionalService.get();
+            }
+            return "second";
+        };
+
+        // Act
+        List<Future<String>> results = submitAll(coordinator,
+                rejectedThroughTransactionalService, rejectedInTheRerun, () -> "third", () -> "fourth");
+
+        // Assert
+        assertEquals(List.of("INSUFFICIENT_FUNDS", "INSUFFICIENT_FUNDS", "third", "fourth"), outcomes(results));
+        assertEquals(2.0, meterRegistry.get(GroupCommitCoordinator.TRANSACTIONS).tag("outcome", "rolled_back").counter().count());
+        assertEquals(1.0, meterRegistry.get(GroupCommitCoordinator.TRANSACTIONS).tag("outcome", "fallback").counter().count());
+        assertEquals(0.0, committed());
+        assertEquals(2, transactions.get(), "the group must not be run a third time");
+    }
+
+    @Test
+    public void followerShouldStopWaitingForAStuckLeaderAndBeSkipped() throws Exception {
+        // Arrange
+        GroupCommitCoordinator coordinator = coordinator(true, 2, 100);
+        CountDownLatch lockHeld = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            lockHeld.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(accountLockManager).lockAccounts(any(Long[].class));
+        List<String> ran = new CopyOnWriteArrayList<>();
+        ExecutorCompletionService<String> completion = new ExecutorCompletionService<>(callers);
+        completion.submit(() -> coordinator.execute(() -> {
+            ran.add("first");
+            return "first";
+        }, 1L));
+        completion.submit(() -> coordinator.execute(() -> {
+            ran.add("second");
+            return "second";
+        }, 2L));
+
+        // Act
+        Future<String> follower = completion.poll(5, TimeUnit.SECONDS);
+        lockHeld.countDown();
+        Future<String> leader = completion.poll(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertNotNull(follower);
+        ExecutionException timeout = assertThrows(ExecutionException.class, follower::get);
+        assertInstanceOf(GroupCommitTimeoutException.class, timeout.getCause());
+        assertNotNull(leader);
+        assertEquals(List.of(leader.get()), ran, "the abandoned mutation must not run");
+        assertEquals(1.0, committed());
+    }
+
+    @Test
+    public void technicalFailureShouldRunEachCallerInItsOwnTransaction() throws Exception {
+        // Arrange
+        GroupCommitCoordinator coordinator = coordinator(true);
+        AtomicInteger failures = new AtomicInteger();
+        Supplier<String> failsInGroup = () -> {
+            if (failures.getAndIncrement() == 0) {
+                throw new IllegalStateException("connection reset");
+            }
+            return "second";
+        };
+
+        // Act
+        List<Future<String>> results = submitAll(coordinator, () -> "first", failsInGroup, () -> "third");
+
+        // Assert
+        assertEquals(List.of("first", "second", "third"), outcomes(results));
+        assertEquals(1.0, meterRegistry.get(GroupCommitCoordinator.TRANSACTIONS).tag("outcome", "fallback").counter().count());
+        assertEquals(0.0, committed());
+    }
+
+    @Test
+    public void disabledCoordinatorShouldRunTheMutationDirectly() {
+        // Arrange
+        GroupCommitCoordinator coordinator = coordinator(false);
+
+        // Act
+        String result = coordinator.execute(() -> "done", 1L);
+
+        // Assert
+        assertEquals("done", result);
+        verifyNoInteractions(transactionTemplate, accountLockManager);
+    }
+
+    /**
+     * Groups close when three callers have joined, whatever the window
+     */
+    private GroupCommitCoordinator coordinator(boolean enabled) {
+        return coordinator(enabled, 3, 5000);
+    }
+
+    private GroupCommitCoordinator coordinator(boolean enabled, int groupSize, long waitMillis) {
+        BalanceMutationExecutor executor = new BalanceMutationExecutor(transactionTemplate, accountLockManager,
+                meterRegistry, "pessimistic", 3, 0, 0, 2.0);
+        return new GroupCommitCoordinator(transactionTemplate, executor, meterRegistry, enabled, 10_000_000,
+                groupSize, waitMillis);
+    }
+
+    @SafeVarargs
+    private List<Future<String>> submitAll(GroupCommitCoordinator coordinator, Supplier<String>... mutations) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < mutations.length; i++) {
+            Supplier<String> mutation = mutations[i];
+            long account = i + 1;
+            results.add(callers.submit(() -> coordinator.execute(mutation, account)));
+        }
+        return results;
+    }
+
+    /**
+     * Result of each caller, or the error code that rejected it
+     */
+    private static List<String> outcomes(List<Future<String>> results) throws Exception {
+        List<String> outcomes = new ArrayList<>();
+        for (Future<String> result : results) {
+            try {
+                outcomes.add(result.get(5, TimeUnit.SECONDS));
+            } catch (ExecutionException e) {
+                outcomes.add(((InsufficientFundsException) e.getCause()).getErrorCode());
+            }
+        }
+        return outcomes;
+    }
+
+    private double committed() {
+        return meterRegistry.get(GroupCommitCoordinator.TRANSACTIONS).tag("outcome", "committed").counter().count();
+    }
+
+    private static String insufficientFunds() {
+        throw new InsufficientFundsException(2L, 0L, 100L);
+    }
+}
@@ -0,0 +1,116 @@
+package com.banco_financiera.locking;
+
+import com.banco_financiera.exception.service.AccountLockTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripedAccountLockManagerTest {
+
+    StripedAccountLockManager lockManager = new StripedAccountLockManager(16, 200);
+
+    @AfterEach
+    public void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void lockAccountsShouldFailOutsideTransaction() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> lockManager.lockAccounts(1L));
+    }
+
+    @Test
+    public void lockAccountsShouldHoldLockUntilTransactionCompletes() throws Exception {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        lockManager.lockAccounts(1L);
+
+        // Assert - another thread cannot take the same account while the transaction is open
+        assertThrows(AccountLockTimeoutException.class, () -> lockFromOtherThread(1L));
+
+        completeTransaction();
+        assertDoesNotThrow(() -> lockFromOtherThread(1L));
+    }
+
+    @Test
+    public void lockAccountsShouldIgnoreDuplicatesAndNulls() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        lockManager.lockAccounts(7L, null, 7L);
+        completeTransaction();
+
+        // Assert
+        assertDoesNotThrow(() -> lockFromOtherThread(7L));
+    }
+
+    @Test
+    public void opposingTransfersShouldNotDeadlock() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        int iterations = 10_000;
+
+        // Act
+        CompletableFuture<Void> forward = CompletableFuture.runAsync(() -> transferLoop(1L, 2L, iterations), executor);
+        CompletableFuture<Void> backward = CompletableFuture.runAsync(() -> transferLoop(2L, 1L, iterations), executor);
+
+        // Assert
+        assertDoesNotThrow(() -> CompletableFuture.allOf(forward, backward).get(30, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void constructorShouldRejectNonPowerOfTwoStripes() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new StripedAccountLockManager(100, 200));
+    }
+
+    private void transferLoop(Long from, Long to, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                lockManager.lockAccounts(from, to);
+            } finally {
+                completeTransaction();
+            }
+        }
+    }
+
+    private void lockFromOtherThread(Long productId) throws Exception {
+        try {
+            CompletableFuture.runAsync(() -> {
+                TransactionSynchronizationManager.initSynchronization();
+                try {
+                    lockManager.lockAccounts(productId);
+                } finally {
+                    completeTransaction();
+                }
+            }).get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    private static void completeTransaction() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+    }
+}
@@ -0,0 +1,71 @@
+package com.banco_financiera.mapper;
+
+import com.banco_financiera.dto.TransactionResponseDTO;
+import com.banco_financiera.models.Product;
+import com.banco_financiera.models.Transaction;
+import com.banco_financiera.models.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionMapperTest {
+
+    private final TransactionMapper transactionMapper = Mappers.getMapper(TransactionMapper.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    public void toResponseDTOShouldCarryIdsAmountAndNewBalanceOnly() throws Exception {
+        // Arrange
+        Transaction transaction = deposit(productWithBalance(250000L));
+
+        // Act
+        TransactionResponseDTO result = transactionMapper.toResponseDTO(transaction);
+        String json = objectMapper.writeValueAsString(result);
+
+        // Assert
+        assertEquals(10L, result.getProductId());
+        assertEquals(250000L, result.getAccountBalance());
+        assertTrue(json.contains("\"product_id\":10"));
+        assertTrue(json.contains("\"account_balance\":2500.00"));
+        assertTrue(json.contains("\"amount\":500.00"));
+        assertFalse(json.contains("\"product\":"));
+        assertFalse(json.contains("transfer_id"));
+    }
+
+    @Test
+    public void toResponseDTOShouldPreferRunningBalanceOfLedgerEntries() {
+        // Arrange
+        Transaction transaction = deposit(productWithBalance(0L));
+        transaction.setRunningBalance(75000L);
+
+        // Act
+        TransactionResponseDTO result = transactionMapper.toResponseDTO(transaction);
+
+        // Assert
+        assertEquals(75000L, result.getAccountBalance());
+    }
+
+    private static Product productWithBalance(long balance) {
+        User user = new User();
+        user.setId(1L);
+        Product product = new Product();
+        product.setId(10L);
+        product.setAccountBalance(balance);
+        product.setUser(user);
+        return product;
+    }
+
+    private static Transaction deposit(Product product) {
+        Transaction transaction = new Transaction();
+        transaction.setId(100L);
+        transaction.setTransactionType("DEPOSIT");
+        transaction.setAmount(50000L);
+        transaction.setTransactionDate(LocalDateTime.now());
+        transaction.setProduct(product);
+        return transaction;
+    }
+}
@@ -0,0 +1,64 @@
+package com.banco_financiera.metrics;
+
+import com.banco_financiera.core.exceptions.HttpClientException;
+import com.banco_financiera.exception.business.AccountInactiveException;
+import com.banco_financiera.exception.business.UserNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServiceMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ServiceMetrics serviceMetrics = new ServiceMetrics(meterRegistry);
+
+    @Test
+    public void recordShouldTimeSuccessfulCalls() {
+        // Act
+        String result = serviceMetrics.record("deposit", () -> "done");
+
+        // Assert
+        assertEquals("done", result);
+        assertEquals(1, meterRegistry.get(ServiceMetrics.CALLS)
+                .tag("operation", "deposit").tag("outcome", ServiceMetrics.SUCCESS).timer().count());
+        assertTrue(meterRegistry.find(ServiceMetrics.REJECTIONS).counters().isEmpty());
+    }
+
+    @Test
+    public void recordShouldFindBusinessRejectionInsideWrappingException() {
+        // Arrange
+        HttpClientException wrapped = new HttpClientException(HttpStatus.BAD_REQUEST, new UserNotFoundException(7L));
+
+        // Act
+        HttpClientException thrown = assertThrows(HttpClientException.class,
+                () -> serviceMetrics.record("create_product", () -> {
+                    throw wrapped;
+                }));
+
+        // Assert
+        assertSame(wrapped, thrown);
+        assertEquals(1.0, meterRegistry.get(ServiceMetrics.REJECTIONS)
+                .tag("operation", "create_product").tag("reason", "user_not_found").counter().count());
+    }
+
+    @Test
+    public void recordShouldTagUnexpectedFailuresAsErrorsWithoutCountingRejections() {
+        // Act
+        assertThrows(IllegalStateException.class, () -> serviceMetrics.record("transfer", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        // Assert
+        assertEquals(1, meterRegistry.get(ServiceMetrics.CALLS)
+                .tag("operation", "transfer").tag("outcome", ServiceMetrics.ERROR).timer().count());
+        assertTrue(meterRegistry.find(ServiceMetrics.REJECTIONS).counters().isEmpty());
+    }
+
+    @Test
+    public void outcomeShouldNameTheRejectionReason() {
+        assertEquals("account_inactive", ServiceMetrics.outcome(new AccountInactiveException(1L, "INACTIVE")));
+        assertEquals(ServiceMetrics.ERROR, ServiceMetrics.outcome(new RuntimeException()));
+    }
+}
@@ -0,0 +1,397 @@
+package com.banco_financiera.repositories;
+
+import com.banco_financiera.cache.ProductCache;
+import com.banco_financiera.dto.KeysetPageDTO;
+import com.banco_financiera.dto.ProductResponseDTO;
+import com.banco_financiera.dto.TransactionHistoryDTO;
+import com.banco_financiera.dto.TransactionRequestDTO;
+import com.banco_financiera.enums.AccountStatus;
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.locking.BalanceMutationExecutor;
+import com.banco_financiera.locking.GroupCommitCoordinator;
+import com.banco_financiera.locking.StripedAccountLockManager;
+import com.banco_financiera.mapper.ProductMapper;
+import com.banco_financiera.metrics.ServiceMetrics;
+import com.banco_financiera.models.BalanceSnapshot;
+import com.banco_financiera.models.Product;
+import com.banco_financiera.models.Transaction;
+import com.banco_financiera.models.User;
+import com.banco_financiera.services.ILedgerService;
+import com.banco_financiera.services.LedgerServiceImpl;
+import com.banco_financiera.services.ProductServiceImpl;
+import com.banco_financiera.services.TransactionServiceImpl;
+import com.banco_financiera.sharding.ShardedLedgerProcessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements behind each endpoint with Hibernate statistics, through the services in the
+ * default and ledger balance-update modes, so that an eager association or an N+1 loop fails the build.
+ * Every account belongs to a different user, so a per-row owner load would show up as extra statements.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class FetchPlanQueryCountTest {
+
+    private static final int ACCOUNTS = 5;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    ProductRepository productRepository;
+
+    @Autowired
+    TransactionRepository transactionRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private final List<Long> productIds = new ArrayList<>();
+    private Long transactionId;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Product product = entityManager.persist(product(entityManager.persist(user(i)), i));
+            productIds.add(product.getId());
+            // The ledger opened before the deposit, which is its tail
+            entityManager.persist(openingSnapshot(product));
+            transactionId = entityManager.persist(deposit(product)).getId();
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    public void balanceCheckShouldNotLoadOwner() {
+        // Act
+        Product product = productRepository.findById(productIds.get(0)).orElseThrow();
+
+        // Assert
+        assertFalse(Hibernate.isInitialized(product.getUser()));
+        assertNotNull(product.getUser().getId());
+        assertStatements(1);
+    }
+
+    @Test
+    public void transferShouldLoadBothAccountsWithoutOwners() {
+        // Act
+        List<Product> products = productRepository.findAllByIdForUpdate(productIds.subList(0, 2));
+        products.forEach(product -> product.getUser().getId());
+
+        // Assert
+        assertEquals(2, products.size());
+        assertStatements(1);
+    }
+
+    @Test
+    public void transactionShouldNotLoadProduct() {
+        // Act
+        Transaction transaction = transactionRepository.findById(transactionId).orElseThrow();
+
+        // Assert
+        assertFalse(Hibernate.isInitialized(transaction.getProduct()));
+        assertStatements(1);
+    }
+
+    @Test
+    public void productPageShouldUseSingleQuery() {
+        // Act
+        KeysetPageDTO<ProductResponseDTO> page = productService("entity").getProducts(null, ACCOUNTS);
+
+        // Assert
+        assertEquals(ACCOUNTS, page.getItems().size());
+        assertTrue(page.getItems().stream().allMatch(product -> product.getUserId() != null));
+        assertStatements(1);
+    }
+
+    @Test
+    public void ledgerProductPageShouldReadAllBalancesInOneQuery() {
+        // Act
+        KeysetPageDTO<ProductResponseDTO> page = productService("ledger").getProducts(null, ACCOUNTS);
+
+        // Assert
+        assertEquals(ACCOUNTS, page.getItems().size());
+        assertTrue(page.getItems().stream().allMatch(product -> product.getAccountBalance() == 200000L));
+        assertStatements(2);
+    }
+
+    @Test
+    public void productByIdShouldUseSingleQuery() {
+        // Act
+        ProductResponseDTO product = productService("entity").getProductById(productIds.get(0)).orElseThrow();
+
+        // Assert
+        assertEquals(100000L, product.getAccountBalance());
+        assertStatements(1);
+    }
+
+    @Test
+    public void ledgerProductByIdShouldReadItsBalanceInOneQuery() {
+        // Act
+        ProductResponseDTO product = productService("ledger").getProductById(productIds.get(0)).orElseThrow();
+
+        // Assert
+        assertEquals(200000L, product.getAccountBalance());
+        assertStatements(2);
+    }
+
+    @Test
+    public void productExportShouldUseSingleQuery() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        productService("entity").exportProducts(output);
+
+        // Assert
+        assertEquals(ACCOUNTS, output.toString().lines().count());
+        assertStatements(1);
+    }
+
+    @Test
+    public void ledgerProductExportShouldReadBalancesOncePerChunk() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        productService("ledger").exportProducts(output);
+
+        // Assert
+        assertEquals(ACCOUNTS, output.toString().lines().count());
+        assertStatements(2);
+    }
+
+    @Test
+    public void depositShouldLoadAccountWithoutOwner() {
+        // Act
+        Transaction transaction = transactionService("entity").deposit(productIds.get(0), request(5000L));
+        entityManager.flush();
+
+        // Assert
+        assertNotNull(transaction.getId());
+        // Account, transaction id, balance update, transaction insert
+        assertStatements(4);
+    }
+
+    @Test
+    public void ledgerDepositShouldNotLoadAccount() {
+        // Act
+        Transaction transaction = transactionService("ledger").deposit(productIds.get(0), request(5000L));
+        entityManager.flush();
+
+        // Assert
+        assertEquals(205000L, transaction.getRunningBalance());
+        // Summary, opening snapshot, latest snapshot, tail, transaction id, transaction insert
+        assertStatements(6);
+    }
+
+    @Test
+    public void withdrawShouldLoadAccountWithoutOwner() {
+        // Act
+        Transaction transaction = transactionService("entity").withdraw(productIds.get(0), request(5000L));
+        entityManager.flush();
+
+        // Assert
+        assertNotNull(transaction.getId());
+        assertStatements(4);
+    }
+
+    @Test
+    public void ledgerWithdrawShouldNotLoadAccount() {
+        // Act
+        Transaction transaction = transactionService("ledger").withdraw(productIds.get(0), request(5000L));
+        entityManager.flush();
+
+        // Assert
+        assertEquals(195000L, transaction.getRunningBalance());
+        assertStatements(6);
+    }
+
+    @Test
+    public void transferShouldLoadEachAccountOnce() {
+        // Act
+        Transaction transaction = transactionService("entity").transfer(productIds.get(0), productIds.get(1), request(5000L));
+        entityManager.flush();
+
+        // Assert
+        assertNotNull(transaction.getTransferId());
+        // Per account: load, transaction id, balance update, transaction insert
+        assertStatements(8);
+    }
+
+    @Test
+    public void ledgerTransferShouldNotLoadAccounts() {
+        // Act
+        Transaction transaction = transactionService("ledger").transfer(productIds.get(0), productIds.get(1), request(5000L));
+        entityManager.flush();
+
+        // Assert
+        assertEquals(195000L, transaction.getRunningBalance());
+        // Six per account, as for a deposit
+        assertStatements(12);
+    }
+
+    @Test
+    public void transactionHistoryShouldUseTwoQueries() {
+        // Act
+        KeysetPageDTO<TransactionHistoryDTO> history = transactionService("entity")
+                .getTransactionHistory(productIds.get(ACCOUNTS - 1), null, 20);
+
+        // Assert
+        assertEquals(1, history.getItems().size());
+        // Account existence, then the page
+        assertStatements(2);
+    }
+
+    @Test
+    public void ledgerTransactionHistoryShouldUseTwoQueries() {
+        // Act
+        KeysetPageDTO<TransactionHistoryDTO> history = transactionService("ledger")
+                .getTransactionHistory(productIds.get(ACCOUNTS - 1), null, 20);
+
+        // Assert
+        assertEquals(1, history.getItems().size());
+        assertStatements(2);
+    }
+
+    @Test
+    public void userPageShouldUseSingleQuery() {
+        // Act
+        List<User> page = userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(ACCOUNTS));
+
+        // Assert
+        assertEquals(ACCOUNTS, page.size());
+        assertStatements(1);
+    }
+
+    /**
+     * Product service over the real repositories, in the given balance-update mode
+     */
+    private ProductServiceImpl productService(String balanceUpdateMode) {
+        return new ProductServiceImpl(userRepository, productRepository, ledgerService(balanceUpdateMode),
+                productCache(), Mappers.getMapper(ProductMapper.class), new ObjectMapper(), entityManager.getEntityManager(),
+                new ServiceMetrics(new SimpleMeterRegistry()));
+    }
+
+    /**
+     * Transaction service over the real repositories and account locks, with group commit and
+     * sharding disabled, in the given balance-update mode
+     */
+    private TransactionServiceImpl transactionService(String balanceUpdateMode) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        BalanceMutationExecutor executor = new BalanceMutationExecutor(transactionTemplate,
+                new StripedAccountLockManager(1024, 5000), meterRegistry, "pessimistic", 3, 0, 0, 2.0);
+        ProductServiceImpl productService = productService(balanceUpdateMode);
+        ILedgerService ledgerService = ledgerService(balanceUpdateMode);
+        ShardedLedgerProcessor shardedLedgerProcessor = new ShardedLedgerProcessor(transactionRepository,
+                productRepository, productCache(), ledgerService, executor, meterRegistry, "entity", 1, 2, 1, 1, 0);
+        GroupCommitCoordinator groupCommit = new GroupCommitCoordinator(transactionTemplate, executor, meterRegistry,
+                false, 200, 64, 5000);
+        TransactionServiceImpl transactionService = new TransactionServiceImpl(transactionRepository, productRepository,
+                productService, executor, ledgerService, shardedLedgerProcessor, groupCommit, new ServiceMetrics(meterRegistry));
+        ReflectionTestUtils.setField(transactionService, "balanceUpdateMode", balanceUpdateMode);
+        return transactionService;
+    }
+
+    private ProductCache productCache() {
+        return new ProductCache(productRepository, event -> {
+        }, new SimpleMeterRegistry(), 100, 60);
+    }
+
+    private LedgerServiceImpl ledgerService(String balanceUpdateMode) {
+        LedgerServiceImpl ledgerService = new LedgerServiceImpl(transactionRepository, balanceSnapshotRepository,
+                productRepository, null);
+        ReflectionTestUtils.setField(ledgerService, "balanceUpdateMode", balanceUpdateMode);
+        return ledgerService;
+    }
+
+    private void assertStatements(long expected) {
+        assertEquals(expected, statistics.getPrepareStatementCount(), "SQL statements executed");
+    }
+
+    private static TransactionRequestDTO request(long amount) {
+        TransactionRequestDTO request = new TransactionRequestDTO();
+        request.setAmount(amount);
+        return request;
+    }
+
+    private static User user(int i) {
+        User user = new User();
+        user.setIdentificationType("CC");
+        user.setIdentificationNumber(1000L + i);
+        user.setFirstName("User" + i);
+        user.setLastName("Test");
+        user.setEmail("user" + i + "@example.com");
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        return user;
+    }
+
+    private static Product product(User user, int i) {
+        Product product = new Product();
+        product.setAccountType("savings");
+        product.setAccountNumber("53" + i);
+        product.setStatus(AccountStatus.ACTIVE.name());
+        product.setAccountBalance(100000L);
+        product.setExentaGMF(false);
+        product.setUser(user);
+        return product;
+    }
+
+    private static BalanceSnapshot openingSnapshot(Product product) {
+        BalanceSnapshot snapshot = new BalanceSnapshot();
+        snapshot.setProductId(product.getId());
+        snapshot.setBalance(product.getAccountBalance());
+        snapshot.setLastTransactionId(0L);
+        snapshot.setOpening(true);
+        return snapshot;
+    }
+
+    private static Transaction deposit(Product product) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionType(TransactionType.DEPOSIT.name());
+        transaction.setAmount(100000L);
+        transaction.setProduct(product);
+        return transaction;
+    }
+}
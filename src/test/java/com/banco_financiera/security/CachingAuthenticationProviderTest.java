@@ -0,0 +1,81 @@
+package com.banco_financiera.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingAuthenticationProviderTest {
+
+    @Mock
+    AuthenticationProvider delegate;
+
+    CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    public void setUp() {
+        provider = new CachingAuthenticationProvider(delegate, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void authenticateShouldVerifyCredentialsOnceWithinTtl() {
+        // Arrange
+        Authentication authenticated = UsernamePasswordAuthenticationToken.authenticated(
+                "user", null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+        when(delegate.authenticate(any())).thenReturn(authenticated);
+
+        // Act
+        provider.authenticate(credentials("user", "password"));
+        Authentication result = provider.authenticate(credentials("user", "password"));
+
+        // Assert
+        assertSame(authenticated, result);
+        verify(delegate, times(1)).authenticate(any());
+    }
+
+    @Test
+    public void authenticateShouldNotServeCachedResultForOtherPassword() {
+        // Arrange
+        Authentication authenticated = UsernamePasswordAuthenticationToken.authenticated(
+                "user", null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+        when(delegate.authenticate(any()))
+                .thenReturn(authenticated)
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+        provider.authenticate(credentials("user", "password"));
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("user", "wrong")));
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    public void authenticateShouldNotCacheFailures() {
+        // Arrange
+        when(delegate.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        // Act
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("user", "wrong")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("user", "wrong")));
+
+        // Assert
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    private static Authentication credentials(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
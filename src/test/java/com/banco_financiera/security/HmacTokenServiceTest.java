@@ -0,0 +1,102 @@
+package com.banco_financiera.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HmacTokenServiceTest {
+
+    static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+    static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+    HmacTokenService tokenService = service(SECRET, NOW);
+
+    Authentication user = UsernamePasswordAuthenticationToken.authenticated(
+            "user", null, AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+
+    @Test
+    public void verifyShouldReturnPrincipalOfIssuedToken() {
+        // Arrange
+        String token = tokenService.issue(user);
+
+        // Act
+        Authentication result = tokenService.verify(token);
+
+        // Assert
+        assertNotNull(result);
+        assertTrue(result.isAuthenticated());
+        assertEquals("user", result.getName());
+        assertEquals(user.getAuthorities(), result.getAuthorities());
+    }
+
+    @Test
+    public void verifyShouldAcceptTokenIssuedByAnotherNodeWithSameSecret() {
+        // Arrange
+        String token = service(SECRET, NOW).issue(user);
+
+        // Act & Assert
+        assertNotNull(tokenService.verify(token));
+    }
+
+    @Test
+    public void verifyShouldRejectTamperedPayload() {
+        // Arrange
+        String token = tokenService.issue(user);
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("admin\n9999999999\nROLE_ADMIN".getBytes());
+        String forged = forgedPayload + token.substring(token.indexOf('.'));
+
+        // Act & Assert
+        assertNull(tokenService.verify(forged));
+    }
+
+    @Test
+    public void verifyShouldRejectTokenSignedWithOtherSecret() {
+        // Arrange
+        byte[] otherKey = new byte[32];
+        otherKey[0] = 1;
+        String token = service(Base64.getEncoder().encodeToString(otherKey), NOW).issue(user);
+
+        // Act & Assert
+        assertNull(tokenService.verify(token));
+    }
+
+    @Test
+    public void verifyShouldRejectExpiredToken() {
+        // Arrange
+        String token = tokenService.issue(user);
+        HmacTokenService later = service(SECRET, NOW.plus(Duration.ofMinutes(15)));
+
+        // Act & Assert
+        assertNull(later.verify(token));
+    }
+
+    @Test
+    public void verifyShouldRejectMalformedToken() {
+        // Act & Assert
+        assertNull(tokenService.verify("not a token"));
+        assertNull(tokenService.verify("a.b.c"));
+        assertNull(tokenService.verify("!!!.???"));
+    }
+
+    @Test
+    public void constructorShouldRejectShortSecret() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> service(Base64.getEncoder().encodeToString(new byte[16]), NOW));
+        assertThrows(IllegalArgumentException.class, () -> service("", NOW));
+    }
+
+    private static HmacTokenService service(String secret, Instant now) {
+        return new HmacTokenService(secret, Duration.ofMinutes(15), Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
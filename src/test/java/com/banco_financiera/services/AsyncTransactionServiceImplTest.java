@@ -0,0 +1,165 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.async.AsyncTransactionWorkers;
+import com.banco_financiera.dto.AsyncTransactionDTO;
+import com.banco_financiera.dto.TransactionRequestDTO;
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.exception.business.AccountInactiveException;
+import com.banco_financiera.exception.business.QueuedTransactionNotFoundException;
+import com.banco_financiera.exception.business.TransferToSameAccountException;
+import com.banco_financiera.mapper.QueuedTransactionMapper;
+import com.banco_financiera.metrics.ServiceMetrics;
+import com.banco_financiera.models.QueuedTransaction;
+import com.banco_financiera.repositories.QueuedTransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncTransactionServiceImplTest {
+
+    AsyncTransactionServiceImpl asyncTransactionService;
+
+    @Mock
+    QueuedTransactionRepository queuedTransactionRepository;
+
+    @Mock
+    IProductService productService;
+
+    @Mock
+    ITransactionService transactionService;
+
+    @Mock
+    AsyncTransactionWorkers workers;
+
+    @BeforeEach
+    public void setUp() {
+        asyncTransactionService = new AsyncTransactionServiceImpl(queuedTransactionRepository, productService,
+                transactionService, workers, Mappers.getMapper(QueuedTransactionMapper.class),
+                new ServiceMetrics(new SimpleMeterRegistry()), 30000);
+        lenient().when(queuedTransactionRepository.save(any(QueuedTransaction.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void submitShouldQueueRequestOnTheAccountPartitionAndWakeItsWorker() {
+        // Arrange
+        when(workers.partitionOf(5L)).thenReturn(3);
+
+        // Act
+        AsyncTransactionDTO accepted = asyncTransactionService.submit(TransactionType.DEPOSIT, 5L, null, request(2500L));
+
+        // Assert
+        ArgumentCaptor<QueuedTransaction> saved = ArgumentCaptor.forClass(QueuedTransaction.class);
+        verify(queuedTransactionRepository).save(saved.capture());
+        assertEquals("DEPOSIT", saved.getValue().getOperation());
+        assertEquals(2500L, saved.getValue().getAmount());
+        assertEquals(3, saved.getValue().getPartitionKey());
+        assertEquals("PENDING", accepted.getStatus());
+        assertNotNull(accepted.getTrackingId());
+        verify(productService).getActiveProductSummary(5L);
+        verify(workers).wake(3);
+    }
+
+    @Test
+    public void submitShouldValidateBothAccountsOfATransfer() {
+        // Arrange
+        when(productService.getActiveProductSummary(6L)).thenThrow(new AccountInactiveException(6L, "BLOCKED"));
+
+        // Act & Assert
+        assertThrows(AccountInactiveException.class,
+                () -> asyncTransactionService.submit(TransactionType.TRANSFER, 5L, 6L, request(100L)));
+        verify(queuedTransactionRepository, never()).save(any());
+        verify(workers, never()).wake(anyInt());
+    }
+
+    @Test
+    public void submitShouldRejectTransferToSameAccount() {
+        // Arrange
+        doThrow(new TransferToSameAccountException(5L)).when(transactionService).validateTransferNotSameAccount(5L, 5L);
+
+        // Act & Assert
+        assertThrows(TransferToSameAccountException.class,
+                () -> asyncTransactionService.submit(TransactionType.TRANSFER, 5L, 5L, request(100L)));
+        verify(queuedTransactionRepository, never()).save(any());
+    }
+
+    @Test
+    public void getStatusShouldThrowForUnknownTrackingId() {
+        // Arrange
+        UUID trackingId = UUID.randomUUID();
+        when(queuedTransactionRepository.findByTrackingId(trackingId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(QueuedTransactionNotFoundException.class, () -> asyncTransactionService.getStatus(trackingId));
+    }
+
+    @Test
+    public void awaitSettledShouldAnswerAtOnceWhenAlreadySettled() {
+        // Arrange
+        QueuedTransaction queued = queued("COMPLETED");
+        when(workers.isEnabled()).thenReturn(true);
+        when(workers.whenSettled(queued.getTrackingId())).thenReturn(new CompletableFuture<>());
+        when(queuedTransactionRepository.findByTrackingId(queued.getTrackingId())).thenReturn(Optional.of(queued));
+
+        // Act
+        CompletableFuture<AsyncTransactionDTO> result =
+                asyncTransactionService.awaitSettled(queued.getTrackingId(), Duration.ofSeconds(5));
+
+        // Assert
+        assertTrue(result.isDone());
+        assertEquals("COMPLETED", result.join().getStatus());
+        verify(workers).forget(queued.getTrackingId());
+    }
+
+    @Test
+    public void awaitSettledShouldCompleteWhenTheWorkerSettles() {
+        // Arrange
+        QueuedTransaction queued = queued("PENDING");
+        CompletableFuture<QueuedTransaction> settlement = new CompletableFuture<>();
+        when(workers.isEnabled()).thenReturn(true);
+        when(workers.whenSettled(queued.getTrackingId())).thenReturn(settlement);
+        when(queuedTransactionRepository.findByTrackingId(queued.getTrackingId())).thenReturn(Optional.of(queued));
+
+        // Act
+        CompletableFuture<AsyncTransactionDTO> result =
+                asyncTransactionService.awaitSettled(queued.getTrackingId(), Duration.ofSeconds(5));
+        QueuedTransaction settled = queued("REJECTED");
+        settled.setErrorCode("INSUFFICIENT_FUNDS");
+        settlement.complete(settled);
+
+        // Assert
+        assertEquals("REJECTED", result.join().getStatus());
+        assertEquals("INSUFFICIENT_FUNDS", result.join().getError());
+    }
+
+    private static TransactionRequestDTO request(long amount) {
+        TransactionRequestDTO request = new TransactionRequestDTO();
+        request.setAmount(amount);
+        return request;
+    }
+
+    private static QueuedTransaction queued(String status) {
+        QueuedTransaction queued = new QueuedTransaction();
+        queued.setTrackingId(UUID.fromString("3f2b7c1e-0000-4000-8000-000000000001"));
+        queued.setOperation("WITHDRAW");
+        queued.setProductId(5L);
+        queued.setAmount(100L);
+        queued.setStatus(status);
+        return queued;
+    }
+}
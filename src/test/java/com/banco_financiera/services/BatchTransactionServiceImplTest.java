@@ -0,0 +1,248 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.dto.BatchOperationDTO;
+import com.banco_financiera.dto.BatchTransactionResponseDTO;
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.exception.business.InsufficientFundsException;
+import com.banco_financiera.locking.AccountLockManager;
+import com.banco_financiera.locking.BalanceMutationExecutor;
+import com.banco_financiera.models.Product;
+import com.banco_financiera.models.Transaction;
+import com.banco_financiera.repositories.AccountBalanceView;
+import com.banco_financiera.repositories.ProductBalanceBatchWriter;
+import com.banco_financiera.repositories.ProductBalanceBatchWriter.BalanceUpdate;
+import com.banco_financiera.repositories.ProductRepository;
+import com.banco_financiera.repositories.TransactionRepository;
+import com.banco_financiera.sharding.ShardedLedgerProcessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchTransactionServiceImplTest {
+
+    BatchTransactionServiceImpl batchTransactionService;
+
+    @Mock
+    ProductRepository productRepository;
+
+    @Mock
+    ProductBalanceBatchWriter productBalanceBatchWriter;
+
+    @Mock
+    TransactionRepository transactionRepository;
+
+    @Mock
+    ILedgerService ledgerService;
+
+    @Mock
+    ShardedLedgerProcessor shardedLedgerProcessor;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    AccountLockManager accountLockManager;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        AtomicLong ids = new AtomicLong();
+        lenient().when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Transaction> rows = invocation.getArgument(0);
+            rows.forEach(row -> row.setId(ids.incrementAndGet()));
+            return rows;
+        });
+        lenient().when(productRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            Product product = new Product();
+            product.setId(invocation.getArgument(0));
+            return product;
+        });
+
+        BalanceMutationExecutor executor = new BalanceMutationExecutor(transactionTemplate, accountLockManager,
+                new SimpleMeterRegistry(), "pessimistic", 3, 0, 0, 2.0);
+        batchTransactionService = new BatchTransactionServiceImpl(executor, productRepository,
+                productBalanceBatchWriter, transactionRepository, ledgerService, shardedLedgerProcessor, 1000, 10000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void processShouldApplyOperationsInOrderAndReportFailuresPerItem() {
+        // Arrange
+        when(productRepository.findBalancesByIdIn(anyList())).thenReturn(List.of(
+                account(1L, "ACTIVE", 10000L), account(2L, "ACTIVE", 0L), account(3L, "INACTIVE", 0L)));
+        List<BatchOperationDTO> operations = List.of(
+                operation("withdraw", 1L, null, 15000L),   // insufficient funds before the deposit
+                operation("deposit", 1L, null, 10000L),
+                operation("withdraw", 1L, null, 15000L),   // succeeds after the deposit
+                operation("transfer", 1L, 2L, 5000L),
+                operation("deposit", 3L, null, 100L),      // inactive
+                operation("deposit", 4L, null, 100L));     // missing
+
+        // Act
+        BatchTransactionResponseDTO response = batchTransactionService.process(operations);
+
+        // Assert
+        assertEquals(6, response.getTotal());
+        assertEquals(3, response.getSucceeded());
+        assertEquals("INSUFFICIENT_FUNDS", response.getResults().get(0).getError());
+        assertTrue(response.getResults().get(1).isSucceeded());
+        assertTrue(response.getResults().get(2).isSucceeded());
+        assertNotNull(response.getResults().get(3).getTransferId());
+        assertEquals("ACCOUNT_INACTIVE", response.getResults().get(4).getError());
+        assertEquals("ACCOUNT_NOT_FOUND", response.getResults().get(5).getError());
+
+        ArgumentCaptor<List<BalanceUpdate>> updates = ArgumentCaptor.forClass(List.class);
+        verify(productBalanceBatchWriter, times(1)).updateBalances(updates.capture());
+        List<BalanceUpdate> sorted = updates.getValue().stream()
+                .sorted(Comparator.comparing(BalanceUpdate::productId)).toList();
+        assertEquals(List.of(new BalanceUpdate(1L, 0L, 0L), new BalanceUpdate(2L, 5000L, 0L)), sorted);
+        verify(transactionRepository, times(1)).saveAll(anyList());
+        verify(accountLockManager, times(1)).lockAccounts(any(Long[].class));
+    }
+
+    @Test
+    public void shardedProcessShouldSubmitEveryOperationBeforeReportingEachResult() {
+        // Arrange
+        Transaction deposit = new Transaction();
+        deposit.setId(11L);
+        when(shardedLedgerProcessor.isEnabled()).thenReturn(true);
+        when(shardedLedgerProcessor.submit(TransactionType.DEPOSIT, 1L, null, 100L))
+                .thenReturn(CompletableFuture.completedFuture(deposit));
+        when(shardedLedgerProcessor.submit(TransactionType.WITHDRAW, 2L, null, 500L))
+                .thenReturn(CompletableFuture.failedFuture(new InsufficientFundsException(2L, 0L, 500L)));
+        List<BatchOperationDTO> operations = List.of(
+                operation("deposit", 1L, null, 100L),
+                operation("withdraw", 2L, null, 500L),
+                operation("refund", 1L, null, 100L));
+
+        // Act
+        BatchTransactionResponseDTO response = batchTransactionService.process(operations);
+
+        // Assert
+        assertEquals(1, response.getSucceeded());
+        assertEquals(11L, response.getResults().get(0).getTransactionId());
+        assertEquals("INSUFFICIENT_FUNDS", response.getResults().get(1).getError());
+        assertEquals("INVALID_OPERATION", response.getResults().get(2).getError());
+        verifyNoInteractions(accountLockManager, productBalanceBatchWriter, transactionRepository);
+    }
+
+    @Test
+    public void failedChunkShouldBeReportedWithoutLosingCommittedChunks() {
+        // Arrange
+        BatchTransactionServiceImpl chunkedService = new BatchTransactionServiceImpl(
+                new BalanceMutationExecutor(transactionTemplate, accountLockManager,
+                        new SimpleMeterRegistry(), "pessimistic", 3, 0, 0, 2.0),
+                productRepository, productBalanceBatchWriter, transactionRepository, ledgerService,
+                shardedLedgerProcessor, 1, 10000);
+        when(productRepository.findBalancesByIdIn(anyList()))
+                .thenReturn(List.of(account(1L, "ACTIVE", 0L)))
+                .thenThrow(new IllegalStateException("connection reset"));
+
+        // Act
+        BatchTransactionResponseDTO response = chunkedService.process(List.of(
+                operation("deposit", 1L, null, 100L),
+                operation("deposit", 2L, null, 100L)));
+
+        // Assert
+        assertEquals(2, response.getTotal());
+        assertTrue(response.getResults().get(0).isSucceeded());
+        assertEquals("PROCESSING_ERROR", response.getResults().get(1).getError());
+        assertEquals(1, response.getResults().get(1).getIndex());
+    }
+
+    @Test
+    public void overflowingCreditShouldRejectOnlyItsOperation() {
+        // Arrange
+        when(productRepository.findBalancesByIdIn(anyList())).thenReturn(List.of(
+                account(1L, "ACTIVE", 10000L), account(2L, "ACTIVE", Long.MAX_VALUE)));
+
+        // Act
+        BatchTransactionResponseDTO response = batchTransactionService.process(List.of(
+                operation("transfer", 1L, 2L, 5000L),
+                operation("deposit", 2L, null, 1L),
+                operation("withdraw", 1L, null, 10000L)));
+
+        // Assert
+        assertEquals("AMOUNT_OVERFLOW", response.getResults().get(0).getError());
+        assertEquals("AMOUNT_OVERFLOW", response.getResults().get(1).getError());
+        assertTrue(response.getResults().get(2).isSucceeded(), "the rejected transfer must not have debited");
+    }
+
+    @Test
+    public void destinationShouldOnlyBeLockedForTransfers() {
+        // Arrange
+        when(productRepository.findBalancesByIdIn(anyList())).thenReturn(List.of(account(1L, "ACTIVE", 0L)));
+
+        // Act
+        BatchTransactionResponseDTO response = batchTransactionService.process(List.of(
+                operation("deposit", 1L, 99L, 100L)));
+
+        // Assert
+        assertTrue(response.getResults().get(0).isSucceeded());
+        verify(accountLockManager).lockAccounts(new Long[]{1L});
+        verify(productRepository).findBalancesByIdIn(List.of(1L));
+    }
+
+    @Test
+    public void processShouldRejectOversizedBatch() {
+        // Arrange
+        List<BatchOperationDTO> operations = Collections.nCopies(10001, operation("deposit", 1L, null, 100L));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> batchTransactionService.process(operations));
+        verifyNoInteractions(productRepository);
+    }
+
+    private static BatchOperationDTO operation(String type, Long productId, Long toProductId, long amount) {
+        BatchOperationDTO operation = new BatchOperationDTO();
+        operation.setType(type);
+        operation.setProductId(productId);
+        operation.setToProductId(toProductId);
+        operation.setAmount(amount);
+        return operation;
+    }
+
+    private static AccountBalanceView account(Long id, String status, long balance) {
+        return new AccountBalanceView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getAccountBalance() {
+                return balance;
+            }
+
+            @Override
+            public Long getVersion() {
+                return 0L;
+            }
+        };
+    }
+}
@@ -0,0 +1,274 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.dto.TransactionResponseDTO;
+import com.banco_financiera.enums.IdempotencyKeyStatus;
+import com.banco_financiera.exception.business.IdempotencyKeyReusedException;
+import com.banco_financiera.exception.business.InsufficientFundsException;
+import com.banco_financiera.exception.service.IdempotencyKeyInProgressException;
+import com.banco_financiera.models.IdempotencyRecord;
+import com.banco_financiera.repositories.IdempotencyKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceImplTest {
+
+    IdempotencyServiceImpl idempotencyService;
+
+    @Mock
+    IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(new SimpleTransactionStatus());
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(idempotencyKeyRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> {
+            IdempotencyRecord entry = invocation.getArgument(0);
+            entry.setId(42L);
+            return entry;
+        });
+        idempotencyService = new IdempotencyServiceImpl(idempotencyKeyRepository, transactionTemplate,
+                new ObjectMapper(), new SimpleMeterRegistry(), 24, 100, 2000, 2);
+    }
+
+    @Test
+    public void requestWithoutKeyShouldRunWithoutTouchingTheStore() {
+        // Act
+        ResponseEntity<String> response = idempotencyService.execute("user", null, List.of("deposit", 1L),
+                String.class, created("done"));
+
+        // Assert
+        assertEquals("done", response.getBody());
+        assertEquals(1, executions.get());
+        verifyNoInteractions(idempotencyKeyRepository);
+    }
+
+    @Test
+    public void retryShouldReplayTheStoredResponseWithoutRunningAgain() {
+        // Arrange
+        idempotencyService.execute("user", "key-1", List.of("deposit", 1L), String.class, created("done"));
+
+        // Act
+        ResponseEntity<String> retry = idempotencyService.execute("user", "key-1", List.of("deposit", 1L),
+                String.class, created("again"));
+
+        // Assert
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals("done", retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyServiceImpl.REPLAYED_HEADER));
+        verify(idempotencyKeyRepository, times(1)).saveAndFlush(any(IdempotencyRecord.class));
+        verify(idempotencyKeyRepository).complete(42L, 201, null, "\"done\"");
+    }
+
+    @Test
+    public void retryWithADifferentRequestShouldBeRejected() {
+        // Arrange
+        idempotencyService.execute("user", "key-1", List.of("deposit", 1L), String.class, created("done"));
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyService.execute("user", "key-1",
+                List.of("withdraw", 1L), String.class, created("other")));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void duplicateWhileRunningShouldWaitForTheFirstExecution() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("user", "key-1", List.of("deposit", 1L), String.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return created("done").get();
+                }));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+
+        // Act
+        CompletableFuture<ResponseEntity<String>> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("user", "key-1", List.of("deposit", 1L), String.class, created("again")));
+        release.countDown();
+
+        // Assert
+        assertEquals("done", first.get(2, TimeUnit.SECONDS).getBody());
+        ResponseEntity<String> replayed = duplicate.get(2, TimeUnit.SECONDS);
+        assertEquals("done", replayed.getBody());
+        assertEquals(1, executions.get());
+        verify(idempotencyKeyRepository, times(1)).saveAndFlush(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    public void keyAnsweredByAnotherNodeShouldBeReplayedFromTheTable() {
+        // Arrange: answer the key on one node, then retry it on another that never saw it
+        idempotencyService.execute("user", "key-1", List.of("deposit", 1L), String.class, created("done"));
+        ArgumentCaptor<IdempotencyRecord> claim = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyKeyRepository).saveAndFlush(claim.capture());
+        IdempotencyRecord stored = completedRecord(claim.getValue().getRequestHash(), "\"done\"");
+        IdempotencyServiceImpl otherNode = new IdempotencyServiceImpl(idempotencyKeyRepository, transactionTemplate,
+                new ObjectMapper(), new SimpleMeterRegistry(), 24, 100, 2000, 2);
+        doThrow(new DataIntegrityViolationException("ux_idempotency_keys_owner_key"))
+                .when(idempotencyKeyRepository).saveAndFlush(any(IdempotencyRecord.class));
+        when(idempotencyKeyRepository.findByOwnerNameAndIdempotencyKey("user", "key-1")).thenReturn(Optional.of(stored));
+
+        // Act
+        ResponseEntity<String> response = otherNode.execute("user", "key-1", List.of("deposit", 1L),
+                String.class, created("again"));
+
+        // Assert
+        assertEquals("done", response.getBody());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void replayedTransactionShouldKeepItsAmountsInMajorUnits() {
+        // Arrange: the application's mapper, which writes amounts in major units
+        IdempotencyServiceImpl service = new IdempotencyServiceImpl(idempotencyKeyRepository, transactionTemplate,
+                Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(), 24, 100, 2000, 2);
+        TransactionResponseDTO deposit = new TransactionResponseDTO();
+        deposit.setId(7L);
+        deposit.setTransactionType("deposit");
+        deposit.setAmount(125075L);
+        deposit.setProductId(1L);
+        deposit.setAccountBalance(1000050L);
+        deposit.setTransactionDate(LocalDateTime.of(2024, 6, 1, 12, 30));
+        service.execute("user", "key-1", List.of("deposit", 1L), TransactionResponseDTO.class,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(deposit));
+
+        // Act
+        ResponseEntity<TransactionResponseDTO> retry = service.execute("user", "key-1", List.of("deposit", 1L),
+                TransactionResponseDTO.class, () -> fail("a replayed request must not run"));
+
+        // Assert
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyServiceImpl.REPLAYED_HEADER));
+        assertEquals(deposit, retry.getBody());
+        verify(idempotencyKeyRepository).complete(eq(42L), eq(201), isNull(),
+                contains("\"amount\":1250.75"));
+    }
+
+    @Test
+    public void failedRequestShouldReleaseTheKeySoItCanBeRetried() {
+        // Arrange
+        Supplier<ResponseEntity<String>> rejected = () -> {
+            throw new InsufficientFundsException(1L, 0L, 100L);
+        };
+        assertThrows(InsufficientFundsException.class, () -> idempotencyService.execute("user", "key-1",
+                List.of("withdraw", 1L), String.class, rejected));
+
+        // Act
+        ResponseEntity<String> retry = idempotencyService.execute("user", "key-1", List.of("withdraw", 1L),
+                String.class, created("done"));
+
+        // Assert
+        verify(idempotencyKeyRepository).deleteById(42L);
+        assertEquals("done", retry.getBody());
+        assertNull(retry.getHeaders().getFirst(IdempotencyServiceImpl.REPLAYED_HEADER));
+    }
+
+    @Test
+    public void failureWithAnUnknownOutcomeShouldKeepTheKeyClaimed() {
+        // Arrange
+        IdempotencyServiceImpl service = new IdempotencyServiceImpl(idempotencyKeyRepository, transactionTemplate,
+                new ObjectMapper(), new SimpleMeterRegistry(), 24, 100, 50, 2);
+        Supplier<ResponseEntity<String>> timedOut = () -> {
+            throw new IllegalStateException("commit timed out");
+        };
+        assertThrows(IllegalStateException.class, () -> service.execute("user", "key-1",
+                List.of("withdraw", 1L), String.class, timedOut));
+        ArgumentCaptor<IdempotencyRecord> claim = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyKeyRepository).saveAndFlush(claim.capture());
+        IdempotencyRecord claimed = claim.getValue();
+        doThrow(new DataIntegrityViolationException("ux_idempotency_keys_owner_key"))
+                .when(idempotencyKeyRepository).saveAndFlush(any(IdempotencyRecord.class));
+        when(idempotencyKeyRepository.findByOwnerNameAndIdempotencyKey("user", "key-1")).thenReturn(Optional.of(claimed));
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyInProgressException.class, () -> service.execute("user", "key-1",
+                List.of("withdraw", 1L), String.class, created("done")));
+        assertEquals(0, executions.get());
+        verify(idempotencyKeyRepository, never()).deleteById(any());
+    }
+
+    @Test
+    public void purgeExpiredShouldDeleteInBatchesUntilNoneAreLeft() {
+        // Arrange
+        when(idempotencyKeyRepository.deleteExpired(any(LocalDateTime.class), eq(2))).thenReturn(2, 2, 1);
+
+        // Act
+        int purged = idempotencyService.purgeExpired();
+
+        // Assert
+        assertEquals(5, purged);
+        verify(idempotencyKeyRepository, times(3)).deleteExpired(any(LocalDateTime.class), anyInt());
+    }
+
+    private Supplier<ResponseEntity<String>> created(String body) {
+        return () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body(body);
+        };
+    }
+
+    private static IdempotencyRecord completedRecord(String requestHash, String body) {
+        IdempotencyRecord stored = new IdempotencyRecord();
+        stored.setId(42L);
+        stored.setOwnerName("user");
+        stored.setIdempotencyKey("key-1");
+        stored.setRequestHash(requestHash);
+        stored.setStatus(IdempotencyKeyStatus.COMPLETED.name());
+        stored.setResponseStatus(201);
+        stored.setResponseBody(body);
+        stored.setExpiresAt(LocalDateTime.now().plusHours(1));
+        return stored;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(2, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
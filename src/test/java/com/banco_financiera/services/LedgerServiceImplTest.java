@@ -0,0 +1,116 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.exception.business.InsufficientFundsException;
+import com.banco_financiera.models.BalanceSnapshot;
+import com.banco_financiera.models.Product;
+import com.banco_financiera.models.Transaction;
+import com.banco_financiera.repositories.BalanceSnapshotRepository;
+import com.banco_financiera.repositories.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LedgerServiceImplTest {
+
+    @InjectMocks
+    LedgerServiceImpl ledgerService;
+
+    @Mock
+    TransactionRepository transactionRepository;
+
+    @Mock
+    BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Test
+    public void currentBalanceShouldAddTailToLatestSnapshot() {
+        // Arrange
+        Product product = product(1L, 0L);
+        when(balanceSnapshotRepository.findFirstByProductIdOrderByLastTransactionIdDesc(1L))
+                .thenReturn(Optional.of(snapshot(1L, 50000L, 10L, false)));
+        when(transactionRepository.sumSignedAmountsAfter(1L, 10L)).thenReturn(-2500L);
+
+        // Act
+        long result = ledgerService.currentBalance(product);
+
+        // Assert
+        assertEquals(47500L, result);
+    }
+
+    @Test
+    public void currentBalanceShouldFallBackToStoredBalanceWithoutLedger() {
+        // Arrange
+        Product product = product(1L, 12345L);
+        when(balanceSnapshotRepository.findFirstByProductIdOrderByLastTransactionIdDesc(1L)).thenReturn(Optional.empty());
+
+        // Act
+        long result = ledgerService.currentBalance(product);
+
+        // Assert
+        assertEquals(12345L, result);
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    public void appendShouldOpenLedgerAndRecordRunningBalance() {
+        // Arrange
+        Product product = product(1L, 10000L);
+        BalanceSnapshot opening = snapshot(1L, 10000L, 7L, true);
+        when(balanceSnapshotRepository.findFirstByProductIdAndOpeningTrue(1L)).thenReturn(Optional.empty());
+        when(transactionRepository.findLastTransactionId(1L)).thenReturn(7L);
+        when(balanceSnapshotRepository.save(any(BalanceSnapshot.class))).thenReturn(opening);
+        when(balanceSnapshotRepository.findFirstByProductIdOrderByLastTransactionIdDesc(1L)).thenReturn(Optional.of(opening));
+        when(transactionRepository.sumSignedAmountsAfter(1L, 7L)).thenReturn(0L);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Transaction result = ledgerService.append(product, TransactionType.DEPOSIT, 2500L);
+
+        // Assert
+        assertEquals(12500L, result.getRunningBalance());
+        ArgumentCaptor<BalanceSnapshot> captor = ArgumentCaptor.forClass(BalanceSnapshot.class);
+        verify(balanceSnapshotRepository).save(captor.capture());
+        assertTrue(captor.getValue().isOpening());
+        assertEquals(7L, captor.getValue().getLastTransactionId());
+    }
+
+    @Test
+    public void appendShouldRejectDebitAboveLedgerBalance() {
+        // Arrange
+        Product product = product(1L, 0L);
+        BalanceSnapshot opening = snapshot(1L, 10000L, 7L, true);
+        when(balanceSnapshotRepository.findFirstByProductIdAndOpeningTrue(1L)).thenReturn(Optional.of(opening));
+        when(balanceSnapshotRepository.findFirstByProductIdOrderByLastTransactionIdDesc(1L)).thenReturn(Optional.of(opening));
+        when(transactionRepository.sumSignedAmountsAfter(1L, 7L)).thenReturn(-9000L);
+
+        // Act & Assert
+        assertThrows(InsufficientFundsException.class, () -> ledgerService.append(product, TransactionType.WITHDRAW, 2000L));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    private static Product product(Long id, long balance) {
+        Product product = new Product();
+        product.setId(id);
+        product.setAccountBalance(balance);
+        return product;
+    }
+
+    private static BalanceSnapshot snapshot(Long productId, long balance, long lastTransactionId, boolean opening) {
+        BalanceSnapshot snapshot = new BalanceSnapshot();
+        snapshot.setProductId(productId);
+        snapshot.setBalance(balance);
+        snapshot.setLastTransactionId(lastTransactionId);
+        snapshot.setOpening(opening);
+        return snapshot;
+    }
+}
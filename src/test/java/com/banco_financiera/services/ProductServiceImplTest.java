@@ -1,28 +1,42 @@
 package com.banco_financiera.services;
 
+import com.banco_financiera.cache.ProductCache;
+import com.banco_financiera.cache.ProductSummary;
 import com.banco_financiera.core.exceptions.HttpClientException;
+import com.banco_financiera.dto.KeysetPageDTO;
 import com.banco_financiera.dto.ProductRequestDTO;
+import com.banco_financiera.dto.ProductResponseDTO;
 import com.banco_financiera.enums.AccountStatus;
 import com.banco_financiera.exception.business.AccountInactiveException;
 import com.banco_financiera.exception.business.AccountNotFoundException;
+import com.banco_financiera.exception.business.BalanceManagedByLedgerException;
 import com.banco_financiera.exception.business.UserNotFoundException;
+import com.banco_financiera.mapper.ProductMapper;
+import com.banco_financiera.metrics.ServiceMetrics;
 import com.banco_financiera.models.Product;
 import com.banco_financiera.models.User;
 import com.banco_financiera.repositories.ProductRepository;
 import com.banco_financiera.repositories.UserRepository;
+import com.banco_financiera.utils.KeysetCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mapstruct.factory.Mappers;
+import org.springframework.data.domain.Limit;
 
-import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,54 +51,71 @@ public class ProductServiceImplTest {
     @Mock
     UserRepository userRepository;
 
-    @Test
-    public void getAllProductsShouldReturnAllProducts() {
-        // Arrange
-        Product product1 = new Product();
-        product1.setId(1L);
-        product1.setAccountType("savings");
+    @Mock
+    ILedgerService ledgerService;
+
+    @Mock
+    ProductCache productCache;
 
-        Product product2 = new Product();
-        product2.setId(2L);
-        product2.setAccountType("current");
+    @Spy
+    ProductMapper productMapper = Mappers.getMapper(ProductMapper.class);
 
-        when(productRepository.findAll()).thenReturn(Arrays.asList(product1, product2));
+    @Spy
+    ServiceMetrics serviceMetrics = new ServiceMetrics(new SimpleMeterRegistry());
+
+    @Test
+    public void getProductsShouldReturnFirstPageWithNextCursor() {
+        // Arrange
+        when(productRepository.findResponsesAfter(eq(0L), any(Limit.class)))
+                .thenReturn(Arrays.asList(response(1L, "savings"), response(2L, "current"), response(3L, "savings")));
 
         // Act
-        List<Product> result = productService.getAllProducts();
+        KeysetPageDTO<ProductResponseDTO> result = productService.getProducts(null, 2);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals("savings", result.get(0).getAccountType());
-        assertEquals("current", result.get(1).getAccountType());
+        assertEquals(2, result.getItems().size());
+        assertEquals(2L, KeysetCursor.decode(result.getNextCursor()).id());
+        verify(productRepository).findResponsesAfter(0L, Limit.of(3));
     }
 
     @Test
     public void getProductByIdShouldReturnProductWhenExists() {
         // Arrange
-        Product product = new Product();
-        product.setId(1L);
-        product.setAccountType("savings");
-
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findResponseById(1L)).thenReturn(Optional.of(response(1L, "savings")));
 
         // Act
-        Optional<Product> result = productService.getProductById(1L);
+        Optional<ProductResponseDTO> result = productService.getProductById(1L);
 
         // Assert
         assertTrue(result.isPresent());
         assertEquals(1L, result.get().getId());
         assertEquals("savings", result.get().getAccountType());
+        verify(productRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    public void getProductByIdShouldReturnLedgerBalanceInLedgerMode() {
+        // Arrange
+        ProductResponseDTO product = response(1L, "savings");
+        product.setAccountBalance(1000L);
+        when(productRepository.findResponseById(1L)).thenReturn(Optional.of(product));
+        when(ledgerService.isEnabled()).thenReturn(true);
+        when(ledgerService.currentBalances(List.of(1L))).thenReturn(Map.of(1L, 2500L));
+
+        // Act
+        Optional<ProductResponseDTO> result = productService.getProductById(1L);
+
+        // Assert
+        assertEquals(2500L, result.orElseThrow().getAccountBalance());
     }
 
     @Test
     public void getProductByIdShouldReturnEmptyWhenNotExists() {
         // Arrange
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(productRepository.findResponseById(1L)).thenReturn(Optional.empty());
 
         // Act
-        Optional<Product> result = productService.getProductById(1L);
+        Optional<ProductResponseDTO> result = productService.getProductById(1L);
 
         // Assert
         assertFalse(result.isPresent());
@@ -95,7 +126,7 @@ public class ProductServiceImplTest {
         // Arrange
         ProductRequestDTO productRequest = new ProductRequestDTO();
         productRequest.setAccountType("savings");
-        productRequest.setAccountBalance(BigDecimal.valueOf(100000));
+        productRequest.setAccountBalance(10000000L);
         productRequest.setExemptGmf(false);
 
         User user = new User();
@@ -105,7 +136,7 @@ public class ProductServiceImplTest {
         Product savedProduct = new Product();
         savedProduct.setId(1L);
         savedProduct.setAccountType("savings");
-        savedProduct.setAccountBalance(100000.0);
+        savedProduct.setAccountBalance(10000000L);
         savedProduct.setStatus(AccountStatus.ACTIVE.name());
         savedProduct.setUser(user);
 
@@ -113,14 +144,15 @@ public class ProductServiceImplTest {
         when(productRepository.save(any(Product.class))).thenReturn(savedProduct);
 
         // Act
-        Product result = productService.createProduct(productRequest, 1L);
+        ProductResponseDTO result = productService.createProduct(productRequest, 1L);
 
         // Assert
         assertNotNull(result);
         assertEquals(1L, result.getId());
         assertEquals("savings", result.getAccountType());
-        assertEquals(100000.0, result.getAccountBalance());
+        assertEquals(10000000L, result.getAccountBalance());
         assertEquals(AccountStatus.ACTIVE.name(), result.getStatus());
+        assertEquals(1L, result.getUserId());
         verify(productRepository, times(1)).save(any(Product.class));
     }
 
@@ -129,7 +161,7 @@ public class ProductServiceImplTest {
         // Arrange
         ProductRequestDTO productRequest = new ProductRequestDTO();
         productRequest.setAccountType("current");
-        productRequest.setAccountBalance(BigDecimal.valueOf(50000));
+        productRequest.setAccountBalance(5000000L);
         productRequest.setExemptGmf(true);
 
         User user = new User();
@@ -139,7 +171,7 @@ public class ProductServiceImplTest {
         Product savedProduct = new Product();
         savedProduct.setId(2L);
         savedProduct.setAccountType("current");
-        savedProduct.setAccountBalance(50000.0);
+        savedProduct.setAccountBalance(5000000L);
         savedProduct.setStatus(AccountStatus.ACTIVE.name());
         savedProduct.setUser(user);
 
@@ -147,13 +179,13 @@ public class ProductServiceImplTest {
         when(productRepository.save(any(Product.class))).thenReturn(savedProduct);
 
         // Act
-        Product result = productService.createProduct(productRequest, 1L);
+        ProductResponseDTO result = productService.createProduct(productRequest, 1L);
 
         // Assert
         assertNotNull(result);
         assertEquals(2L, result.getId());
         assertEquals("current", result.getAccountType());
-        assertEquals(50000.0, result.getAccountBalance());
+        assertEquals(5000000L, result.getAccountBalance());
         verify(productRepository, times(1)).save(any(Product.class));
     }
 
@@ -162,7 +194,7 @@ public class ProductServiceImplTest {
         // Arrange
         ProductRequestDTO productRequest = new ProductRequestDTO();
         productRequest.setAccountType("savings");
-        productRequest.setAccountBalance(BigDecimal.valueOf(-1000));
+        productRequest.setAccountBalance(-100000L);
 
         User user = new User();
         user.setId(1L);
@@ -179,7 +211,7 @@ public class ProductServiceImplTest {
         // Arrange
         ProductRequestDTO productRequest = new ProductRequestDTO();
         productRequest.setAccountType("savings");
-        productRequest.setAccountBalance(BigDecimal.valueOf(1000));
+        productRequest.setAccountBalance(100000L);
 
         when(userRepository.findById(1L)).thenReturn(Optional.empty());
 
@@ -194,13 +226,13 @@ public class ProductServiceImplTest {
         Long productId = 1L;
         ProductRequestDTO productRequest = new ProductRequestDTO();
         productRequest.setAccountType("current");
-        productRequest.setAccountBalance(BigDecimal.valueOf(75000));
+        productRequest.setAccountBalance(7500000L);
         productRequest.setExemptGmf(true);
 
         Product existingProduct = new Product();
         existingProduct.setId(productId);
         existingProduct.setAccountType("savings");
-        existingProduct.setAccountBalance(50000.0);
+        existingProduct.setAccountBalance(5000000L);
 
         User user = new User();
         user.setId(1L);
@@ -210,7 +242,7 @@ public class ProductServiceImplTest {
         when(productRepository.save(any(Product.class))).thenReturn(existingProduct);
 
         // Act
-        Product result = productService.updateProduct(productId, productRequest);
+        ProductResponseDTO result = productService.updateProduct(productId, productRequest);
 
         // Assert
         assertNotNull(result);
@@ -218,6 +250,51 @@ public class ProductServiceImplTest {
         verify(productRepository, times(1)).save(existingProduct);
     }
 
+    @Test
+    public void updateProductShouldRejectBalanceChangeInLedgerMode() {
+        // Arrange
+        ProductRequestDTO productRequest = new ProductRequestDTO();
+        productRequest.setAccountType("savings");
+        productRequest.setAccountBalance(7500000L);
+        productRequest.setExemptGmf(true);
+        Product existingProduct = new Product();
+        existingProduct.setId(1L);
+        existingProduct.setAccountBalance(5000000L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
+        when(ledgerService.isEnabled()).thenReturn(true);
+        when(ledgerService.currentBalance(existingProduct)).thenReturn(6000000L);
+
+        // Act & Assert
+        assertThrows(BalanceManagedByLedgerException.class, () -> productService.updateProduct(1L, productRequest));
+        verify(productRepository, never()).save(any(Product.class));
+        assertEquals(5000000L, existingProduct.getAccountBalance());
+    }
+
+    @Test
+    public void updateProductShouldKeepLedgerBalanceInLedgerMode() throws HttpClientException {
+        // Arrange
+        ProductRequestDTO productRequest = new ProductRequestDTO();
+        productRequest.setAccountType("current");
+        productRequest.setAccountBalance(6000000L);
+        productRequest.setExemptGmf(true);
+        Product existingProduct = new Product();
+        existingProduct.setId(1L);
+        existingProduct.setAccountType("savings");
+        existingProduct.setAccountBalance(5000000L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(ledgerService.isEnabled()).thenReturn(true);
+        when(ledgerService.currentBalance(existingProduct)).thenReturn(6000000L);
+
+        // Act
+        ProductResponseDTO result = productService.updateProduct(1L, productRequest);
+
+        // Assert
+        assertEquals("current", existingProduct.getAccountType());
+        assertEquals(5000000L, existingProduct.getAccountBalance(), "the stored balance belongs to compaction");
+        assertEquals(6000000L, result.getAccountBalance());
+    }
+
     @Test
     public void updateProductShouldThrowExceptionWhenProductNotFound() {
         // Arrange
@@ -238,7 +315,7 @@ public class ProductServiceImplTest {
         Long productId = 1L;
         Product product = new Product();
         product.setId(productId);
-        product.setAccountBalance(0.0);
+        product.setAccountBalance(0L);
 
         when(productRepository.findById(productId)).thenReturn(Optional.of(product));
 
@@ -247,6 +324,7 @@ public class ProductServiceImplTest {
 
         // Assert
         verify(productRepository, times(1)).deleteById(productId);
+        verify(productCache).evict(productId);
     }
 
     @Test
@@ -255,7 +333,7 @@ public class ProductServiceImplTest {
         Long productId = 1L;
         Product product = new Product();
         product.setId(productId);
-        product.setAccountBalance(1000.0);
+        product.setAccountBalance(100000L);
 
         when(productRepository.findById(productId)).thenReturn(Optional.of(product));
 
@@ -278,12 +356,13 @@ public class ProductServiceImplTest {
         when(productRepository.save(any(Product.class))).thenReturn(product);
 
         // Act
-        Product result = productService.updateProductStatus(productId, newStatus);
+        ProductResponseDTO result = productService.updateProductStatus(productId, newStatus);
 
         // Assert
         assertNotNull(result);
         assertEquals(productId, result.getId());
         verify(productRepository, times(1)).save(product);
+        verify(productCache).evict(productId);
     }
 
     @Test
@@ -342,12 +421,45 @@ public class ProductServiceImplTest {
         assertThrows(AccountNotFoundException.class, () -> productService.getActiveProductById(productId));
     }
 
+    @Test
+    public void getActiveProductSummaryShouldReturnCachedActiveProduct() {
+        // Arrange
+        ProductSummary summary = new ProductSummary(1L, "savings", "5312345678", AccountStatus.ACTIVE.name(), false, 7L);
+        when(productCache.get(1L)).thenReturn(Optional.of(summary));
+
+        // Act
+        ProductSummary result = productService.getActiveProductSummary(1L);
+
+        // Assert
+        assertSame(summary, result);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    public void getActiveProductSummaryShouldThrowExceptionWhenInactive() {
+        // Arrange
+        ProductSummary summary = new ProductSummary(1L, "savings", "5312345678", AccountStatus.INACTIVE.name(), false, 7L);
+        when(productCache.get(1L)).thenReturn(Optional.of(summary));
+
+        // Act & Assert
+        assertThrows(AccountInactiveException.class, () -> productService.getActiveProductSummary(1L));
+    }
+
+    @Test
+    public void getActiveProductSummaryShouldThrowExceptionWhenProductNotFound() {
+        // Arrange
+        when(productCache.get(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(AccountNotFoundException.class, () -> productService.getActiveProductSummary(1L));
+    }
+
     @Test
     public void createProductShouldHandleZeroBalance() throws HttpClientException {
         // Arrange
         ProductRequestDTO productRequest = new ProductRequestDTO();
         productRequest.setAccountType("savings");
-        productRequest.setAccountBalance(BigDecimal.ZERO);
+        productRequest.setAccountBalance(0L);
         productRequest.setExemptGmf(false);
 
         User user = new User();
@@ -355,30 +467,45 @@ public class ProductServiceImplTest {
 
         Product savedProduct = new Product();
         savedProduct.setId(1L);
-        savedProduct.setAccountBalance(0.0);
+        savedProduct.setAccountBalance(0L);
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(productRepository.save(any(Product.class))).thenReturn(savedProduct);
 
         // Act
-        Product result = productService.createProduct(productRequest, 1L);
+        ProductResponseDTO result = productService.createProduct(productRequest, 1L);
 
         // Assert
         assertNotNull(result);
-        assertEquals(0.0, result.getAccountBalance());
+        assertEquals(0L, result.getAccountBalance());
         verify(productRepository, times(1)).save(any(Product.class));
     }
 
     @Test
-    public void getAllProductsShouldReturnEmptyListWhenNoProducts() {
+    public void getProductsShouldSeekAfterCursorAndEndWithoutNextCursor() {
         // Arrange
-        when(productRepository.findAll()).thenReturn(Arrays.asList());
+        when(productRepository.findResponsesAfter(eq(7L), any(Limit.class)))
+                .thenReturn(List.of(response(8L, "savings")));
 
         // Act
-        List<Product> result = productService.getAllProducts();
+        KeysetPageDTO<ProductResponseDTO> result = productService.getProducts(KeysetCursor.of(7L).encode(), 50);
 
         // Assert
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    public void getProductsShouldRejectPageSizeAboveMaximum() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productService.getProducts(null, 501));
+        verify(productRepository, never()).findResponsesAfter(anyLong(), any(Limit.class));
+    }
+
+    private static ProductResponseDTO response(Long id, String accountType) {
+        ProductResponseDTO product = new ProductResponseDTO();
+        product.setId(id);
+        product.setAccountType(accountType);
+        return product;
     }
-}
\ No newline at end of file
+}
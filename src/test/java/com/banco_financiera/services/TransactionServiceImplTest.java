@@ -0,0 +1,307 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.core.exceptions.HttpClientException;
+import com.banco_financiera.dto.KeysetPageDTO;
+import com.banco_financiera.dto.TransactionHistoryDTO;
+import com.banco_financiera.dto.TransactionRequestDTO;
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.exception.business.AccountInactiveException;
+import com.banco_financiera.exception.business.AccountNotFoundException;
+import com.banco_financiera.exception.business.InsufficientFundsException;
+import com.banco_financiera.exception.business.TransferToSameAccountException;
+import com.banco_financiera.locking.AccountLockManager;
+import com.banco_financiera.locking.BalanceMutationExecutor;
+import com.banco_financiera.locking.GroupCommitCoordinator;
+import com.banco_financiera.metrics.ServiceMetrics;
+import com.banco_financiera.models.Product;
+import com.banco_financiera.models.Transaction;
+import com.banco_financiera.repositories.ProductRepository;
+import com.banco_financiera.repositories.TransactionRepository;
+import com.banco_financiera.sharding.ShardedLedgerProcessor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionServiceImplTest {
+
+    TransactionServiceImpl transactionService;
+
+    @Mock
+    TransactionRepository transactionRepository;
+
+    @Mock
+    ProductRepository productRepository;
+
+    @Mock
+    IProductService productService;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    AccountLockManager accountLockManager;
+
+    @Mock
+    ILedgerService ledgerService;
+
+    @Mock
+    ShardedLedgerProcessor shardedLedgerProcessor;
+
+    SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        meterRegistry = new SimpleMeterRegistry();
+        BalanceMutationExecutor executor = new BalanceMutationExecutor(transactionTemplate, accountLockManager,
+                meterRegistry, "pessimistic", 3, 0, 0, 2.0);
+        GroupCommitCoordinator groupCommit = new GroupCommitCoordinator(transactionTemplate, executor, meterRegistry,
+                false, 200, 64, 5000);
+        transactionService = new TransactionServiceImpl(transactionRepository, productRepository, productService, executor,
+                ledgerService, shardedLedgerProcessor, groupCommit, new ServiceMetrics(meterRegistry));
+    }
+
+    @Test
+    public void depositShouldUpdateBalanceAndRecordTransaction() throws HttpClientException {
+        // Arrange
+        Product product = activeProduct(1L, 100000L);
+        when(productService.getActiveProductById(1L)).thenReturn(product);
+
+        // Act
+        Transaction result = transactionService.deposit(1L, request(25050L));
+
+        // Assert
+        assertEquals(125050L, product.getAccountBalance());
+        assertEquals("DEPOSIT", result.getTransactionType());
+        assertEquals(25050L, result.getAmount());
+        verify(accountLockManager, times(1)).lockAccounts(1L);
+        verify(productRepository, times(1)).save(product);
+    }
+
+    @Test
+    public void transferShouldRejectSameAccountBeforeLocking() {
+        // Act & Assert
+        assertThrows(TransferToSameAccountException.class, () -> transactionService.transfer(1L, 1L, request(1000L)));
+        verifyNoInteractions(accountLockManager);
+    }
+
+    @Test
+    public void depositShouldRecordSuccessAndLockWaitTimers() throws HttpClientException {
+        // Arrange
+        when(productService.getActiveProductById(1L)).thenReturn(activeProduct(1L, 0L));
+
+        // Act
+        transactionService.deposit(1L, request(1000L));
+
+        // Assert
+        assertEquals(1, meterRegistry.get(ServiceMetrics.CALLS)
+                .tag("operation", "deposit").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("banco.locks.wait").tag("operation", "DEPOSIT").timer().count());
+    }
+
+    @Test
+    public void withdrawShouldCountInsufficientFundsRejection() throws HttpClientException {
+        // Arrange
+        when(productService.getActiveProductById(1L)).thenReturn(activeProduct(1L, 500L));
+
+        // Act
+        assertThrows(InsufficientFundsException.class, () -> transactionService.withdraw(1L, request(1000L)));
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get(ServiceMetrics.REJECTIONS)
+                .tag("operation", "withdraw").tag("reason", "insufficient_funds").counter().count());
+        assertEquals(1, meterRegistry.get(ServiceMetrics.CALLS)
+                .tag("operation", "withdraw").tag("outcome", "insufficient_funds").timer().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void transferShouldSaveBothLegsTogether() throws HttpClientException {
+        // Arrange
+        Product from = activeProduct(1L, 50000L);
+        Product to = activeProduct(2L, 0L);
+        when(productService.getActiveProductById(1L)).thenReturn(from);
+        when(productService.getActiveProductById(2L)).thenReturn(to);
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Transaction result = transactionService.transfer(1L, 2L, request(20000L));
+
+        // Assert
+        ArgumentCaptor<List<Transaction>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository, times(1)).saveAll(captor.capture());
+        List<Transaction> legs = captor.getValue();
+        assertEquals(2, legs.size());
+        assertEquals("TRANSFER", legs.get(0).getTransactionType());
+        assertEquals(from, legs.get(0).getProduct());
+        assertEquals("TRANSFER_IN", legs.get(1).getTransactionType());
+        assertEquals(to, legs.get(1).getProduct());
+        assertNotNull(legs.get(0).getTransferId());
+        assertEquals(legs.get(0).getTransferId(), legs.get(1).getTransferId());
+        assertSame(legs.get(0), result);
+        assertEquals(30000L, from.getAccountBalance());
+        assertEquals(20000L, to.getAccountBalance());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    public void atomicDepositShouldNotLoadProduct() throws HttpClientException {
+        // Arrange
+        useAtomicBalanceUpdates();
+        when(productRepository.creditActiveAccount(eq(1L), eq(10000L), any(LocalDateTime.class))).thenReturn(1);
+        when(productRepository.getReferenceById(1L)).thenReturn(activeProduct(1L, 0L));
+
+        // Act
+        Transaction result = transactionService.deposit(1L, request(10000L));
+
+        // Assert
+        assertEquals("DEPOSIT", result.getTransactionType());
+        verify(productService, never()).getActiveProductById(anyLong());
+        verify(productRepository, never()).save(any(Product.class));
+        verifyNoInteractions(accountLockManager);
+    }
+
+    @Test
+    public void ledgerDepositShouldCheckStatusFromCacheWithoutLoadingProduct() throws HttpClientException {
+        // Arrange
+        Product reference = activeProduct(1L, 0L);
+        Transaction entry = new Transaction();
+        when(ledgerService.isEnabled()).thenReturn(true);
+        when(productRepository.getReferenceById(1L)).thenReturn(reference);
+        when(ledgerService.append(reference, TransactionType.DEPOSIT, 10000L)).thenReturn(entry);
+
+        // Act
+        Transaction result = transactionService.deposit(1L, request(10000L));
+
+        // Assert
+        assertSame(entry, result);
+        verify(productService).getActiveProductSummary(1L);
+        verify(productService, never()).getActiveProductById(anyLong());
+        verify(accountLockManager).lockAccounts(1L);
+    }
+
+    @Test
+    public void ledgerDepositShouldRejectInactiveProductFromCache() {
+        // Arrange
+        when(ledgerService.isEnabled()).thenReturn(true);
+        when(productService.getActiveProductSummary(1L)).thenThrow(new AccountInactiveException(1L, "INACTIVE"));
+
+        // Act & Assert
+        assertThrows(AccountInactiveException.class, () -> transactionService.deposit(1L, request(10000L)));
+        verify(ledgerService, never()).append(any(), any(), anyLong());
+    }
+
+    @Test
+    public void shardedTransferShouldBeAppliedByTheOwningShardWithoutLocking() {
+        // Arrange
+        Transaction debit = new Transaction();
+        when(shardedLedgerProcessor.isEnabled()).thenReturn(true);
+        when(shardedLedgerProcessor.apply(TransactionType.TRANSFER, 1L, 2L, 10000L)).thenReturn(debit);
+
+        // Act
+        Transaction result = transactionService.transfer(1L, 2L, request(10000L));
+
+        // Assert
+        assertSame(debit, result);
+        verifyNoInteractions(accountLockManager, transactionRepository);
+        verify(ledgerService, never()).prepare(any(), any(), anyLong());
+    }
+
+    @Test
+    public void atomicWithdrawShouldReportInsufficientFunds() throws HttpClientException {
+        // Arrange
+        useAtomicBalanceUpdates();
+        when(productRepository.debitActiveAccount(eq(1L), anyLong(), any(LocalDateTime.class))).thenReturn(0);
+        when(productService.getActiveProductById(1L)).thenReturn(activeProduct(1L, 5000L));
+
+        // Act & Assert
+        assertThrows(InsufficientFundsException.class, () -> transactionService.withdraw(1L, request(10000L)));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    public void atomicWithdrawShouldReportInactiveAccount() throws HttpClientException {
+        // Arrange
+        useAtomicBalanceUpdates();
+        when(productRepository.debitActiveAccount(eq(1L), anyLong(), any(LocalDateTime.class))).thenReturn(0);
+        when(productService.getActiveProductById(1L)).thenThrow(new AccountInactiveException(1L, "INACTIVE"));
+
+        // Act & Assert
+        assertThrows(AccountInactiveException.class, () -> transactionService.withdraw(1L, request(10000L)));
+    }
+
+    @Test
+    public void getTransactionHistoryShouldReturnCursorOnlyWhenMoreRowsExist() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 10, 0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(transactionRepository.findHistory(eq(1L), any(Limit.class))).thenReturn(List.of(
+                history(30L, now), history(20L, now.minusMinutes(1)), history(10L, now.minusMinutes(2))));
+        when(transactionRepository.findHistoryBefore(eq(1L), eq(now.minusMinutes(1)), eq(20L), any(Limit.class)))
+                .thenReturn(List.of(history(10L, now.minusMinutes(2))));
+
+        // Act
+        KeysetPageDTO<TransactionHistoryDTO> first = transactionService.getTransactionHistory(1L, null, 2);
+        KeysetPageDTO<TransactionHistoryDTO> second = transactionService.getTransactionHistory(1L, first.getNextCursor(), 2);
+
+        // Assert
+        assertEquals(List.of(30L, 20L), first.getItems().stream().map(TransactionHistoryDTO::getId).toList());
+        assertNotNull(first.getNextCursor());
+        assertEquals(1, second.getItems().size());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    public void getTransactionHistoryShouldRejectUnknownProduct() {
+        // Arrange
+        when(productRepository.existsById(9L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(AccountNotFoundException.class, () -> transactionService.getTransactionHistory(9L, null, 10));
+        verify(transactionRepository, never()).findHistory(anyLong(), any(Limit.class));
+    }
+
+    private static TransactionHistoryDTO history(Long id, LocalDateTime date) {
+        return new TransactionHistoryDTO(id, "DEPOSIT", 100L, null, null, date);
+    }
+
+    private void useAtomicBalanceUpdates() {
+        ReflectionTestUtils.setField(transactionService, "balanceUpdateMode", "atomic");
+    }
+
+    private static TransactionRequestDTO request(long amount) {
+        TransactionRequestDTO request = new TransactionRequestDTO();
+        request.setAmount(amount);
+        return request;
+    }
+
+    private static Product activeProduct(Long id, long balance) {
+        Product product = new Product();
+        product.setId(id);
+        product.setStatus("ACTIVE");
+        product.setAccountBalance(balance);
+        return product;
+    }
+}
@@ -0,0 +1,103 @@
+package com.banco_financiera.services;
+
+import com.banco_financiera.dto.BatchOperationDTO;
+import com.banco_financiera.dto.BatchOperationResultDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionStreamServiceImplTest {
+
+    TransactionStreamServiceImpl transactionStreamService;
+
+    @Mock
+    IBatchTransactionService batchTransactionService;
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    public void setUp() {
+        transactionStreamService = new TransactionStreamServiceImpl(batchTransactionService, objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), 2);
+        lenient().when(batchTransactionService.processChunk(anyList(), anyInt())).thenAnswer(invocation -> {
+            List<BatchOperationDTO> chunk = invocation.getArgument(0);
+            return IntStream.range(0, chunk.size())
+                    .mapToObj(i -> BatchOperationResultDTO.succeeded(i, (long) i + 100, null))
+                    .toList();
+        });
+    }
+
+    @Test
+    public void ingestShouldApplyChunksAndReportRejectedLinesInOrder() throws IOException {
+        // Arrange
+        String input = """
+                {"type": "DEPOSIT", "product_id": 1, "amount": 10.50}
+                {"type": "DEPOSIT", "product_id": 1, "amount": -1}
+                {"type": "WITHDRAW", "product_id": 1, "amount": "oops"}
+                {"type": "WITHDRAW", "product_id": 2, "amount": 5}
+                """;
+
+        // Act
+        List<JsonNode> results = ingest(input);
+
+        // Assert
+        assertEquals(4, results.size());
+        assertEquals(0, results.get(0).get("index").asInt());
+        assertEquals("SUCCEEDED", results.get(0).get("status").asText());
+        assertEquals("VALIDATION_ERROR", results.get(1).get("error").asText());
+        assertEquals("MALFORMED_REQUEST", results.get(2).get("error").asText());
+        assertEquals(3, results.get(3).get("index").asInt());
+        assertEquals("SUCCEEDED", results.get(3).get("status").asText());
+        verify(batchTransactionService, times(2)).processChunk(anyList(), anyInt());
+    }
+
+    @Test
+    public void ingestShouldStopAtInvalidJsonAfterSettlingPreviousLines() throws IOException {
+        // Arrange
+        String input = """
+                {"type": "DEPOSIT", "product_id": 1, "amount": 1}
+                {"type": "DEPOSIT", "product_id": 1,
+                """;
+
+        // Act
+        List<JsonNode> results = ingest(input);
+
+        // Assert
+        assertEquals(2, results.size());
+        assertEquals("SUCCEEDED", results.get(0).get("status").asText());
+        assertEquals("MALFORMED_LINE", results.get(1).get("error").asText());
+        assertEquals(1, results.get(1).get("index").asInt());
+    }
+
+    private List<JsonNode> ingest(String input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        transactionStreamService.ingest(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+        return output.toString(StandardCharsets.UTF_8).lines()
+                .map(line -> {
+                    try {
+                        return objectMapper.readTree(line);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+}
@@ -1,26 +1,34 @@
 package com.banco_financiera.services;
 
+import com.banco_financiera.cache.UserCache;
 import com.banco_financiera.core.exceptions.HttpClientException;
+import com.banco_financiera.dto.KeysetPageDTO;
 import com.banco_financiera.dto.UserRequestDTO;
 import com.banco_financiera.dto.UserResponseDTO;
 import com.banco_financiera.exception.business.UserNotFoundException;
 import com.banco_financiera.exception.business.DuplicateResourceException;
 import com.banco_financiera.mapper.UserMapper;
+import com.banco_financiera.metrics.ServiceMetrics;
 import com.banco_financiera.models.User;
 import com.banco_financiera.repositories.UserRepository;
+import com.banco_financiera.utils.KeysetCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +43,12 @@ public class UserServiceImplTest {
     @Mock
     UserMapper userMapper;
 
+    @Mock
+    UserCache userCache;
+
+    @Spy
+    ServiceMetrics serviceMetrics = new ServiceMetrics(new SimpleMeterRegistry());
+
     @Test
     public void createUserShouldReturnUserWhenUserIsOver18() throws HttpClientException {
         // Arrange
@@ -55,7 +69,7 @@ public class UserServiceImplTest {
         userResponse.setFirstName("John");
         userResponse.setLastName("Doe");
 
-        when(userRepository.findByIdentificationNumber(123456789L)).thenReturn(Optional.empty());
+        when(userCache.findByIdentificationNumber(123456789L)).thenReturn(Optional.empty());
         when(userMapper.toEntity(userRequest)).thenReturn(user);
         when(userRepository.save(any(User.class))).thenReturn(user);
         when(userMapper.toResponseDTO(user)).thenReturn(userResponse);
@@ -68,6 +82,7 @@ public class UserServiceImplTest {
         assertEquals(123456789L, response.getIdentificationNumber());
         assertEquals("John", response.getFirstName());
         verify(userRepository, times(1)).save(any(User.class));
+        verify(userCache).evict(123456789L);
     }
 
     @Test
@@ -84,7 +99,7 @@ public class UserServiceImplTest {
     }
 
     @Test
-    public void findAllShouldReturnAllUsers() {
+    public void findPageShouldReturnFirstPageWithNextCursor() {
         // Arrange
         User user1 = new User();
         user1.setId(1L);
@@ -95,36 +110,33 @@ public class UserServiceImplTest {
         user2.setFirstName("Jane");
 
         UserResponseDTO userResponse1 = new UserResponseDTO();
+        userResponse1.setId(1L);
         userResponse1.setFirstName("John");
 
         UserResponseDTO userResponse2 = new UserResponseDTO();
+        userResponse2.setId(2L);
         userResponse2.setFirstName("Jane");
 
-        when(userRepository.findAll()).thenReturn(Arrays.asList(user1, user2));
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(Arrays.asList(user1, user2));
         when(userMapper.toResponseDTOList(Arrays.asList(user1, user2))).thenReturn(Arrays.asList(userResponse1, userResponse2));
 
         // Act
-        List<UserResponseDTO> result = userService.findAll();
+        KeysetPageDTO<UserResponseDTO> result = userService.findPage(null, 1);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals("John", result.get(0).getFirstName());
-        assertEquals("Jane", result.get(1).getFirstName());
+        assertEquals(1, result.getItems().size());
+        assertEquals("John", result.getItems().get(0).getFirstName());
+        assertEquals(1L, KeysetCursor.decode(result.getNextCursor()).id());
+        verify(userRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
     }
 
     @Test
     public void findByIdentificationNumberShouldReturnUserWhenExists() {
         // Arrange
-        User user = new User();
-        user.setId(1L);
-        user.setIdentificationNumber(123456789L);
-
         UserResponseDTO userResponse = new UserResponseDTO();
         userResponse.setIdentificationNumber(123456789L);
 
-        when(userRepository.findByIdentificationNumber(123456789L)).thenReturn(Optional.of(user));
-        when(userMapper.toResponseDTO(user)).thenReturn(userResponse);
+        when(userCache.findByIdentificationNumber(123456789L)).thenReturn(Optional.of(userResponse));
 
         // Act
         Optional<UserResponseDTO> result = userService.findByIdentificationNumber(123456789L);
@@ -137,7 +149,7 @@ public class UserServiceImplTest {
     @Test
     public void findByIdentificationNumberShouldReturnEmptyWhenNotExists() {
         // Arrange
-        when(userRepository.findByIdentificationNumber(123456789L)).thenReturn(Optional.empty());
+        when(userCache.findByIdentificationNumber(123456789L)).thenReturn(Optional.empty());
 
         // Act
         Optional<UserResponseDTO> result = userService.findByIdentificationNumber(123456789L);
@@ -164,7 +176,8 @@ public class UserServiceImplTest {
         updatedUserResponse.setIdentificationNumber(identificationNumber);
         updatedUserResponse.setFirstName("John Updated");
 
-        when(userRepository.findByIdentificationNumber(identificationNumber)).thenReturn(Optional.of(existingUser));
+        when(userCache.findByIdentificationNumber(identificationNumber)).thenReturn(Optional.of(cached(existingUser)));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
         when(userRepository.save(any(User.class))).thenReturn(existingUser);
         when(userMapper.toResponseDTO(any(User.class))).thenReturn(updatedUserResponse);
 
@@ -185,7 +198,7 @@ public class UserServiceImplTest {
         UserRequestDTO userRequest = new UserRequestDTO();
         userRequest.setIdentificationNumber(identificationNumber);
 
-        when(userRepository.findByIdentificationNumber(identificationNumber)).thenReturn(Optional.empty());
+        when(userCache.findByIdentificationNumber(identificationNumber)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(UserNotFoundException.class, () -> userService.updateUser(identificationNumber, userRequest));
@@ -200,20 +213,22 @@ public class UserServiceImplTest {
         user.setId(1L);
         user.setIdentificationNumber(identificationNumber);
 
-        when(userRepository.findByIdentificationNumber(identificationNumber)).thenReturn(Optional.of(user));
+        when(userCache.findByIdentificationNumber(identificationNumber)).thenReturn(Optional.of(cached(user)));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
 
         // Act
         userService.deleteByIdentificationNumber(identificationNumber);
 
         // Assert
         verify(userRepository, times(1)).delete(user);
+        verify(userCache).evict(identificationNumber);
     }
 
     @Test
     public void deleteByIdentificationNumberShouldThrowExceptionWhenUserNotFound() {
         // Arrange
         Long identificationNumber = 123456789L;
-        when(userRepository.findByIdentificationNumber(identificationNumber)).thenReturn(Optional.empty());
+        when(userCache.findByIdentificationNumber(identificationNumber)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(UserNotFoundException.class, () -> userService.deleteByIdentificationNumber(identificationNumber));
@@ -264,7 +279,8 @@ public class UserServiceImplTest {
         user.setId(1L);
         user.setIdentificationNumber(identificationNumber);
 
-        when(userRepository.findByIdentificationNumber(identificationNumber)).thenReturn(Optional.of(user));
+        when(userCache.findByIdentificationNumber(identificationNumber)).thenReturn(Optional.of(cached(user)));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
 
         // Act
         User result = userService.getUserEntityByIdentificationNumber(identificationNumber);
@@ -278,12 +294,32 @@ public class UserServiceImplTest {
     public void getUserEntityByIdentificationNumberShouldThrowExceptionWhenNotFound() {
         // Arrange
         Long identificationNumber = 123456789L;
-        when(userRepository.findByIdentificationNumber(identificationNumber)).thenReturn(Optional.empty());
+        when(userCache.findByIdentificationNumber(identificationNumber)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(UserNotFoundException.class, () -> userService.getUserEntityByIdentificationNumber(identificationNumber));
     }
 
+    @Test
+    public void getUserEntityByIdentificationNumberShouldEvictStaleCachedUser() {
+        // Arrange - cached user whose identification number has since changed
+        Long identificationNumber = 123456789L;
+        User user = new User();
+        user.setId(1L);
+        user.setIdentificationNumber(987654321L);
+
+        UserResponseDTO cachedUser = new UserResponseDTO();
+        cachedUser.setId(1L);
+        cachedUser.setIdentificationNumber(identificationNumber);
+
+        when(userCache.findByIdentificationNumber(identificationNumber)).thenReturn(Optional.of(cachedUser));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        // Act & Assert
+        assertThrows(UserNotFoundException.class, () -> userService.getUserEntityByIdentificationNumber(identificationNumber));
+        verify(userCache).evict(identificationNumber);
+    }
+
     @Test
     public void createUserShouldThrowExceptionWhenUserAlreadyExists() throws HttpClientException {
         // Arrange
@@ -291,10 +327,10 @@ public class UserServiceImplTest {
         userRequest.setBirthDate(LocalDate.now().minusYears(20));
         userRequest.setIdentificationNumber(123456789L);
 
-        User existingUser = new User();
+        UserResponseDTO existingUser = new UserResponseDTO();
         existingUser.setId(1L);
 
-        when(userRepository.findByIdentificationNumber(123456789L)).thenReturn(Optional.of(existingUser));
+        when(userCache.findByIdentificationNumber(123456789L)).thenReturn(Optional.of(existingUser));
 
         // Act & Assert
         assertThrows(DuplicateResourceException.class, () -> userService.createUser(userRequest));
@@ -302,17 +338,24 @@ public class UserServiceImplTest {
     }
 
     @Test
-    public void findAllShouldReturnEmptyListWhenNoUsers() {
+    public void findPageShouldReturnEmptyPageWhenNoUsersAfterCursor() {
         // Arrange
-        when(userRepository.findAll()).thenReturn(Arrays.asList());
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(eq(5L), any(Limit.class))).thenReturn(Arrays.asList());
         when(userMapper.toResponseDTOList(Arrays.asList())).thenReturn(Arrays.asList());
 
         // Act
-        List<UserResponseDTO> result = userService.findAll();
+        KeysetPageDTO<UserResponseDTO> result = userService.findPage(KeysetCursor.of(5L).encode(), 50);
 
         // Assert
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
+        assertTrue(result.getItems().isEmpty());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    public void findPageShouldRejectMalformedCursor() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> userService.findPage("not-a-cursor", 50));
+        verify(userRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
     }
 
     @Test
@@ -327,7 +370,8 @@ public class UserServiceImplTest {
         existingUser.setId(1L);
         existingUser.setIdentificationNumber(identificationNumber);
 
-        when(userRepository.findByIdentificationNumber(identificationNumber)).thenReturn(Optional.of(existingUser));
+        when(userCache.findByIdentificationNumber(identificationNumber)).thenReturn(Optional.of(cached(existingUser)));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
 
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () -> userService.updateUser(identificationNumber, userRequest));
@@ -367,4 +411,11 @@ public class UserServiceImplTest {
         // Assert
         assertFalse(result.isPresent());
     }
-}
\ No newline at end of file
+
+    private static UserResponseDTO cached(User user) {
+        UserResponseDTO userResponse = new UserResponseDTO();
+        userResponse.setId(user.getId());
+        userResponse.setIdentificationNumber(user.getIdentificationNumber());
+        return userResponse;
+    }
+}
@@ -0,0 +1,111 @@
+package com.banco_financiera.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RingBufferTest {
+
+    @Test
+    public void offerShouldFailWhenFullUntilTheConsumerFreesASlot() {
+        // Arrange
+        RingBuffer<Integer> ring = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+
+        // Act
+        boolean whenFull = ring.offer(4);
+        List<Integer> drained = new ArrayList<>();
+        ring.drainTo(drained, 1);
+        boolean afterDrain = ring.offer(4);
+
+        // Assert
+        assertFalse(whenFull);
+        assertTrue(afterDrain);
+        assertEquals(List.of(0), drained);
+        assertEquals(4, ring.size());
+    }
+
+    @Test
+    public void drainToShouldReturnElementsInOrderAcrossLaps() {
+        // Arrange
+        RingBuffer<Integer> ring = new RingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            ring.offer(i);
+            if (i % 3 == 2) {
+                ring.drainTo(drained, 2);
+            }
+        }
+        ring.drainTo(drained, 10);
+
+        // Assert
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), drained);
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    public void concurrentProducersShouldDeliverEveryElementOnce() throws InterruptedException {
+        // Arrange
+        RingBuffer<Integer> ring = new RingBuffer<>(64);
+        int producers = 4;
+        int perProducer = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int first = p * perProducer;
+            Thread thread = new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = first; i < first + perProducer; i++) {
+                    while (!ring.offer(i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        // Act
+        start.countDown();
+        Set<Integer> seen = new HashSet<>();
+        List<Integer> batch = new ArrayList<>();
+        while (seen.size() < producers * perProducer) {
+            batch.clear();
+            ring.drainTo(batch, 32);
+            for (Integer element : batch) {
+                assertTrue(seen.add(element), "delivered twice: " + element);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Assert
+        assertTrue(ring.isEmpty());
+        assertEquals(producers * perProducer, seen.size());
+    }
+
+    @Test
+    public void constructorShouldRejectCapacityThatIsNotAPowerOfTwo() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<Integer>(100));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
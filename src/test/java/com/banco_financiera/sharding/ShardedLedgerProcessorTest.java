@@ -0,0 +1,388 @@
+package com.banco_financiera.sharding;
+
+import com.banco_financiera.cache.ProductCache;
+import com.banco_financiera.cache.ProductSummary;
+import com.banco_financiera.enums.TransactionType;
+import com.banco_financiera.exception.business.AccountInactiveException;
+import com.banco_financiera.exception.business.InsufficientFundsException;
+import com.banco_financiera.exception.business.TransferToSameAccountException;
+import com.banco_financiera.exception.service.ShardTimeoutException;
+import com.banco_financiera.locking.AccountLockManager;
+import com.banco_financiera.locking.BalanceMutationExecutor;
+import com.banco_financiera.models.Product;
+import com.banco_financiera.models.Transaction;
+import com.banco_financiera.repositories.AccountBalanceView;
+import com.banco_financiera.repositories.ProductRepository;
+import com.banco_financiera.repositories.TransactionRepository;
+import com.banco_financiera.services.ILedgerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ShardedLedgerProcessorTest {
+
+    ShardedLedgerProcessor processor;
+
+    @Mock
+    TransactionRepository transactionRepository;
+
+    @Mock
+    ProductRepository productRepository;
+
+    @Mock
+    ILedgerService ledgerService;
+
+    @Mock
+    AccountLockManager accountLockManager;
+
+    /** Rows saved by the shards, in commit order */
+    final List<Transaction> saved = Collections.synchronizedList(new ArrayList<>());
+    final AtomicInteger failingCommits = new AtomicInteger();
+    final RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+
+    @BeforeEach
+    public void setUp() {
+        AtomicLong ids = new AtomicLong();
+        lenient().when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            if (failingCommits.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                throw new IllegalStateException("connection reset");
+            }
+            List<Transaction> rows = invocation.getArgument(0);
+            rows.forEach(row -> row.setId(ids.incrementAndGet()));
+            saved.addAll(rows);
+            return rows;
+        });
+        lenient().when(productRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            Product product = new Product();
+            product.setId(invocation.getArgument(0));
+            return product;
+        });
+        // Every account exists, is active and opens its ledger with 1000
+        lenient().when(productRepository.findBalancesByIdIn(anyList())).thenAnswer(invocation ->
+                invocation.<List<Long>>getArgument(0).stream().map(id -> account(id, 1000L)).toList());
+        lenient().when(ledgerService.openForAppend(anyLong(), anyLong())).thenAnswer(invocation -> invocation.getArgument(1));
+        lenient().when(productRepository.findSummaryById(anyLong())).thenAnswer(invocation ->
+                Optional.of(summary(invocation.getArgument(0), "ACTIVE")));
+        processor = processor(64, 2000);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        processor.stop();
+    }
+
+    @Test
+    public void applyShouldKeepTheBalanceInMemoryAfterOpeningTheLedgerOnce() {
+        // Arrange
+        processor.start();
+
+        // Act
+        Transaction deposit = processor.apply(TransactionType.DEPOSIT, 1L, null, 500L);
+        InsufficientFundsException rejection = assertThrows(InsufficientFundsException.class,
+                () -> processor.apply(TransactionType.WITHDRAW, 1L, null, 2000L));
+        Transaction withdrawal = processor.apply(TransactionType.WITHDRAW, 1L, null, 1500L);
+
+        // Assert
+        assertEquals(1500L, deposit.getRunningBalance());
+        assertEquals("INSUFFICIENT_FUNDS", rejection.getErrorCode());
+        assertEquals(0L, withdrawal.getRunningBalance());
+        verify(ledgerService, times(1)).openForAppend(1L, 1000L);
+        verify(accountLockManager, times(3)).lockAccounts(1L);
+    }
+
+    @Test
+    public void crossShardTransferShouldCompleteOnceTheCreditIsCommitted() {
+        // Arrange
+        processor.start();
+
+        // Act
+        Transaction debit = processor.apply(TransactionType.TRANSFER, 1L, 2L, 400L);
+
+        // Assert
+        assertNotEquals(processor.shardOf(1L), processor.shardOf(2L));
+        assertEquals(600L, debit.getRunningBalance());
+        assertEquals(2L, debit.getPendingCreditProductId());
+        Transaction credit = creditOf(debit.getTransferId());
+        assertEquals(2L, credit.getProduct().getId());
+        assertEquals(1400L, credit.getRunningBalance());
+        verify(transactionRepository).clearPendingCredits(List.of(debit.getId()));
+    }
+
+    @Test
+    public void sameShardTransferShouldCommitBothLegsTogether() {
+        // Arrange
+        processor.start();
+
+        // Act
+        Transaction debit = processor.apply(TransactionType.TRANSFER, 1L, 3L, 400L);
+
+        // Assert
+        assertNull(debit.getPendingCreditProductId());
+        assertEquals(1400L, creditOf(debit.getTransferId()).getRunningBalance());
+        verify(transactionRepository, times(1)).saveAll(anyList());
+        verify(transactionRepository, never()).clearPendingCredits(anyList());
+    }
+
+    @Test
+    public void startShouldCreditTransfersLeftPendingByTheLastStop() {
+        // Arrange
+        Transaction pending = new Transaction();
+        pending.setId(7L);
+        pending.setAmount(300L);
+        pending.setTransferId(UUID.randomUUID());
+        pending.setPendingCreditProductId(2L);
+        when(transactionRepository.findByPendingCreditProductIdIsNotNullOrderByIdAsc()).thenReturn(List.of(pending));
+
+        // Act
+        processor.start();
+
+        // Assert
+        verify(transactionRepository, timeout(2000)).clearPendingCredits(List.of(7L));
+        assertEquals(1300L, creditOf(pending.getTransferId()).getRunningBalance());
+    }
+
+    @Test
+    public void failedCommitShouldLeaveTheBalanceInMemoryUntouched() {
+        // Arrange
+        failingCommits.set(1);
+        processor.start();
+
+        // Act
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> processor.apply(TransactionType.DEPOSIT, 1L, null, 500L));
+        Transaction deposit = processor.apply(TransactionType.DEPOSIT, 1L, null, 200L);
+
+        // Assert
+        assertEquals("connection reset", failure.getMessage());
+        assertEquals(1200L, deposit.getRunningBalance());
+    }
+
+    @Test
+    public void inactiveAccountShouldOnlyRejectItsOwnOperationInABatch() {
+        // Arrange: both operations land in the same batch of the same shard
+        when(productRepository.findSummaryById(3L)).thenReturn(Optional.of(summary(3L, "INACTIVE")));
+        CompletableFuture<Transaction> deposit = processor.submit(TransactionType.DEPOSIT, 1L, null, 500L);
+        CompletableFuture<Transaction> rejected = processor.submit(TransactionType.DEPOSIT, 3L, null, 500L);
+
+        // Act
+        processor.start();
+
+        // Assert
+        assertEquals(processor.shardOf(1L), processor.shardOf(3L));
+        assertEquals(1500L, deposit.orTimeout(2, TimeUnit.SECONDS).join().getRunningBalance());
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> rejected.orTimeout(2, TimeUnit.SECONDS).join());
+        assertInstanceOf(AccountInactiveException.class, failure.getCause());
+        assertEquals(1, transactionManager.commits.get());
+        assertEquals(0, transactionManager.rollbacks.get());
+    }
+
+    @Test
+    public void overflowingOperationShouldOnlyRejectItselfInABatch() {
+        // Arrange
+        Shard shard = shard();
+        LedgerOperation overflow = LedgerOperation.submitted(TransactionType.DEPOSIT, 1L, null, Long.MAX_VALUE, false, null);
+        LedgerOperation deposit = LedgerOperation.submitted(TransactionType.DEPOSIT, 1L, null, 500L, false, null);
+
+        // Act
+        boolean committed = shard.process(List.of(overflow, deposit));
+
+        // Assert
+        assertTrue(committed);
+        CompletionException failure = assertThrows(CompletionException.class, () -> overflow.result.join());
+        assertInstanceOf(ArithmeticException.class, failure.getCause());
+        assertEquals(1500L, deposit.result.join().getRunningBalance());
+        assertEquals(1, saved.size());
+        assertEquals(1, transactionManager.commits.get());
+    }
+
+    @Test
+    public void failedSettleHookShouldSkipOnlyItsOperation() {
+        // Arrange
+        Shard shard = shard();
+        LedgerOperation alreadySettled = LedgerOperation.submitted(TransactionType.DEPOSIT, 1L, null, 500L, false,
+                entry -> {
+                    throw new IllegalStateException("already settled");
+                });
+        LedgerOperation deposit = LedgerOperation.submitted(TransactionType.DEPOSIT, 1L, null, 200L, false, null);
+
+        // Act
+        boolean committed = shard.process(List.of(alreadySettled, deposit));
+
+        // Assert
+        assertTrue(committed);
+        CompletionException failure = assertThrows(CompletionException.class, () -> alreadySettled.result.join());
+        assertEquals("already settled", failure.getCause().getMessage());
+        assertEquals(1200L, deposit.result.join().getRunningBalance(), "the skipped deposit must not count");
+        verify(transactionRepository, times(1)).deleteAll(anyIterable());
+        assertEquals(1, transactionManager.commits.get());
+    }
+
+    @Test
+    public void submitShouldRejectTransferToSameAccountWithoutQueueing() {
+        // Act & Assert
+        assertThrows(TransferToSameAccountException.class,
+                () -> processor.submit(TransactionType.TRANSFER, 1L, 1L, 100L));
+    }
+
+    @Test
+    public void submitShouldTimeOutWhenTheRingBufferStaysFull() throws InterruptedException {
+        // Arrange: shards not started, so nothing is consumed
+        processor.stop();
+        processor = processor(2, 50);
+        processor.submit(TransactionType.DEPOSIT, 1L, null, 100L);
+        processor.submit(TransactionType.DEPOSIT, 1L, null, 100L);
+
+        // Act & Assert
+        assertThrows(ShardTimeoutException.class, () -> processor.submit(TransactionType.DEPOSIT, 1L, null, 100L));
+    }
+
+    private ShardedLedgerProcessor processor(int ringSize, long timeoutMillis) {
+        BalanceMutationExecutor executor = new BalanceMutationExecutor(new TransactionTemplate(transactionManager),
+                accountLockManager, new SimpleMeterRegistry(), "pessimistic", 3, 0, 0, 2.0);
+        ProductCache productCache = new ProductCache(productRepository, event -> {
+        }, new SimpleMeterRegistry(), 100, 60);
+        return new ShardedLedgerProcessor(transactionRepository, productRepository, productCache, ledgerService,
+                executor, new SimpleMeterRegistry(), "sharded", 2, ringSize, 100, 1000, timeoutMillis);
+    }
+
+    /**
+     * A single shard, driven directly so that a test decides what goes in one batch
+     */
+    private Shard shard() {
+        BalanceMutationExecutor executor = new BalanceMutationExecutor(new TransactionTemplate(transactionManager),
+                accountLockManager, new SimpleMeterRegistry(), "pessimistic", 3, 0, 0, 2.0);
+        ProductCache productCache = new ProductCache(productRepository, event -> {
+        }, new SimpleMeterRegistry(), 100, 60);
+        return new Shard(0, 64, 100, 1000, transactionRepository, productRepository, productCache, ledgerService,
+                executor, credit -> {
+        }, new SimpleMeterRegistry());
+    }
+
+    private Transaction creditOf(UUID transferId) {
+        synchronized (saved) {
+            return saved.stream()
+                    .filter(row -> TransactionType.TRANSFER_IN.name().equals(row.getTransactionType()))
+                    .filter(row -> transferId.equals(row.getTransferId()))
+                    .findFirst()
+                    .orElseThrow();
+        }
+    }
+
+    private static ProductSummary summary(Long id, String status) {
+        return new ProductSummary(id, "savings", "53" + id, status, false, 7L);
+    }
+
+    private static AccountBalanceView account(Long id, long balance) {
+        return new AccountBalanceView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getStatus() {
+                return "ACTIVE";
+            }
+
+            @Override
+            public long getAccountBalance() {
+                return balance;
+            }
+
+            @Override
+            public Long getVersion() {
+                return 0L;
+            }
+        };
+    }
+
+    /**
+     * Drives a real TransactionTemplate, synchronization and rollback-only handling included, without a
+     * database: a participant marking the transaction rollback-only fails its commit as it would in production
+     */
+    static final class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+
+        final AtomicInteger commits = new AtomicInteger();
+        final AtomicInteger rollbacks = new AtomicInteger();
+
+        @Override
+        protected Object doGetTransaction() {
+            Object current = TransactionSynchronizationManager.getResource(this);
+            return current != null ? current : new RecordedTransaction();
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return TransactionSynchronizationManager.hasResource(this);
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            TransactionSynchronizationManager.bindResource(this, transaction);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rollbacks.incrementAndGet();
+        }
+
+        @Override
+        protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+            ((RecordedTransaction) status.getTransaction()).rollbackOnly = true;
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            TransactionSynchronizationManager.unbindResource(this);
+        }
+    }
+
+    private static final class RecordedTransaction implements SmartTransactionObject {
+
+        private boolean rollbackOnly;
+
+        @Override
+        public boolean isRollbackOnly() {
+            return rollbackOnly;
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.banco_financiera.utils;
+
+import com.banco_financiera.exception.business.InsufficientFundsException;
+import com.banco_financiera.exception.service.TransactionProcessingException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExceptionCausesTest {
+
+    @Test
+    public void businessCauseShouldFindAWrappedRejection() {
+        // Arrange
+        InsufficientFundsException rejection = new InsufficientFundsException(1L, 100L, 500L);
+        RuntimeException wrapped = new TransactionProcessingException("WITHDRAW", 1L, "Failed", rejection);
+
+        // Act & Assert
+        assertSame(rejection, ExceptionCauses.businessCause(wrapped));
+        assertTrue(ExceptionCauses.isBusinessRejection(wrapped));
+    }
+
+    @Test
+    public void businessCauseShouldBeNullForATechnicalFailure() {
+        // Arrange
+        RuntimeException failure = new IllegalStateException("connection reset", new RuntimeException("timeout"));
+
+        // Act & Assert
+        assertNull(ExceptionCauses.businessCause(failure));
+        assertFalse(ExceptionCauses.isBusinessRejection(failure));
+    }
+
+    @Test
+    public void findShouldReturnTheOutermostMatch() {
+        // Arrange
+        IllegalStateException inner = new IllegalStateException("inner");
+        IllegalStateException outer = new IllegalStateException("outer", inner);
+
+        // Act & Assert
+        assertSame(outer, ExceptionCauses.find(new RuntimeException(outer), IllegalStateException.class));
+    }
+}
@@ -0,0 +1,88 @@
+package com.banco_financiera.utils;
+
+import com.banco_financiera.dto.TransactionRequestDTO;
+import com.banco_financiera.models.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    public void parseShouldConvertMajorUnitsToMinorUnits() {
+        assertEquals(200000L, Money.parse("2000"));
+        assertEquals(125075L, Money.parse("1250.75"));
+        assertEquals(50L, Money.parse("0.5"));
+        assertEquals(-50L, Money.parse("-0.50"));
+        assertEquals(1L, Money.parse("0.010"));
+        assertEquals(150000L, Money.parse("1.5e3"));
+    }
+
+    @Test
+    public void parseShouldRejectMoreThanTwoDecimals() {
+        assertThrows(ArithmeticException.class, () -> Money.parse("10.005"));
+    }
+
+    @Test
+    public void parseShouldRejectInvalidText() {
+        assertThrows(NumberFormatException.class, () -> Money.parse("12a"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("-"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("1.2.3"));
+    }
+
+    @Test
+    public void parseShouldRejectOverflow() {
+        assertThrows(ArithmeticException.class, () -> Money.parse("92233720368547758.08"));
+    }
+
+    @Test
+    public void formatShouldAlwaysWriteTwoDecimals() {
+        assertEquals("0.00", Money.format(0L));
+        assertEquals("0.05", Money.format(5L));
+        assertEquals("1250.75", Money.format(125075L));
+        assertEquals("-3.10", Money.format(-310L));
+        assertEquals("-92233720368547758.08", Money.format(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void arithmeticShouldFailOnOverflow() {
+        assertEquals(300L, Money.add(100L, 200L));
+        assertEquals(-100L, Money.subtract(100L, 200L));
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1L));
+        assertThrows(ArithmeticException.class, () -> Money.subtract(Long.MIN_VALUE, 1L));
+    }
+
+    @Test
+    public void decimalConversionShouldRoundTrip() {
+        assertEquals(123456L, Money.fromDecimal(new BigDecimal("1234.56")));
+        assertEquals(new BigDecimal("1234.56"), Money.toDecimal(123456L));
+        assertThrows(ArithmeticException.class, () -> Money.fromDecimal(new BigDecimal("0.001")));
+    }
+
+    @Test
+    public void jsonShouldUseMajorUnits() throws Exception {
+        // Arrange
+        TransactionRequestDTO request = objectMapper.readValue("{\"amount\": 2000.5}", TransactionRequestDTO.class);
+        Transaction transaction = new Transaction();
+        transaction.setAmount(request.getAmount());
+
+        // Act
+        String json = objectMapper.writeValueAsString(transaction);
+
+        // Assert
+        assertEquals(200050L, request.getAmount());
+        assertTrue(json.contains("\"amount\":2000.50"));
+    }
+
+    @Test
+    public void jsonShouldRejectFractionalCents() {
+        assertThrows(InvalidFormatException.class, () ->
+                objectMapper.readValue("{\"amount\": 1.234}", TransactionRequestDTO.class));
+    }
+}